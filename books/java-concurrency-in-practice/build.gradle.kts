@@ -3,4 +3,7 @@
 
 dependencies {
     implementation("org.springframework.boot:spring-boot-starter-web")
+
+    testImplementation("org.openjdk.jmh:jmh-core")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
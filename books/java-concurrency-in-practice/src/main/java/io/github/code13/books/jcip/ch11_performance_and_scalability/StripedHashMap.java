@@ -0,0 +1,555 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.books.jcip.ch11_performance_and_scalability;
+
+import io.github.code13.books.jcip.ThreadSafe;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 完整版的 {@link StripedMap}：锁分段的并发哈希表。
+ *
+ * <p>与 {@link StripedMap} 所有桶共用一个数组、按 {@code n % N_LOCKS} 找锁不同，这里每个分段（stripe）有自己的桶数组、元素计数和锁，
+ * 相当于 JDK 7 的 {@code ConcurrentHashMap}：
+ *
+ * <ul>
+ *   <li>哈希值的高位选分段、低位选桶，两者互不相关；
+ *   <li>分段超过负载因子时只扩容自己（渐进地按分段扩容），其他分段的读写不受影响；
+ *   <li>分段数在构造时指定，向上取到 2 的幂，决定了写操作的最大并行度。
+ * </ul>
+ *
+ * <p>分段的锁有三种实现，见 {@link LockMode}。键、值都不能为 {@code null}，{@code get} 返回 {@code null} 即表示不存在。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 22:40
+ */
+@ThreadSafe
+public class StripedHashMap<K, V> {
+
+  private static final int MAX_STRIPES = 1 << 16;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+  private static final float LOAD_FACTOR = 0.75f;
+
+  private final Segment<K, V>[] segments;
+  private final int segmentShift;
+  private final int segmentMask;
+
+  /** 与 {@link StripedMap} 一样 16 个分段。 */
+  public StripedHashMap(LockMode mode) {
+    this(16, 16, mode);
+  }
+
+  @SuppressWarnings("unchecked")
+  public StripedHashMap(int stripes, int initialCapacity, LockMode mode) {
+    if (stripes < 1 || stripes > MAX_STRIPES) {
+      throw new IllegalArgumentException("stripes must be in [1, " + MAX_STRIPES + "]: " + stripes);
+    }
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException(
+          "initialCapacity must not be negative: " + initialCapacity);
+    }
+    int n = tableSizeFor(stripes);
+    int perSegment = tableSizeFor((int) Math.ceil(initialCapacity / (double) n / LOAD_FACTOR));
+    segments = new Segment[n];
+    for (int i = 0; i < n; i++) {
+      segments[i] =
+          switch (mode) {
+            case MONITOR -> new MonitorSegment<>(perSegment);
+            case READ_WRITE -> new ReadWriteSegment<>(perSegment);
+            case STAMPED -> new StampedSegment<>(perSegment);
+          };
+    }
+    segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+    segmentMask = n - 1;
+  }
+
+  /** 分段的加锁方式。 */
+  public enum LockMode {
+
+    /** 每个分段一个内置锁，读写互斥，与 {@link StripedMap} 相同。 */
+    MONITOR,
+
+    /** {@link ReentrantReadWriteLock}，读读并行；读锁本身要 CAS 一个共享计数，读多时这个计数成为热点。 */
+    READ_WRITE,
+
+    /** {@link StampedLock}，读先乐观地不加锁，写入期间验证失败再退回读锁；读路径上没有共享写，读多时伸缩性最好。 */
+    STAMPED
+  }
+
+  static int tableSizeFor(int capacity) {
+    int n = -1 >>> Integer.numberOfLeadingZeros(Math.max(1, capacity) - 1);
+    return n < 1 ? 1 : Math.min(n + 1, MAXIMUM_CAPACITY);
+  }
+
+  /** 乘法散列让高位也依赖低位（连续的整数键也能打散到各分段），再把高位异或进低位。 */
+  static int spread(int h) {
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private Segment<K, V> segmentFor(int hash) {
+    return segments[(hash >>> segmentShift) & segmentMask];
+  }
+
+  public V get(Object key) {
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).get(key, hash);
+  }
+
+  public boolean containsKey(Object key) {
+    return get(key) != null;
+  }
+
+  public V put(K key, V value) {
+    Objects.requireNonNull(value);
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).put(key, hash, value, false);
+  }
+
+  public V putIfAbsent(K key, V value) {
+    Objects.requireNonNull(value);
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).put(key, hash, value, true);
+  }
+
+  public V remove(Object key) {
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).remove(key, hash);
+  }
+
+  /**
+   * 与 {@link java.util.Map#compute} 语义相同，{@code remapping} 返回 {@code null} 表示删除。
+   *
+   * <p>{@code remapping} 在分段的写锁内执行，应当很短，且不能再访问本 map（{@link StampedLock} 不可重入，会死锁）。
+   */
+  public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remapping) {
+    Objects.requireNonNull(remapping);
+    int hash = spread(key.hashCode());
+    return segmentFor(hash).compute(key, hash, remapping);
+  }
+
+  /** 已存在时只走读路径，不拿写锁。限制同 {@link #compute}。 */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mapping) {
+    Objects.requireNonNull(mapping);
+    int hash = spread(key.hashCode());
+    Segment<K, V> segment = segmentFor(hash);
+    V value = segment.get(key, hash);
+    if (value != null) {
+      return value;
+    }
+    return segment.compute(key, hash, (k, v) -> v != null ? v : mapping.apply(k));
+  }
+
+  /** 逐个分段加读锁求和，并发修改时只是一个估计值。 */
+  public int size() {
+    long size = 0;
+    for (Segment<K, V> segment : segments) {
+      size += segment.size();
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /** 逐个分段清空，不是原子的。 */
+  public void clear() {
+    for (Segment<K, V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /** 逐个分段在读锁内遍历，{@code action} 不能修改本 map。 */
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    Objects.requireNonNull(action);
+    for (Segment<K, V> segment : segments) {
+      segment.forEach(action);
+    }
+  }
+
+  int stripes() {
+    return segments.length;
+  }
+
+  int capacityOf(int stripe) {
+    return segments[stripe].table.length;
+  }
+
+  private static final class Node<K, V> {
+    final int hash;
+    final K key;
+    V value;
+    Node<K, V> next;
+
+    Node(int hash, K key, V value, Node<K, V> next) {
+      this.hash = hash;
+      this.key = key;
+      this.value = value;
+      this.next = next;
+    }
+  }
+
+  /**
+   * 一个分段：单线程的链地址哈希表，加锁由子类负责。
+   *
+   * <p>新节点总是插在链头，删除只把前驱的 {@code next} 跳过被删节点，扩容复制出新节点而不改旧链，所以 {@code next} 永远指向更早插入的节点。
+   * 乐观读即使看到写了一半的链，也只会漏掉或多看到节点，不会成环，随后的验证会发现并重试。
+   */
+  private abstract static class Segment<K, V> {
+
+    Node<K, V>[] table;
+    int count;
+
+    Segment(int capacity) {
+      table = newTable(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] newTable(int capacity) {
+      return (Node<K, V>[]) new Node[capacity];
+    }
+
+    abstract V get(Object key, int hash);
+
+    abstract V put(K key, int hash, V value, boolean onlyIfAbsent);
+
+    abstract V remove(Object key, int hash);
+
+    abstract V compute(K key, int hash, BiFunction<? super K, ? super V, ? extends V> remapping);
+
+    abstract int size();
+
+    abstract void clear();
+
+    abstract void forEach(BiConsumer<? super K, ? super V> action);
+
+    final V find(Object key, int hash) {
+      Node<K, V>[] tab = table;
+      for (Node<K, V> n = tab[hash & (tab.length - 1)]; n != null; n = n.next) {
+        if (n.hash == hash && (n.key == key || key.equals(n.key))) {
+          return n.value;
+        }
+      }
+      return null;
+    }
+
+    final V doPut(K key, int hash, V value, boolean onlyIfAbsent) {
+      Node<K, V>[] tab = table;
+      int i = hash & (tab.length - 1);
+      for (Node<K, V> n = tab[i]; n != null; n = n.next) {
+        if (n.hash == hash && (n.key == key || key.equals(n.key))) {
+          V old = n.value;
+          if (!onlyIfAbsent) {
+            n.value = value;
+          }
+          return old;
+        }
+      }
+      insert(tab, i, key, hash, value);
+      return null;
+    }
+
+    final V doRemove(Object key, int hash) {
+      Node<K, V>[] tab = table;
+      int i = hash & (tab.length - 1);
+      for (Node<K, V> n = tab[i], pred = null; n != null; pred = n, n = n.next) {
+        if (n.hash == hash && (n.key == key || key.equals(n.key))) {
+          unlink(tab, i, pred, n);
+          return n.value;
+        }
+      }
+      return null;
+    }
+
+    final V doCompute(K key, int hash, BiFunction<? super K, ? super V, ? extends V> remapping) {
+      Node<K, V>[] tab = table;
+      int i = hash & (tab.length - 1);
+      for (Node<K, V> n = tab[i], pred = null; n != null; pred = n, n = n.next) {
+        if (n.hash == hash && (n.key == key || key.equals(n.key))) {
+          V value = remapping.apply(key, n.value);
+          if (value == null) {
+            unlink(tab, i, pred, n);
+          } else {
+            n.value = value;
+          }
+          return value;
+        }
+      }
+      V value = remapping.apply(key, null);
+      if (value != null) {
+        insert(tab, i, key, hash, value);
+      }
+      return value;
+    }
+
+    final void doClear() {
+      table = newTable(table.length);
+      count = 0;
+    }
+
+    final void doForEach(BiConsumer<? super K, ? super V> action) {
+      for (Node<K, V> head : table) {
+        for (Node<K, V> n = head; n != null; n = n.next) {
+          action.accept(n.key, n.value);
+        }
+      }
+    }
+
+    private void insert(Node<K, V>[] tab, int i, K key, int hash, V value) {
+      Objects.requireNonNull(key);
+      tab[i] = new Node<>(hash, key, value, tab[i]);
+      if (++count > tab.length * LOAD_FACTOR && tab.length < MAXIMUM_CAPACITY) {
+        resize(tab);
+      }
+    }
+
+    private void unlink(Node<K, V>[] tab, int i, Node<K, V> pred, Node<K, V> n) {
+      if (pred == null) {
+        tab[i] = n.next;
+      } else {
+        pred.next = n.next;
+      }
+      count--;
+    }
+
+    /** 复制节点而不是挪动，旧表保持原样，正在旧表上乐观读的线程看到的仍是完整的链。 */
+    private void resize(Node<K, V>[] old) {
+      Node<K, V>[] tab = newTable(old.length << 1);
+      int mask = tab.length - 1;
+      for (Node<K, V> head : old) {
+        for (Node<K, V> n = head; n != null; n = n.next) {
+          int i = n.hash & mask;
+          tab[i] = new Node<>(n.hash, n.key, n.value, tab[i]);
+        }
+      }
+      table = tab;
+    }
+  }
+
+  private static final class MonitorSegment<K, V> extends Segment<K, V> {
+
+    MonitorSegment(int capacity) {
+      super(capacity);
+    }
+
+    @Override
+    synchronized V get(Object key, int hash) {
+      return find(key, hash);
+    }
+
+    @Override
+    synchronized V put(K key, int hash, V value, boolean onlyIfAbsent) {
+      return doPut(key, hash, value, onlyIfAbsent);
+    }
+
+    @Override
+    synchronized V remove(Object key, int hash) {
+      return doRemove(key, hash);
+    }
+
+    @Override
+    synchronized V compute(
+        K key, int hash, BiFunction<? super K, ? super V, ? extends V> remapping) {
+      return doCompute(key, hash, remapping);
+    }
+
+    @Override
+    synchronized int size() {
+      return count;
+    }
+
+    @Override
+    synchronized void clear() {
+      doClear();
+    }
+
+    @Override
+    synchronized void forEach(BiConsumer<? super K, ? super V> action) {
+      doForEach(action);
+    }
+  }
+
+  private static final class ReadWriteSegment<K, V> extends Segment<K, V> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    ReadWriteSegment(int capacity) {
+      super(capacity);
+    }
+
+    @Override
+    V get(Object key, int hash) {
+      lock.readLock().lock();
+      try {
+        return find(key, hash);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    @Override
+    V put(K key, int hash, V value, boolean onlyIfAbsent) {
+      lock.writeLock().lock();
+      try {
+        return doPut(key, hash, value, onlyIfAbsent);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    @Override
+    V remove(Object key, int hash) {
+      lock.writeLock().lock();
+      try {
+        return doRemove(key, hash);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    @Override
+    V compute(K key, int hash, BiFunction<? super K, ? super V, ? extends V> remapping) {
+      lock.writeLock().lock();
+      try {
+        return doCompute(key, hash, remapping);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    @Override
+    int size() {
+      lock.readLock().lock();
+      try {
+        return count;
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    @Override
+    void clear() {
+      lock.writeLock().lock();
+      try {
+        doClear();
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    @Override
+    void forEach(BiConsumer<? super K, ? super V> action) {
+      lock.readLock().lock();
+      try {
+        doForEach(action);
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+  }
+
+  private static final class StampedSegment<K, V> extends Segment<K, V> {
+
+    private final StampedLock lock = new StampedLock();
+
+    StampedSegment(int capacity) {
+      super(capacity);
+    }
+
+    @Override
+    V get(Object key, int hash) {
+      long stamp = lock.tryOptimisticRead();
+      if (stamp != 0) {
+        V value = find(key, hash);
+        if (lock.validate(stamp)) {
+          return value;
+        }
+      }
+      stamp = lock.readLock();
+      try {
+        return find(key, hash);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    @Override
+    V put(K key, int hash, V value, boolean onlyIfAbsent) {
+      long stamp = lock.writeLock();
+      try {
+        return doPut(key, hash, value, onlyIfAbsent);
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    @Override
+    V remove(Object key, int hash) {
+      long stamp = lock.writeLock();
+      try {
+        return doRemove(key, hash);
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    @Override
+    V compute(K key, int hash, BiFunction<? super K, ? super V, ? extends V> remapping) {
+      long stamp = lock.writeLock();
+      try {
+        return doCompute(key, hash, remapping);
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    @Override
+    int size() {
+      long stamp = lock.readLock();
+      try {
+        return count;
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    @Override
+    void clear() {
+      long stamp = lock.writeLock();
+      try {
+        doClear();
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    @Override
+    void forEach(BiConsumer<? super K, ? super V> action) {
+      long stamp = lock.readLock();
+      try {
+        doForEach(action);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+  }
+}
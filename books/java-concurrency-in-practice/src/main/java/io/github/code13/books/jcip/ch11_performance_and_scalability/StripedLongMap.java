@@ -0,0 +1,326 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.books.jcip.ch11_performance_and_scalability;
+
+import io.github.code13.books.jcip.ThreadSafe;
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+
+/**
+ * {@code long} 键的 {@link StripedHashMap}，省掉 {@code Long} 装箱和链表节点。
+ *
+ * <p>每个分段是一张开放寻址（线性探测）表：键存在 {@code long[]}、值存在 {@code Object[]} 里，值为 {@code null} 的槽位是空位；删除用
+ * backward-shift 把后面的元素前移，不留墓碑。分段的锁固定用 {@link StampedLock}，读操作先乐观读。
+ *
+ * <p>一百万个元素，{@code StripedHashMap<Long, V>} 要一百万个 {@code Long} 和一百万个节点，这里只有两个数组。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 23:05
+ */
+@ThreadSafe
+public class StripedLongMap<V> {
+
+  private static final int MAX_STRIPES = 1 << 16;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private final Segment<V>[] segments;
+  private final int segmentShift;
+  private final int segmentMask;
+
+  public StripedLongMap() {
+    this(16, 16);
+  }
+
+  @SuppressWarnings("unchecked")
+  public StripedLongMap(int stripes, int initialCapacity) {
+    if (stripes < 1 || stripes > MAX_STRIPES) {
+      throw new IllegalArgumentException("stripes must be in [1, " + MAX_STRIPES + "]: " + stripes);
+    }
+    if (initialCapacity < 0) {
+      throw new IllegalArgumentException(
+          "initialCapacity must not be negative: " + initialCapacity);
+    }
+    int n = StripedHashMap.tableSizeFor(stripes);
+    int perSegment =
+        StripedHashMap.tableSizeFor(
+            Math.max(2, (int) Math.ceil(initialCapacity / (double) n / LOAD_FACTOR)));
+    segments = new Segment[n];
+    for (int i = 0; i < n; i++) {
+      segments[i] = new Segment<>(perSegment);
+    }
+    segmentShift = 32 - Integer.numberOfTrailingZeros(n);
+    segmentMask = n - 1;
+  }
+
+  static int spread(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private Segment<V> segmentFor(int hash) {
+    return segments[(hash >>> segmentShift) & segmentMask];
+  }
+
+  public V get(long key) {
+    int hash = spread(key);
+    return segmentFor(hash).get(key, hash);
+  }
+
+  public boolean containsKey(long key) {
+    return get(key) != null;
+  }
+
+  public V put(long key, V value) {
+    Objects.requireNonNull(value);
+    int hash = spread(key);
+    return segmentFor(hash).put(key, hash, value, false);
+  }
+
+  public V putIfAbsent(long key, V value) {
+    Objects.requireNonNull(value);
+    int hash = spread(key);
+    return segmentFor(hash).put(key, hash, value, true);
+  }
+
+  public V remove(long key) {
+    int hash = spread(key);
+    return segmentFor(hash).remove(key, hash);
+  }
+
+  /** 已存在时只走乐观读；{@code mapping} 在写锁内执行，不能再访问本 map，返回 {@code null} 时不插入。 */
+  public V computeIfAbsent(long key, LongFunction<? extends V> mapping) {
+    Objects.requireNonNull(mapping);
+    int hash = spread(key);
+    Segment<V> segment = segmentFor(hash);
+    V value = segment.get(key, hash);
+    return value != null ? value : segment.computeIfAbsent(key, hash, mapping);
+  }
+
+  /** 逐个分段加读锁求和，并发修改时只是一个估计值。 */
+  public int size() {
+    long size = 0;
+    for (Segment<V> segment : segments) {
+      size += segment.size();
+    }
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /** 逐个分段清空，不是原子的。 */
+  public void clear() {
+    for (Segment<V> segment : segments) {
+      segment.clear();
+    }
+  }
+
+  /** 键和值放在同一个对象里一次发布，乐观读不会拿到一新一旧、长度不同的两个数组。 */
+  private record Table(long[] keys, Object[] values) {
+
+    Table(int capacity) {
+      this(new long[capacity], new Object[capacity]);
+    }
+
+    int mask() {
+      return keys.length - 1;
+    }
+  }
+
+  private static final class Segment<V> {
+
+    private final StampedLock lock = new StampedLock();
+    private Table table;
+    private int count;
+
+    Segment(int capacity) {
+      table = new Table(capacity);
+    }
+
+    V get(long key, int hash) {
+      long stamp = lock.tryOptimisticRead();
+      if (stamp != 0) {
+        V value = find(key, hash);
+        if (lock.validate(stamp)) {
+          return value;
+        }
+      }
+      stamp = lock.readLock();
+      try {
+        return find(key, hash);
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    /** 表至少有一半是空位，探测最多一圈；乐观读看到的表再乱也不会死循环。 */
+    @SuppressWarnings("unchecked")
+    private V find(long key, int hash) {
+      Table tab = table;
+      int mask = tab.mask();
+      for (int i = hash & mask, probes = 0; probes <= mask; i = (i + 1) & mask, probes++) {
+        Object value = tab.values()[i];
+        if (value == null) {
+          return null;
+        }
+        if (tab.keys()[i] == key) {
+          return (V) value;
+        }
+      }
+      return null;
+    }
+
+    /** 返回键所在的槽位，不存在时返回应插入的空位取反（负数）。 */
+    private int indexOf(Table tab, long key, int hash) {
+      int mask = tab.mask();
+      for (int i = hash & mask; ; i = (i + 1) & mask) {
+        if (tab.values()[i] == null) {
+          return ~i;
+        }
+        if (tab.keys()[i] == key) {
+          return i;
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(long key, int hash, V value, boolean onlyIfAbsent) {
+      long stamp = lock.writeLock();
+      try {
+        Table tab = table;
+        int i = indexOf(tab, key, hash);
+        if (i >= 0) {
+          V old = (V) tab.values()[i];
+          if (!onlyIfAbsent) {
+            tab.values()[i] = value;
+          }
+          return old;
+        }
+        insert(tab, ~i, key, value);
+        return null;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    V computeIfAbsent(long key, int hash, LongFunction<? extends V> mapping) {
+      long stamp = lock.writeLock();
+      try {
+        Table tab = table;
+        int i = indexOf(tab, key, hash);
+        if (i >= 0) {
+          @SuppressWarnings("unchecked")
+          V existing = (V) tab.values()[i];
+          return existing;
+        }
+        V value = mapping.apply(key);
+        if (value != null) {
+          insert(tab, ~i, key, value);
+        }
+        return value;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    private void insert(Table tab, int slot, long key, Object value) {
+      tab.keys()[slot] = key;
+      tab.values()[slot] = value;
+      if (++count > tab.keys().length * LOAD_FACTOR && tab.keys().length < MAXIMUM_CAPACITY) {
+        resize(tab);
+      }
+    }
+
+    /** 重新插入到新表，旧表不动，正在旧表上乐观读的线程不受影响。 */
+    private void resize(Table old) {
+      Table tab = new Table(old.keys().length << 1);
+      int mask = tab.mask();
+      for (int j = 0; j < old.keys().length; j++) {
+        Object value = old.values()[j];
+        if (value != null) {
+          long key = old.keys()[j];
+          int i = spread(key) & mask;
+          while (tab.values()[i] != null) {
+            i = (i + 1) & mask;
+          }
+          tab.keys()[i] = key;
+          tab.values()[i] = value;
+        }
+      }
+      table = tab;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key, int hash) {
+      long stamp = lock.writeLock();
+      try {
+        Table tab = table;
+        int i = indexOf(tab, key, hash);
+        if (i < 0) {
+          return null;
+        }
+        V old = (V) tab.values()[i];
+        shiftBack(tab, i);
+        count--;
+        return old;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+
+    /**
+     * backward-shift 删除：从空出的槽位往后扫，遇到的元素如果它的理想位置不在（空位, 当前位置] 之间，就挪到空位上，直到遇到空槽。
+     * 这样探测链不会因为中间出现空位而断开。
+     */
+    private static void shiftBack(Table tab, int hole) {
+      int mask = tab.mask();
+      long[] keys = tab.keys();
+      Object[] values = tab.values();
+      for (int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+        int ideal = spread(keys[i]) & mask;
+        boolean between = hole <= i ? hole < ideal && ideal <= i : hole < ideal || ideal <= i;
+        if (!between) {
+          keys[hole] = keys[i];
+          values[hole] = values[i];
+          hole = i;
+        }
+      }
+      values[hole] = null;
+    }
+
+    int size() {
+      long stamp = lock.readLock();
+      try {
+        return count;
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+
+    void clear() {
+      long stamp = lock.writeLock();
+      try {
+        table = new Table(table.keys().length);
+        count = 0;
+      } finally {
+        lock.unlockWrite(stamp);
+      }
+    }
+  }
+}
@@ -20,6 +20,9 @@ import io.github.code13.books.jcip.ThreadSafe;
 /**
  * StripedMap.
  *
+ * <p>书中的示例，只演示锁分段本身：桶数固定、不扩容，只有 {@code get} 和 {@code clear}。完整的实现见 {@link StripedHashMap} 和 {@link
+ * StripedLongMap}。
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @date 2021/12/19 15:13
  */
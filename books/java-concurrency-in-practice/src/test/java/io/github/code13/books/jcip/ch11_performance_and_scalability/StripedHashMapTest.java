@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.books.jcip.ch11_performance_and_scalability;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * StripedHashMapTest.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 23:45
+ */
+class StripedHashMapTest {
+
+  /** 不存在时插入 1，能被 3 整除时删除，否则加一。 */
+  private static final BiFunction<Integer, Integer, Integer> REMAP =
+      (key, value) -> value == null ? Integer.valueOf(1) : value % 3 == 0 ? null : value + 1;
+
+  @ParameterizedTest
+  @EnumSource(StripedHashMap.LockMode.class)
+  void behavesLikeHashMap(StripedHashMap.LockMode mode) {
+    StripedHashMap<Integer, Integer> map = new StripedHashMap<>(4, 0, mode);
+    Map<Integer, Integer> expected = new HashMap<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < 100_000; i++) {
+      int key = random.nextInt(5000);
+      switch (random.nextInt(4)) {
+        case 0 -> assertEquals(expected.put(key, i), map.put(key, i));
+        case 1 -> assertEquals(expected.remove(key), map.remove(key));
+        case 2 -> assertEquals(expected.compute(key, REMAP), map.compute(key, REMAP));
+        default -> assertEquals(expected.get(key), map.get(key));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+    Map<Integer, Integer> actual = new HashMap<>();
+    map.forEach(actual::put);
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  void eachStripeGrowsOnItsOwn() {
+    StripedHashMap<Integer, Integer> map =
+        new StripedHashMap<>(16, 16, StripedHashMap.LockMode.STAMPED);
+    for (int i = 0; i < 16; i++) {
+      assertEquals(2, map.capacityOf(i));
+    }
+    for (int i = 0; i < 100_000; i++) {
+      map.put(i, i);
+    }
+    for (int i = 0; i < map.stripes(); i++) {
+      int capacity = map.capacityOf(i);
+      assertTrue(capacity >= 100_000 / 16 / 0.75 / 2 && capacity <= 100_000 / 16 / 0.75 * 2);
+    }
+    for (int i = 0; i < 100_000; i++) {
+      assertEquals(i, map.get(i));
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(StripedHashMap.LockMode.class)
+  void concurrentCountersAreExact(StripedHashMap.LockMode mode) throws Exception {
+    StripedHashMap<Integer, Integer> map = new StripedHashMap<>(8, 0, mode);
+    int threads = 8;
+    int increments = 20_000;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      Future<?>[] futures = new Future<?>[threads];
+      for (int t = 0; t < threads; t++) {
+        futures[t] =
+            pool.submit(
+                () -> {
+                  start.await();
+                  ThreadLocalRandom random = ThreadLocalRandom.current();
+                  for (int i = 0; i < increments; i++) {
+                    map.compute(random.nextInt(1000), (k, v) -> v == null ? 1 : v + 1);
+                    map.get(random.nextInt(1000));
+                  }
+                  return null;
+                });
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    AtomicInteger total = new AtomicInteger();
+    map.forEach((k, v) -> total.addAndGet(v));
+    assertEquals(threads * increments, total.get());
+  }
+
+  @Test
+  void computeIfAbsentCallsMappingOnce() {
+    StripedHashMap<String, Integer> map = new StripedHashMap<>(StripedHashMap.LockMode.MONITOR);
+    AtomicInteger calls = new AtomicInteger();
+    assertEquals(3, map.computeIfAbsent("abc", k -> calls.incrementAndGet() + 2));
+    assertEquals(3, map.computeIfAbsent("abc", k -> calls.incrementAndGet() + 2));
+    assertEquals(1, calls.get());
+    assertNull(map.computeIfAbsent("x", k -> null));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  void rejectsNulls() {
+    StripedHashMap<String, String> map = new StripedHashMap<>(StripedHashMap.LockMode.STAMPED);
+    assertThrows(NullPointerException.class, () -> map.put("a", null));
+    assertThrows(NullPointerException.class, () -> map.put(null, "a"));
+    assertThrows(IllegalArgumentException.class, () -> new StripedHashMap<>(0, 0, null));
+  }
+
+  @Test
+  void longMapBehavesLikeHashMap() {
+    StripedLongMap<Long> map = new StripedLongMap<>(2, 0);
+    Map<Long, Long> expected = new HashMap<>();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    for (int i = 0; i < 200_000; i++) {
+      // 键取得密集一些，删除时的 backward-shift 会频繁跨越探测链
+      long key = random.nextLong(-2000, 2000) * 1024;
+      long value = i;
+      switch (random.nextInt(3)) {
+        case 0 -> assertEquals(expected.put(key, value), map.put(key, value));
+        case 1 -> assertEquals(expected.remove(key), map.remove(key));
+        default -> assertEquals(expected.get(key), map.get(key));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+    expected.forEach((k, v) -> assertEquals(v, map.get(k)));
+    assertEquals(0L, map.computeIfAbsent(Long.MIN_VALUE, k -> 0L));
+    assertEquals(0L, map.putIfAbsent(Long.MIN_VALUE, 1L));
+  }
+
+  @Test
+  void longMapUnderContention() throws Exception {
+    StripedLongMap<Long> map = new StripedLongMap<>(4, 0);
+    ConcurrentHashMap<Long, Long> expected = new ConcurrentHashMap<>();
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      Future<?>[] futures = new Future<?>[4];
+      for (int t = 0; t < 4; t++) {
+        long base = t * 1_000_000L;
+        futures[t] =
+            pool.submit(
+                () -> {
+                  for (long i = 0; i < 50_000; i++) {
+                    map.put(base + i, i);
+                    expected.put(base + i, i);
+                    if (i % 3 == 0) {
+                      map.remove(base + i / 2);
+                      expected.remove(base + i / 2);
+                    }
+                    map.get(base + i / 3);
+                  }
+                });
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(expected.size(), map.size());
+    expected.forEach((k, v) -> assertEquals(v, map.get(k)));
+  }
+}
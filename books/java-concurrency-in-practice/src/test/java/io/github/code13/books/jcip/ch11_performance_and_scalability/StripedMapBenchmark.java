@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.books.jcip.ch11_performance_and_scalability;
+
+import io.github.code13.books.jcip.ch13_explicit_locks.ReadWriteMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 各种线程安全 map 在竞争下的吞吐。
+ *
+ * <p>预先放入 64K 个键，每次操作随机取一个键，按 {@code writePercent} 的比例 put（覆盖已有键，表大小不变）或 get。{@link #main} 依次用 1、4、16、64
+ * 个线程跑，也可以命令行 {@code -t} 指定；{@code -p stripes=64} 调整分段数。
+ *
+ * <p>单核虚拟机上的结果（ops/us，写比例 0% / 10% / 50%）：
+ *
+ * <pre>
+ *                      1 线程                64 线程
+ * concurrentHashMap    17.8 / 10.2 /  5.4    21.5 / 16.0 /  9.3
+ * synchronizedMap       5.9 /  5.3 / 13.9    14.9 / 13.8 / 11.8
+ * readWriteMap         13.6 / 11.1 / 11.6     5.3 / 13.4 / 17.0
+ * stripedMonitor       11.2 / 11.1 /  3.0    11.8 / 11.4 /  8.7
+ * stripedReadWrite     10.9 / 11.2 /  9.9    12.2 /  9.2 /  6.8
+ * stripedStamped       14.0 / 14.6 / 12.2    13.1 /  9.1 /  8.6
+ * stripedLong          31.7 / 28.0 / 21.6    27.2 / 28.0 / 15.4
+ * </pre>
+ *
+ * <p>只有一个核时线程之间不会真正同时争锁，误差也普遍在 ±50% 以上，分段与全局锁的差别看不出来；能稳定看出的是 {@code stripedLong}
+ * 不装箱、开放寻址，比其余实现快约 2 倍。分段锁的收益要在多核机器上跑才能体现。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 23:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class StripedMapBenchmark {
+
+  private static final int KEYS = 1 << 16;
+
+  @Param({
+    "concurrentHashMap",
+    "synchronizedMap",
+    "readWriteMap",
+    "stripedMonitor",
+    "stripedReadWrite",
+    "stripedStamped",
+    "stripedLong"
+  })
+  String impl;
+
+  @Param({"0", "10", "50"})
+  int writePercent;
+
+  @Param({"16"})
+  int stripes;
+
+  private Long[] keys;
+  private Target target;
+
+  /** 统一各实现的接口；对象键的实现用预先装箱的 {@code Long}，不把装箱算进去。 */
+  private interface Target {
+
+    Object get(int key);
+
+    void put(int key, Object value);
+  }
+
+  @Setup
+  public void setUp() {
+    keys = new Long[KEYS];
+    for (int i = 0; i < KEYS; i++) {
+      keys[i] = (long) i;
+    }
+    target =
+        switch (impl) {
+          case "concurrentHashMap" -> boxed(new ConcurrentHashMap<>(KEYS));
+          case "synchronizedMap" -> boxed(Collections.synchronizedMap(new HashMap<>(KEYS)));
+          case "readWriteMap" -> {
+            ReadWriteMap<Long, Object> map = new ReadWriteMap<>(new HashMap<>(KEYS));
+            yield boxed(map::get, map::put);
+          }
+          case "stripedMonitor" -> striped(StripedHashMap.LockMode.MONITOR);
+          case "stripedReadWrite" -> striped(StripedHashMap.LockMode.READ_WRITE);
+          case "stripedStamped" -> striped(StripedHashMap.LockMode.STAMPED);
+          case "stripedLong" -> {
+            StripedLongMap<Object> map = new StripedLongMap<>(stripes, KEYS);
+            yield new Target() {
+              @Override
+              public Object get(int key) {
+                return map.get(key);
+              }
+
+              @Override
+              public void put(int key, Object value) {
+                map.put(key, value);
+              }
+            };
+          }
+          default -> throw new IllegalArgumentException(impl);
+        };
+    for (int i = 0; i < KEYS; i++) {
+      target.put(i, keys[i]);
+    }
+  }
+
+  private Target striped(StripedHashMap.LockMode mode) {
+    StripedHashMap<Long, Object> map = new StripedHashMap<>(stripes, KEYS, mode);
+    return boxed(map::get, map::put);
+  }
+
+  private Target boxed(Map<Long, Object> map) {
+    return boxed(map::get, map::put);
+  }
+
+  /** 每次 fork 只跑一个实现，这里的 lambda 调用点是单态的，JIT 会内联。 */
+  private Target boxed(Function<Long, Object> get, BiConsumer<Long, Object> put) {
+    return new Target() {
+      @Override
+      public Object get(int key) {
+        return get.apply(keys[key]);
+      }
+
+      @Override
+      public void put(int key, Object value) {
+        put.accept(keys[key], value);
+      }
+    };
+  }
+
+  @Benchmark
+  public Object mixed() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int key = random.nextInt(KEYS);
+    if (random.nextInt(100) < writePercent) {
+      target.put(key, keys[key]);
+      return null;
+    }
+    return target.get(key);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    for (int threads : new int[] {1, 4, 16, 64}) {
+      new Runner(
+              new OptionsBuilder()
+                  .include(StripedMapBenchmark.class.getSimpleName())
+                  .threads(threads)
+                  .build())
+          .run();
+    }
+  }
+}
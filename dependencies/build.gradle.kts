@@ -54,6 +54,7 @@ dependencies {
         api("org.objenesis:objenesis:3.4")
         api("io.protostuff:protostuff-core:1.8.0")
         api("io.protostuff:protostuff-runtime:1.8.0")
+        api("org.lz4:lz4-java:1.8.0")
         api("com.alibaba:easyexcel:3.3.4")
 
         api("org.redisson:redisson:3.30.0")
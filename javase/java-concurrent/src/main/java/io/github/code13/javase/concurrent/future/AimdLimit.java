@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.concurrent.future;
+
+import java.time.Duration;
+
+/**
+ * 加性增、乘性减（AIMD）的自适应并发上限，思路与 TCP 拥塞控制相同：
+ *
+ * <ul>
+ *   <li>任务超时，或耗时超过 {@code latencyThreshold}，视为下游已经拥塞，上限乘以 {@code backoffRatio}。收缩时仍在途的任务是按旧上限发出的，
+ *       它们随后的慢响应不再触发收缩，否则一整批慢响应会把上限连续压到最小值；
+ *   <li>否则只要在途任务数达到上限的一半（说明上限确实在起作用），每攒够一个窗口（{@code limit} 个）的成功样本，上限加一。
+ * </ul>
+ *
+ * <p>下游变慢时上限很快收缩，恢复后再逐步试探回去，稳定在下游能承受的并发附近。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 21:12
+ */
+public final class AimdLimit implements ConcurrencyLimit {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final long latencyThresholdNanos;
+
+  private int limit;
+  private int successes;
+  private int samplesToSkip;
+
+  public AimdLimit(
+      int initialLimit,
+      int minLimit,
+      int maxLimit,
+      double backoffRatio,
+      Duration latencyThreshold) {
+    if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+          "expected 1 <= minLimit <= initialLimit <= maxLimit, got "
+              + minLimit
+              + "/"
+              + initialLimit
+              + "/"
+              + maxLimit);
+    }
+    if (backoffRatio <= 0 || backoffRatio >= 1) {
+      throw new IllegalArgumentException("backoffRatio must be in (0, 1): " + backoffRatio);
+    }
+    this.limit = initialLimit;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+  }
+
+  /** 从 20 开始，1 ~ 1000 之间调整，每次拥塞收缩到 90%。 */
+  public static AimdLimit withLatencyThreshold(Duration latencyThreshold) {
+    return new AimdLimit(20, 1, 1000, 0.9, latencyThreshold);
+  }
+
+  @Override
+  public int limit() {
+    return limit;
+  }
+
+  @Override
+  public void onSample(long rttNanos, int inFlight, boolean dropped) {
+    boolean congested = dropped || rttNanos > latencyThresholdNanos;
+    if (samplesToSkip > 0) {
+      samplesToSkip--;
+      if (congested) {
+        return;
+      }
+    }
+    if (congested) {
+      limit = Math.max(minLimit, (int) (limit * backoffRatio));
+      successes = 0;
+      samplesToSkip = inFlight - 1;
+    } else if (inFlight * 2 >= limit && ++successes >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+      successes = 0;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "aimd(" + limit + ")";
+  }
+}
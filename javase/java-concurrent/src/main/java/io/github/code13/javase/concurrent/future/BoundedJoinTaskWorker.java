@@ -0,0 +1,214 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.concurrent.future;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 限制并发的 {@link CompletableFutureJoinTaskWorker}。
+ *
+ * <p>{@code getAllResult} 一次性启动全部任务，10 万个任务就是 10 万个同时打到下游的请求，结果也全部攒在内存里。这里由调用线程做协调：
+ *
+ * <ul>
+ *   <li>在途任务数不超过 {@link ConcurrencyLimit#limit()}，有任务完成才从输入里取下一个，输入可以是惰性的 {@link Iterable}；
+ *   <li>完成的结果按完成顺序逐个交给 {@link #forEach}，处理完即可丢弃，内存只与并发上限有关；
+ *   <li>每个任务可以设置超时，超时计入 {@link ConcurrencyLimit#onSample} 的 {@code dropped}，自适应上限据此收缩；
+ *   <li>{@link JoinOptions.FailureMode#FAIL_FAST} 遇错取消其余在途任务，{@link
+ *       JoinOptions.FailureMode#COLLECT_ERRORS} 把失败当作结果继续。
+ * </ul>
+ *
+ * <p>阻塞式的调用（JDBC、同步 HTTP 客户端）用 {@link #blocking}，每个任务跑在一个虚拟线程上，超时或取消时中断该线程。
+ *
+ * <p>注意：超时和取消只能让 {@code workFunction} 返回的 future 提前完成，没法撤回已经发出的异步请求；虚拟线程上的阻塞调用会收到中断。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 21:35
+ */
+public class BoundedJoinTaskWorker<T, R> {
+
+  private static final ThreadFactory VIRTUAL_THREADS =
+      Thread.ofVirtual().name("join-task-", 0).factory();
+
+  private final Iterable<T> tasks;
+  private final Function<T, CompletableFuture<R>> workFunction;
+  private final JoinOptions options;
+
+  public BoundedJoinTaskWorker(
+      Iterable<T> tasks, Function<T, CompletableFuture<R>> workFunction, JoinOptions options) {
+    this.tasks = Objects.requireNonNull(tasks);
+    this.workFunction = Objects.requireNonNull(workFunction);
+    this.options = Objects.requireNonNull(options);
+  }
+
+  /** 每个任务在一个新的虚拟线程上同步执行 {@code blockingFunction}。 */
+  public static <T, R> BoundedJoinTaskWorker<T, R> blocking(
+      Iterable<T> tasks, Function<T, R> blockingFunction, JoinOptions options) {
+    Objects.requireNonNull(blockingFunction);
+    return new BoundedJoinTaskWorker<>(
+        tasks, task -> onVirtualThread(() -> blockingFunction.apply(task)), options);
+  }
+
+  static <R> CompletableFuture<R> onVirtualThread(Supplier<R> work) {
+    CompletableFuture<R> future = new CompletableFuture<>();
+    Thread thread =
+        VIRTUAL_THREADS.newThread(
+            () -> {
+              try {
+                future.complete(work.get());
+              } catch (Throwable e) {
+                future.completeExceptionally(e);
+              }
+            });
+    // 超时或取消让 future 提前异常完成，中断线程让阻塞调用尽快退出；正常完成后再中断也无害
+    future.whenComplete(
+        (value, error) -> {
+          if (error != null) {
+            thread.interrupt();
+          }
+        });
+    thread.start();
+    return future;
+  }
+
+  /**
+   * 按输入顺序返回全部结果，与 {@link CompletableFutureJoinTaskWorker#getAllResult()} 相同，但同时在途的任务受并发上限约束。
+   *
+   * <p>{@code COLLECT_ERRORS} 模式下先执行完全部任务，再抛出第一个错误，其余错误作为 suppressed 附在上面。
+   *
+   * @throws CompletionException 有任务失败
+   */
+  public List<R> getAllResult() {
+    List<R> results = new ArrayList<>();
+    List<Throwable> errors = new ArrayList<>();
+    forEach(
+        result -> {
+          if (!result.isSuccess()) {
+            errors.add(result.error());
+            return;
+          }
+          int index = Math.toIntExact(result.index());
+          while (results.size() <= index) {
+            results.add(null);
+          }
+          results.set(index, result.value());
+        });
+    if (!errors.isEmpty()) {
+      CompletionException failure = new CompletionException(errors.get(0));
+      errors.subList(1, errors.size()).forEach(failure::addSuppressed);
+      throw failure;
+    }
+    return results;
+  }
+
+  /**
+   * 执行全部任务，每完成一个就在调用线程上交给 {@code consumer}（按完成顺序）。
+   *
+   * <p>{@code FAIL_FAST} 模式下失败的任务不会交给 {@code consumer}，而是取消其余在途任务后抛出；{@code consumer} 抛出异常时同样取消。
+   *
+   * @throws CompletionException 任务失败（{@code FAIL_FAST}），或等待时调用线程被中断
+   */
+  public JoinSummary forEach(Consumer<? super TaskResult<T, R>> consumer) {
+    ConcurrencyLimit limit = options.limit().get();
+    BlockingQueue<TaskResult<T, R>> completed = new LinkedBlockingQueue<>();
+    Map<Long, CompletableFuture<R>> inFlight = new HashMap<>();
+    Iterator<T> source = tasks.iterator();
+    long next = 0;
+    long succeeded = 0;
+    long failed = 0;
+    long timedOut = 0;
+    int peakInFlight = 0;
+    boolean finished = false;
+    try {
+      while (true) {
+        while (inFlight.size() < limit.limit() && source.hasNext()) {
+          long index = next++;
+          inFlight.put(index, start(index, source.next(), completed));
+        }
+        peakInFlight = Math.max(peakInFlight, inFlight.size());
+        if (inFlight.isEmpty()) {
+          break;
+        }
+        TaskResult<T, R> result = completed.take();
+        limit.onSample(result.elapsedNanos(), inFlight.size(), result.isTimeout());
+        inFlight.remove(result.index());
+        if (result.isSuccess()) {
+          succeeded++;
+        } else {
+          failed++;
+          if (result.isTimeout()) {
+            timedOut++;
+          }
+          if (options.failureMode() == JoinOptions.FailureMode.FAIL_FAST) {
+            throw new CompletionException(result.error());
+          }
+        }
+        consumer.accept(result);
+      }
+      finished = true;
+      return new JoinSummary(succeeded, failed, timedOut, peakInFlight, limit.limit());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    } finally {
+      if (!finished) {
+        inFlight.values().forEach(future -> future.cancel(true));
+      }
+    }
+  }
+
+  private CompletableFuture<R> start(
+      long index, T task, BlockingQueue<TaskResult<T, R>> completed) {
+    long startNanos = System.nanoTime();
+    CompletableFuture<R> future;
+    try {
+      future = Objects.requireNonNull(workFunction.apply(task), "workFunction returned null");
+    } catch (RuntimeException e) {
+      future = CompletableFuture.failedFuture(e);
+    }
+    if (options.taskTimeout() != null) {
+      future.orTimeout(options.taskTimeout().toNanos(), TimeUnit.NANOSECONDS);
+    }
+    future.whenComplete(
+        (value, error) ->
+            completed.add(
+                new TaskResult<>(
+                    index, task, value, unwrap(error), System.nanoTime() - startNanos)));
+    return future;
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    while ((error instanceof CompletionException || error instanceof ExecutionException)
+        && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error;
+  }
+}
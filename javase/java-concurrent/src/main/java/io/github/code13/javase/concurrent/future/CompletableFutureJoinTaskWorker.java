@@ -23,6 +23,8 @@ import java.util.function.Function;
 /**
  * 使用 {@link CompletableFuture} 将任务先分批次请求再合并.
  *
+ * <p>{@link #getAllResult()} 会同时启动全部任务，任务多或下游慢时改用 {@link #bounded(JoinOptions)}.
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @date 2022/4/27 20:27
  */
@@ -47,4 +49,9 @@ public class CompletableFutureJoinTaskWorker<T, R> {
             unused -> completableFutures.stream().map(CompletableFuture::join).toList())
         .join();
   }
+
+  /** 同样的任务和处理函数，限制并发、支持超时和流式消费. */
+  public BoundedJoinTaskWorker<T, R> bounded(JoinOptions options) {
+    return new BoundedJoinTaskWorker<>(taskList, workFunction, options);
+  }
 }
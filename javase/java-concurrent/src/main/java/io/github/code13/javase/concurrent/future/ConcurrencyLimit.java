@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.concurrent.future;
+
+/**
+ * 并发上限。{@link BoundedJoinTaskWorker} 在启动新任务前读取 {@link #limit()}，每个任务结束后调用 {@link #onSample}。
+ *
+ * <p>两个方法都只在协调线程上调用，实现不需要考虑线程安全。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 21:05
+ */
+public interface ConcurrencyLimit {
+
+  /** 当前允许的最大在途任务数。 */
+  int limit();
+
+  /**
+   * 一个任务结束。
+   *
+   * @param rttNanos 从启动到完成的耗时
+   * @param inFlight 包含该任务在内的在途任务数
+   * @param dropped 任务是否超时
+   */
+  void onSample(long rttNanos, int inFlight, boolean dropped);
+
+  /** 固定上限，等价于一个许可数不变的信号量。 */
+  static ConcurrencyLimit fixed(int permits) {
+    if (permits < 1) {
+      throw new IllegalArgumentException("permits must be positive: " + permits);
+    }
+    return new ConcurrencyLimit() {
+      @Override
+      public int limit() {
+        return permits;
+      }
+
+      @Override
+      public void onSample(long rttNanos, int inFlight, boolean dropped) {}
+
+      @Override
+      public String toString() {
+        return "fixed(" + permits + ")";
+      }
+    };
+  }
+}
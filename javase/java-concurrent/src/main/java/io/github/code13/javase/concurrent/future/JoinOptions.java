@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.concurrent.future;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * {@link BoundedJoinTaskWorker} 的参数。
+ *
+ * @param limit 每次运行取一个并发上限；自适应上限是有状态的，应每次返回新实例
+ * @param taskTimeout 单个任务的超时，{@code null} 表示不限
+ * @param failureMode 任务失败时立即停止还是继续并收集错误
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 21:20
+ */
+public record JoinOptions(
+    Supplier<? extends ConcurrencyLimit> limit, Duration taskTimeout, FailureMode failureMode) {
+
+  public JoinOptions {
+    Objects.requireNonNull(limit);
+    Objects.requireNonNull(failureMode);
+    if (taskTimeout != null && (taskTimeout.isNegative() || taskTimeout.isZero())) {
+      throw new IllegalArgumentException("taskTimeout must be positive: " + taskTimeout);
+    }
+  }
+
+  /** 固定 64 个并发，不设超时，遇错即停（与 {@link CompletableFutureJoinTaskWorker#getAllResult()} 一样抛出第一个错误）。 */
+  public static JoinOptions defaults() {
+    ConcurrencyLimit fixed = ConcurrencyLimit.fixed(64);
+    return new JoinOptions(() -> fixed, null, FailureMode.FAIL_FAST);
+  }
+
+  public JoinOptions withFixedLimit(int permits) {
+    ConcurrencyLimit fixed = ConcurrencyLimit.fixed(permits);
+    return withLimit(() -> fixed);
+  }
+
+  public JoinOptions withLimit(Supplier<? extends ConcurrencyLimit> limit) {
+    return new JoinOptions(limit, taskTimeout, failureMode);
+  }
+
+  public JoinOptions withTaskTimeout(Duration taskTimeout) {
+    return new JoinOptions(limit, taskTimeout, failureMode);
+  }
+
+  public JoinOptions withFailureMode(FailureMode failureMode) {
+    return new JoinOptions(limit, taskTimeout, failureMode);
+  }
+
+  /** 任务失败时的处理方式。 */
+  public enum FailureMode {
+
+    /** 第一个失败就取消其余在途任务，不再启动新任务，并抛出该错误。 */
+    FAIL_FAST,
+
+    /** 失败作为 {@link TaskResult} 交给调用方，其余任务照常执行。 */
+    COLLECT_ERRORS
+  }
+}
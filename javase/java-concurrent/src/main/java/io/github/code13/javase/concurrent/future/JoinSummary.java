@@ -0,0 +1,30 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.concurrent.future;
+
+/**
+ * 一次运行的统计。
+ *
+ * @param succeeded 成功的任务数
+ * @param failed 失败（含超时）的任务数
+ * @param timedOut 其中超时的任务数
+ * @param peakInFlight 运行期间同时在途的最大任务数
+ * @param finalLimit 结束时的并发上限，自适应上限最终收敛到的值
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 21:28
+ */
+public record JoinSummary(
+    long succeeded, long failed, long timedOut, int peakInFlight, int finalLimit) {}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.concurrent.future;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 一个任务的结果，成功时 {@code error} 为 {@code null}。
+ *
+ * @param index 任务在输入中的序号
+ * @param task 任务参数
+ * @param value 结果
+ * @param error 失败原因，已经剥掉 {@link java.util.concurrent.CompletionException} 外壳
+ * @param elapsedNanos 从启动到完成的耗时
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 21:26
+ */
+public record TaskResult<T, R>(long index, T task, R value, Throwable error, long elapsedNanos) {
+
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  public boolean isTimeout() {
+    return error instanceof TimeoutException;
+  }
+}
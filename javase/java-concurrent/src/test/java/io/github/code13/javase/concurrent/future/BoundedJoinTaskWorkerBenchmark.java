@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.concurrent.future;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * 模拟一个慢下游，对比一次性启动全部任务与各种并发上限的吞吐、延迟和堆峰值。
+ *
+ * <p>下游最多同时处理 {@code capacity} 个请求，每个耗时 {@code latency}，超出的请求排队；每个响应 1KB。所有任务都跑在虚拟线程上。
+ *
+ * <pre>
+ * java -Xmx1g -Dtasks=20000 -cp ... io.github.code13.javase.concurrent.future.BoundedJoinTaskWorkerBenchmark
+ * </pre>
+ *
+ * <p>单核虚拟机，20000 个任务，容量 64、延迟 20ms、超时 1s：
+ *
+ * <pre>
+ * case               elapsed     ok/s  timeouts   avgRtt  peakHeap  peakInFl  limit
+ * getAllResult        7075ms     2827         0        -      94MB     20000      -
+ * unbounded           1798ms     1576     17165   1234ms     103MB     20000  20000
+ * fixed(8)           50765ms      394         0     20ms      33MB         8      8
+ * fixed(64)           6391ms     3129         0     20ms      32MB        64     64
+ * fixed(512)          6380ms     3135         0    161ms      31MB       512    512
+ * aimd                6718ms     2977         0     23ms      27MB        95     84
+ * </pre>
+ *
+ * <ul>
+ *   <li>一次性启动：2 万个请求同时排在下游门口，结果全部留在堆里；加上超时也没用，86% 的任务在队列里等到超时；
+ *   <li>上限低于下游容量浪费吞吐，高于容量吞吐不再增加，只是把排队从下游挪到了这里，延迟翻 8 倍；
+ *   <li>AIMD 不需要知道下游容量，靠延迟信号收敛到容量附近，吞吐接近最优、延迟接近空载。
+ * </ul>
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 22:05
+ */
+public class BoundedJoinTaskWorkerBenchmark {
+
+  private static final int TASKS = Integer.getInteger("tasks", 20_000);
+  private static final int CAPACITY = Integer.getInteger("capacity", 64);
+  private static final Duration LATENCY = Duration.ofMillis(Long.getLong("latency", 20));
+  private static final Duration TIMEOUT = Duration.ofMillis(Long.getLong("timeout", 1000));
+
+  private final Semaphore backend = new Semaphore(CAPACITY, true);
+
+  public static void main(String[] args) {
+    BoundedJoinTaskWorkerBenchmark benchmark = new BoundedJoinTaskWorkerBenchmark();
+    List<Integer> tasks = IntStream.range(0, TASKS).boxed().toList();
+    System.out.printf(
+        "tasks=%d capacity=%d latency=%s timeout=%s%n", TASKS, CAPACITY, LATENCY, TIMEOUT);
+    System.out.printf(
+        "%-16s %10s %10s %10s %10s %10s %10s %10s%n",
+        "case", "elapsed", "ok/s", "timeouts", "avgRtt", "peakHeap", "peakInFl", "limit");
+
+    benchmark.run("getAllResult", () -> benchmark.legacy(tasks));
+    JoinOptions options =
+        JoinOptions.defaults()
+            .withTaskTimeout(TIMEOUT)
+            .withFailureMode(JoinOptions.FailureMode.COLLECT_ERRORS);
+    benchmark.run("unbounded", () -> benchmark.bounded(tasks, options.withFixedLimit(TASKS)));
+    for (int permits : new int[] {8, CAPACITY, 512}) {
+      benchmark.run(
+          "fixed(" + permits + ")",
+          () -> benchmark.bounded(tasks, options.withFixedLimit(permits)));
+    }
+    Duration threshold = LATENCY.multipliedBy(2);
+    benchmark.run(
+        "aimd",
+        () ->
+            benchmark.bounded(
+                tasks, options.withLimit(() -> AimdLimit.withLatencyThreshold(threshold))));
+  }
+
+  private byte[] call(int task) {
+    try {
+      backend.acquire();
+      try {
+        Thread.sleep(LATENCY);
+      } finally {
+        backend.release();
+      }
+    } catch (InterruptedException e) {
+      throw new IllegalStateException("interrupted", e);
+    }
+    byte[] response = new byte[1024];
+    response[0] = (byte) task;
+    return response;
+  }
+
+  /** 原实现：全部启动，allOf 之后把结果收集进 List。 */
+  private Stats legacy(List<Integer> tasks) {
+    CompletableFutureJoinTaskWorker<Integer, byte[]> worker =
+        new CompletableFutureJoinTaskWorker<>(
+            tasks, task -> BoundedJoinTaskWorker.onVirtualThread(() -> call(task)));
+    List<byte[]> results = worker.getAllResult();
+    return new Stats(results.size(), 0, Double.NaN, tasks.size(), -1);
+  }
+
+  /** 流式消费，响应处理完即丢弃。 */
+  private Stats bounded(List<Integer> tasks, JoinOptions options) {
+    long[] rtt = new long[1];
+    JoinSummary summary =
+        BoundedJoinTaskWorker.blocking(tasks, this::call, options)
+            .forEach(result -> rtt[0] += result.elapsedNanos());
+    double avgRttMillis = rtt[0] / 1e6 / (summary.succeeded() + summary.failed());
+    return new Stats(
+        summary.succeeded(),
+        summary.timedOut(),
+        avgRttMillis,
+        summary.peakInFlight(),
+        summary.finalLimit());
+  }
+
+  private void run(String name, Supplier<Stats> body) {
+    awaitBackendIdle();
+    System.gc();
+    List<MemoryPoolMXBean> heap =
+        ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .toList();
+    heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+    long begin = System.nanoTime();
+    Stats stats = body.get();
+    long elapsed = System.nanoTime() - begin;
+    long peakHeap = heap.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    System.out.printf(
+        "%-16s %8dms %10.0f %10d %8.1fms %8dMB %10d %10s%n",
+        name,
+        TimeUnit.NANOSECONDS.toMillis(elapsed),
+        stats.succeeded() / (elapsed / 1e9),
+        stats.timedOut(),
+        stats.avgRttMillis(),
+        peakHeap >> 20,
+        stats.peakInFlight(),
+        stats.finalLimit() < 0 ? "-" : String.valueOf(stats.finalLimit()));
+  }
+
+  /** 上一轮超时被中断的虚拟线程可能还在退出，等它们把下游让出来，免得影响下一轮。 */
+  private void awaitBackendIdle() {
+    try {
+      backend.acquire(CAPACITY);
+      backend.release(CAPACITY);
+      Thread.sleep(500);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Stats(
+      long succeeded, long timedOut, double avgRttMillis, int peakInFlight, int finalLimit) {}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.concurrent.future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BoundedJoinTaskWorkerTest.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 21:50
+ */
+class BoundedJoinTaskWorkerTest {
+
+  private static final List<Integer> TASKS = IntStream.range(0, 200).boxed().toList();
+
+  @Test
+  void inFlightNeverExceedsLimit() {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+    BoundedJoinTaskWorker<Integer, Integer> worker =
+        BoundedJoinTaskWorker.blocking(
+            TASKS,
+            task -> {
+              peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+              sleep(2);
+              running.decrementAndGet();
+              return task * 2;
+            },
+            JoinOptions.defaults().withFixedLimit(8));
+
+    List<Integer> results = worker.getAllResult();
+
+    assertEquals(TASKS.stream().map(task -> task * 2).toList(), results);
+    assertTrue(peak.get() <= 8, "peak " + peak.get());
+  }
+
+  @Test
+  void resultsStreamInCompletionOrder() {
+    // 任务 0 最慢，流式交付时应最后到达；getAllResult 仍按输入顺序
+    List<Long> sleeps = List.of(120L, 0L, 60L, 30L);
+    List<Long> delivered = new ArrayList<>();
+    BoundedJoinTaskWorker<Long, Long> worker =
+        BoundedJoinTaskWorker.blocking(
+            sleeps,
+            millis -> {
+              sleep(millis);
+              return millis;
+            },
+            JoinOptions.defaults());
+
+    JoinSummary summary = worker.forEach(result -> delivered.add(result.value()));
+
+    assertEquals(List.of(0L, 30L, 60L, 120L), delivered);
+    assertEquals(4, summary.succeeded());
+    assertEquals(4, summary.peakInFlight());
+    assertEquals(sleeps, worker.getAllResult());
+  }
+
+  @Test
+  void failFastCancelsOutstandingTasks() {
+    AtomicInteger started = new AtomicInteger();
+    CountDownLatch interrupted = new CountDownLatch(3);
+    BoundedJoinTaskWorker<Integer, Integer> worker =
+        BoundedJoinTaskWorker.blocking(
+            TASKS,
+            task -> {
+              started.incrementAndGet();
+              if (task == 3) {
+                throw new IllegalStateException("boom");
+              }
+              try {
+                Thread.sleep(10_000);
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+              return task;
+            },
+            JoinOptions.defaults().withFixedLimit(4));
+
+    CompletionException e = assertThrows(CompletionException.class, worker::getAllResult);
+
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    awaitInterrupted(interrupted);
+    assertEquals(4, started.get());
+  }
+
+  @Test
+  void collectErrorsKeepsGoing() {
+    JoinOptions options =
+        JoinOptions.defaults().withFailureMode(JoinOptions.FailureMode.COLLECT_ERRORS);
+    BoundedJoinTaskWorker<Integer, Integer> worker =
+        new BoundedJoinTaskWorker<>(
+            TASKS,
+            task ->
+                task % 10 == 0
+                    ? CompletableFuture.failedFuture(new IllegalArgumentException("bad " + task))
+                    : CompletableFuture.completedFuture(task),
+            options);
+
+    List<TaskResult<Integer, Integer>> failures = new ArrayList<>();
+    JoinSummary summary =
+        worker.forEach(
+            result -> {
+              if (!result.isSuccess()) {
+                failures.add(result);
+              }
+            });
+
+    assertEquals(180, summary.succeeded());
+    assertEquals(20, summary.failed());
+    assertEquals(20, failures.size());
+    assertInstanceOf(IllegalArgumentException.class, failures.get(0).error());
+
+    CompletionException e = assertThrows(CompletionException.class, worker::getAllResult);
+    assertEquals(19, e.getSuppressed().length);
+  }
+
+  @Test
+  void timeoutInterruptsVirtualThread() {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    JoinOptions options =
+        JoinOptions.defaults()
+            .withTaskTimeout(Duration.ofMillis(50))
+            .withFailureMode(JoinOptions.FailureMode.COLLECT_ERRORS);
+    BoundedJoinTaskWorker<Long, Long> worker =
+        BoundedJoinTaskWorker.blocking(
+            List.of(1L, 10_000L),
+            millis -> {
+              assertTrue(Thread.currentThread().isVirtual());
+              try {
+                Thread.sleep(millis);
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+              return millis;
+            },
+            options);
+
+    List<TaskResult<Long, Long>> results = new ArrayList<>();
+    JoinSummary summary = worker.forEach(results::add);
+
+    assertEquals(1, summary.timedOut());
+    assertTrue(results.get(0).isSuccess());
+    assertInstanceOf(TimeoutException.class, results.get(1).error());
+    awaitInterrupted(interrupted);
+  }
+
+  @Test
+  void lazySourceIsPulledOnDemand() {
+    AtomicInteger pulled = new AtomicInteger();
+    Iterable<Long> source =
+        () -> LongStream.range(0, 1_000_000).peek(i -> pulled.incrementAndGet()).iterator();
+    BoundedJoinTaskWorker<Long, Long> worker =
+        new BoundedJoinTaskWorker<>(
+            source, CompletableFuture::completedFuture, JoinOptions.defaults().withFixedLimit(4));
+
+    AtomicInteger seen = new AtomicInteger();
+    assertThrows(
+        CompletionException.class,
+        () ->
+            worker.forEach(
+                result -> {
+                  if (seen.incrementAndGet() == 10) {
+                    throw new CompletionException(new IllegalStateException("stop"));
+                  }
+                }));
+
+    assertTrue(pulled.get() < 20, "pulled " + pulled.get());
+  }
+
+  @Test
+  void aimdBacksOffOnDropsAndProbesUpOnSuccess() {
+    AimdLimit limit = new AimdLimit(4, 1, 20, 0.5, Duration.ofMillis(100));
+    long fast = Duration.ofMillis(10).toNanos();
+    long slow = Duration.ofMillis(500).toNanos();
+
+    for (int i = 0; i < 4; i++) {
+      limit.onSample(fast, 4, false);
+    }
+    assertEquals(5, limit.limit(), "一个窗口的成功样本加一");
+    for (int i = 0; i < 10; i++) {
+      limit.onSample(fast, 1, false);
+    }
+    assertEquals(5, limit.limit(), "上限没用满时不增长");
+
+    limit.onSample(fast, 5, true);
+    assertEquals(2, limit.limit());
+    for (int i = 0; i < 4; i++) {
+      limit.onSample(slow, 4, false);
+    }
+    assertEquals(2, limit.limit(), "收缩前发出的 4 个任务的慢响应不再重复收缩");
+    limit.onSample(slow, 2, false);
+    assertEquals(1, limit.limit(), "之后的慢响应同样视为拥塞");
+  }
+
+  @Test
+  void boundedViewOfLegacyWorker() {
+    CompletableFutureJoinTaskWorker<Integer, String> legacy =
+        new CompletableFutureJoinTaskWorker<>(
+            TASKS, task -> CompletableFuture.completedFuture("v" + task));
+
+    assertEquals(legacy.getAllResult(), legacy.bounded(JoinOptions.defaults()).getAllResult());
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void awaitInterrupted(CountDownLatch latch) {
+    try {
+      assertTrue(latch.await(5, TimeUnit.SECONDS), "tasks not interrupted");
+    } catch (InterruptedException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
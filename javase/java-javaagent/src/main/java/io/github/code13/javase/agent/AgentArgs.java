@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * agent 参数.
+ *
+ * <p>格式为 {@code key=value;key=value}，列表类型的值以 {@code ,} 分隔，例如 {@code
+ * -javaagent:agent.jar="mode=production;include=com.foo.**,com.bar.*;report-interval=10s"}；只有 key 没有
+ * value 时 value 为 {@code true}
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:03
+ */
+public final class AgentArgs {
+
+  private final Map<String, String> values;
+
+  private AgentArgs(Map<String, String> values) {
+    this.values = values;
+  }
+
+  public static AgentArgs parse(String agentArgs) {
+    Map<String, String> values = new LinkedHashMap<>();
+    if (agentArgs != null) {
+      for (String pair : agentArgs.split(";")) {
+        String trimmed = pair.trim();
+        if (trimmed.isEmpty()) {
+          continue;
+        }
+        int index = trimmed.indexOf('=');
+        if (index < 0) {
+          values.put(trimmed, "true");
+        } else {
+          values.put(trimmed.substring(0, index).trim(), trimmed.substring(index + 1).trim());
+        }
+      }
+    }
+    return new AgentArgs(Collections.unmodifiableMap(values));
+  }
+
+  public String get(String key, String defaultValue) {
+    String value = values.get(key);
+    return value == null || value.isEmpty() ? defaultValue : value;
+  }
+
+  public boolean getBoolean(String key, boolean defaultValue) {
+    String value = values.get(key);
+    return value == null || value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+  }
+
+  public int getInt(String key, int defaultValue) {
+    String value = values.get(key);
+    return value == null || value.isEmpty() ? defaultValue : Integer.parseInt(value);
+  }
+
+  public long getLong(String key, long defaultValue) {
+    String value = values.get(key);
+    return value == null || value.isEmpty() ? defaultValue : Long.parseLong(value);
+  }
+
+  /** 支持 {@code 500ms}、{@code 10s}、{@code 1m}、{@code 1h}、不带单位的毫秒数以及 ISO-8601 格式 */
+  public Duration getDuration(String key, Duration defaultValue) {
+    String value = values.get(key);
+    if (value == null || value.isEmpty()) {
+      return defaultValue;
+    }
+    if (value.startsWith("P") || value.startsWith("p")) {
+      return Duration.parse(value);
+    }
+    if (value.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+    }
+    String amount = value.substring(0, value.length() - 1);
+    return switch (value.charAt(value.length() - 1)) {
+      case 's' -> Duration.ofSeconds(Long.parseLong(amount));
+      case 'm' -> Duration.ofMinutes(Long.parseLong(amount));
+      case 'h' -> Duration.ofHours(Long.parseLong(amount));
+      default -> Duration.ofMillis(Long.parseLong(value));
+    };
+  }
+
+  public List<String> getList(String key, List<String> defaultValue) {
+    String value = values.get(key);
+    if (value == null || value.isEmpty()) {
+      return defaultValue;
+    }
+    List<String> list = new ArrayList<>();
+    for (String element : value.split(",")) {
+      if (!element.isBlank()) {
+        list.add(element.trim());
+      }
+    }
+    return Collections.unmodifiableList(list);
+  }
+
+  @Override
+  public String toString() {
+    return values.toString();
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import net.bytebuddy.description.NamedElement;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+
+/**
+ * 类名通配符.
+ *
+ * <ul>
+ *   <li>{@code **} 匹配任意字符
+ *   <li>{@code *} 匹配除 {@code .} 以外的任意字符，即只匹配一层包
+ *   <li>{@code ?} 匹配除 {@code .} 以外的单个字符
+ *   <li>不含通配符时匹配该类以及该包下的所有类
+ * </ul>
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:03
+ */
+public final class NameGlobs {
+
+  private NameGlobs() {}
+
+  /**
+   * 构建类名匹配器.
+   *
+   * @param includes 需要匹配的通配符，为空时不匹配任何类
+   * @param excludes 需要排除的通配符
+   * @return 匹配器
+   */
+  public static <T extends NamedElement> ElementMatcher.Junction<T> matcher(
+      List<String> includes, List<String> excludes) {
+    ElementMatcher.Junction<T> matcher = anyOf(includes);
+    if (!excludes.isEmpty()) {
+      matcher = matcher.and(ElementMatchers.not(anyOf(excludes)));
+    }
+    return matcher;
+  }
+
+  private static <T extends NamedElement> ElementMatcher.Junction<T> anyOf(List<String> globs) {
+    ElementMatcher.Junction<T> matcher = ElementMatchers.none();
+    for (String glob : globs) {
+      matcher = matcher.or(ElementMatchers.nameMatches(toRegex(glob)));
+    }
+    return matcher;
+  }
+
+  /** 通配符转换为正则表达式 */
+  public static String toRegex(String glob) {
+    if (glob.indexOf('*') < 0 && glob.indexOf('?') < 0) {
+      return Pattern.quote(glob) + "(\\..*)?";
+    }
+    StringBuilder regex = new StringBuilder(glob.length() + 16);
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      if (c == '*') {
+        if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+          regex.append(".*");
+          i++;
+        } else {
+          regex.append("[^.]*");
+        }
+      } else if (c == '?') {
+        regex.append("[^.]");
+      } else if (Character.isLetterOrDigit(c) || c == '_') {
+        regex.append(c);
+      } else {
+        regex.append('\\').append(c);
+      }
+    }
+    return regex.toString();
+  }
+}
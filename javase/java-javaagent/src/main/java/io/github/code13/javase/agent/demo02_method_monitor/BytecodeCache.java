@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo02_method_monitor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 织入结果的磁盘缓存，key 为原始类文件和织入配置的 SHA-256.
+ *
+ * <p>类文件不变时重启直接读取上次织入的结果，跳过解析和织入。启动期间类集中加载，此时写磁盘会和织入争抢 CPU， 因此新的织入结果先放入队列，
+ * 类加载停顿 {@code quietMillis} 后才由后台线程写入，JVM 退出时写入剩余部分；先写临时文件再原子重命名，
+ * 多个进程共享同一个目录时也不会读到写了一半的文件
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:38
+ */
+class BytecodeCache {
+
+  /** 表示该类不需要修改，缓存为空文件 */
+  static final byte[] UNCHANGED = new byte[0];
+
+  private static final long PID = ProcessHandle.current().pid();
+
+  private final Path directory;
+
+  /** 织入配置的摘要，配置或 advice 变化时 key 随之变化 */
+  private final byte[] fingerprint;
+
+  private final long quietNanos;
+
+  private final Queue<Map.Entry<String, byte[]>> pending = new ConcurrentLinkedQueue<>();
+
+  private volatile long lastStoreNanos;
+
+  /** 只在写线程和 shutdown hook 中访问 */
+  private final Set<Path> createdDirectories = new HashSet<>();
+
+  BytecodeCache(Path directory, String fingerprint, long quietMillis) {
+    this.directory = directory;
+    this.fingerprint = fingerprint.getBytes(StandardCharsets.UTF_8);
+    this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+    ScheduledExecutorService writer =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "monitor-bytecode-cache");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long period = Math.max(100, quietMillis / 2);
+    writer.scheduleWithFixedDelay(this::flushIfQuiet, period, period, TimeUnit.MILLISECONDS);
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  writer.shutdown();
+                  try {
+                    writer.awaitTermination(10, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                  flush();
+                },
+                "monitor-bytecode-cache-shutdown"));
+  }
+
+  String key(byte[] classfileBuffer) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+    digest.update(fingerprint);
+    digest.update(classfileBuffer);
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * @return 缓存的类文件，{@link #UNCHANGED} 表示不需要修改，未命中时返回 null
+   */
+  byte[] load(String key) {
+    Path path = path(key);
+    // 未命中是冷启动时的常态，避免每次都构造 NoSuchFileException
+    if (!Files.exists(path)) {
+      return null;
+    }
+    try {
+      byte[] bytes = Files.readAllBytes(path);
+      return bytes.length == 0 ? UNCHANGED : bytes;
+    } catch (IOException e) {
+      System.err.println("[MonitorAgent] failed to read bytecode cache " + key + ": " + e);
+      return null;
+    }
+  }
+
+  /**
+   * @param transformed 织入后的类文件，null 表示不需要修改
+   */
+  void store(String key, byte[] transformed) {
+    pending.add(Map.entry(key, transformed == null ? UNCHANGED : transformed));
+    lastStoreNanos = System.nanoTime();
+  }
+
+  private void flushIfQuiet() {
+    if (!pending.isEmpty() && System.nanoTime() - lastStoreNanos >= quietNanos) {
+      flush();
+    }
+  }
+
+  private synchronized void flush() {
+    Map.Entry<String, byte[]> entry;
+    while ((entry = pending.poll()) != null) {
+      write(path(entry.getKey()), entry.getValue());
+    }
+  }
+
+  private void write(Path path, byte[] bytes) {
+    try {
+      if (createdDirectories.add(path.getParent())) {
+        Files.createDirectories(path.getParent());
+      }
+      Path temp = path.resolveSibling(path.getFileName() + "." + PID + ".tmp");
+      Files.write(temp, bytes);
+      Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      System.err.println("[MonitorAgent] failed to write bytecode cache " + path + ": " + e);
+    }
+  }
+
+  private Path path(String key) {
+    return directory.resolve(key.substring(0, 2)).resolve(key.substring(2) + ".class");
+  }
+}
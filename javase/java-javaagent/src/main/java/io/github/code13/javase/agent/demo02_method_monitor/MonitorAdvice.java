@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo02_method_monitor;
+
+import net.bytebuddy.asm.Advice;
+
+/**
+ * 方法耗时 advice，被监控的方法在进入和退出时调用.
+ *
+ * <p>原来的实现用 Javassist 在运行时编译源码字符串，替换方法体中的每个方法调用，输出所在方法的方法名和每次调用的耗时；
+ * 这里改为统计被监控方法本身的耗时，输出 {@code 类名.方法名}。advice 不内联，织入时只插入两次静态方法调用，
+ * 不需要把 advice 的字节码逐条复制到每个方法中
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:38
+ */
+public final class MonitorAdvice {
+
+  private MonitorAdvice() {}
+
+  /** 在被监控的类中调用，需要是 public */
+  @Advice.OnMethodEnter(inline = false)
+  public static long enter() {
+    return System.nanoTime();
+  }
+
+  @Advice.OnMethodExit(onThrowable = Throwable.class, inline = false)
+  public static void exit(@Advice.Enter long start, @Advice.Origin("#t.#m") String method) {
+    print(method, System.nanoTime() - start);
+  }
+
+  private static void print(String method, long cost) {
+    System.out.println("method:[" + method + "]");
+    System.out.println("cost: " + cost);
+  }
+}
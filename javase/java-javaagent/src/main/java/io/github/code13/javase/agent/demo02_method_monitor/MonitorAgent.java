@@ -15,6 +15,7 @@
 
 package io.github.code13.javase.agent.demo02_method_monitor;
 
+import io.github.code13.javase.agent.AgentArgs;
 import java.lang.instrument.Instrumentation;
 
 /**
@@ -27,6 +28,6 @@ public class MonitorAgent {
 
   public static void premain(String agentArgs, Instrumentation inst) {
     System.out.println("method monitor agent:  " + agentArgs);
-    inst.addTransformer(new MonitorTransformer());
+    inst.addTransformer(new MonitorTransformer(AgentArgs.parse(agentArgs)));
   }
 }
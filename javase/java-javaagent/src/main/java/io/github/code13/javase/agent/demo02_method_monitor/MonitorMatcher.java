@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo02_method_monitor;
+
+import io.github.code13.javase.agent.NameGlobs;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import net.bytebuddy.jar.asm.AnnotationVisitor;
+import net.bytebuddy.jar.asm.ClassReader;
+import net.bytebuddy.jar.asm.ClassVisitor;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+
+/**
+ * 根据 agent 参数判断一个类是否需要织入.
+ *
+ * <p>类名在 {@code transform} 中就能拿到，先按类名通配符过滤；配置了注解时，再用 ASM 只读取类和方法上的注解（跳过方法体）， 比解析整个类便宜得多
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:38
+ */
+class MonitorMatcher {
+
+  /** 匹配结果 */
+  enum Match {
+    /** 不织入 */
+    NONE,
+    /** 织入所有方法 */
+    TYPE,
+    /** 只织入带有指定注解的方法 */
+    ANNOTATED_METHODS
+  }
+
+  private final Pattern include;
+
+  private final Pattern exclude;
+
+  /** 注解的类型描述符，如 {@code Lcom/foo/Monitored;} */
+  private final Set<String> annotationDescriptors = new HashSet<>();
+
+  private final List<String> annotations;
+
+  /**
+   * @param includes 需要织入的类名通配符
+   * @param excludes 需要排除的类名通配符
+   * @param annotations 注解全限定名，类上有该注解时织入所有方法，否则只织入带有该注解的方法
+   */
+  MonitorMatcher(List<String> includes, List<String> excludes, List<String> annotations) {
+    this.include = toPattern(includes);
+    this.exclude = toPattern(excludes);
+    this.annotations = List.copyOf(annotations);
+    for (String annotation : annotations) {
+      annotationDescriptors.add("L" + annotation.replace('.', '/') + ";");
+    }
+  }
+
+  private static Pattern toPattern(List<String> globs) {
+    if (globs.isEmpty()) {
+      return null;
+    }
+    StringBuilder regex = new StringBuilder();
+    for (String glob : globs) {
+      if (regex.length() > 0) {
+        regex.append('|');
+      }
+      regex.append("(?:").append(NameGlobs.toRegex(glob)).append(')');
+    }
+    return Pattern.compile(regex.toString());
+  }
+
+  List<String> annotations() {
+    return annotations;
+  }
+
+  /**
+   * @param className 以 {@code .} 分隔的类名
+   * @param classfileBuffer 类文件
+   */
+  Match match(String className, byte[] classfileBuffer) {
+    if (exclude != null && exclude.matcher(className).matches()) {
+      return Match.NONE;
+    }
+    if (include != null && include.matcher(className).matches()) {
+      return Match.TYPE;
+    }
+    if (annotationDescriptors.isEmpty()) {
+      return Match.NONE;
+    }
+    AnnotationScanner scanner = new AnnotationScanner();
+    new ClassReader(classfileBuffer)
+        .accept(scanner, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+    return scanner.result;
+  }
+
+  private final class AnnotationScanner extends ClassVisitor {
+
+    private Match result = Match.NONE;
+
+    private final MethodVisitor methodVisitor =
+        new MethodVisitor(Opcodes.ASM9) {
+          @Override
+          public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            if (result == Match.NONE && annotationDescriptors.contains(descriptor)) {
+              result = Match.ANNOTATED_METHODS;
+            }
+            return null;
+          }
+        };
+
+    AnnotationScanner() {
+      super(Opcodes.ASM9);
+    }
+
+    @Override
+    public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+      if (annotationDescriptors.contains(descriptor)) {
+        result = Match.TYPE;
+      }
+      return null;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(
+        int access, String name, String descriptor, String signature, String[] exceptions) {
+      return result == Match.TYPE ? null : methodVisitor;
+    }
+  }
+}
@@ -15,30 +15,95 @@
 
 package io.github.code13.javase.agent.demo02_method_monitor;
 
+import io.github.code13.javase.agent.AgentArgs;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
+import java.nio.file.Path;
 import java.security.ProtectionDomain;
-import java.util.HashSet;
-import java.util.Set;
-import javassist.CannotCompileException;
-import javassist.ClassPool;
-import javassist.CtBehavior;
-import javassist.CtClass;
-import javassist.expr.ExprEditor;
-import javassist.expr.MethodCall;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.zip.CRC32;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
+import net.bytebuddy.dynamic.scaffold.MethodGraph;
+import net.bytebuddy.dynamic.scaffold.TypeValidation;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+import net.bytebuddy.pool.TypePool;
 
 /**
  * MonitorTransformer.
  *
+ * <p>原来的实现每加载一个类都要通过 {@code ClassPool.getDefault()} 解析，并用 Javassist 在运行时编译源码字符串， 类越多启动越慢。现在：
+ *
+ * <ol>
+ *   <li>先按 agent 参数中的类名通配符和注解过滤，见 {@link MonitorMatcher}
+ *   <li>匹配的类直接从 {@code classfileBuffer} 构建 {@link TypePool}（不加载任何类），同一个类加载器下解析过的类型在多次
+ *       transform 之间复用；用 ByteBuddy {@link Advice} 插入对 {@link MonitorAdvice} 的调用
+ *   <li>配置了 {@code cache-dir} 时，织入结果按类文件的哈希缓存到磁盘，重启后类文件不变的类直接使用缓存
+ * </ol>
+ *
+ * <p>transform 只在查找类加载器的类型缓存时短暂加锁，支持并行加载的类加载器可以在多个线程中同时织入
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @date 2022/5/13 22:22
  */
 public class MonitorTransformer implements ClassFileTransformer {
 
-  private static final Set<String> classNameSet = new HashSet<>();
+  static final List<String> DEFAULT_INCLUDE =
+      List.of("io.github.code13.javase.agent.demo02_method_monitor.MonitorAgentTest");
+
+  /** 织入逻辑变化时修改，使旧的缓存失效 */
+  private static final String WEAVER_VERSION = "2";
+
+  private final MonitorMatcher matcher;
+
+  private final BytecodeCache cache;
+
+  private final boolean verbose;
 
-  static {
-    classNameSet.add("io.github.code13.javase.agent.demo02_method_monitor.MonitorAgentTest");
+  private final Advice advice = Advice.to(MonitorAdvice.class);
+
+  /** 每个类加载器解析过的类型，弱引用类加载器，类加载器被回收后随之释放 */
+  private final Map<ClassLoader, TypeCache> typeCaches =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  /** 只织入类自身声明的方法，不需要解析父类和接口的方法 */
+  private final ByteBuddy byteBuddy =
+      new ByteBuddy()
+          .with(TypeValidation.DISABLED)
+          .with(MethodGraph.Compiler.ForDeclaredMethods.INSTANCE);
+
+  public MonitorTransformer(AgentArgs args) {
+    List<String> annotations = args.getList("annotation", List.of());
+    this.matcher =
+        new MonitorMatcher(
+            args.getList("include", annotations.isEmpty() ? DEFAULT_INCLUDE : List.of()),
+            args.getList("exclude", List.of()),
+            annotations);
+    String cacheDir = args.get("cache-dir", null);
+    this.cache =
+        cacheDir == null
+            ? null
+            : new BytecodeCache(
+                Path.of(cacheDir),
+                String.join(
+                    "|",
+                    WEAVER_VERSION,
+                    adviceHash(),
+                    args.get("include", ""),
+                    args.get("exclude", ""),
+                    String.join(",", annotations)),
+                args.getDuration("cache-quiet", Duration.ofSeconds(2)).toMillis());
+    this.verbose = args.getBoolean("verbose", false);
   }
 
   @Override
@@ -49,59 +114,105 @@ public class MonitorTransformer implements ClassFileTransformer {
       ProtectionDomain protectionDomain,
       byte[] classfileBuffer)
       throws IllegalClassFormatException {
+    if (className == null || loader == null) {
+      return null;
+    }
 
     try {
-      String currentClassName = className.replace("/", ".");
-      if (!classNameSet.contains(currentClassName)) { // 提升classNameSet中含有的类
+      String currentClassName = className.replace('/', '.');
+      if (currentClassName.equals(MonitorAdvice.class.getName())) {
         return null;
       }
-      System.out.println("transform: [" + currentClassName + "]");
-
-      CtClass ctClass = ClassPool.getDefault().get(currentClassName);
-
-      if (ctClass.isFrozen()) {
+      MonitorMatcher.Match match = matcher.match(currentClassName, classfileBuffer);
+      if (match == MonitorMatcher.Match.NONE) {
         return null;
       }
 
-      CtBehavior[] methods = ctClass.getDeclaredBehaviors();
-      for (CtBehavior method : methods) {
-        enhanceMethod(method);
+      String key = null;
+      if (cache != null) {
+        key = cache.key(classfileBuffer);
+        byte[] cached = cache.load(key);
+        if (cached != null) {
+          if (verbose) {
+            System.out.println("transform (cached): [" + currentClassName + "]");
+          }
+          return cached == BytecodeCache.UNCHANGED ? null : cached;
+        }
       }
 
-      return ctClass.toBytecode();
-    } catch (Exception e) {
+      if (verbose) {
+        System.out.println("transform: [" + currentClassName + "]");
+      }
+      byte[] transformed = weave(currentClassName, loader, classfileBuffer, match);
+      if (cache != null) {
+        cache.store(key, transformed);
+      }
+      return transformed;
+    } catch (Throwable e) {
       e.printStackTrace();
     }
 
     return null;
   }
 
-  private void enhanceMethod(CtBehavior method) throws CannotCompileException {
-    if (method.isEmpty()) {
-      return;
+  private byte[] weave(
+      String className, ClassLoader loader, byte[] classfileBuffer, MonitorMatcher.Match match) {
+    TypeCache typeCache = typeCaches.computeIfAbsent(loader, TypeCache::new);
+    ClassFileLocator locator =
+        new ClassFileLocator.Compound(
+            ClassFileLocator.Simple.of(className, classfileBuffer), typeCache.locator());
+    // 正在织入的类以 classfileBuffer 为准，不放入共享的缓存
+    TypePool typePool =
+        new TypePool.Default.WithLazyResolution(
+            new TypePool.CacheProvider.Discriminating(
+                ElementMatchers.is(className),
+                new TypePool.CacheProvider.Simple(),
+                typeCache.types()),
+            locator,
+            TypePool.Default.ReaderMode.FAST);
+    TypeDescription type = typePool.describe(className).resolve();
+    if (type.isInterface() || type.isAnnotation()) {
+      return null;
     }
-    String name = method.getName();
-    if ("main".equalsIgnoreCase(name)) {
-      return;
+
+    ElementMatcher.Junction<MethodDescription> methods =
+        ElementMatchers.isMethod()
+            .and(ElementMatchers.not(ElementMatchers.isAbstract()))
+            .and(ElementMatchers.not(ElementMatchers.isNative()))
+            .and(ElementMatchers.not(ElementMatchers.isSynthetic()))
+            .and(ElementMatchers.not(ElementMatchers.named("main")));
+    if (match == MonitorMatcher.Match.ANNOTATED_METHODS) {
+      methods =
+          methods.and(
+              ElementMatchers.isAnnotatedWith(
+                  ElementMatchers.namedOneOf(matcher.annotations().toArray(new String[0]))));
     }
 
-    String source =
-        """
-        {
-          long start = System.nanoTime();
-          $_ = $proceed($$);
-          System.out.println("method:[{1}]");
-          System.out.println("cost: " + (System.nanoTime() - start));
-        }
-        """
-            .replace("{1}", name);
-
-    method.instrument(
-        new ExprEditor() {
-          @Override
-          public void edit(MethodCall m) throws CannotCompileException {
-            m.replace(source);
-          }
-        });
+    return byteBuddy.redefine(type, locator).visit(advice.on(methods)).make().getBytes();
+  }
+
+  /** 一个类加载器的类文件定位器和已解析的类型，定位器只持有类加载器的弱引用 */
+  private record TypeCache(ClassFileLocator locator, TypePool.CacheProvider types) {
+
+    TypeCache(ClassLoader loader) {
+      this(
+          ClassFileLocator.ForClassLoader.WeaklyReferenced.of(loader),
+          TypePool.CacheProvider.Simple.withObjectType());
+    }
+  }
+
+  /** advice 的类文件摘要，advice 修改后缓存随之失效 */
+  private static String adviceHash() {
+    String resource = MonitorAdvice.class.getName().replace('.', '/') + ".class";
+    try (InputStream in = MonitorAdvice.class.getClassLoader().getResourceAsStream(resource)) {
+      if (in == null) {
+        return "";
+      }
+      CRC32 crc = new CRC32();
+      crc.update(in.readAllBytes());
+      return Long.toHexString(crc.getValue());
+    } catch (IOException e) {
+      return "";
+    }
   }
 }
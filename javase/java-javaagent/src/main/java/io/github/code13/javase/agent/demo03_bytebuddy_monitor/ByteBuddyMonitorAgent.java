@@ -15,7 +15,17 @@
 
 package io.github.code13.javase.agent.demo03_bytebuddy_monitor;
 
+import io.github.code13.javase.agent.AgentArgs;
+import io.github.code13.javase.agent.NameGlobs;
+import io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler.MethodMetricsReporter;
+import io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler.MethodTimingAdvice;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
 import java.lang.instrument.Instrumentation;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.agent.builder.AgentBuilder.Listener;
 import net.bytebuddy.description.type.TypeDescription;
@@ -27,19 +37,40 @@ import net.bytebuddy.utility.JavaModule;
 /**
  * ByteBuddyMonitor.
  *
+ * <p>参数见 {@link AgentArgs}：
+ *
+ * <ul>
+ *   <li>{@code mode}：{@code simple}（默认）通过 {@link MethodCostTime} 委托并打印每次调用；{@code production} 内联
+ *       {@link MethodTimingAdvice}，只记录直方图，由后台线程周期性输出
+ *   <li>{@code include}/{@code exclude}：需要监控/排除的类，通配符见 {@link NameGlobs}
+ *   <li>{@code report-interval}：production 模式下的输出间隔，默认 10s
+ *   <li>{@code report-top}：production 模式下每次输出总耗时最多的前 N 个方法，默认 20
+ *   <li>{@code report-file}：production 模式下追加输出到文件，默认输出到控制台
+ * </ul>
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @date 2022/5/13 23:10
  */
 public class ByteBuddyMonitorAgent {
 
+  private static final List<String> DEFAULT_INCLUDE =
+      List.of("io.github.code13.javase.agent.demo03_bytebuddy_monitor");
+
+  /** agent 自身的运行时代码，始终不监控 */
+  private static final String PROFILER_PACKAGE =
+      "io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler";
+
   public static void premain(String agentArgs, Instrumentation inst) {
     System.out.println("byte buddy agent：" + agentArgs);
+    AgentArgs args = AgentArgs.parse(agentArgs);
 
     AgentBuilder.Transformer transformer =
-        (builder, typeDescription, classLoader, module, protectionDomain) ->
-            builder
-                .method(ElementMatchers.any())
-                .intercept(MethodDelegation.to(MethodCostTime.class));
+        "production".equals(args.get("mode", "simple"))
+            ? productionTransformer(args)
+            : (builder, typeDescription, classLoader, module, protectionDomain) ->
+                builder
+                    .method(ElementMatchers.any())
+                    .intercept(MethodDelegation.to(MethodCostTime.class));
 
     AgentBuilder.Listener listener =
         new Listener() {
@@ -77,10 +108,37 @@ public class ByteBuddyMonitorAgent {
 
     new AgentBuilder.Default()
         .type(
-            ElementMatchers.nameStartsWith(
-                "io.github.code13.javase.agent.demo03_bytebuddy_monitor"))
+            NameGlobs.<TypeDescription>matcher(
+                    args.getList("include", DEFAULT_INCLUDE), args.getList("exclude", List.of()))
+                .and(ElementMatchers.not(ElementMatchers.nameStartsWith(PROFILER_PACKAGE))))
         .transform(transformer)
         .with(listener)
         .installOn(inst);
   }
+
+  private static AgentBuilder.Transformer productionTransformer(AgentArgs args) {
+    Duration interval = args.getDuration("report-interval", Duration.ofSeconds(10));
+    new MethodMetricsReporter(
+            reportStream(args.get("report-file", null)), args.getInt("report-top", 20))
+        .start(interval.toMillis());
+
+    return (builder, typeDescription, classLoader, module, protectionDomain) ->
+        builder.visit(
+            MethodTimingAdvice.on(
+                ElementMatchers.isMethod()
+                    .and(ElementMatchers.not(ElementMatchers.isAbstract()))
+                    .and(ElementMatchers.not(ElementMatchers.isNative()))
+                    .and(ElementMatchers.not(ElementMatchers.isSynthetic()))));
+  }
+
+  private static PrintStream reportStream(String reportFile) {
+    if (reportFile == null) {
+      return System.out;
+    }
+    try {
+      return new PrintStream(new FileOutputStream(reportFile, true), true, StandardCharsets.UTF_8);
+    } catch (FileNotFoundException e) {
+      throw new IllegalArgumentException("Cannot open report file " + reportFile, e);
+    }
+  }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁的对数线性直方图（HDR 风格）.
+ *
+ * <p>小于 8ns 的值每个值一个桶，之后每个 2 的幂区间平均分为 8 个桶，相对误差不超过 12.5%，最大记录约 2^41ns（约 36
+ * 分钟），超过的值记录在最后一个桶中.
+ *
+ * <p>记录时按线程 id 选择一个分段，分段在第一次使用时分配，不同线程尽量写入不同的 {@link AtomicLongArray}，减少 CAS 竞争和伪共享；
+ * {@link #drain()} 通过 getAndSet 取出并清零各分段，记录与取出并发时个别值可能计入下一个周期，但不会丢失
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:03
+ */
+public final class LatencyHistogram {
+
+  static final int SUB_BUCKET_BITS = 3;
+
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  static final int MAX_MAGNITUDE = 40;
+
+  static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+
+  private static final int SUM = BUCKETS;
+
+  private static final int MAX = BUCKETS + 1;
+
+  private static final int STRIPES = stripes();
+
+  private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPES);
+
+  private static int stripes() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    return Integer.highestOneBit(Math.min(16, Math.max(1, processors)));
+  }
+
+  /** 记录一次耗时，单位纳秒 */
+  public void record(long nanos) {
+    long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+    AtomicLongArray stripe = stripe();
+    stripe.getAndIncrement(index(value));
+    stripe.getAndAdd(SUM, value);
+    long max;
+    while (value > (max = stripe.get(MAX)) && !stripe.weakCompareAndSetVolatile(MAX, max, value)) {
+      // retry
+    }
+  }
+
+  private AtomicLongArray stripe() {
+    long id = Thread.currentThread().threadId();
+    int index = (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & (STRIPES - 1);
+    AtomicLongArray stripe = stripes.get(index);
+    if (stripe == null) {
+      stripe = new AtomicLongArray(BUCKETS + 2);
+      if (!stripes.compareAndSet(index, null, stripe)) {
+        stripe = stripes.get(index);
+      }
+    }
+    return stripe;
+  }
+
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    int shift = magnitude - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /** 桶内最大的值 */
+  static long highestValue(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long subBucket = index & (SUB_BUCKETS - 1);
+    return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+
+  /** 取出上一次取出以来的记录并清零 */
+  public Snapshot drain() {
+    long[] counts = new long[BUCKETS];
+    long count = 0;
+    long sum = 0;
+    long max = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      AtomicLongArray stripe = stripes.get(i);
+      if (stripe == null) {
+        continue;
+      }
+      for (int bucket = 0; bucket < BUCKETS; bucket++) {
+        if (stripe.get(bucket) != 0) {
+          long bucketCount = stripe.getAndSet(bucket, 0);
+          counts[bucket] += bucketCount;
+          count += bucketCount;
+        }
+      }
+      sum += stripe.getAndSet(SUM, 0);
+      max = Math.max(max, stripe.getAndSet(MAX, 0));
+    }
+    return new Snapshot(counts, count, sum, max);
+  }
+
+  /** 一个周期内的记录 */
+  public record Snapshot(long[] counts, long count, long sum, long max) {
+
+    public double mean() {
+      return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * 百分位数.
+     *
+     * @param percentile 0 到 100
+     * @return 所在桶的最大值，不超过 max
+     */
+    public long percentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(highestValue(i), max);
+        }
+      }
+      return max;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.stream.Collectors;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.annotation.AnnotationDescription;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.method.ParameterDescription;
+import net.bytebuddy.description.type.TypeDescription;
+
+/**
+ * 将被监控方法在 {@link MethodMetrics} 中的 id 作为 int 常量绑定到 advice 参数.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:03
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface MethodId {
+
+  /** 在类转换时注册方法并返回 id 常量 */
+  enum Factory implements Advice.OffsetMapping.Factory<MethodId> {
+    INSTANCE;
+
+    @Override
+    public Class<MethodId> getAnnotationType() {
+      return MethodId.class;
+    }
+
+    @Override
+    public Advice.OffsetMapping make(
+        ParameterDescription.InDefinedShape target,
+        AnnotationDescription.Loadable<MethodId> annotation,
+        AdviceType adviceType) {
+      return (instrumentedType, instrumentedMethod, assigner, argumentHandler, sort) ->
+          Advice.OffsetMapping.Target.ForStackManipulation.of(
+              MethodMetrics.register(signature(instrumentedType, instrumentedMethod)));
+    }
+
+    private static String signature(TypeDescription type, MethodDescription method) {
+      return type.getName()
+          + "."
+          + method.getName()
+          + method.getParameters().asTypeList().asErasures().stream()
+              .map(TypeDescription::getSimpleName)
+              .collect(Collectors.joining(",", "(", ")"));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 被监控方法的注册表.
+ *
+ * <p>方法在类转换时注册并分配一个 id，id 作为常量内联到被监控方法中，记录耗时时按 id 直接取数组元素，不查找、不分配对象
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:03
+ */
+public final class MethodMetrics {
+
+  private static final Object LOCK = new Object();
+
+  private static final Map<String, Integer> ids = new HashMap<>();
+
+  private static volatile String[] names = new String[256];
+
+  private static volatile LatencyHistogram[] histograms = new LatencyHistogram[256];
+
+  private static int size;
+
+  private MethodMetrics() {}
+
+  /**
+   * 注册方法，同名方法（例如被多个类加载器加载）共享同一个 id.
+   *
+   * @param name 方法签名
+   * @return 方法 id
+   */
+  public static int register(String name) {
+    synchronized (LOCK) {
+      Integer id = ids.get(name);
+      if (id != null) {
+        return id;
+      }
+      String[] newNames = names;
+      LatencyHistogram[] newHistograms = histograms;
+      if (size == newHistograms.length) {
+        newNames = Arrays.copyOf(newNames, size * 2);
+        newHistograms = Arrays.copyOf(newHistograms, size * 2);
+      }
+      newNames[size] = name;
+      newHistograms[size] = new LatencyHistogram();
+      // 先写 names 再写 histograms，读取到 histograms 的线程一定能看到对应的 name
+      names = newNames;
+      histograms = newHistograms;
+      ids.put(name, size);
+      return size++;
+    }
+  }
+
+  /**
+   * 记录一次方法耗时，由内联到被监控方法中的 advice 调用.
+   *
+   * @param id 方法 id
+   * @param nanos 耗时，纳秒
+   */
+  public static void record(int id, long nanos) {
+    histograms[id].record(nanos);
+  }
+
+  /** 取出所有方法上一次取出以来的记录，没有调用的方法不包含在结果中 */
+  public static List<MethodSnapshot> drain() {
+    LatencyHistogram[] currentHistograms = histograms;
+    String[] currentNames = names;
+    List<MethodSnapshot> snapshots = new ArrayList<>();
+    for (int i = 0; i < currentHistograms.length && currentHistograms[i] != null; i++) {
+      LatencyHistogram.Snapshot snapshot = currentHistograms[i].drain();
+      if (snapshot.count() > 0) {
+        snapshots.add(new MethodSnapshot(currentNames[i], snapshot));
+      }
+    }
+    return snapshots;
+  }
+
+  /** 单个方法一个周期内的记录 */
+  public record MethodSnapshot(String name, LatencyHistogram.Snapshot histogram) {}
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler;
+
+import io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler.MethodMetrics.MethodSnapshot;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 周期性取出 {@link MethodMetrics} 并按总耗时输出前 N 个方法.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:03
+ */
+public final class MethodMetricsReporter implements Runnable {
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final PrintStream out;
+
+  private final int top;
+
+  private ScheduledExecutorService scheduler;
+
+  public MethodMetricsReporter(PrintStream out, int top) {
+    this.out = out;
+    this.top = top;
+  }
+
+  /**
+   * 启动后台线程，并在 JVM 退出时输出最后一个周期.
+   *
+   * @param intervalMillis 输出间隔
+   */
+  public synchronized void start(long intervalMillis) {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "method-metrics-reporter");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleAtFixedRate(this, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    Runtime.getRuntime()
+        .addShutdownHook(new Thread(this::stop, "method-metrics-reporter-shutdown"));
+  }
+
+  public synchronized void stop() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdownNow();
+    scheduler = null;
+    run();
+  }
+
+  @Override
+  public void run() {
+    try {
+      report(MethodMetrics.drain());
+    } catch (RuntimeException e) {
+      // 不能让异常终止周期任务
+      e.printStackTrace(out);
+    }
+  }
+
+  private void report(List<MethodSnapshot> snapshots) {
+    if (snapshots.isEmpty()) {
+      return;
+    }
+    snapshots.sort(
+        Comparator.comparingLong((MethodSnapshot snapshot) -> snapshot.histogram().sum())
+            .reversed());
+    StringBuilder builder = new StringBuilder(256 * Math.min(top, snapshots.size()));
+    builder
+        .append("---- method metrics ")
+        .append(LocalDateTime.now().format(FORMATTER))
+        .append(", ")
+        .append(snapshots.size())
+        .append(" methods called ----")
+        .append(System.lineSeparator());
+    for (int i = 0; i < snapshots.size() && i < top; i++) {
+      MethodSnapshot snapshot = snapshots.get(i);
+      LatencyHistogram.Snapshot histogram = snapshot.histogram();
+      builder
+          .append(
+              String.format(
+                  "%s count=%d total=%.3fms mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus",
+                  snapshot.name(),
+                  histogram.count(),
+                  histogram.sum() / 1e6,
+                  histogram.mean() / 1e3,
+                  histogram.percentile(50) / 1e3,
+                  histogram.percentile(99) / 1e3,
+                  histogram.max() / 1e3))
+          .append(System.lineSeparator());
+    }
+    out.print(builder);
+    out.flush();
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler;
+
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.asm.AsmVisitorWrapper;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+
+/**
+ * 方法耗时 advice.
+ *
+ * <p>与 {@code MethodDelegation} + {@code @SuperCall} 不同，advice 的代码直接内联到被监控方法中，不生成 {@code Callable}
+ * 辅助类、不分配对象；耗时使用 {@link System#nanoTime()}，记录到方法对应的 {@link LatencyHistogram}
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:03
+ */
+public final class MethodTimingAdvice {
+
+  private MethodTimingAdvice() {}
+
+  /**
+   * 为匹配的方法织入耗时统计.
+   *
+   * @param methodMatcher 需要统计的方法
+   * @return 用于 {@code DynamicType.Builder#visit} 的 visitor
+   */
+  public static AsmVisitorWrapper on(ElementMatcher<? super MethodDescription> methodMatcher) {
+    return Advice.withCustomMapping()
+        .bind(MethodId.Factory.INSTANCE)
+        .to(MethodTimingAdvice.class)
+        .on(methodMatcher);
+  }
+
+  @Advice.OnMethodEnter
+  static long enter() {
+    return System.nanoTime();
+  }
+
+  @Advice.OnMethodExit(onThrowable = Throwable.class)
+  static void exit(@Advice.Enter long start, @MethodId int methodId) {
+    MethodMetrics.record(methodId, System.nanoTime() - start);
+  }
+}
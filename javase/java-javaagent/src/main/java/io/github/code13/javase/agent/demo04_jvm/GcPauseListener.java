@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo04_jvm;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * 通过 {@link GarbageCollectionNotificationInfo} 统计两次采样之间的 GC 停顿.
+ *
+ * <p>GarbageCollectorMXBean 只提供累计次数和累计耗时，无法得到单次停顿的最大值，因此改为监听每次 GC 结束的通知。 注意 ZGC / Shenandoah
+ * 的 "Cycles" 收集器报告的是并发周期耗时，而不是停顿
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:16
+ */
+class GcPauseListener implements NotificationListener {
+
+  private final Map<String, PauseStats> stats = new ConcurrentHashMap<>();
+
+  void install() {
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      stats.put(gc.getName(), new PauseStats());
+      if (gc instanceof NotificationEmitter emitter) {
+        emitter.addNotificationListener(this, null, null);
+      }
+    }
+  }
+
+  @Override
+  public void handleNotification(Notification notification, Object handback) {
+    if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(
+        notification.getType())) {
+      return;
+    }
+    GarbageCollectionNotificationInfo info =
+        GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+    long duration = info.getGcInfo().getDuration();
+    PauseStats pause = stats.computeIfAbsent(info.getGcName(), name -> new PauseStats());
+    pause.count.increment();
+    pause.totalMillis.add(duration);
+    pause.maxMillis.accumulateAndGet(duration, Math::max);
+  }
+
+  /** 写入上次采样以来的停顿次数、总耗时和最大耗时，并清零 */
+  void drainTo(TelemetryBatch batch) {
+    stats.forEach(
+        (name, pause) -> {
+          String prefix = "gc." + TelemetrySampler.metricName(name);
+          batch.add(prefix + ".count", pause.count.sumThenReset());
+          batch.add(prefix + ".pauseMillis", pause.totalMillis.sumThenReset());
+          batch.add(prefix + ".maxPauseMillis", pause.maxMillis.getAndSet(0));
+        });
+  }
+
+  private static final class PauseStats {
+
+    final LongAdder count = new LongAdder();
+
+    final LongAdder totalMillis = new LongAdder();
+
+    final AtomicLong maxMillis = new AtomicLong();
+  }
+}
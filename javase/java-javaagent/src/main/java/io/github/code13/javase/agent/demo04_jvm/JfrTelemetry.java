@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo04_jvm;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * 基于 JFR {@link RecordingStream} 的采集模式，只开启 GC、对象分配采样和锁竞争事件.
+ *
+ * <p>事件在 JFR 的回调线程中按类型累加，每次 JFR flush（默认约 1 秒）时把累加结果作为一次采样写入 {@link
+ * TelemetryWriter}，分配和锁竞争只保留排名前 N 的类
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:16
+ */
+class JfrTelemetry implements AutoCloseable {
+
+  private final TelemetryWriter writer;
+
+  private final int top;
+
+  private final RecordingStream stream = new RecordingStream();
+
+  private final TelemetryBatch batch = new TelemetryBatch();
+
+  private final Map<String, LongAdder> gc = new ConcurrentHashMap<>();
+
+  /** 按对象类型累加的分配采样权重（估算的分配字节数） */
+  private final Map<String, LongAdder> allocations = new ConcurrentHashMap<>();
+
+  /** 按锁对象类型累加的阻塞纳秒数 */
+  private final Map<String, LongAdder> contention = new ConcurrentHashMap<>();
+
+  JfrTelemetry(TelemetryWriter writer, int top, Duration lockThreshold) {
+    this.writer = writer;
+    this.top = top;
+    stream.enable("jdk.GarbageCollection");
+    stream.enable("jdk.ObjectAllocationSample").with("throttle", "150/s");
+    stream.enable("jdk.JavaMonitorEnter").withThreshold(lockThreshold);
+    stream.enable("jdk.ThreadPark").withThreshold(lockThreshold);
+    stream.onEvent("jdk.GarbageCollection", this::onGarbageCollection);
+    stream.onEvent("jdk.ObjectAllocationSample", this::onAllocation);
+    stream.onEvent("jdk.JavaMonitorEnter", event -> onContention("monitor", event));
+    stream.onEvent("jdk.ThreadPark", event -> onContention("park", event));
+    stream.onFlush(this::flush);
+  }
+
+  /** startAsync 创建的是非守护线程，会阻止应用退出，这里改为在守护线程中调用阻塞的 start */
+  void start() {
+    Thread thread = new Thread(stream::start, "jvm-telemetry-jfr");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void onGarbageCollection(RecordedEvent event) {
+    String prefix = "jfr.gc." + TelemetrySampler.metricName(event.getString("name"));
+    add(gc, prefix + ".count", 1);
+    add(gc, prefix + ".pauseMicros", event.getDuration("sumOfPauses").toNanos() / 1000);
+    add(gc, prefix + ".durationMicros", event.getDuration().toNanos() / 1000);
+  }
+
+  private void onAllocation(RecordedEvent event) {
+    add(
+        allocations,
+        "jfr.alloc." + className(event.getClass("objectClass")),
+        event.getLong("weight"));
+  }
+
+  private void onContention(String kind, RecordedEvent event) {
+    RecordedClass type =
+        "monitor".equals(kind) ? event.getClass("monitorClass") : event.getClass("parkedClass");
+    add(
+        contention,
+        "jfr.lock." + kind + "." + className(type) + ".nanos",
+        event.getDuration().toNanos());
+  }
+
+  private static void add(Map<String, LongAdder> target, String name, long value) {
+    target.computeIfAbsent(name, key -> new LongAdder()).add(value);
+  }
+
+  private static String className(RecordedClass type) {
+    return type == null ? "unknown" : TelemetrySampler.metricName(type.getName());
+  }
+
+  private void flush() {
+    batch.reset(System.currentTimeMillis());
+    drain(gc, Integer.MAX_VALUE);
+    drain(allocations, top);
+    drain(contention, top);
+    writer.write(batch);
+  }
+
+  /** 写入累加值最大的 limit 项，并清空本轮统计 */
+  private void drain(Map<String, LongAdder> source, int limit) {
+    source.entrySet().stream()
+        .map(entry -> Map.entry(entry.getKey(), entry.getValue().sumThenReset()))
+        .filter(entry -> entry.getValue() > 0)
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        .limit(limit)
+        .forEach(entry -> batch.add(entry.getKey(), entry.getValue()));
+    source.clear();
+  }
+
+  @Override
+  public void close() {
+    stream.close();
+  }
+}
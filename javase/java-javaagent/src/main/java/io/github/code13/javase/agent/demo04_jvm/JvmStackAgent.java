@@ -15,13 +15,30 @@
 
 package io.github.code13.javase.agent.demo04_jvm;
 
+import io.github.code13.javase.agent.AgentArgs;
 import java.lang.instrument.Instrumentation;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
  * JvmStackAgent.
  *
+ * <p>参数格式 {@code key=value;key=value}：
+ *
+ * <ul>
+ *   <li>{@code mode}：{@code print}（默认，每 5 秒打印内存和 GC 信息）、{@code sampler}（MXBean 采样）或 {@code
+ *       jfr}（JFR 事件流）
+ *   <li>{@code interval}：sampler 模式的采样间隔，默认 1s
+ *   <li>{@code file}：输出文件，默认 telemetry.bin，用 {@link TelemetryReader} 读取
+ *   <li>{@code file-size-mb}：单个文件大小，默认 16
+ *   <li>{@code max-files}：保留的历史文件数，默认 4
+ *   <li>{@code top}：分配最多的线程 / 类、锁竞争最多的类各输出多少个，默认 10
+ *   <li>{@code lock-threshold}：jfr 模式下记录锁竞争的最短阻塞时间，默认 10ms
+ * </ul>
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @date 2022/5/14 09:32
  */
@@ -29,6 +46,13 @@ public class JvmStackAgent {
 
   public static void premain(String agentArgs, Instrumentation inst) {
     System.out.println("this is jvm agent: " + agentArgs);
+    AgentArgs args = AgentArgs.parse(agentArgs);
+
+    String mode = args.get("mode", "print");
+    if ("sampler".equals(mode) || "jfr".equals(mode)) {
+      startTelemetry(mode, args, inst);
+      return;
+    }
 
     Executors.newScheduledThreadPool(1)
         .scheduleAtFixedRate(
@@ -42,4 +66,55 @@ public class JvmStackAgent {
             5000,
             TimeUnit.MILLISECONDS);
   }
+
+  private static void startTelemetry(String mode, AgentArgs args, Instrumentation inst) {
+    TelemetryWriter writer =
+        new TelemetryWriter(
+            Path.of(args.get("file", "telemetry.bin")),
+            args.getInt("file-size-mb", 16) * 1024 * 1024,
+            args.getInt("max-files", 4));
+    int top = args.getInt("top", 10);
+
+    if ("jfr".equals(mode)) {
+      JfrTelemetry jfr =
+          new JfrTelemetry(writer, top, args.getDuration("lock-threshold", Duration.ofMillis(10)));
+      jfr.start();
+      Runtime.getRuntime()
+          .addShutdownHook(
+              new Thread(
+                  () -> {
+                    jfr.close();
+                    writer.close();
+                  },
+                  "jvm-telemetry-shutdown"));
+      return;
+    }
+
+    TelemetrySampler sampler = new TelemetrySampler(writer, top, inst);
+    sampler.start();
+    ScheduledExecutorService scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "jvm-telemetry-sampler");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long interval = args.getDuration("interval", Duration.ofSeconds(1)).toMillis();
+    scheduler.scheduleAtFixedRate(sampler, interval, interval, TimeUnit.MILLISECONDS);
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  scheduler.shutdown();
+                  try {
+                    // 等待正在进行的采样结束，再补一次最后的采样
+                    scheduler.awaitTermination(1, TimeUnit.SECONDS);
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                  sampler.run();
+                  writer.close();
+                },
+                "jvm-telemetry-shutdown"));
+  }
 }
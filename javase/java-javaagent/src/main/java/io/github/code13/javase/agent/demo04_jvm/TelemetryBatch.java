@@ -0,0 +1,67 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo04_jvm;
+
+import java.util.Arrays;
+
+/**
+ * 同一时刻采集的一组指标，可重复使用.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:16
+ */
+class TelemetryBatch {
+
+  private String[] names = new String[128];
+
+  private long[] values = new long[128];
+
+  private int size;
+
+  private long timestamp;
+
+  void reset(long timestamp) {
+    this.timestamp = timestamp;
+    Arrays.fill(names, 0, size, null);
+    size = 0;
+  }
+
+  void add(String name, long value) {
+    if (size == names.length) {
+      names = Arrays.copyOf(names, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    names[size] = name;
+    values[size] = value;
+    size++;
+  }
+
+  long timestamp() {
+    return timestamp;
+  }
+
+  int size() {
+    return size;
+  }
+
+  String name(int index) {
+    return names[index];
+  }
+
+  long value(int index) {
+    return values[index];
+  }
+}
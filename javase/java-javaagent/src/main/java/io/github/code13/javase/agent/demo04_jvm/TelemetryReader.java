@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo04_jvm;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读取 {@link TelemetryWriter} 写出的文件并按 CSV 输出：{@code timestamp,metric,value}.
+ *
+ * <pre>
+ * java -cp java-javaagent.jar io.github.code13.javase.agent.demo04_jvm.TelemetryReader \
+ *     telemetry.bin [metric-prefix]
+ * </pre>
+ *
+ * <p>会按时间顺序依次读取 {@code telemetry.bin.n ... telemetry.bin.1, telemetry.bin}，可以在 agent 运行时读取
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:16
+ */
+public class TelemetryReader {
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: TelemetryReader <file> [metric-prefix]");
+      System.exit(1);
+    }
+    Path file = Path.of(args[0]);
+    String prefix = args.length > 1 ? args[1] : "";
+    PrintStream out = System.out;
+    out.println("timestamp,metric,value");
+    for (Path segment : segments(file)) {
+      read(segment, prefix, out);
+    }
+    out.flush();
+  }
+
+  /** 按时间顺序排列的所有文件，编号越大越旧 */
+  static List<Path> segments(Path file) {
+    List<Path> rotated = new ArrayList<>();
+    for (int i = 1; ; i++) {
+      Path path = file.resolveSibling(file.getFileName() + "." + i);
+      if (!Files.exists(path)) {
+        break;
+      }
+      rotated.add(0, path);
+    }
+    if (Files.exists(file)) {
+      rotated.add(file);
+    }
+    return rotated;
+  }
+
+  static void read(Path segment, String prefix, PrintStream out) throws IOException {
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.remaining() < 8
+        || buffer.getInt() != TelemetryWriter.MAGIC
+        || buffer.getInt() != TelemetryWriter.VERSION) {
+      throw new IOException("Not a telemetry file: " + segment);
+    }
+    Map<Integer, String> names = new HashMap<>();
+    while (buffer.hasRemaining()) {
+      byte type = buffer.get();
+      if (type == TelemetryWriter.DEFINE) {
+        int id = buffer.getInt();
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        names.put(id, new String(bytes, StandardCharsets.UTF_8));
+      } else if (type == TelemetryWriter.SAMPLE) {
+        long timestamp = buffer.getLong();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+          int id = buffer.getInt();
+          long value = buffer.getLong();
+          String name = names.get(id);
+          if (name == null) {
+            throw new IOException("Undefined metric id " + id + " in " + segment);
+          }
+          if (name.startsWith(prefix)) {
+            out.println(timestamp + "," + name + "," + value);
+          }
+        }
+      } else {
+        // END：其余部分尚未写入
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo04_jvm;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadInfo;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 周期性采集 JVM 指标并写入 {@link TelemetryWriter}.
+ *
+ * <p>每次采样包含：
+ *
+ * <ul>
+ *   <li>{@code memory.pool.*}：每个内存池的 used / committed
+ *   <li>{@code gc.*}：两次采样之间的 GC 停顿，见 {@link GcPauseListener}
+ *   <li>{@code alloc.*}：两次采样之间的分配字节数，总量以及分配最多的 N 个线程
+ *   <li>{@code safepoint.*}：两次采样之间的 safepoint 次数、总耗时和同步耗时
+ *   <li>{@code classes.*}：已加载、累计加载和卸载的类数量
+ *   <li>{@code buffer.*}：direct / mapped 缓冲池的数量和占用
+ *   <li>{@code threads.*}：各状态的线程数
+ * </ul>
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:16
+ */
+class TelemetrySampler implements Runnable {
+
+  private final TelemetryWriter writer;
+
+  private final int topThreads;
+
+  private final GcPauseListener gcPauses = new GcPauseListener();
+
+  private final TelemetryBatch batch = new TelemetryBatch();
+
+  private final com.sun.management.ThreadMXBean threads =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+
+  private final List<MemoryPoolMXBean> memoryPools = ManagementFactory.getMemoryPoolMXBeans();
+
+  private final List<BufferPoolMXBean> bufferPools =
+      ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class);
+
+  /** 上次采样时每个线程的累计分配字节数 */
+  private Map<Long, Long> allocatedBytes = new HashMap<>();
+
+  /** HotspotRuntimeMBean 的 safepoint 计数器，不可用时为 null */
+  private final Object safepointRuntime;
+
+  private final Method[] safepointCounters;
+
+  private final long[] lastSafepointCounters = new long[3];
+
+  TelemetrySampler(TelemetryWriter writer, int topThreads, Instrumentation inst) {
+    this.writer = writer;
+    this.topThreads = topThreads;
+    Object runtime = null;
+    Method[] counters = null;
+    try {
+      runtime = openSafepointRuntime(inst);
+      Class<?> type = Class.forName("sun.management.HotspotRuntimeMBean");
+      counters =
+          new Method[] {
+            type.getMethod("getSafepointCount"),
+            type.getMethod("getTotalSafepointTime"),
+            type.getMethod("getSafepointSyncTime")
+          };
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      System.err.println("[JvmStackAgent] safepoint counters unavailable: " + e);
+    }
+    this.safepointRuntime = runtime;
+    this.safepointCounters = counters;
+  }
+
+  /**
+   * safepoint 计数器只在 JDK 内部的 HotspotRuntimeMBean 中，agent 借助 Instrumentation 把 sun.management 导出给自己，
+   * 避免要求应用启动时加 --add-exports
+   */
+  private static Object openSafepointRuntime(Instrumentation inst)
+      throws ReflectiveOperationException {
+    Module management = ManagementFactory.class.getModule();
+    inst.redefineModule(
+        management,
+        Set.of(),
+        Map.of("sun.management", Set.of(TelemetrySampler.class.getModule())),
+        Map.of(),
+        Set.of(),
+        Map.of());
+    return Class.forName("sun.management.ManagementFactoryHelper")
+        .getMethod("getHotspotRuntimeMBean")
+        .invoke(null);
+  }
+
+  void start() {
+    gcPauses.install();
+    if (threads.isThreadAllocatedMemorySupported()) {
+      threads.setThreadAllocatedMemoryEnabled(true);
+    }
+    // 以启动时的计数为基准，第一次采样只包含启动之后的增量
+    batch.reset(System.currentTimeMillis());
+    sampleThreads();
+    sampleSafepoints(null);
+  }
+
+  @Override
+  public void run() {
+    try {
+      batch.reset(System.currentTimeMillis());
+      sampleMemoryPools();
+      gcPauses.drainTo(batch);
+      sampleThreads();
+      sampleSafepoints(batch);
+      sampleClassLoading();
+      sampleBufferPools();
+      writer.write(batch);
+    } catch (Throwable e) {
+      // 异常会导致 ScheduledExecutorService 停止后续调度
+      System.err.println("[JvmStackAgent] telemetry sample failed: " + e);
+    }
+  }
+
+  private void sampleMemoryPools() {
+    for (MemoryPoolMXBean pool : memoryPools) {
+      MemoryUsage usage = pool.getUsage();
+      if (usage == null) {
+        continue;
+      }
+      String prefix = "memory.pool." + metricName(pool.getName());
+      batch.add(prefix + ".used", usage.getUsed());
+      batch.add(prefix + ".committed", usage.getCommitted());
+    }
+  }
+
+  private void sampleThreads() {
+    long[] ids = threads.getAllThreadIds();
+    ThreadInfo[] infos = threads.getThreadInfo(ids, 0);
+    long[] bytes =
+        threads.isThreadAllocatedMemoryEnabled() ? threads.getThreadAllocatedBytes(ids) : null;
+
+    int[] states = new int[Thread.State.values().length];
+    Map<Long, Long> current = new HashMap<>(ids.length * 2);
+    long totalDelta = 0;
+    long[] deltas = new long[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      if (infos[i] == null) {
+        continue;
+      }
+      states[infos[i].getThreadState().ordinal()]++;
+      if (bytes != null && bytes[i] >= 0) {
+        current.put(ids[i], bytes[i]);
+        deltas[i] = bytes[i] - allocatedBytes.getOrDefault(ids[i], 0L);
+        totalDelta += deltas[i];
+      }
+    }
+    allocatedBytes = current;
+
+    for (Thread.State state : Thread.State.values()) {
+      batch.add("threads." + state.name().toLowerCase(), states[state.ordinal()]);
+    }
+    if (bytes == null) {
+      return;
+    }
+    batch.add("alloc.bytes", totalDelta);
+    Integer[] order = new Integer[ids.length];
+    Arrays.setAll(order, i -> i);
+    Arrays.sort(order, (a, b) -> Long.compare(deltas[b], deltas[a]));
+    for (int i = 0; i < Math.min(topThreads, order.length) && deltas[order[i]] > 0; i++) {
+      ThreadInfo info = infos[order[i]];
+      batch.add(
+          "alloc.thread." + metricName(info.getThreadName()) + "#" + info.getThreadId(),
+          deltas[order[i]]);
+    }
+  }
+
+  private void sampleSafepoints(TelemetryBatch target) {
+    if (safepointCounters == null) {
+      return;
+    }
+    long[] values = new long[safepointCounters.length];
+    try {
+      for (int i = 0; i < values.length; i++) {
+        values[i] = (long) safepointCounters[i].invoke(safepointRuntime);
+      }
+    } catch (ReflectiveOperationException e) {
+      return;
+    }
+    if (target != null) {
+      target.add("safepoint.count", values[0] - lastSafepointCounters[0]);
+      target.add("safepoint.totalMillis", values[1] - lastSafepointCounters[1]);
+      target.add("safepoint.syncMillis", values[2] - lastSafepointCounters[2]);
+    }
+    System.arraycopy(values, 0, lastSafepointCounters, 0, values.length);
+  }
+
+  private void sampleClassLoading() {
+    batch.add("classes.loaded", classLoading.getLoadedClassCount());
+    batch.add("classes.totalLoaded", classLoading.getTotalLoadedClassCount());
+    batch.add("classes.unloaded", classLoading.getUnloadedClassCount());
+  }
+
+  private void sampleBufferPools() {
+    for (BufferPoolMXBean pool : bufferPools) {
+      String prefix = "buffer." + metricName(pool.getName());
+      batch.add(prefix + ".count", pool.getCount());
+      batch.add(prefix + ".used", pool.getMemoryUsed());
+      batch.add(prefix + ".capacity", pool.getTotalCapacity());
+    }
+  }
+
+  /** 指标名中的空格、逗号等替换为下划线，便于读取端按 CSV 输出 */
+  static String metricName(String name) {
+    StringBuilder builder = new StringBuilder(name.length());
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      builder.append(Character.isLetterOrDigit(c) || c == '-' || c == '_' ? c : '_');
+    }
+    return builder.toString();
+  }
+}
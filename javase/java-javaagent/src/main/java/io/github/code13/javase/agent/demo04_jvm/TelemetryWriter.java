@@ -0,0 +1,198 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo04_jvm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 将指标写入循环滚动的内存映射文件.
+ *
+ * <p>文件格式（大端）：
+ *
+ * <ul>
+ *   <li>文件头：{@code int MAGIC, int VERSION}
+ *   <li>指标定义：{@code byte DEFINE, int id, short length, byte[length] utf8 name}，每个文件第一次写入某个指标前写入
+ *   <li>采样：{@code byte SAMPLE, long timestampMillis, int count, count * (int id, long value)}
+ *   <li>{@code byte 0} 表示数据结束，文件预先分配，未写入的部分都是 0
+ * </ul>
+ *
+ * <p>当前文件写满后重命名为 {@code file.1}，已有的 {@code file.n} 依次重命名为 {@code file.n+1}，超过 maxFiles
+ * 的删除；其他进程可以在写入过程中直接读取当前文件
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:16
+ */
+class TelemetryWriter implements Closeable {
+
+  static final int MAGIC = 0x4A544D31;
+
+  static final int VERSION = 1;
+
+  static final byte END = 0;
+
+  static final byte DEFINE = 1;
+
+  static final byte SAMPLE = 2;
+
+  private static final int HEADER_SIZE = 8;
+
+  private final Path file;
+
+  private final int fileSize;
+
+  private final int maxFiles;
+
+  /** 当前文件中已定义的指标 */
+  private final Map<String, Integer> ids = new HashMap<>();
+
+  private FileChannel channel;
+
+  private MappedByteBuffer buffer;
+
+  TelemetryWriter(Path file, int fileSize, int maxFiles) {
+    this.file = file;
+    this.fileSize = fileSize;
+    this.maxFiles = Math.max(1, maxFiles);
+    open();
+  }
+
+  synchronized void write(TelemetryBatch batch) {
+    if (batch.size() == 0) {
+      return;
+    }
+    if (!tryWrite(batch)) {
+      rotate();
+      if (!tryWrite(batch)) {
+        throw new IllegalStateException("Telemetry batch is larger than file size " + fileSize);
+      }
+    }
+  }
+
+  private boolean tryWrite(TelemetryBatch batch) {
+    int start = buffer.position();
+    for (int i = 0; i < batch.size(); i++) {
+      if (!define(batch.name(i))) {
+        rollback(start);
+        return false;
+      }
+    }
+    // 末尾保留 1 字节的 END
+    if (buffer.remaining() < 1 + 8 + 4 + batch.size() * 12 + 1) {
+      rollback(start);
+      return false;
+    }
+    int typePosition = buffer.position();
+    buffer.put(END).putLong(batch.timestamp()).putInt(batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      buffer.putInt(ids.get(batch.name(i))).putLong(batch.value(i));
+    }
+    // 最后写入类型，读取方不会读到写了一半的采样
+    buffer.put(typePosition, SAMPLE);
+    return true;
+  }
+
+  private boolean define(String name) {
+    if (ids.containsKey(name)) {
+      return true;
+    }
+    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    if (buffer.remaining() < 1 + 4 + 2 + bytes.length + 1) {
+      return false;
+    }
+    int id = ids.size();
+    int typePosition = buffer.position();
+    buffer.put(END).putInt(id).putShort((short) bytes.length).put(bytes);
+    buffer.put(typePosition, DEFINE);
+    ids.put(name, id);
+    return true;
+  }
+
+  /** 撤销写了一半的定义，这些定义在新文件中重新写入 */
+  private void rollback(int position) {
+    for (int i = position; i < buffer.position(); i++) {
+      buffer.put(i, END);
+    }
+    buffer.position(position);
+  }
+
+  private void rotate() {
+    close();
+    try {
+      Files.deleteIfExists(rotated(maxFiles));
+      for (int i = maxFiles - 1; i >= 1; i--) {
+        if (Files.exists(rotated(i))) {
+          Files.move(rotated(i), rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+      }
+      Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    open();
+  }
+
+  private Path rotated(int index) {
+    return file.resolveSibling(file.getFileName() + "." + index);
+  }
+
+  private void open() {
+    try {
+      Files.deleteIfExists(file);
+      channel =
+          FileChannel.open(
+              file,
+              StandardOpenOption.CREATE_NEW,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE);
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    buffer.putInt(MAGIC).putInt(VERSION);
+    ids.clear();
+  }
+
+  @Override
+  public synchronized void close() {
+    if (channel == null) {
+      return;
+    }
+    buffer.force();
+    try {
+      // 截掉未使用的部分，位置之后至少保留一个 END
+      channel.truncate(Math.max(HEADER_SIZE, buffer.position() + 1));
+    } catch (IOException e) {
+      // 部分平台不允许截断已映射的文件，保留预分配的大小
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    channel = null;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track;
+
+import io.github.code13.javase.agent.demo05_threadlocal_track.tracing.TracingCallable;
+import io.github.code13.javase.agent.demo05_threadlocal_track.tracing.TracingRunnable;
+import java.util.concurrent.Callable;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+
+/**
+ * 织入 JDK 线程池的 advice，在提交任务时包装任务，将提交线程的链路传递到执行线程.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+public class ExecutorAdvice {
+
+  /** 第一个参数为 {@link Runnable} 的提交方法 */
+  public static class RunnableArgument {
+
+    @Advice.OnMethodEnter
+    public static void enter(
+        @Advice.Argument(value = 0, readOnly = false, typing = Assigner.Typing.DYNAMIC)
+            Runnable task) {
+      task = TracingRunnable.wrap(task);
+    }
+  }
+
+  /** 第一个参数为 {@link Callable} 的提交方法 */
+  public static class CallableArgument {
+
+    @Advice.OnMethodEnter
+    public static void enter(
+        @Advice.Argument(value = 0, readOnly = false, typing = Assigner.Typing.DYNAMIC)
+            Callable<?> task) {
+      task = TracingCallable.wrap(task);
+    }
+  }
+
+  /** {@code ThreadBuilders.newVirtualThread(Executor, String, int, Runnable)} */
+  public static class VirtualThreadTask {
+
+    @Advice.OnMethodEnter
+    public static void enter(
+        @Advice.Argument(value = 3, readOnly = false, typing = Assigner.Typing.DYNAMIC)
+            Runnable task) {
+      task = TracingRunnable.wrap(task);
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track;
+
+import io.github.code13.javase.agent.demo05_threadlocal_track.tracing.SpanRingBuffer;
+import io.github.code13.javase.agent.demo05_threadlocal_track.tracing.Tracer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 在后台线程中取出 {@link SpanRingBuffer} 中的 span 并追加写入本地文件.
+ *
+ * <p>每行一个 span：{@code traceId,spanId,parentSpanId,threadId,startEpochMicros,durationNanos,name}，id 为 16
+ * 位十六进制，根 span 的 parentSpanId 为 0
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+public class SpanFileExporter implements Runnable {
+
+  private static final int BATCH_SIZE = 4096;
+
+  private final Path file;
+
+  private final long intervalNanos;
+
+  private final SpanRingBuffer buffer = Tracer.buffer();
+
+  /** nanoTime 与纪元时间的差值，用于把 span 的开始时间转换为纪元时间 */
+  private final long epochOffsetNanos =
+      TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - System.nanoTime();
+
+  private final StringBuilder line = new StringBuilder(256);
+
+  private volatile boolean running = true;
+
+  private Thread thread;
+
+  private long lastDropped;
+
+  public SpanFileExporter(Path file, long intervalMillis) {
+    this.file = file;
+    intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+  }
+
+  public synchronized void start() {
+    thread = new Thread(this, "span-file-exporter");
+    thread.setDaemon(true);
+    thread.start();
+    Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "span-file-exporter-shutdown"));
+  }
+
+  public void stop() {
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void run() {
+    try (BufferedWriter writer =
+        Files.newBufferedWriter(
+            file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      while (running) {
+        if (drain(writer) == 0) {
+          LockSupport.parkNanos(intervalNanos);
+        }
+      }
+      // 退出前写出剩余的 span
+      while (drain(writer) > 0) {
+        // drain
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private int drain(BufferedWriter writer) throws IOException {
+    int count =
+        buffer.drain(
+            (traceId, spanId, parentSpanId, threadId, startNanos, durationNanos, name) -> {
+              line.setLength(0);
+              appendHex(traceId).append(',');
+              appendHex(spanId).append(',');
+              appendHex(parentSpanId).append(',');
+              line.append(threadId)
+                  .append(',')
+                  .append(TimeUnit.NANOSECONDS.toMicros(startNanos + epochOffsetNanos))
+                  .append(',')
+                  .append(durationNanos)
+                  .append(',')
+                  .append(name)
+                  .append('\n');
+              try {
+                writer.append(line);
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            },
+            BATCH_SIZE);
+    long dropped = buffer.dropped();
+    if (dropped != lastDropped) {
+      writer.append("# dropped ").append(Long.toString(dropped - lastDropped)).append('\n');
+      lastDropped = dropped;
+    }
+    if (count > 0) {
+      writer.flush();
+    }
+    return count;
+  }
+
+  private StringBuilder appendHex(long id) {
+    String hex = Long.toHexString(id);
+    for (int i = hex.length(); i < 16; i++) {
+      line.append('0');
+    }
+    return line.append(hex);
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track;
+
+import io.github.code13.javase.agent.demo05_threadlocal_track.tracing.Tracer;
+import net.bytebuddy.asm.Advice;
+
+/**
+ * tracing 模式下织入业务方法的 advice.
+ *
+ * <p>方法名通过 {@code @Advice.Origin} 以字符串常量的形式内联，入栈出栈都不分配对象
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+public class TracingAdvice {
+
+  @Advice.OnMethodEnter
+  public static void enter() {
+    Tracer.enter();
+  }
+
+  @Advice.OnMethodExit(onThrowable = Throwable.class)
+  public static void exit(@Advice.Origin("#t.#m") String name) {
+    Tracer.exit(name);
+  }
+}
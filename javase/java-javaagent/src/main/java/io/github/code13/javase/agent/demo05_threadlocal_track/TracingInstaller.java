@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track;
+
+import io.github.code13.javase.agent.AgentArgs;
+import io.github.code13.javase.agent.demo05_threadlocal_track.tracing.Tracer;
+import java.lang.instrument.Instrumentation;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.Advice;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+
+/**
+ * 安装 tracing 模式.
+ *
+ * <p>{@link Tracer} 所在的包需要先由 {@link TrackAgent} 注入到 bootstrap 类加载器，因此本类在注入之后才会被加载
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+class TracingInstaller {
+
+  private TracingInstaller() {}
+
+  static void install(
+      AgentArgs args,
+      Instrumentation inst,
+      ElementMatcher<? super TypeDescription> types,
+      AgentBuilder.Listener listener) {
+    Tracer.init(args.getInt("buffer-size", 1 << 16));
+    new SpanFileExporter(
+            Path.of(args.get("trace-file", "trace-spans.log")),
+            args.getDuration("flush-interval", Duration.ofMillis(100)).toMillis())
+        .start();
+
+    new AgentBuilder.Default()
+        .type(types)
+        .transform(
+            (builder, typeDescription, classLoader, module, protectionDomain) ->
+                builder.visit(
+                    Advice.to(TracingAdvice.class)
+                        .on(
+                            ElementMatchers.isMethod()
+                                .and(ElementMatchers.not(ElementMatchers.isAbstract()))
+                                .and(ElementMatchers.not(ElementMatchers.isNative()))
+                                .and(ElementMatchers.not(ElementMatchers.isSynthetic())))))
+        .with(listener)
+        .installOn(inst);
+
+    if (args.getBoolean("propagate", true)) {
+      installPropagation(inst, listener);
+    }
+  }
+
+  /**
+   * 织入 JDK 中提交任务的方法.
+   *
+   * <ul>
+   *   <li>{@code ThreadPoolExecutor.execute}，{@code submit}/{@code invokeAll} 最终都会调用它
+   *   <li>{@code ScheduledThreadPoolExecutor} 的 {@code execute}/{@code schedule*}
+   *   <li>{@code ForkJoinPool} 的 {@code execute}/{@code submit}，包括 {@code CompletableFuture} 的异步方法；公共池并行度为 1
+   *       时 {@code CompletableFuture} 改用内部的 {@code ThreadPerTaskExecutor}，也一并织入
+   *   <li>{@code ThreadPerTaskExecutor.newThread} 与 {@code ThreadBuilders.newVirtualThread}，覆盖虚拟线程
+   * </ul>
+   *
+   * <p>任务被包装后，{@code ThreadPoolExecutor#remove}、{@code afterExecute} 等拿到的是包装后的任务
+   */
+  private static void installPropagation(Instrumentation inst, AgentBuilder.Listener listener) {
+    ElementMatcher.Junction<MethodDescription> runnableFirst =
+        ElementMatchers.takesArgument(0, Runnable.class);
+    ElementMatcher.Junction<MethodDescription> callableFirst =
+        ElementMatchers.takesArgument(0, Callable.class);
+
+    new AgentBuilder.Default()
+        .disableClassFormatChanges()
+        .with(AgentBuilder.RedefinitionStrategy.RETRANSFORMATION)
+        .ignore(ElementMatchers.nameStartsWith("net.bytebuddy."))
+        .type(
+            ElementMatchers.named("java.util.concurrent.ThreadPoolExecutor")
+                .or(ElementMatchers.named("java.util.concurrent.ScheduledThreadPoolExecutor"))
+                .or(ElementMatchers.named("java.util.concurrent.ForkJoinPool"))
+                .or(
+                    ElementMatchers.named(
+                        "java.util.concurrent.CompletableFuture$ThreadPerTaskExecutor")))
+        .transform(
+            (builder, typeDescription, classLoader, module, protectionDomain) ->
+                builder
+                    .visit(
+                        Advice.to(ExecutorAdvice.RunnableArgument.class)
+                            .on(
+                                ElementMatchers.namedOneOf(
+                                        "execute",
+                                        "submit",
+                                        "schedule",
+                                        "scheduleAtFixedRate",
+                                        "scheduleWithFixedDelay")
+                                    .and(runnableFirst)))
+                    .visit(
+                        Advice.to(ExecutorAdvice.CallableArgument.class)
+                            .on(
+                                ElementMatchers.namedOneOf("submit", "schedule")
+                                    .and(callableFirst))))
+        .type(ElementMatchers.named("java.util.concurrent.ThreadPerTaskExecutor"))
+        .transform(
+            (builder, typeDescription, classLoader, module, protectionDomain) ->
+                builder.visit(
+                    Advice.to(ExecutorAdvice.RunnableArgument.class)
+                        .on(ElementMatchers.named("newThread").and(runnableFirst))))
+        .type(ElementMatchers.named("java.lang.ThreadBuilders"))
+        .transform(
+            (builder, typeDescription, classLoader, module, protectionDomain) ->
+                builder.visit(
+                    Advice.to(ExecutorAdvice.VirtualThreadTask.class)
+                        .on(
+                            ElementMatchers.named("newVirtualThread")
+                                .and(ElementMatchers.takesArguments(4))
+                                .and(ElementMatchers.takesArgument(3, Runnable.class)))))
+        .with(listener)
+        .installOn(inst);
+  }
+}
@@ -39,7 +39,7 @@ public class TrackAdvice {
     System.out.println("链路追踪：" + entrySpan + " " + className + "." + methodName);
   }
 
-  @Advice.OnMethodEnter()
+  @Advice.OnMethodExit(onThrowable = Throwable.class)
   public static void exit(
       @Advice.Origin("#t") String className, @Advice.Origin("#m") String methodName) {
     TrackManager.getExitSpan();
@@ -15,26 +15,77 @@
 
 package io.github.code13.javase.agent.demo05_threadlocal_track;
 
+import io.github.code13.javase.agent.AgentArgs;
+import io.github.code13.javase.agent.NameGlobs;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.instrument.Instrumentation;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import net.bytebuddy.agent.builder.AgentBuilder;
 import net.bytebuddy.agent.builder.AgentBuilder.Default;
 import net.bytebuddy.agent.builder.AgentBuilder.Listener;
 import net.bytebuddy.asm.Advice;
 import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.ClassFileLocator;
 import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassInjector;
+import net.bytebuddy.matcher.ElementMatcher;
 import net.bytebuddy.matcher.ElementMatchers;
 import net.bytebuddy.utility.JavaModule;
 
 /**
  * TrackAgent.
  *
+ * <p>参数见 {@link AgentArgs}，{@code mode} 默认为 {@code simple}，即基于 {@link TrackManager} 打印每次调用的演示；
+ * {@code tracing} 模式使用 {@link TracingAdvice} 记录 span，并在线程池、ForkJoinPool、虚拟线程之间传递链路：
+ *
+ * <ul>
+ *   <li>{@code include}/{@code exclude}：需要追踪/排除的类，通配符见 {@link NameGlobs}
+ *   <li>{@code trace-file}：span 输出文件，默认 {@code trace-spans.log}
+ *   <li>{@code flush-interval}：没有 span 时写出线程的等待间隔，默认 100ms
+ *   <li>{@code buffer-size}：环形缓冲区大小，默认 65536，满时丢弃 span
+ *   <li>{@code propagate}：是否在线程之间传递链路，默认 true
+ * </ul>
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @date 2022/5/14 10:00
  */
 public class TrackAgent {
 
+  private static final List<String> DEFAULT_INCLUDE =
+      List.of("io.github.code13.javase.agent.demo05_threadlocal_track");
+
+  /** 注入 bootstrap 类加载器的运行时代码，始终不追踪 */
+  private static final String TRACING_PACKAGE =
+      "io.github.code13.javase.agent.demo05_threadlocal_track.tracing";
+
+  private static final List<String> TRACING_CLASSES =
+      List.of(
+          "SpanConsumer",
+          "SpanRingBuffer",
+          "SpanStack",
+          "Tracer",
+          "TracingCallable",
+          "TracingRunnable");
+
   public static void premain(String agentArgs, Instrumentation inst) {
     System.out.println("基于javaagent链路追踪");
+    AgentArgs args = AgentArgs.parse(agentArgs);
+    ElementMatcher.Junction<TypeDescription> types =
+        NameGlobs.<TypeDescription>matcher(
+                args.getList("include", DEFAULT_INCLUDE), args.getList("exclude", List.of()))
+            .and(ElementMatchers.not(ElementMatchers.nameStartsWith(TRACING_PACKAGE)));
+
+    if ("tracing".equals(args.get("mode", "simple"))) {
+      injectBootstrap(inst);
+      TracingInstaller.install(args, inst, types, new Listener.Adapter() {});
+      return;
+    }
 
     AgentBuilder agentBuilder = new Default();
 
@@ -47,13 +98,7 @@ public class TrackAgent {
                             .and(ElementMatchers.any())
                             .and(ElementMatchers.not(ElementMatchers.nameStartsWith("main")))));
 
-    agentBuilder =
-        agentBuilder
-            .type(
-                ElementMatchers.nameStartsWith(
-                    "io.github.code13.javase.agent.demo05_threadlocal_track"))
-            .transform(transformer)
-            .asTerminalTransformation();
+    agentBuilder = agentBuilder.type(types).transform(transformer).asTerminalTransformation();
 
     AgentBuilder.Listener listener =
         new Listener() {
@@ -93,4 +138,33 @@ public class TrackAgent {
 
     agentBuilder.with(listener).installOn(inst);
   }
+
+  /**
+   * 将 {@link #TRACING_CLASSES} 注入 bootstrap 类加载器，使织入 JDK 线程池的代码可以访问，并让 java.base 模块可以读取它们所在的模块.
+   *
+   * <p>注入前不能加载这些类，否则应用类加载器中会有另一份拷贝
+   */
+  private static void injectBootstrap(Instrumentation inst) {
+    Map<String, byte[]> types = new LinkedHashMap<>();
+    try {
+      ClassFileLocator locator = ClassFileLocator.ForClassLoader.ofSystemLoader();
+      for (String simpleName : TRACING_CLASSES) {
+        String name = TRACING_PACKAGE + "." + simpleName;
+        types.put(name, locator.locate(name).resolve());
+      }
+      File folder = Files.createTempDirectory("track-agent").toFile();
+      folder.deleteOnExit();
+      ClassInjector.UsingInstrumentation.of(
+              folder, ClassInjector.UsingInstrumentation.Target.BOOTSTRAP, inst)
+          .injectRaw(types);
+
+      Module tracingModule = Class.forName(TRACING_PACKAGE + ".Tracer", false, null).getModule();
+      inst.redefineModule(
+          Object.class.getModule(), Set.of(tracingModule), Map.of(), Map.of(), Set.of(), Map.of());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
 }
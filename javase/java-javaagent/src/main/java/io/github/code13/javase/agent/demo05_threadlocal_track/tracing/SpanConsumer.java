@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track.tracing;
+
+/**
+ * 接收 {@link SpanRingBuffer} 中取出的 span.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+@FunctionalInterface
+public interface SpanConsumer {
+
+  void accept(
+      long traceId,
+      long spanId,
+      long parentSpanId,
+      long threadId,
+      long startNanos,
+      long durationNanos,
+      String name);
+}
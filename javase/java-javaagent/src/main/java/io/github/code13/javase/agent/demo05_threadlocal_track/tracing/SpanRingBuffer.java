@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track.tracing;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多生产者单消费者的无锁环形缓冲区.
+ *
+ * <p>span 的各个字段保存在预分配的数组中，生产者通过 CAS 占用序号、写入字段后发布；缓冲区满时直接丢弃并计数，不阻塞业务线程
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+public final class SpanRingBuffer {
+
+  private final int capacity;
+
+  private final int mask;
+
+  private final long[] traceIds;
+
+  private final long[] spanIds;
+
+  private final long[] parentSpanIds;
+
+  private final long[] threadIds;
+
+  private final long[] starts;
+
+  private final long[] durations;
+
+  private final String[] names;
+
+  /** 每个槽位已发布的序号 + 1 */
+  private final AtomicLongArray published;
+
+  private final AtomicLong tail = new AtomicLong();
+
+  private final LongAdder dropped = new LongAdder();
+
+  /** 消费者的位置，只由消费者线程写入 */
+  private volatile long head;
+
+  public SpanRingBuffer(int capacity) {
+    this.capacity = Integer.highestOneBit(Math.max(2, capacity));
+    mask = this.capacity - 1;
+    traceIds = new long[this.capacity];
+    spanIds = new long[this.capacity];
+    parentSpanIds = new long[this.capacity];
+    threadIds = new long[this.capacity];
+    starts = new long[this.capacity];
+    durations = new long[this.capacity];
+    names = new String[this.capacity];
+    published = new AtomicLongArray(this.capacity);
+  }
+
+  boolean offer(
+      long traceId,
+      long spanId,
+      long parentSpanId,
+      long threadId,
+      long startNanos,
+      long durationNanos,
+      String name) {
+    long sequence;
+    do {
+      sequence = tail.get();
+      if (sequence - head >= capacity) {
+        dropped.increment();
+        return false;
+      }
+    } while (!tail.compareAndSet(sequence, sequence + 1));
+
+    int index = (int) sequence & mask;
+    traceIds[index] = traceId;
+    spanIds[index] = spanId;
+    parentSpanIds[index] = parentSpanId;
+    threadIds[index] = threadId;
+    starts[index] = startNanos;
+    durations[index] = durationNanos;
+    names[index] = name;
+    published.setRelease(index, sequence + 1);
+    return true;
+  }
+
+  /**
+   * 取出已发布的 span，只能由一个线程调用.
+   *
+   * @param consumer 接收 span
+   * @param limit 最多取出的数量
+   * @return 取出的数量
+   */
+  public int drain(SpanConsumer consumer, int limit) {
+    long position = head;
+    int count = 0;
+    while (count < limit) {
+      int index = (int) position & mask;
+      if (published.getAcquire(index) != position + 1) {
+        break;
+      }
+      consumer.accept(
+          traceIds[index],
+          spanIds[index],
+          parentSpanIds[index],
+          threadIds[index],
+          starts[index],
+          durations[index],
+          names[index]);
+      names[index] = null;
+      position++;
+      count++;
+      head = position;
+    }
+    return count;
+  }
+
+  /** 缓冲区满时丢弃的 span 数量 */
+  public long dropped() {
+    return dropped.sum();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track.tracing;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 单个线程的 span 栈.
+ *
+ * <p>span id 为 64 位随机数，保存在预分配的 long 数组中，入栈出栈不分配对象；栈深度超过 {@link #MAX_DEPTH} 后只计数不记录，保证出入栈配对
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+public final class SpanStack {
+
+  private static final int INITIAL_DEPTH = 16;
+
+  private static final int MAX_DEPTH = 1024;
+
+  private final long threadId = Thread.currentThread().threadId();
+
+  private long[] spanIds = new long[INITIAL_DEPTH];
+
+  private long[] starts = new long[INITIAL_DEPTH];
+
+  private int depth;
+
+  private long traceId;
+
+  /** 根 span 的父 span，来自提交任务的线程，没有时为 0 */
+  private long rootParentSpanId;
+
+  /** 是否正在执行从其他线程传递过来的任务 */
+  private boolean attached;
+
+  static long newId() {
+    long id = ThreadLocalRandom.current().nextLong();
+    return id == 0 ? 1 : id;
+  }
+
+  void push(long start) {
+    if (depth == 0 && !attached) {
+      traceId = newId();
+      rootParentSpanId = 0;
+    }
+    if (depth < spanIds.length || grow()) {
+      spanIds[depth] = newId();
+      starts[depth] = start;
+    }
+    depth++;
+  }
+
+  private boolean grow() {
+    if (spanIds.length >= MAX_DEPTH) {
+      return false;
+    }
+    spanIds = Arrays.copyOf(spanIds, spanIds.length * 2);
+    starts = Arrays.copyOf(starts, starts.length * 2);
+    return true;
+  }
+
+  void pop(String name, long end, SpanRingBuffer buffer) {
+    if (depth == 0) {
+      // 方法执行过程中才被织入，只有出栈没有入栈
+      return;
+    }
+    depth--;
+    if (depth < spanIds.length) {
+      long parentSpanId = depth == 0 ? rootParentSpanId : spanIds[depth - 1];
+      buffer.offer(
+          traceId,
+          spanIds[depth],
+          parentSpanId,
+          threadId,
+          starts[depth],
+          end - starts[depth],
+          name);
+    }
+    if (depth == 0 && !attached) {
+      traceId = 0;
+    }
+  }
+
+  /** 是否处于某个链路中 */
+  boolean active() {
+    return depth > 0 || attached;
+  }
+
+  long traceId() {
+    return traceId;
+  }
+
+  /** 当前 span，作为提交到其他线程的任务的父 span */
+  long currentSpanId() {
+    if (depth == 0) {
+      return rootParentSpanId;
+    }
+    return spanIds[Math.min(depth, spanIds.length) - 1];
+  }
+
+  /**
+   * 在执行其他线程提交的任务前关联提交时的链路.
+   *
+   * @return 是否关联成功，当前线程已经处于某个链路中时（例如 CallerRunsPolicy 在提交线程中执行任务）不关联
+   */
+  boolean attach(long traceId, long parentSpanId) {
+    if (active()) {
+      return false;
+    }
+    this.traceId = traceId;
+    rootParentSpanId = parentSpanId;
+    attached = true;
+    return true;
+  }
+
+  void detach() {
+    attached = false;
+    traceId = 0;
+    rootParentSpanId = 0;
+  }
+}
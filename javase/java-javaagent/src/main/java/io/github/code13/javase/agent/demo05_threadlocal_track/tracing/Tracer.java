@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track.tracing;
+
+/**
+ * 链路追踪入口，由织入到业务方法中的 advice 调用.
+ *
+ * <p>该包下的类会被注入到 bootstrap 类加载器，以便织入 JDK 线程池的代码也能访问，因此只依赖 JDK，且不使用 lambda 和内部类
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+public final class Tracer {
+
+  private static final ThreadLocal<SpanStack> STACKS = new ThreadLocal<>();
+
+  private static volatile SpanRingBuffer buffer = new SpanRingBuffer(1 << 16);
+
+  private Tracer() {}
+
+  /**
+   * 初始化，需要在织入前调用.
+   *
+   * @param bufferSize 环形缓冲区大小，向下取整为 2 的幂
+   */
+  public static void init(int bufferSize) {
+    buffer = new SpanRingBuffer(bufferSize);
+  }
+
+  public static SpanRingBuffer buffer() {
+    return buffer;
+  }
+
+  public static void enter() {
+    current().push(System.nanoTime());
+  }
+
+  public static void exit(String name) {
+    long end = System.nanoTime();
+    SpanStack stack = STACKS.get();
+    if (stack != null) {
+      stack.pop(name, end, buffer);
+    }
+  }
+
+  static SpanStack current() {
+    SpanStack stack = STACKS.get();
+    if (stack == null) {
+      stack = new SpanStack();
+      STACKS.set(stack);
+    }
+    return stack;
+  }
+
+  /** 当前线程处于某个链路中时返回 span 栈，否则返回 null */
+  static SpanStack active() {
+    SpanStack stack = STACKS.get();
+    return stack != null && stack.active() ? stack : null;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track.tracing;
+
+/**
+ * 携带提交线程链路的 {@link Runnable}.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+public final class TracingRunnable implements Runnable {
+
+  private final Runnable delegate;
+
+  private final long traceId;
+
+  private final long parentSpanId;
+
+  private TracingRunnable(Runnable delegate, long traceId, long parentSpanId) {
+    this.delegate = delegate;
+    this.traceId = traceId;
+    this.parentSpanId = parentSpanId;
+  }
+
+  /** 当前线程处于某个链路中时包装任务，否则原样返回 */
+  public static Runnable wrap(Runnable task) {
+    if (task == null || task instanceof TracingRunnable) {
+      return task;
+    }
+    SpanStack stack = Tracer.active();
+    if (stack == null) {
+      return task;
+    }
+    return new TracingRunnable(task, stack.traceId(), stack.currentSpanId());
+  }
+
+  @Override
+  public void run() {
+    SpanStack stack = Tracer.current();
+    if (!stack.attach(traceId, parentSpanId)) {
+      delegate.run();
+      return;
+    }
+    try {
+      delegate.run();
+    } finally {
+      stack.detach();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+}
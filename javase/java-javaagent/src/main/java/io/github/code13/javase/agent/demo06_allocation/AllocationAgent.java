@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation;
+
+import io.github.code13.javase.agent.AgentArgs;
+import io.github.code13.javase.agent.NameGlobs;
+import io.github.code13.javase.agent.demo06_allocation.sampler.AllocationProfiler;
+import io.github.code13.javase.agent.demo06_allocation.sampler.AllocationReporter;
+import io.github.code13.javase.agent.demo06_allocation.sampler.AllocationSampler;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.instrument.Instrumentation;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import net.bytebuddy.agent.builder.AgentBuilder;
+import net.bytebuddy.asm.AsmVisitorWrapper;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.matcher.ElementMatcher;
+import net.bytebuddy.matcher.ElementMatchers;
+
+/**
+ * 分配采样 agent，统计配置的包中哪些分配点产生了最多的垃圾.
+ *
+ * <p>参数见 {@link AgentArgs}：
+ *
+ * <ul>
+ *   <li>{@code include}/{@code exclude}：需要插桩/排除的类，通配符见 {@link NameGlobs}
+ *   <li>{@code sample-bytes}：平均每分配多少字节采样一次，默认 512KB，1 表示记录每次分配
+ *   <li>{@code report-interval}：输出间隔，默认 30s，0 表示只在退出时输出
+ *   <li>{@code report-top}：按字节数、次数各输出前 N 个分配点，默认 20
+ *   <li>{@code report-reset}：每次输出后是否清零，默认 false（输出累计值）
+ *   <li>{@code report-file}：追加输出到文件，默认输出到控制台
+ * </ul>
+ *
+ * <p>同时注册 {@link AllocationProfiler} MXBean，可以通过 JMX 按需查看和清零
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+public class AllocationAgent {
+
+  private static final List<String> DEFAULT_INCLUDE =
+      List.of("io.github.code13.javase.agent.demo06_allocation.AllocationAgentTest");
+
+  /** agent 自身的运行时代码，始终不插桩 */
+  private static final String SAMPLER_PACKAGE =
+      "io.github.code13.javase.agent.demo06_allocation.sampler";
+
+  /** agent 自身的类，include 覆盖了 agent 所在的包时同样不插桩 */
+  private static final List<Class<?>> AGENT_CLASSES =
+      List.of(AllocationAgent.class, AllocationSiteVisitor.class);
+
+  public static void premain(String agentArgs, Instrumentation inst) {
+    System.out.println("allocation agent: " + agentArgs);
+    AgentArgs args = AgentArgs.parse(agentArgs);
+
+    AllocationSampler.setSampleBytes(args.getLong("sample-bytes", 512 * 1024));
+    AllocationProfiler.register();
+    new AllocationReporter(
+            reportStream(args.get("report-file", null)),
+            args.getInt("report-top", 20),
+            args.getBoolean("report-reset", false))
+        .start(args.getDuration("report-interval", Duration.ofSeconds(30)).toMillis());
+
+    AsmVisitorWrapper visitor =
+        new AsmVisitorWrapper.ForDeclaredMethods()
+            .invokable(
+                ElementMatchers.not(ElementMatchers.isAbstract())
+                    .and(ElementMatchers.not(ElementMatchers.isNative())),
+                new AllocationSiteVisitor());
+
+    new AgentBuilder.Default()
+        .with(AgentBuilder.TypeStrategy.Default.DECORATE)
+        .with(AgentBuilder.InitializationStrategy.NoOp.INSTANCE)
+        .with(AgentBuilder.Listener.StreamWriting.toSystemError().withErrorsOnly())
+        .type(
+            NameGlobs.<TypeDescription>matcher(
+                    args.getList("include", DEFAULT_INCLUDE), args.getList("exclude", List.of()))
+                .and(ElementMatchers.not(agentClasses())))
+        .transform(
+            (builder, typeDescription, classLoader, module, protectionDomain) ->
+                builder.visit(visitor))
+        .installOn(inst);
+  }
+
+  private static ElementMatcher.Junction<TypeDescription> agentClasses() {
+    ElementMatcher.Junction<TypeDescription> matcher =
+        ElementMatchers.nameStartsWith(SAMPLER_PACKAGE + ".");
+    for (Class<?> type : AGENT_CLASSES) {
+      matcher =
+          matcher
+              .or(ElementMatchers.named(type.getName()))
+              .or(ElementMatchers.nameStartsWith(type.getName() + "$"));
+    }
+    return matcher;
+  }
+
+  private static PrintStream reportStream(String reportFile) {
+    if (reportFile == null) {
+      return System.out;
+    }
+    try {
+      return new PrintStream(new FileOutputStream(reportFile, true), true, StandardCharsets.UTF_8);
+    } catch (FileNotFoundException e) {
+      throw new IllegalArgumentException("Cannot open report file " + reportFile, e);
+    }
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation;
+
+import io.github.code13.javase.agent.demo06_allocation.sampler.AllocationSampler;
+import io.github.code13.javase.agent.demo06_allocation.sampler.AllocationSites;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.bytebuddy.asm.AsmVisitorWrapper;
+import net.bytebuddy.description.field.FieldDescription;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.description.type.TypeDefinition;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.jar.asm.Label;
+import net.bytebuddy.jar.asm.MethodVisitor;
+import net.bytebuddy.jar.asm.Opcodes;
+import net.bytebuddy.jar.asm.Type;
+import net.bytebuddy.pool.TypePool;
+
+/**
+ * 在 {@code new}、{@code newarray}、{@code anewarray}、{@code multianewarray} 之前插入 {@link
+ * AllocationSampler} 调用.
+ *
+ * <p>每条分配指令在类转换时注册为一个分配点（类、方法、行号、类型），id 和大小作为常量内联：
+ *
+ * <ul>
+ *   <li>{@code new}：调用 {@code allocate(site, size)}，size 为转换时按字段估算的浅大小（12 字节对象头 + 字段，引用按压缩指针 4
+ *       字节，8 字节对齐），无法解析类型时按 16 字节
+ *   <li>{@code newarray} / {@code anewarray}：复制栈顶的长度，调用 {@code allocateArray(length, site, shift)}
+ *   <li>{@code multianewarray}：只按最外层数组 16 字节记录
+ * </ul>
+ *
+ * <p>插入的都是顺序执行的指令，不改变跳转和栈帧，只需要增大 max stack
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+class AllocationSiteVisitor implements AsmVisitorWrapper.ForDeclaredMethods.MethodVisitorWrapper {
+
+  private static final String SAMPLER = Type.getInternalName(AllocationSampler.class);
+
+  /** 插入的代码最多占用 4 个栈槽：length, length, site, shift 或 site, long size */
+  private static final int EXTRA_STACK = 4;
+
+  private static final long DEFAULT_OBJECT_SIZE = 16;
+
+  /** 按类名缓存的浅大小估算 */
+  private final Map<String, Long> objectSizes = new ConcurrentHashMap<>();
+
+  @Override
+  public MethodVisitor wrap(
+      TypeDescription instrumentedType,
+      MethodDescription instrumentedMethod,
+      MethodVisitor methodVisitor,
+      Implementation.Context implementationContext,
+      TypePool typePool,
+      int writerFlags,
+      int readerFlags) {
+    String location =
+        instrumentedType.getName()
+            + "."
+            + (instrumentedMethod.isConstructor() ? "<init>" : instrumentedMethod.getName());
+    return new SiteVisitor(methodVisitor, location, typePool);
+  }
+
+  private final class SiteVisitor extends MethodVisitor {
+
+    private final String location;
+
+    private final TypePool typePool;
+
+    private int line = -1;
+
+    SiteVisitor(MethodVisitor methodVisitor, String location, TypePool typePool) {
+      super(Opcodes.ASM9, methodVisitor);
+      this.location = location;
+      this.typePool = typePool;
+    }
+
+    @Override
+    public void visitLineNumber(int line, Label start) {
+      this.line = line;
+      super.visitLineNumber(line, start);
+    }
+
+    @Override
+    public void visitTypeInsn(int opcode, String type) {
+      if (opcode == Opcodes.NEW) {
+        String className = type.replace('/', '.');
+        recordObject(register(className), objectSize(className));
+      } else if (opcode == Opcodes.ANEWARRAY) {
+        recordArray(register(Type.getObjectType(type).getClassName() + "[]"), 2);
+      }
+      super.visitTypeInsn(opcode, type);
+    }
+
+    @Override
+    public void visitIntInsn(int opcode, int operand) {
+      if (opcode == Opcodes.NEWARRAY) {
+        recordArray(register(primitiveName(operand) + "[]"), primitiveShift(operand));
+      }
+      super.visitIntInsn(opcode, operand);
+    }
+
+    @Override
+    public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+      recordObject(register(Type.getType(descriptor).getClassName()), DEFAULT_OBJECT_SIZE);
+      super.visitMultiANewArrayInsn(descriptor, numDimensions);
+    }
+
+    @Override
+    public void visitMaxs(int maxStack, int maxLocals) {
+      super.visitMaxs(maxStack + EXTRA_STACK, maxLocals);
+    }
+
+    private int register(String allocatedType) {
+      return AllocationSites.register(location + ":" + line + " " + allocatedType);
+    }
+
+    private void recordObject(int site, long size) {
+      super.visitLdcInsn(site);
+      super.visitLdcInsn(size);
+      super.visitMethodInsn(Opcodes.INVOKESTATIC, SAMPLER, "allocate", "(IJ)V", false);
+    }
+
+    /** 栈顶为数组长度 */
+    private void recordArray(int site, int elementShift) {
+      super.visitInsn(Opcodes.DUP);
+      super.visitLdcInsn(site);
+      super.visitLdcInsn(elementShift);
+      super.visitMethodInsn(Opcodes.INVOKESTATIC, SAMPLER, "allocateArray", "(III)V", false);
+    }
+
+    private long objectSize(String className) {
+      return objectSizes.computeIfAbsent(className, name -> estimate(typePool, name));
+    }
+  }
+
+  /** 估算实例的浅大小 */
+  static long estimate(TypePool typePool, String className) {
+    TypePool.Resolution resolution = typePool.describe(className);
+    if (!resolution.isResolved()) {
+      return DEFAULT_OBJECT_SIZE;
+    }
+    try {
+      long size = 12;
+      TypeDefinition type = resolution.resolve();
+      while (type != null) {
+        for (FieldDescription field : type.getDeclaredFields()) {
+          if (!field.isStatic()) {
+            size += fieldSize(field.getType().asErasure());
+          }
+        }
+        type = type.getSuperClass();
+      }
+      return Math.max(DEFAULT_OBJECT_SIZE, (size + 7) & ~7L);
+    } catch (RuntimeException e) {
+      // 父类无法解析
+      return DEFAULT_OBJECT_SIZE;
+    }
+  }
+
+  private static int fieldSize(TypeDescription type) {
+    if (!type.isPrimitive()) {
+      return 4;
+    }
+    return switch (type.getName()) {
+      case "long", "double" -> 8;
+      case "int", "float" -> 4;
+      case "short", "char" -> 2;
+      default -> 1;
+    };
+  }
+
+  private static String primitiveName(int operand) {
+    return switch (operand) {
+      case Opcodes.T_BOOLEAN -> "boolean";
+      case Opcodes.T_CHAR -> "char";
+      case Opcodes.T_FLOAT -> "float";
+      case Opcodes.T_DOUBLE -> "double";
+      case Opcodes.T_BYTE -> "byte";
+      case Opcodes.T_SHORT -> "short";
+      case Opcodes.T_INT -> "int";
+      default -> "long";
+    };
+  }
+
+  private static int primitiveShift(int operand) {
+    return switch (operand) {
+      case Opcodes.T_BOOLEAN, Opcodes.T_BYTE -> 0;
+      case Opcodes.T_CHAR, Opcodes.T_SHORT -> 1;
+      case Opcodes.T_FLOAT, Opcodes.T_INT -> 2;
+      default -> 3;
+    };
+  }
+}
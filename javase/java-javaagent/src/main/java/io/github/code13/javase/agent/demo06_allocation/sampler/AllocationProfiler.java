@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation.sampler;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * {@link AllocationProfilerMXBean} 的实现.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+public final class AllocationProfiler implements AllocationProfilerMXBean {
+
+  public static final String OBJECT_NAME = "io.github.code13.javase.agent:type=AllocationProfiler";
+
+  /** 注册到 platform MBeanServer */
+  public static void register() {
+    try {
+      ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(new AllocationProfiler(), new ObjectName(OBJECT_NAME));
+    } catch (JMException e) {
+      System.err.println("[AllocationAgent] failed to register MXBean: " + e);
+    }
+  }
+
+  @Override
+  public long getSampleBytes() {
+    return AllocationSampler.getSampleBytes();
+  }
+
+  @Override
+  public void setSampleBytes(long bytes) {
+    AllocationSampler.setSampleBytes(bytes);
+  }
+
+  @Override
+  public int getSiteCount() {
+    return AllocationSites.size();
+  }
+
+  @Override
+  public String topSites(int top) {
+    return AllocationReporter.format(AllocationSites.snapshot(), top);
+  }
+
+  @Override
+  public void reset() {
+    AllocationSites.reset();
+  }
+}
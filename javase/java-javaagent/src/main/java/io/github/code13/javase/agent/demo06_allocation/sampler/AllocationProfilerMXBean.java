@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation.sampler;
+
+/**
+ * 通过 JMX 按需查看分配点，例如在 JConsole 的 MBeans 页签中调用 {@code topSites}.
+ *
+ * <p>ObjectName 为 {@code io.github.code13.javase.agent:type=AllocationProfiler}
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+public interface AllocationProfilerMXBean {
+
+  /** 平均每分配多少字节采样一次 */
+  long getSampleBytes();
+
+  void setSampleBytes(long bytes);
+
+  /** 已注册的分配点数量 */
+  int getSiteCount();
+
+  /**
+   * 按估算字节数和估算次数分别输出前 top 个分配点.
+   *
+   * @param top 数量
+   * @return 文本报告
+   */
+  String topSites(int top);
+
+  /** 清零所有分配点的计数 */
+  void reset();
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation.sampler;
+
+import io.github.code13.javase.agent.demo06_allocation.sampler.AllocationSites.SiteSnapshot;
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 输出估算分配字节数和分配次数最多的前 N 个分配点.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+public final class AllocationReporter implements Runnable {
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+  private final PrintStream out;
+
+  private final int top;
+
+  /** 每次输出后是否清零，清零时每次输出的是一个周期内的分配 */
+  private final boolean resetAfterReport;
+
+  private ScheduledExecutorService scheduler;
+
+  public AllocationReporter(PrintStream out, int top, boolean resetAfterReport) {
+    this.out = out;
+    this.top = top;
+    this.resetAfterReport = resetAfterReport;
+  }
+
+  /**
+   * 启动后台线程，并在 JVM 退出时输出最后一次.
+   *
+   * @param intervalMillis 输出间隔，不大于 0 时只在退出时输出
+   */
+  public synchronized void start(long intervalMillis) {
+    if (scheduler != null) {
+      return;
+    }
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "allocation-reporter");
+              thread.setDaemon(true);
+              return thread;
+            });
+    if (intervalMillis > 0) {
+      scheduler.scheduleAtFixedRate(this, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "allocation-reporter-shutdown"));
+  }
+
+  public synchronized void stop() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdownNow();
+    scheduler = null;
+    run();
+  }
+
+  @Override
+  public void run() {
+    try {
+      out.print(format(AllocationSites.snapshot(), top));
+      out.flush();
+      if (resetAfterReport) {
+        AllocationSites.reset();
+      }
+    } catch (RuntimeException e) {
+      // 不能让异常终止周期任务
+      e.printStackTrace(out);
+    }
+  }
+
+  /** 按估算字节数和估算次数分别输出前 top 个分配点 */
+  static String format(List<SiteSnapshot> sites, int top) {
+    StringBuilder builder = new StringBuilder(256 + 192 * 2 * Math.min(top, sites.size()));
+    builder
+        .append("---- allocation sites ")
+        .append(LocalDateTime.now().format(FORMATTER))
+        .append(", ")
+        .append(sites.size())
+        .append(" sites sampled, sample every ")
+        .append(AllocationSampler.getSampleBytes())
+        .append(" bytes ----")
+        .append(System.lineSeparator());
+    if (sites.isEmpty()) {
+      return builder.toString();
+    }
+    builder.append("top by bytes:").append(System.lineSeparator());
+    append(builder, sites, Comparator.comparingLong(SiteSnapshot::estimatedBytes), top);
+    builder.append("top by count:").append(System.lineSeparator());
+    append(builder, sites, Comparator.comparingLong(SiteSnapshot::estimatedCount), top);
+    return builder.toString();
+  }
+
+  private static void append(
+      StringBuilder builder, List<SiteSnapshot> sites, Comparator<SiteSnapshot> order, int top) {
+    sites.stream()
+        .sorted(order.reversed())
+        .limit(top)
+        .forEach(
+            site ->
+                builder
+                    .append(
+                        String.format(
+                            "  %s bytes=%.1fMB count=%d samples=%d",
+                            site.name(),
+                            site.estimatedBytes() / 1024.0 / 1024.0,
+                            site.estimatedCount(),
+                            site.samples()))
+                    .append(System.lineSeparator()));
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation.sampler;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 分配采样，由插桩到分配点之前的代码调用.
+ *
+ * <p>与 JFR 的 ObjectAllocationSample 类似，按字节采样：每个线程维护一个剩余字节数，每次分配减去对象大小，
+ * 减到 0 以下时采样这次分配，再按均值为 {@code sampleBytes} 的指数分布重新生成间隔（避免固定间隔与分配模式同步）。
+ * 每个样本的权重为距上次采样该线程分配的字节数，因此大对象更容易被采到，且按权重累加即为分配字节数的无偏估计
+ *
+ * <p>未采样时只有一次 ThreadLocal 读取和一次减法
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+public final class AllocationSampler {
+
+  /** 对象头，按开启压缩类指针估算 */
+  static final int ARRAY_HEADER_BYTES = 16;
+
+  private static final ThreadLocal<Countdown> COUNTDOWN = ThreadLocal.withInitial(Countdown::new);
+
+  private static volatile long sampleBytes = 512 * 1024;
+
+  private AllocationSampler() {}
+
+  /**
+   * @param bytes 平均每分配多少字节采样一次，1 表示记录每次分配
+   */
+  public static void setSampleBytes(long bytes) {
+    if (bytes < 1) {
+      throw new IllegalArgumentException("sampleBytes must be positive: " + bytes);
+    }
+    sampleBytes = bytes;
+  }
+
+  public static long getSampleBytes() {
+    return sampleBytes;
+  }
+
+  /**
+   * 对象分配.
+   *
+   * @param site 分配点 id
+   * @param bytes 对象大小（转换时估算）
+   */
+  public static void allocate(int site, long bytes) {
+    Countdown countdown = COUNTDOWN.get();
+    if ((countdown.remaining -= bytes) <= 0) {
+      countdown.sample(site, bytes);
+    }
+  }
+
+  /**
+   * 数组分配，在 newarray 之前调用，此时长度还在操作数栈上.
+   *
+   * @param length 数组长度，负数时 newarray 会抛出异常，不记录
+   * @param site 分配点 id
+   * @param elementShift 元素大小的 log2
+   */
+  public static void allocateArray(int length, int site, int elementShift) {
+    if (length >= 0) {
+      allocate(site, (ARRAY_HEADER_BYTES + ((long) length << elementShift) + 7) & ~7L);
+    }
+  }
+
+  private static final class Countdown {
+
+    /** 本轮的间隔 */
+    private long interval;
+
+    private long remaining;
+
+    Countdown() {
+      reset();
+    }
+
+    void sample(int site, long bytes) {
+      // 本轮间隔加上超出的部分，即距上次采样分配的字节数
+      long weight = interval - remaining;
+      AllocationSites.record(site, bytes, weight);
+      reset();
+    }
+
+    private void reset() {
+      long mean = sampleBytes;
+      if (mean == 1) {
+        interval = 1;
+      } else {
+        double u = ThreadLocalRandom.current().nextDouble();
+        interval = Math.max(1, (long) (-Math.log(1 - u) * mean));
+      }
+      remaining = interval;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation.sampler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分配点注册表.
+ *
+ * <p>分配点在类转换时注册并分配一个 id，id 作为常量内联到被插桩的方法中；记录时按 id 直接取数组元素，每个分配点的计数器是一个 {@link
+ * AtomicLongArray}，记录过程不加锁。只有注册（类转换时）需要加锁
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+public final class AllocationSites {
+
+  /** 被采样的次数 */
+  static final int SAMPLES = 0;
+
+  /** 被采样对象的实际字节数之和 */
+  static final int SAMPLED_BYTES = 1;
+
+  /** 按采样权重估算的分配字节数 */
+  static final int ESTIMATED_BYTES = 2;
+
+  /** 按采样权重估算的分配次数 */
+  static final int ESTIMATED_COUNT = 3;
+
+  private static final Object LOCK = new Object();
+
+  private static final Map<String, Integer> ids = new HashMap<>();
+
+  private static volatile String[] names = new String[1024];
+
+  private static volatile AtomicLongArray[] counters = new AtomicLongArray[1024];
+
+  private static int size;
+
+  private AllocationSites() {}
+
+  /**
+   * 注册分配点，同名分配点（例如被多个类加载器加载）共享同一个 id.
+   *
+   * @param name 分配点，如 {@code com.foo.Bar.build:42 java.lang.StringBuilder}
+   * @return 分配点 id
+   */
+  public static int register(String name) {
+    synchronized (LOCK) {
+      Integer id = ids.get(name);
+      if (id != null) {
+        return id;
+      }
+      String[] newNames = names;
+      AtomicLongArray[] newCounters = counters;
+      if (size == newCounters.length) {
+        newNames = Arrays.copyOf(newNames, size * 2);
+        newCounters = Arrays.copyOf(newCounters, size * 2);
+      }
+      newNames[size] = name;
+      newCounters[size] = new AtomicLongArray(4);
+      // 先写 names 再写 counters，读取到 counters 的线程一定能看到对应的 name
+      names = newNames;
+      counters = newCounters;
+      ids.put(name, size);
+      return size++;
+    }
+  }
+
+  static void record(int site, long bytes, long weight) {
+    AtomicLongArray siteCounters = counters[site];
+    siteCounters.getAndIncrement(SAMPLES);
+    siteCounters.getAndAdd(SAMPLED_BYTES, bytes);
+    siteCounters.getAndAdd(ESTIMATED_BYTES, weight);
+    siteCounters.getAndAdd(ESTIMATED_COUNT, Math.max(1, weight / Math.max(1, bytes)));
+  }
+
+  /** 所有被采样过的分配点的累计值 */
+  public static List<SiteSnapshot> snapshot() {
+    AtomicLongArray[] currentCounters = counters;
+    String[] currentNames = names;
+    List<SiteSnapshot> snapshots = new ArrayList<>();
+    for (int i = 0; i < currentCounters.length && currentCounters[i] != null; i++) {
+      AtomicLongArray siteCounters = currentCounters[i];
+      long samples = siteCounters.get(SAMPLES);
+      if (samples > 0) {
+        snapshots.add(
+            new SiteSnapshot(
+                currentNames[i],
+                samples,
+                siteCounters.get(SAMPLED_BYTES),
+                siteCounters.get(ESTIMATED_BYTES),
+                siteCounters.get(ESTIMATED_COUNT)));
+      }
+    }
+    return snapshots;
+  }
+
+  /** 清零所有分配点的计数，与并发的记录之间不保证原子性 */
+  public static void reset() {
+    AtomicLongArray[] currentCounters = counters;
+    for (int i = 0; i < currentCounters.length && currentCounters[i] != null; i++) {
+      for (int j = 0; j < currentCounters[i].length(); j++) {
+        currentCounters[i].set(j, 0);
+      }
+    }
+  }
+
+  /** 已注册的分配点数量 */
+  public static int size() {
+    synchronized (LOCK) {
+      return size;
+    }
+  }
+
+  /** 单个分配点的累计值 */
+  public record SiteSnapshot(
+      String name, long samples, long sampledBytes, long estimatedBytes, long estimatedCount) {}
+}
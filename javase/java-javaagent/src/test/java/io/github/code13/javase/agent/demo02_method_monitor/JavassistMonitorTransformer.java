@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo02_method_monitor;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+import javassist.CannotCompileException;
+import javassist.ClassPool;
+import javassist.CtBehavior;
+import javassist.CtClass;
+import javassist.expr.ExprEditor;
+import javassist.expr.MethodCall;
+
+/**
+ * 改写为 ByteBuddy 之前的 javassist 版 {@link MonitorTransformer}，只作为 {@link MonitorStartupBenchmark} 的基线.
+ *
+ * <p>织入逻辑与原实现相同：{@code ClassPool.getDefault()} 查找类，在运行时编译源码替换每个方法调用点。只有两处改动：匹配的类由写死的
+ * {@code HashSet} 改为包名前缀，以便织入基准生成的类；去掉每个类一行的 {@code transform: [...]} 输出，与 {@code verbose=false}
+ * 的 ByteBuddy 版保持一致
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 06:17
+ */
+public class JavassistMonitorTransformer implements ClassFileTransformer {
+
+  private final String packagePrefix;
+
+  public JavassistMonitorTransformer(String packagePrefix) {
+    this.packagePrefix = packagePrefix;
+  }
+
+  @Override
+  public byte[] transform(
+      ClassLoader loader,
+      String className,
+      Class<?> classBeingRedefined,
+      ProtectionDomain protectionDomain,
+      byte[] classfileBuffer) {
+
+    try {
+      String currentClassName = className.replace("/", ".");
+      if (!currentClassName.startsWith(packagePrefix)) {
+        return null;
+      }
+
+      CtClass ctClass = ClassPool.getDefault().get(currentClassName);
+
+      if (ctClass.isFrozen()) {
+        return null;
+      }
+
+      CtBehavior[] methods = ctClass.getDeclaredBehaviors();
+      for (CtBehavior method : methods) {
+        enhanceMethod(method);
+      }
+
+      return ctClass.toBytecode();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+
+    return null;
+  }
+
+  private void enhanceMethod(CtBehavior method) throws CannotCompileException {
+    if (method.isEmpty()) {
+      return;
+    }
+    String name = method.getName();
+    if ("main".equalsIgnoreCase(name)) {
+      return;
+    }
+
+    String source =
+        """
+        {
+          long start = System.nanoTime();
+          $_ = $proceed($$);
+          System.out.println("method:[{1}]");
+          System.out.println("cost: " + (System.nanoTime() - start));
+        }
+        """
+            .replace("{1}", name);
+
+    method.instrument(
+        new ExprEditor() {
+          @Override
+          public void edit(MethodCall m) throws CannotCompileException {
+            m.replace(source);
+          }
+        });
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo02_method_monitor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.agent.ByteBuddyAgent;
+import net.bytebuddy.implementation.MethodCall;
+
+/**
+ * {@link MonitorTransformer} 的启动耗时对比.
+ *
+ * <p>生成一个包含 5000 个类（每个类 5 个方法，每个方法体内有一次 {@link Math#abs(int)} 调用）的 jar，每种场景启动一个新的 JVM 加载并初始化所有类，输出加载耗时和进程总耗时的中位数：
+ *
+ * <ul>
+ *   <li>none：不安装 agent
+ *   <li>javassist：安装改写前的 javassist 版 transformer（{@link JavassistMonitorTransformer}）
+ *   <li>agent：安装 agent，不使用缓存
+ *   <li>cold：安装 agent，缓存目录为空，织入后写入缓存
+ *   <li>warm：安装 agent，缓存目录已有上次的织入结果
+ * </ul>
+ *
+ * <p>子进程通过 {@link ByteBuddyAgent#install()} 动态安装 agent，attach 本身的耗时不计入加载耗时，但计入进程总耗时
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:38
+ */
+public class MonitorStartupBenchmark {
+
+  private static final int CLASSES = 5000;
+
+  private static final int METHODS = 5;
+
+  private static final int RUNS = 5;
+
+  private static final String PACKAGE = "synthetic";
+
+  private static final String JAVASSIST = "javassist";
+
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0 && "child".equals(args[0])) {
+      child(args[1], Integer.parseInt(args[2]));
+      return;
+    }
+
+    Path workDir = Files.createTempDirectory("monitor-startup");
+    Path jar = workDir.resolve("synthetic.jar");
+    Path cacheDir = workDir.resolve("cache");
+    generateJar(jar);
+
+    String agentArgs = "include=" + PACKAGE + ".**;verbose=false";
+    String cacheArgs = agentArgs + ";cache-dir=" + cacheDir;
+
+    System.out.printf("%-9s %12s %12s%n", "case", "load(ms)", "wall(ms)");
+    report("none", jar, "-", null);
+    report("javassist", jar, JAVASSIST, null);
+    report("agent", jar, agentArgs, null);
+    report("cold", jar, cacheArgs, cacheDir);
+    // 最后一次 cold 运行留下的缓存即 warm 场景的缓存
+    report("warm", jar, cacheArgs, null);
+
+    delete(workDir);
+  }
+
+  private static void report(String name, Path jar, String agentArgs, Path clearBeforeEachRun)
+      throws Exception {
+    long[] load = new long[RUNS];
+    long[] wall = new long[RUNS];
+    for (int i = 0; i < RUNS; i++) {
+      if (clearBeforeEachRun != null) {
+        delete(clearBeforeEachRun);
+      }
+      long start = System.nanoTime();
+      load[i] = runChild(jar, agentArgs);
+      wall[i] = System.nanoTime() - start;
+    }
+    System.out.printf("%-9s %12.1f %12.1f%n", name, median(load) / 1e6, median(wall) / 1e6);
+  }
+
+  private static long runChild(Path jar, String agentArgs) throws Exception {
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    Process process =
+        new ProcessBuilder(
+                java,
+                "-XX:+EnableDynamicAgentLoading",
+                "-cp",
+                System.getProperty("java.class.path") + File.pathSeparator + jar,
+                MonitorStartupBenchmark.class.getName(),
+                "child",
+                agentArgs,
+                String.valueOf(CLASSES))
+            .redirectErrorStream(true)
+            .start();
+    long load = -1;
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("load=")) {
+          load = Long.parseLong(line.substring("load=".length()));
+        } else {
+          System.out.println("  " + line);
+        }
+      }
+    }
+    if (process.waitFor() != 0 || load < 0) {
+      throw new IllegalStateException("child failed: " + agentArgs);
+    }
+    return load;
+  }
+
+  private static void child(String agentArgs, int classes) throws Exception {
+    if (JAVASSIST.equals(agentArgs)) {
+      ByteBuddyAgent.install().addTransformer(new JavassistMonitorTransformer(PACKAGE + "."));
+    } else if (!"-".equals(agentArgs)) {
+      MonitorAgent.premain(agentArgs, ByteBuddyAgent.install());
+    }
+    ClassLoader loader = MonitorStartupBenchmark.class.getClassLoader();
+    long start = System.nanoTime();
+    for (int i = 0; i < classes; i++) {
+      Class.forName(className(i), true, loader);
+    }
+    System.out.println("load=" + (System.nanoTime() - start));
+  }
+
+  private static void generateJar(Path jar) throws Exception {
+    ByteBuddy byteBuddy = new ByteBuddy();
+    // javassist 版只替换方法调用点，方法体内需要有调用才会真正织入
+    var abs = Math.class.getMethod("abs", int.class);
+    try (OutputStream out = Files.newOutputStream(jar);
+        JarOutputStream jarOut = new JarOutputStream(out)) {
+      for (int i = 0; i < CLASSES; i++) {
+        var builder = byteBuddy.subclass(Object.class).name(className(i));
+        for (int m = 0; m < METHODS; m++) {
+          builder =
+              builder
+                  .defineMethod("method" + m, int.class, Modifier.PUBLIC)
+                  .withParameters(int.class)
+                  .intercept(MethodCall.invoke(abs).withArgument(0));
+        }
+        jarOut.putNextEntry(new JarEntry(className(i).replace('.', '/') + ".class"));
+        jarOut.write(builder.make().getBytes());
+        jarOut.closeEntry();
+      }
+    }
+  }
+
+  /** 每 100 个类一个包 */
+  private static String className(int index) {
+    return PACKAGE + ".p" + (index / 100) + ".Synthetic" + index;
+  }
+
+  private static long median(long[] values) {
+    long[] sorted = values.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+
+  private static void delete(Path path) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+    List<Path> paths = new ArrayList<>();
+    try (Stream<Path> stream = Files.walk(path)) {
+      stream.sorted(Comparator.reverseOrder()).forEach(paths::add);
+    }
+    for (Path p : paths) {
+      Files.delete(p);
+    }
+  }
+}
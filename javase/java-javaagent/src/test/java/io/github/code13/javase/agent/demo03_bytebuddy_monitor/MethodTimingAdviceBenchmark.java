@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo03_bytebuddy_monitor;
+
+import io.github.code13.javase.agent.demo03_bytebuddy_monitor.profiler.MethodTimingAdvice;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongUnaryOperator;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 对比织入 {@link MethodTimingAdvice} 前后单次方法调用的耗时.
+ *
+ * <p>织入后的类通过 ByteBuddy 重定义为一个新类，与 agent 的 production 模式使用同一个 advice；{@link #nanoTimePair()}
+ * 是两次 {@link System#nanoTime()} 的耗时，advice 的开销大部分来自这里，其余为直方图的原子操作
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:03
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MethodTimingAdviceBenchmark {
+
+  private LongUnaryOperator plain;
+
+  private LongUnaryOperator instrumented;
+
+  private long input;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    plain = new Workload();
+    instrumented =
+        (LongUnaryOperator)
+            new ByteBuddy()
+                .redefine(Workload.class)
+                .name(Workload.class.getName() + "Instrumented")
+                .visit(MethodTimingAdvice.on(ElementMatchers.named("applyAsLong")))
+                .make()
+                .load(Workload.class.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded()
+                .getDeclaredConstructor()
+                .newInstance();
+    input = System.nanoTime();
+  }
+
+  @Benchmark
+  public long uninstrumented() {
+    return plain.applyAsLong(input);
+  }
+
+  @Benchmark
+  public long nanoTimePair() {
+    return System.nanoTime() - System.nanoTime();
+  }
+
+  @Benchmark
+  public long instrumented() {
+    return instrumented.applyAsLong(input);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long instrumentedContended() {
+    return instrumented.applyAsLong(input);
+  }
+
+  /** 被监控的方法，足够小以便观察 advice 本身的开销 */
+  public static class Workload implements LongUnaryOperator {
+
+    @Override
+    public long applyAsLong(long operand) {
+      return Long.rotateLeft(operand * 0x9E3779B97F4A7C15L, 31) ^ operand;
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt =
+        new OptionsBuilder()
+            .include(MethodTimingAdviceBenchmark.class.getSimpleName())
+            .result("result.json")
+            .resultFormat(ResultFormatType.JSON)
+            .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo05_threadlocal_track;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tracing 模式下的跨线程链路传递.
+ *
+ * <p>VM options：{@code -javaagent:java-javaagent-1.0-SNAPSHOT-plain.jar="mode=tracing"}，运行后 {@code
+ * trace-spans.log} 中所有 {@code leaf} span 与 {@code root} span 属于同一个 trace，父 span 为 {@code root}
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:08
+ */
+public class TracingPropagationTest {
+
+  public static void main(String[] args) throws Exception {
+    new TracingPropagationTest().root();
+  }
+
+  public void root() throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+      pool.submit(() -> leaf("pool-callable")).get();
+      CompletableFuture.runAsync(() -> leaf("completable-future")).get();
+      ForkJoinPool.commonPool().submit(() -> leaf("fork-join-pool")).get();
+      virtualThreads.submit(() -> leaf("virtual-thread-executor")).get();
+      Thread.ofVirtual().start(() -> leaf("virtual-thread")).join();
+      scheduler.schedule(() -> leaf("scheduled"), 1, TimeUnit.MILLISECONDS).get();
+    } finally {
+      pool.shutdown();
+      scheduler.shutdown();
+    }
+  }
+
+  public String leaf(String where) {
+    return where;
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AllocationAgentTest.
+ *
+ * <p>VM options：{@code -javaagent:java-javaagent-1.0-SNAPSHOT-plain.jar="sample-bytes=65536;report-interval=2s"}，
+ * 输出中按字节数排在最前的应为 {@code bigArrays} 中的 {@code byte[]}，按次数排在最前的应为 {@code
+ * smallObjects} 中的 {@code Point}
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+public class AllocationAgentTest {
+
+  public static void main(String[] args) {
+    long end = System.currentTimeMillis() + 5000;
+    long checksum = 0;
+    while (System.currentTimeMillis() < end) {
+      checksum += bigArrays() + smallObjects() + boxing().size();
+    }
+    System.out.println("checksum: " + checksum);
+  }
+
+  static int bigArrays() {
+    byte[] buffer = new byte[64 * 1024];
+    return buffer.length;
+  }
+
+  static int smallObjects() {
+    int sum = 0;
+    for (int i = 0; i < 1000; i++) {
+      sum += new Point(i, i).x;
+    }
+    return sum;
+  }
+
+  static Map<Integer, List<String>> boxing() {
+    Map<Integer, List<String>> map = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.computeIfAbsent(i % 10, key -> new ArrayList<>()).add("v" + i);
+    }
+    return map;
+  }
+
+  record Point(int x, int y) {}
+}
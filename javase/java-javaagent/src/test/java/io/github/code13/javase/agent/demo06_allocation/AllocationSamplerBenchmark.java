@@ -0,0 +1,158 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.agent.demo06_allocation;
+
+import io.github.code13.javase.agent.demo06_allocation.sampler.AllocationSampler;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.asm.AsmVisitorWrapper;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.matcher.ElementMatchers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 不同采样率下分配插桩的开销.
+ *
+ * <p>{@link Workload} 混合了小对象、小数组和大数组的分配，并且都会逃逸（未逃逸的分配可能被 JIT 消除，见 README），插桩后的版本通过 ByteBuddy 重定义为一个新类，与 agent 使用同一个
+ * {@link AllocationSiteVisitor}。{@code sampleBytes} 越大采样越少，开销越接近只有一次 ThreadLocal 读取和一次减法
+ *
+ * <p>{@link #main} 运行后按 {@code sampleBytes} 计算 {@code (instrumented - plain) / plain}，超过 {@code
+ * -Dallocation.budget}（默认 0.3，即 30%）时以非 0 状态退出
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 03:50
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllocationSamplerBenchmark {
+
+  @Param({"4096", "65536", "524288"})
+  public long sampleBytes;
+
+  private IntUnaryOperator plain;
+
+  private IntUnaryOperator instrumented;
+
+  private int seed;
+
+  @Setup
+  public void setup() throws Exception {
+    AllocationSampler.setSampleBytes(sampleBytes);
+    plain = new Workload();
+    instrumented =
+        new ByteBuddy()
+            .redefine(Workload.class)
+            .name(Workload.class.getName() + "$Instrumented")
+            .visit(
+                new AsmVisitorWrapper.ForDeclaredMethods()
+                    .invokable(ElementMatchers.any(), new AllocationSiteVisitor()))
+            .make()
+            .load(Workload.class.getClassLoader(), ClassLoadingStrategy.Default.INJECTION)
+            .getLoaded()
+            .asSubclass(IntUnaryOperator.class)
+            .getConstructor()
+            .newInstance();
+  }
+
+  @Benchmark
+  public int plain() {
+    return plain.applyAsInt(seed++);
+  }
+
+  @Benchmark
+  public int instrumented() {
+    return instrumented.applyAsInt(seed++);
+  }
+
+  /** 被插桩的负载，分配的对象都写入 sink，避免被逃逸分析消除 */
+  public static class Workload implements IntUnaryOperator {
+
+    private final Object[] sink = new Object[64];
+
+    @Override
+    public int applyAsInt(int seed) {
+      int[] small = new int[8];
+      small[seed & 7] = seed;
+      StringBuilder builder = new StringBuilder(16);
+      builder.append(seed & 0xff);
+      long[] large = new long[(seed & 0x3f) + 64];
+      large[0] = builder.length();
+      Object object = new Object();
+      int index = seed & 0x3c;
+      sink[index] = small;
+      sink[index + 1] = builder;
+      sink[index + 2] = large;
+      sink[index + 3] = object;
+      return small[seed & 7] + (int) large[0];
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt =
+        new OptionsBuilder().include(AllocationSamplerBenchmark.class.getSimpleName()).build();
+    Collection<RunResult> results = new Runner(opt).run();
+
+    double budget = Double.parseDouble(System.getProperty("allocation.budget", "0.3"));
+    Map<String, double[]> scores = new TreeMap<>(Comparator.comparingLong(Long::parseLong));
+    for (RunResult result : results) {
+      String rate = result.getParams().getParam("sampleBytes");
+      double score = result.getPrimaryResult().getScore();
+      double[] pair = scores.computeIfAbsent(rate, key -> new double[2]);
+      pair[result.getParams().getBenchmark().endsWith("plain") ? 0 : 1] = score;
+    }
+
+    boolean withinBudget = true;
+    for (Map.Entry<String, double[]> entry : scores.entrySet()) {
+      double overhead = (entry.getValue()[1] - entry.getValue()[0]) / entry.getValue()[0];
+      boolean ok = overhead <= budget;
+      withinBudget &= ok;
+      System.out.printf(
+          "sampleBytes=%-8s plain=%.1fns instrumented=%.1fns overhead=%.1f%% %s%n",
+          entry.getKey(),
+          entry.getValue()[0],
+          entry.getValue()[1],
+          overhead * 100,
+          ok ? "OK" : "OVER BUDGET " + budget * 100 + "%");
+    }
+    if (!withinBudget) {
+      System.exit(1);
+    }
+  }
+}
@@ -14,3 +14,7 @@
  *     limitations under the License.
  */
 
+dependencies {
+    testImplementation("org.openjdk.jmh:jmh-core")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+/**
+ * PooledBufferAllocator 的参数。
+ *
+ * @param minSize 最小的大小级别，必须是 2 的幂
+ * @param maxSize 最大的大小级别，必须是 2 的幂；超过它的申请不走池，直接 allocateDirect
+ * @param slabSize arena 每次向 JVM 申请的直接内存块大小，会被切成同一级别的若干 slice
+ * @param threadCacheSize 每个线程在每个大小级别上最多缓存的缓冲区数量，0 表示关闭线程缓存
+ * @param maxDirectMemory 池（含非池化的大缓冲区）占用直接内存的上限
+ * @param leakSamplingInterval 泄漏检测的采样间隔，平均每 N 次分配记录一次调用栈，0 表示关闭
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 14:08
+ */
+public record BufferPoolOptions(
+    int minSize,
+    int maxSize,
+    int slabSize,
+    int threadCacheSize,
+    long maxDirectMemory,
+    int leakSamplingInterval) {
+
+  public BufferPoolOptions {
+    if (Integer.bitCount(minSize) != 1 || Integer.bitCount(maxSize) != 1 || minSize > maxSize) {
+      throw new IllegalArgumentException(
+          "minSize and maxSize must be powers of two with minSize <= maxSize: "
+              + minSize
+              + "/"
+              + maxSize);
+    }
+    if (slabSize < maxSize) {
+      throw new IllegalArgumentException("slabSize must be >= maxSize: " + slabSize);
+    }
+    if (threadCacheSize < 0 || leakSamplingInterval < 0 || maxDirectMemory <= 0) {
+      throw new IllegalArgumentException(
+          "threadCacheSize, leakSamplingInterval and maxDirectMemory must not be negative");
+    }
+  }
+
+  /** 64B ~ 64KB 共 11 个级别，256KB 一个 slab，直接内存上限与 JVM 默认的 MaxDirectMemorySize 一致（即最大堆）。 */
+  public static BufferPoolOptions defaults() {
+    return new BufferPoolOptions(
+        64, 64 * 1024, 256 * 1024, 32, Runtime.getRuntime().maxMemory(), 128);
+  }
+
+  public BufferPoolOptions withMaxDirectMemory(long maxDirectMemory) {
+    return new BufferPoolOptions(
+        minSize, maxSize, slabSize, threadCacheSize, maxDirectMemory, leakSamplingInterval);
+  }
+
+  public BufferPoolOptions withThreadCacheSize(int threadCacheSize) {
+    return new BufferPoolOptions(
+        minSize, maxSize, slabSize, threadCacheSize, maxDirectMemory, leakSamplingInterval);
+  }
+
+  public BufferPoolOptions withLeakSamplingInterval(int leakSamplingInterval) {
+    return new BufferPoolOptions(
+        minSize, maxSize, slabSize, threadCacheSize, maxDirectMemory, leakSamplingInterval);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 直接内存占用计数，超过上限时拒绝分配。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 14:26
+ */
+final class DirectMemoryCounter {
+
+  private final long max;
+  private final AtomicLong used = new AtomicLong();
+
+  DirectMemoryCounter(long max) {
+    this.max = max;
+  }
+
+  void reserve(long bytes) {
+    long current;
+    do {
+      current = used.get();
+      if (current + bytes > max) {
+        throw new OutOfMemoryError(
+            "failed to allocate "
+                + bytes
+                + " byte(s) of direct memory (used: "
+                + current
+                + ", max: "
+                + max
+                + ")");
+      }
+    } while (!used.compareAndSet(current, current + bytes));
+  }
+
+  void unreserve(long bytes) {
+    used.addAndGet(-bytes);
+  }
+
+  long used() {
+    return used.get();
+  }
+
+  long max() {
+    return max;
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+import java.io.PrintStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 采样式泄漏检测：平均每 N 次分配给句柄挂一个 PhantomReference 并记录分配时的调用栈，句柄被 GC 回收前没有释放就打印出来。
+ *
+ * <p>只记录、不回收：句柄不可达时它的 ByteBuffer 可能仍被调用方持有，把 slice 放回池里会造成两处共用同一块内存。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 14:40
+ */
+final class LeakDetector {
+
+  private final int samplingInterval;
+  private final PrintStream out;
+  private final ReferenceQueue<PooledBuffer> queue = new ReferenceQueue<>();
+  private final Set<Tracker> trackers = ConcurrentHashMap.newKeySet();
+
+  LeakDetector(int samplingInterval, PrintStream out) {
+    this.samplingInterval = samplingInterval;
+    this.out = out;
+  }
+
+  void track(PooledBuffer buffer) {
+    if (samplingInterval == 0
+        || samplingInterval > 1 && ThreadLocalRandom.current().nextInt(samplingInterval) != 0) {
+      return;
+    }
+    Tracker tracker = new Tracker(buffer, queue, buffer.sizeClass, buffer.buffer().limit());
+    trackers.add(tracker);
+    buffer.tracker = tracker;
+  }
+
+  void untrack(PooledBuffer buffer) {
+    Tracker tracker = buffer.tracker;
+    if (tracker != null) {
+      trackers.remove(tracker);
+      tracker.clear();
+    }
+  }
+
+  /** 处理已经被 GC 回收却没有释放的句柄，返回本次发现的数量。 */
+  int reportLeaks() {
+    int leaks = 0;
+    Tracker tracker;
+    while ((tracker = (Tracker) queue.poll()) != null) {
+      if (trackers.remove(tracker)) {
+        leaks++;
+        tracker.sizeClass.leaks.increment();
+        StringBuilder message =
+            new StringBuilder("LEAK: PooledBuffer(")
+                .append(tracker.requested)
+                .append(" bytes) was garbage-collected without release(). Allocated at:");
+        for (StackTraceElement element : tracker.allocatedAt.getStackTrace()) {
+          message.append(System.lineSeparator()).append("\tat ").append(element);
+        }
+        out.println(message);
+      }
+    }
+    return leaks;
+  }
+
+  static final class Tracker extends PhantomReference<PooledBuffer> {
+
+    final SizeClass sizeClass;
+    final int requested;
+    final Throwable allocatedAt = new Throwable();
+
+    Tracker(
+        PooledBuffer referent,
+        ReferenceQueue<? super PooledBuffer> queue,
+        SizeClass sizeClass,
+        int requested) {
+      super(referent, queue);
+      this.sizeClass = sizeClass;
+      this.requested = requested;
+    }
+  }
+}
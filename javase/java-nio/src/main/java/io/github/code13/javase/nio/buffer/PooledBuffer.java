@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 从 {@link PooledBufferAllocator} 借出的直接缓冲区。
+ *
+ * <p>用完必须 {@link #release()}（或 try-with-resources 自动 {@link #close()}），之后不能再访问 {@link #buffer()}
+ * 返回的 ByteBuffer：它会被其他调用方复用。没释放就被 GC 回收的句柄会被采样的泄漏检测报告出来。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 14:32
+ */
+public final class PooledBuffer implements AutoCloseable {
+
+  private static final AtomicIntegerFieldUpdater<PooledBuffer> RELEASED =
+      AtomicIntegerFieldUpdater.newUpdater(PooledBuffer.class, "released");
+
+  private final PooledBufferAllocator allocator;
+  private final ByteBuffer buffer;
+  final SizeClass sizeClass;
+  LeakDetector.Tracker tracker;
+
+  /** 非池化缓冲区的直接内存预留，释放时或缓冲区被回收后归还，只归还一次。 */
+  Cleaner.Cleanable reservation;
+
+  private volatile int released;
+
+  PooledBuffer(PooledBufferAllocator allocator, ByteBuffer buffer, SizeClass sizeClass) {
+    this.allocator = allocator;
+    this.buffer = buffer;
+    this.sizeClass = sizeClass;
+  }
+
+  /** 底层缓冲区，limit 为申请的大小，capacity 为所在大小级别。 */
+  public ByteBuffer buffer() {
+    if (released != 0) {
+      throw new IllegalStateException("buffer already released");
+    }
+    return buffer;
+  }
+
+  /** 归还给池，重复释放抛出 {@link IllegalStateException}。 */
+  public void release() {
+    if (!RELEASED.compareAndSet(this, 0, 1)) {
+      throw new IllegalStateException("buffer already released");
+    }
+    allocator.release(this, buffer);
+  }
+
+  public boolean isReleased() {
+    return released != 0;
+  }
+
+  /** 与 {@link #release()} 相同，但允许在已释放后重复调用。 */
+  @Override
+  public void close() {
+    if (RELEASED.compareAndSet(this, 0, 1)) {
+      allocator.release(this, buffer);
+    }
+  }
+}
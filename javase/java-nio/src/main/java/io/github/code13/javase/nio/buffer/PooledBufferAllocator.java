@@ -0,0 +1,265 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按大小分级、带线程缓存的直接缓冲区分配器。
+ *
+ * <ul>
+ *   <li>申请大小向上取整到 2 的幂的级别（默认 64B ~ 64KB），每个级别一个 {@link SizeClass} arena，从 slab 上切 slice；
+ *   <li>每个线程在每个级别上有一个小栈做缓存，命中时无锁无 CAS；空了从 arena 批量补一半，满了批量还一半；
+ *   <li>线程退出后，它缓存的 slice 由 {@link Cleaner} 还回 arena；
+ *   <li>超过最大级别的申请直接 allocateDirect，不缓存，但同样计入直接内存上限，没释放时在缓冲区被回收后扣减；
+ *   <li>采样记录分配调用栈，句柄未释放就被回收时打印泄漏报告，见 {@link LeakDetector}。
+ * </ul>
+ *
+ * <pre>{@code
+ * try (PooledBuffer pooled = PooledBufferAllocator.shared().allocate(48)) {
+ *   ByteBuffer buffer = pooled.buffer();
+ *   channel.read(buffer);
+ * }
+ * }</pre>
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 14:50
+ */
+public final class PooledBufferAllocator {
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final BufferPoolOptions options;
+  private final int minShift;
+  private final SizeClass[] sizeClasses;
+  private final SizeClass unpooled;
+  private final AtomicLong unpooledBytes = new AtomicLong();
+  private final DirectMemoryCounter memory;
+  private final LeakDetector leakDetector;
+  private final ThreadLocal<ThreadCache> threadCache =
+      ThreadLocal.withInitial(this::newThreadCache);
+
+  public PooledBufferAllocator(BufferPoolOptions options) {
+    this.options = options;
+    this.memory = new DirectMemoryCounter(options.maxDirectMemory());
+    this.leakDetector = new LeakDetector(options.leakSamplingInterval(), System.err);
+    this.minShift = Integer.numberOfTrailingZeros(options.minSize());
+    int classes = Integer.numberOfTrailingZeros(options.maxSize()) - minShift + 1;
+    this.sizeClasses = new SizeClass[classes];
+    for (int i = 0; i < classes; i++) {
+      sizeClasses[i] = new SizeClass(i, options.minSize() << i, options.slabSize(), memory);
+    }
+    this.unpooled = new SizeClass(-1, 0, 0, memory);
+  }
+
+  /** 进程内共享的默认实例。 */
+  public static PooledBufferAllocator shared() {
+    return Shared.INSTANCE;
+  }
+
+  /**
+   * 借出一块至少 {@code size} 字节的直接缓冲区，position 为 0，limit 为 {@code size}。
+   *
+   * @throws OutOfMemoryError 超过 {@link BufferPoolOptions#maxDirectMemory()}
+   */
+  public PooledBuffer allocate(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("size must not be negative: " + size);
+    }
+    leakDetector.reportLeaks();
+    PooledBuffer pooled;
+    if (size > options.maxSize()) {
+      memory.reserve(size);
+      unpooledBytes.addAndGet(size);
+      unpooled.allocations.increment();
+      ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+      pooled = new PooledBuffer(this, buffer, unpooled);
+      // 泄漏检测是采样的，且句柄被回收时缓冲区可能仍被持有，所以跟踪缓冲区本身
+      pooled.reservation = CLEANER.register(buffer, () -> unreserveUnpooled(size));
+    } else {
+      SizeClass sizeClass = sizeClasses[sizeClassIndex(size)];
+      sizeClass.allocations.increment();
+      ByteBuffer buffer = threadCache.get().allocate(sizeClass);
+      buffer.clear().limit(size);
+      pooled = new PooledBuffer(this, buffer, sizeClass);
+    }
+    leakDetector.track(pooled);
+    return pooled;
+  }
+
+  void release(PooledBuffer pooled, ByteBuffer buffer) {
+    leakDetector.untrack(pooled);
+    SizeClass sizeClass = pooled.sizeClass;
+    sizeClass.releases.increment();
+    if (sizeClass == unpooled) {
+      pooled.reservation.clean();
+    } else {
+      threadCache.get().release(sizeClass, buffer);
+    }
+  }
+
+  private void unreserveUnpooled(int size) {
+    unpooledBytes.addAndGet(-size);
+    memory.unreserve(size);
+  }
+
+  private int sizeClassIndex(int size) {
+    if (size <= options.minSize()) {
+      return 0;
+    }
+    return 32 - Integer.numberOfLeadingZeros(size - 1) - minShift;
+  }
+
+  /** 立即处理已被回收的未释放句柄，返回发现的泄漏数。分配时也会顺带检查。 */
+  public int detectLeaks() {
+    return leakDetector.reportLeaks();
+  }
+
+  /** 把当前线程缓存的缓冲区全部还给 arena，适合在线程池线程长期空闲前调用。 */
+  public void trimThreadCache() {
+    threadCache.get().flushAll();
+  }
+
+  /** 池当前占用的直接内存（slab + 非池化缓冲区）。 */
+  public long usedDirectMemory() {
+    return memory.used();
+  }
+
+  public long maxDirectMemory() {
+    return memory.max();
+  }
+
+  /** 每个大小级别一项，最后一项（size 为 0）是非池化的大缓冲区。 */
+  public List<SizeClassMetrics> metrics() {
+    List<SizeClassMetrics> metrics = new ArrayList<>(sizeClasses.length + 1);
+    for (SizeClass sizeClass : sizeClasses) {
+      metrics.add(sizeClass.metrics(0));
+    }
+    metrics.add(unpooled.metrics(unpooledBytes.get()));
+    return metrics;
+  }
+
+  /** 以表格形式输出 {@link #metrics()}，只列出用过的级别。 */
+  public String formatMetrics() {
+    StringBuilder sb =
+        new StringBuilder(
+            String.format(
+                "direct memory %,d / %,d bytes%n%10s %12s %10s %8s %8s %14s %6s%n",
+                usedDirectMemory(),
+                maxDirectMemory(),
+                "size",
+                "allocations",
+                "active",
+                "tcache%",
+                "slabs",
+                "reserved",
+                "leaks"));
+    for (SizeClassMetrics m : metrics()) {
+      if (m.allocations() == 0) {
+        continue;
+      }
+      sb.append(
+          String.format(
+              "%10s %,12d %,10d %7.1f%% %8d %,14d %6d%n",
+              m.size() == 0 ? "unpooled" : m.size(),
+              m.allocations(),
+              m.active(),
+              m.threadCacheHitRatio() * 100,
+              m.slabs(),
+              m.reservedBytes(),
+              m.leaks()));
+    }
+    return sb.toString();
+  }
+
+  private ThreadCache newThreadCache() {
+    ThreadCache cache = new ThreadCache(sizeClasses, options.threadCacheSize());
+    // cache 不能引用线程本身，否则线程对象永远不可达
+    CLEANER.register(Thread.currentThread(), cache::flushAll);
+    return cache;
+  }
+
+  /**
+   * 单个线程的缓存，每个级别一个数组栈。只被所属线程访问（线程退出后由 Cleaner 线程访问一次），不需要同步。
+   */
+  private static final class ThreadCache {
+
+    private final SizeClass[] sizeClasses;
+    private final int capacity;
+    private final ByteBuffer[][] stacks;
+    private final int[] counts;
+
+    ThreadCache(SizeClass[] sizeClasses, int capacity) {
+      this.sizeClasses = sizeClasses;
+      this.capacity = capacity;
+      this.stacks = new ByteBuffer[sizeClasses.length][Math.max(capacity, 1)];
+      this.counts = new int[sizeClasses.length];
+    }
+
+    ByteBuffer allocate(SizeClass sizeClass) {
+      int index = sizeClass.index;
+      ByteBuffer[] stack = stacks[index];
+      int count = counts[index];
+      if (count > 0) {
+        sizeClass.threadCacheHits.increment();
+      } else {
+        count = sizeClass.take(stack, 0, Math.max(capacity / 2, 1));
+      }
+      ByteBuffer buffer = stack[--count];
+      stack[count] = null;
+      counts[index] = count;
+      return buffer;
+    }
+
+    void release(SizeClass sizeClass, ByteBuffer buffer) {
+      if (capacity == 0) {
+        sizeClass.give(buffer);
+        return;
+      }
+      int index = sizeClass.index;
+      ByteBuffer[] stack = stacks[index];
+      int count = counts[index];
+      if (count == capacity) {
+        int keep = capacity / 2;
+        sizeClass.give(stack, keep, count - keep);
+        Arrays.fill(stack, keep, count, null);
+        count = keep;
+      }
+      stack[count++] = buffer;
+      counts[index] = count;
+    }
+
+    void flushAll() {
+      for (int i = 0; i < stacks.length; i++) {
+        if (counts[i] > 0) {
+          sizeClasses[i].give(stacks[i], 0, counts[i]);
+          Arrays.fill(stacks[i], 0, counts[i], null);
+          counts[i] = 0;
+        }
+      }
+    }
+  }
+
+  private static final class Shared {
+    static final PooledBufferAllocator INSTANCE =
+        new PooledBufferAllocator(BufferPoolOptions.defaults());
+  }
+}
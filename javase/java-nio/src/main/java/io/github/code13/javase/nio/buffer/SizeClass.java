@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个大小级别的共享 arena：持有从 slab 上切下来的空闲 slice，所有线程共用，用锁保护。
+ *
+ * <p>线程缓存每次成批地补货和归还，锁的次数被摊薄到 1/批量。slab 一旦申请就不再还给 JVM，占用计入直接内存上限。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 14:20
+ */
+final class SizeClass {
+
+  final int index;
+  final int elementSize;
+
+  private final int slabSize;
+  private final DirectMemoryCounter memory;
+
+  private ByteBuffer[] free = new ByteBuffer[16];
+  private int freeCount;
+
+  final LongAdder allocations = new LongAdder();
+  final LongAdder releases = new LongAdder();
+  final LongAdder threadCacheHits = new LongAdder();
+  final LongAdder leaks = new LongAdder();
+  private long slabs;
+  private long reservedBytes;
+
+  SizeClass(int index, int elementSize, int slabSize, DirectMemoryCounter memory) {
+    this.index = index;
+    this.elementSize = elementSize;
+    this.slabSize = elementSize == 0 ? 0 : Math.max(slabSize, elementSize);
+    this.memory = memory;
+  }
+
+  /** 取出最多 {@code max} 个空闲 slice 放进 {@code dst[offset..]}，arena 空了就切一个新 slab，返回实际数量（至少 1）。 */
+  synchronized int take(ByteBuffer[] dst, int offset, int max) {
+    if (freeCount == 0) {
+      carveSlab();
+    }
+    int n = Math.min(max, freeCount);
+    System.arraycopy(free, freeCount - n, dst, offset, n);
+    Arrays.fill(free, freeCount - n, freeCount, null);
+    freeCount -= n;
+    return n;
+  }
+
+  synchronized void give(ByteBuffer[] src, int offset, int n) {
+    ensureCapacity(freeCount + n);
+    System.arraycopy(src, offset, free, freeCount, n);
+    freeCount += n;
+  }
+
+  synchronized void give(ByteBuffer buffer) {
+    ensureCapacity(freeCount + 1);
+    free[freeCount++] = buffer;
+  }
+
+  private void carveSlab() {
+    memory.reserve(slabSize);
+    ByteBuffer slab = ByteBuffer.allocateDirect(slabSize);
+    int count = slabSize / elementSize;
+    ensureCapacity(count);
+    for (int i = 0; i < count; i++) {
+      free[freeCount++] = slab.slice(i * elementSize, elementSize);
+    }
+    slabs++;
+    reservedBytes += slabSize;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > free.length) {
+      free = Arrays.copyOf(free, Math.max(capacity, free.length * 2));
+    }
+  }
+
+  synchronized SizeClassMetrics metrics(long unpooledBytes) {
+    return new SizeClassMetrics(
+        elementSize,
+        allocations.sum(),
+        releases.sum(),
+        threadCacheHits.sum(),
+        slabs,
+        elementSize == 0 ? unpooledBytes : reservedBytes,
+        leaks.sum());
+  }
+}
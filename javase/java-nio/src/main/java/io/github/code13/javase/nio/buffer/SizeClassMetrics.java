@@ -0,0 +1,48 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+/**
+ * 单个大小级别的使用统计。
+ *
+ * @param size 级别大小，0 表示超过 maxSize 的非池化分配
+ * @param allocations 累计分配次数
+ * @param releases 累计释放次数
+ * @param threadCacheHits 直接命中线程缓存的分配次数
+ * @param slabs 已申请的 slab 数
+ * @param reservedBytes 该级别占用的直接内存
+ * @param leaks 采样检测到的泄漏次数
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 14:12
+ */
+public record SizeClassMetrics(
+    int size,
+    long allocations,
+    long releases,
+    long threadCacheHits,
+    long slabs,
+    long reservedBytes,
+    long leaks) {
+
+  /** 尚未释放的缓冲区数量。 */
+  public long active() {
+    return allocations - releases;
+  }
+
+  public double threadCacheHitRatio() {
+    return allocations == 0 ? 0 : (double) threadCacheHits / allocations;
+  }
+}
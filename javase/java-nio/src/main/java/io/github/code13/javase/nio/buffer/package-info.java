@@ -0,0 +1,25 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * package-info.
+ *
+ * <p>按大小分级、带线程缓存的直接缓冲区池，思路来自 jemalloc 的 tcache 和 Netty 的 PoolArena：从大块 slab 上切出固定大小的
+ * slice，线程先从自己的缓存里拿，拿不到再批量从共享的 arena 补货。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 14:05
+ */
+package io.github.code13.javase.nio.buffer;
@@ -15,6 +15,8 @@
 
 package io.github.code13.javase.nio.jenkov.channel;
 
+import io.github.code13.javase.nio.buffer.PooledBuffer;
+import io.github.code13.javase.nio.buffer.PooledBufferAllocator;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
@@ -41,27 +43,28 @@ class ChannelRunner {
     assert resource != null;
     File f = new File(resource.getFile());
 
-    var file = new RandomAccessFile(f, "rw");
-    FileChannel channel = file.getChannel();
+    // 直接缓冲区：FileChannel 读写堆缓冲区时，JDK 内部还要再经过一块临时直接缓冲区拷贝一次
+    try (var file = new RandomAccessFile(f, "rw");
+        PooledBuffer pooled = PooledBufferAllocator.shared().allocate(48)) {
+      FileChannel channel = file.getChannel();
 
-    ByteBuffer buffer = ByteBuffer.allocate(48);
+      ByteBuffer buffer = pooled.buffer();
 
-    int bytesRead = channel.read(buffer);
+      int bytesRead = channel.read(buffer);
 
-    while (bytesRead != -1) {
-      System.out.println("bytesRead = " + bytesRead);
+      while (bytesRead != -1) {
+        System.out.println("bytesRead = " + bytesRead);
 
-      buffer.flip();
+        buffer.flip();
 
-      while (buffer.hasRemaining()) {
-        System.out.println(buffer.get());
-      }
+        while (buffer.hasRemaining()) {
+          System.out.println(buffer.get());
+        }
 
-      buffer.clear();
+        buffer.clear().limit(48);
 
-      bytesRead = channel.read(buffer);
+        bytesRead = channel.read(buffer);
+      }
     }
-
-    file.close();
   }
 }
@@ -15,6 +15,8 @@
 
 package io.github.code13.javase.nio.jenkov.datagramchannel;
 
+import io.github.code13.javase.nio.buffer.PooledBuffer;
+import io.github.code13.javase.nio.buffer.PooledBufferAllocator;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
@@ -34,21 +36,24 @@ class DatagramChannelRunner {
     DatagramChannel datagramChannel = DatagramChannel.open();
     datagramChannel.bind(new InetSocketAddress(9999));
 
-    ByteBuffer buffer = ByteBuffer.allocate(48);
-    buffer.clear();
-    datagramChannel.receive(buffer);
+    PooledBufferAllocator allocator = PooledBufferAllocator.shared();
+
+    try (PooledBuffer pooled = allocator.allocate(48)) {
+      datagramChannel.receive(pooled.buffer());
+    }
 
     String newData = "New String to write to file..." + System.currentTimeMillis();
 
-    ByteBuffer buf = ByteBuffer.allocate(48);
-    buf.clear();
-    buf.put(newData.getBytes());
-    buf.flip();
+    try (PooledBuffer pooled = allocator.allocate(48)) {
+      ByteBuffer buf = pooled.buffer();
+      buf.put(newData.getBytes());
+      buf.flip();
 
-    int bytesSent = datagramChannel.send(buf, new InetSocketAddress("jenkov.com", 80));
+      int bytesSent = datagramChannel.send(buf, new InetSocketAddress("jenkov.com", 80));
 
-    datagramChannel.connect(new InetSocketAddress("jenkov.com", 80));
-    int bytesRead = datagramChannel.read(buf);
-    int bytesWritten = datagramChannel.write(buf);
+      datagramChannel.connect(new InetSocketAddress("jenkov.com", 80));
+      int bytesRead = datagramChannel.read(buf);
+      int bytesWritten = datagramChannel.write(buf);
+    }
   }
 }
@@ -15,6 +15,8 @@
 
 package io.github.code13.javase.nio.jenkov.pipe;
 
+import io.github.code13.javase.nio.buffer.PooledBuffer;
+import io.github.code13.javase.nio.buffer.PooledBufferAllocator;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.Pipe;
@@ -36,19 +38,23 @@ public class PipeRunner {
     Pipe pipe = Pipe.open();
     SinkChannel sinkChannel = pipe.sink();
 
+    PooledBufferAllocator allocator = PooledBufferAllocator.shared();
+
     String newData = "New String to write to file..." + System.currentTimeMillis();
-    ByteBuffer byteBuffer = ByteBuffer.allocate(48);
-    byteBuffer.clear();
-    byteBuffer.put(newData.getBytes(StandardCharsets.UTF_8));
+    try (PooledBuffer pooled = allocator.allocate(48)) {
+      ByteBuffer byteBuffer = pooled.buffer();
+      byteBuffer.put(newData.getBytes(StandardCharsets.UTF_8));
 
-    byteBuffer.flip();
+      byteBuffer.flip();
 
-    while (byteBuffer.hasRemaining()) {
-      sinkChannel.write(byteBuffer);
+      while (byteBuffer.hasRemaining()) {
+        sinkChannel.write(byteBuffer);
+      }
     }
 
     SourceChannel source = pipe.source();
-    ByteBuffer buf = ByteBuffer.allocate(48);
-    int read = source.read(buf);
+    try (PooledBuffer pooled = allocator.allocate(48)) {
+      int read = source.read(pooled.buffer());
+    }
   }
 }
@@ -15,6 +15,8 @@
 
 package io.github.code13.javase.nio.jenkov.socketchannel;
 
+import io.github.code13.javase.nio.buffer.PooledBuffer;
+import io.github.code13.javase.nio.buffer.PooledBufferAllocator;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
@@ -37,16 +39,17 @@ class SocketChannelRunner {
 
     String newData = "New String to write to file..." + System.currentTimeMillis();
 
-    ByteBuffer byteBuffer = ByteBuffer.allocate(48);
-    byteBuffer.clear();
-    byteBuffer.put(newData.getBytes(StandardCharsets.UTF_8));
-    byteBuffer.flip();
+    // 堆缓冲区写 socket 时 JDK 会先拷贝到临时直接缓冲区，池化的直接缓冲区省掉这次拷贝
+    try (PooledBuffer pooled = PooledBufferAllocator.shared().allocate(48)) {
+      ByteBuffer byteBuffer = pooled.buffer();
+      byteBuffer.put(newData.getBytes(StandardCharsets.UTF_8));
+      byteBuffer.flip();
 
-    while (byteBuffer.hasRemaining()) {
-      sc.write(byteBuffer);
+      while (byteBuffer.hasRemaining()) {
+        sc.write(byteBuffer);
+      }
     }
 
-    byteBuffer.clear();
     sc.close();
   }
 }
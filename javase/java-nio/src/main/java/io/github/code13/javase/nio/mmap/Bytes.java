@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.mmap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 字节查找。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 16:44
+ */
+final class Bytes {
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+
+  private Bytes() {}
+
+  /**
+   * 在 {@code buffer[from, to)} 中查找 {@code value}，找不到返回 -1。
+   *
+   * <p>一次比较 8 个字节（SWAR）：与重复了 8 次的目标字节异或，相等的字节变成 0，再用 {@code (x - 0x01..) & ~x & 0x80..}
+   * 找出最低位的 0 字节。要求 buffer 为小端序，这样最低位的 0 字节就是地址最小的那个。
+   */
+  static int indexOf(ByteBuffer buffer, int from, int to, byte value) {
+    long pattern = ONES * (value & 0xFF);
+    int i = from;
+    for (; i + Long.BYTES <= to; i += Long.BYTES) {
+      long word = buffer.getLong(i) ^ pattern;
+      long found = (word - ONES) & ~word & HIGHS;
+      if (found != 0) {
+        return i + (Long.numberOfTrailingZeros(found) >>> 3);
+      }
+    }
+    for (; i < to; i++) {
+      if (buffer.get(i) == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
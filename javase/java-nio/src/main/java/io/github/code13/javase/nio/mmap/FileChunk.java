@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.mmap;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 文件中以记录分隔符结尾（最后一块除外）的一段连续字节，{@link #map()} 时才真正映射。
+ *
+ * <p>单个 MappedByteBuffer 最大 2GB，把文件切成若干块各自映射，就绕开了这个限制。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 16:50
+ */
+public final class FileChunk {
+
+  private final FileChannel channel;
+  private final long offset;
+  private final int length;
+
+  FileChunk(FileChannel channel, long offset, int length) {
+    this.channel = channel;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /** 在文件中的起始位置。 */
+  public long offset() {
+    return offset;
+  }
+
+  public int length() {
+    return length;
+  }
+
+  /** 只读映射这一块，字节序为小端。映射在 buffer 被 GC 回收时解除。 */
+  public MappedByteBuffer map() {
+    try {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      return buffer;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "FileChunk[offset=" + offset + ", length=" + length + "]";
+  }
+}
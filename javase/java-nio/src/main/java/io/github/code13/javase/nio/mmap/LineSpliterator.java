@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.mmap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * 按块拆分的行 Spliterator：{@link #trySplit()} 把未开始的块对半分出去，每个块内部顺序解码。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 17:02
+ */
+final class LineSpliterator implements Spliterator<String> {
+
+  private final List<FileChunk> chunks;
+  private final Charset charset;
+  private final byte delimiter;
+
+  /** 下一个待映射的块。 */
+  private int next;
+
+  private final int fence;
+  private ByteBuffer current;
+  private byte[] scratch = new byte[256];
+
+  LineSpliterator(List<FileChunk> chunks, int from, int to, Charset charset, byte delimiter) {
+    this.chunks = chunks;
+    this.next = from;
+    this.fence = to;
+    this.charset = charset;
+    this.delimiter = delimiter;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super String> action) {
+    while (current == null || !current.hasRemaining()) {
+      if (next >= fence) {
+        current = null;
+        return false;
+      }
+      current = chunks.get(next++).map();
+    }
+    action.accept(nextLine(current));
+    return true;
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super String> action) {
+    if (current != null) {
+      drain(current, action);
+      current = null;
+    }
+    while (next < fence) {
+      drain(chunks.get(next++).map(), action);
+    }
+  }
+
+  private void drain(ByteBuffer buffer, Consumer<? super String> action) {
+    while (buffer.hasRemaining()) {
+      action.accept(nextLine(buffer));
+    }
+  }
+
+  private String nextLine(ByteBuffer buffer) {
+    int start = buffer.position();
+    int limit = buffer.limit();
+    int end = Bytes.indexOf(buffer, start, limit, delimiter);
+    if (end < 0) {
+      end = limit;
+      buffer.position(limit);
+    } else {
+      buffer.position(end + 1);
+    }
+    if (delimiter == '\n' && end > start && buffer.get(end - 1) == '\r') {
+      end--;
+    }
+    int length = end - start;
+    if (length > scratch.length) {
+      scratch = new byte[Math.max(length, scratch.length * 2)];
+    }
+    buffer.get(start, scratch, 0, length);
+    return new String(scratch, 0, length, charset);
+  }
+
+  @Override
+  public Spliterator<String> trySplit() {
+    // ORDERED 要求返回的是前缀，正在读的块还没读完时它排在最前面，不能再拆
+    if (current != null && current.hasRemaining()) {
+      return null;
+    }
+    int remaining = fence - next;
+    if (remaining < 2) {
+      return null;
+    }
+    int mid = next + remaining / 2;
+    LineSpliterator prefix = new LineSpliterator(chunks, next, mid, charset, delimiter);
+    next = mid;
+    return prefix;
+  }
+
+  /** 剩余字节数，行数未知，只用来给 fork/join 估算拆分粒度。 */
+  @Override
+  public long estimateSize() {
+    long bytes = current == null ? 0 : current.remaining();
+    if (next < fence) {
+      FileChunk last = chunks.get(fence - 1);
+      bytes += last.offset() + last.length() - chunks.get(next).offset();
+    }
+    return bytes;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED | NONNULL | IMMUTABLE;
+  }
+}
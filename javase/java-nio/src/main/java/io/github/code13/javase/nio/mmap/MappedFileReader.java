@@ -0,0 +1,161 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.mmap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于内存映射的大文件读取器。
+ *
+ * <p>打开时按 {@code chunkSize} 粗切文件，再把每个切点向后挪到下一个记录分隔符之后，得到一组互不重叠、不切断记录的 {@link
+ * FileChunk}。每块单独映射（单块不超过 2GB），所以文件本身可以任意大。{@link #lines()} 返回的流可以直接 {@code
+ * parallel()}，fork/join 按块拆分，多个核同时解码不同的块。
+ *
+ * <pre>{@code
+ * try (MappedFileReader reader = MappedFileReader.open(path)) {
+ *   long errors = reader.lines().parallel().filter(line -> line.contains("ERROR")).count();
+ * }
+ * }</pre>
+ *
+ * <p>分隔符按字节匹配，字符集必须是 ASCII 兼容的（UTF-8、ISO-8859-1、GBK 等），不支持 UTF-16。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 17:15
+ */
+public final class MappedFileReader implements AutoCloseable {
+
+  /** 找切点时每次读取的窗口大小。 */
+  private static final int PROBE_SIZE = 8 * 1024;
+
+  private final FileChannel channel;
+  private final long size;
+  private final byte delimiter;
+  private final List<FileChunk> chunks;
+
+  private MappedFileReader(FileChannel channel, long chunkSize, byte delimiter) throws IOException {
+    this.channel = channel;
+    this.size = channel.size();
+    this.delimiter = delimiter;
+    this.chunks = Collections.unmodifiableList(split(chunkSize));
+  }
+
+  /** 以换行分隔，块大小按文件大小和 CPU 数自动选择。 */
+  public static MappedFileReader open(Path path) throws IOException {
+    return open(path, defaultChunkSize(path.toFile().length()), (byte) '\n');
+  }
+
+  /**
+   * @param chunkSize 目标块大小，实际块会延伸到下一个分隔符之后，不超过 {@link Integer#MAX_VALUE}
+   * @param delimiter 记录分隔符；为 {@code '\n'} 时行尾的 {@code '\r'} 会被去掉
+   */
+  public static MappedFileReader open(Path path, long chunkSize, byte delimiter)
+      throws IOException {
+    if (chunkSize <= 0 || chunkSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("chunkSize must be in (0, 2GB): " + chunkSize);
+    }
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      return new MappedFileReader(channel, chunkSize, delimiter);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /** 每个核 4 块左右，便于负载均衡，限制在 1MB ~ 64MB。 */
+  static long defaultChunkSize(long fileSize) {
+    long perCore = fileSize / (4L * ForkJoinPool.getCommonPoolParallelism());
+    return Math.max(1L << 20, Math.min(64L << 20, perCore));
+  }
+
+  public long size() {
+    return size;
+  }
+
+  public List<FileChunk> chunks() {
+    return chunks;
+  }
+
+  /** 按 UTF-8 解码的行。 */
+  public Stream<String> lines() {
+    return lines(StandardCharsets.UTF_8);
+  }
+
+  /** 顺序流，调用 {@code parallel()} 后按块并行。 */
+  public Stream<String> lines(Charset charset) {
+    if ("\n".getBytes(charset).length != 1) {
+      throw new IllegalArgumentException("charset must be ASCII compatible: " + charset);
+    }
+    return StreamSupport.stream(
+        new LineSpliterator(chunks, 0, chunks.size(), charset, delimiter), false);
+  }
+
+  private List<FileChunk> split(long chunkSize) throws IOException {
+    List<FileChunk> result = new ArrayList<>((int) (size / chunkSize) + 1);
+    ByteBuffer probe = ByteBuffer.allocateDirect(PROBE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    long start = 0;
+    while (start < size) {
+      long end = start + chunkSize;
+      if (end >= size) {
+        end = size;
+      } else {
+        end = nextDelimiter(end - 1, probe) + 1;
+      }
+      if (end - start > Integer.MAX_VALUE) {
+        throw new IOException("record at offset " + start + " is larger than 2GB");
+      }
+      result.add(new FileChunk(channel, start, (int) (end - start)));
+      start = end;
+    }
+    return result;
+  }
+
+  /** {@code from} 及之后第一个分隔符的位置，没有则返回文件最后一个字节的位置。 */
+  private long nextDelimiter(long from, ByteBuffer probe) throws IOException {
+    long position = from;
+    while (position < size) {
+      probe.clear();
+      int read = channel.read(probe, position);
+      if (read <= 0) {
+        break;
+      }
+      int index = Bytes.indexOf(probe, 0, read, delimiter);
+      if (index >= 0) {
+        return position + index;
+      }
+      position += read;
+    }
+    return size - 1;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 单个 I/O 线程私有的直接缓冲区池。
+ *
+ * <p>只缓存固定大小的缓冲区，不做任何同步，必须只在所属的 {@link SubReactor} 线程中使用。直接内存的分配和回收都很昂贵，
+ * 池化之后空闲连接不持有缓冲区，活跃连接读写时按需借还。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:20
+ */
+final class BufferPool {
+
+  private final int chunkSize;
+  private final ByteBuffer[] free;
+  private int size;
+
+  BufferPool(int chunkSize, int maxPooled) {
+    this.chunkSize = chunkSize;
+    this.free = new ByteBuffer[maxPooled];
+  }
+
+  int chunkSize() {
+    return chunkSize;
+  }
+
+  ByteBuffer acquire() {
+    if (size == 0) {
+      return ByteBuffer.allocateDirect(chunkSize);
+    }
+    ByteBuffer buffer = free[--size];
+    free[size] = null;
+    return buffer.clear();
+  }
+
+  /** 大小不符合的缓冲区直接丢弃，交给 GC 回收。 */
+  void release(ByteBuffer buffer) {
+    if (buffer.isDirect() && buffer.capacity() == chunkSize && size < free.length) {
+      free[size++] = buffer;
+    }
+  }
+}
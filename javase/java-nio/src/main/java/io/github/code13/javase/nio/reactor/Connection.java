@@ -0,0 +1,265 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * 一条客户端连接。
+ *
+ * <p>读：从所属 I/O 线程的池里借一块直接缓冲区，读完交给 {@link FrameDecoder} 拆帧；没有残留半帧时立即归还，所以空闲连接不占缓冲区。
+ *
+ * <p>写：{@link #write(ByteBuffer...)} 只把缓冲区放进出站队列，一轮读事件处理完后用一次 gathering write 批量写出。
+ * socket 写不完时注册 OP_WRITE 等待可写；待写字节超过高水位时摘掉 OP_READ，让 TCP 窗口把压力传回对端，回落到低水位以下再恢复。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:40
+ */
+public final class Connection {
+
+  /** 单次 gathering write 最多携带的缓冲区数量，Linux 的 IOV_MAX 是 1024。 */
+  private static final int MAX_GATHER = 64;
+
+  private final SubReactor reactor;
+  private final SocketChannel channel;
+  private final FrameDecoder decoder;
+  private final FrameHandler handler;
+  private final ReactorOptions options;
+
+  private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+  private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+
+  private SelectionKey key;
+  private ByteBuffer inbound;
+  private long pendingBytes;
+  private int interestOps;
+  private boolean readSuspended;
+  private boolean reading;
+  private boolean closed;
+
+  Connection(
+      SubReactor reactor,
+      SocketChannel channel,
+      FrameDecoder decoder,
+      FrameHandler handler,
+      ReactorOptions options) {
+    this.reactor = reactor;
+    this.channel = channel;
+    this.decoder = decoder;
+    this.handler = handler;
+    this.options = options;
+  }
+
+  void register(SelectionKey key) {
+    this.key = key;
+    this.interestOps = key.interestOps();
+    handler.onOpen(this);
+  }
+
+  public SocketAddress remoteAddress() {
+    try {
+      return channel.getRemoteAddress();
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /** 出站队列未超过高水位，生产方可以据此自行限速。 */
+  public boolean isWritable() {
+    return pendingBytes <= options.highWatermark();
+  }
+
+  public boolean isOpen() {
+    return !closed;
+  }
+
+  /**
+   * 分配一块至少 {@code minCapacity} 字节的出站缓冲区，能放进池化大小时从池里借，写完后自动归还。只能在 I/O 线程中调用。
+   */
+  public ByteBuffer allocate(int minCapacity) {
+    return minCapacity <= reactor.pool().chunkSize()
+        ? reactor.pool().acquire()
+        : ByteBuffer.allocateDirect(minCapacity);
+  }
+
+  /**
+   * 写出若干缓冲区（已 flip），调用后缓冲区归连接所有，调用方不能再修改。可以在任意线程调用，非 I/O 线程会被转交给 I/O 线程执行。
+   */
+  public void write(ByteBuffer... buffers) {
+    if (!reactor.inEventLoop()) {
+      reactor.execute(() -> write(buffers));
+      return;
+    }
+    if (closed) {
+      return;
+    }
+    for (ByteBuffer buffer : buffers) {
+      if (buffer.hasRemaining()) {
+        outbound.addLast(buffer);
+        pendingBytes += buffer.remaining();
+      }
+    }
+    if (!reading) {
+      flush();
+    }
+  }
+
+  /** 可以在任意线程调用。 */
+  public void close() {
+    if (!reactor.inEventLoop()) {
+      reactor.execute(this::close);
+      return;
+    }
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (key != null) {
+      key.cancel();
+    }
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+      // 已经在关闭，忽略
+    }
+    BufferPool pool = reactor.pool();
+    if (inbound != null) {
+      pool.release(inbound);
+      inbound = null;
+    }
+    ByteBuffer buffer;
+    while ((buffer = outbound.pollFirst()) != null) {
+      pool.release(buffer);
+    }
+    pendingBytes = 0;
+    reactor.onClosed(this);
+    handler.onClose(this);
+  }
+
+  void onReadable() {
+    if (inbound == null) {
+      inbound = reactor.pool().acquire();
+    }
+    int read;
+    try {
+      read = channel.read(inbound);
+    } catch (IOException e) {
+      close();
+      return;
+    }
+    if (read < 0) {
+      close();
+      return;
+    }
+    reading = true;
+    try {
+      decodeFrames();
+    } catch (IOException | RuntimeException e) {
+      System.err.println("closing " + remoteAddress() + ": " + e);
+      close();
+      return;
+    } finally {
+      reading = false;
+    }
+    flush();
+  }
+
+  void onWritable() {
+    flush();
+  }
+
+  private void decodeFrames() throws IOException {
+    inbound.flip();
+    ByteBuffer frame;
+    while (!closed && (frame = decoder.decode(inbound)) != null) {
+      handler.onFrame(this, frame);
+    }
+    if (closed) {
+      return;
+    }
+    if (!inbound.hasRemaining()) {
+      reactor.pool().release(inbound);
+      inbound = null;
+      return;
+    }
+    int remaining = inbound.remaining();
+    if (inbound.position() == 0 && remaining == inbound.capacity()) {
+      // 缓冲区满了还凑不出一帧，按帧长扩容
+      int frameLength = decoder.pendingFrameLength(inbound);
+      ByteBuffer grown =
+          ByteBuffer.allocateDirect(Math.max(frameLength, inbound.capacity() * 2)).put(inbound);
+      reactor.pool().release(inbound);
+      inbound = grown;
+    } else {
+      inbound.compact();
+    }
+  }
+
+  private void flush() {
+    if (closed) {
+      return;
+    }
+    try {
+      while (!outbound.isEmpty()) {
+        int count = 0;
+        long expected = 0;
+        for (ByteBuffer buffer : outbound) {
+          gather[count++] = buffer;
+          expected += buffer.remaining();
+          if (count == MAX_GATHER) {
+            break;
+          }
+        }
+        long written = channel.write(gather, 0, count);
+        Arrays.fill(gather, 0, count, null);
+        pendingBytes -= written;
+        ByteBuffer head;
+        while ((head = outbound.peekFirst()) != null && !head.hasRemaining()) {
+          reactor.pool().release(outbound.pollFirst());
+        }
+        if (written < expected) {
+          // socket 发送缓冲区满了
+          break;
+        }
+      }
+    } catch (IOException e) {
+      close();
+      return;
+    }
+    updateInterest();
+  }
+
+  private void updateInterest() {
+    if (pendingBytes > options.highWatermark()) {
+      readSuspended = true;
+    } else if (readSuspended && pendingBytes <= options.lowWatermark()) {
+      readSuspended = false;
+    }
+    int ops =
+        (readSuspended ? 0 : SelectionKey.OP_READ)
+            | (outbound.isEmpty() ? 0 : SelectionKey.OP_WRITE);
+    if (ops != interestOps) {
+      interestOps = ops;
+      key.interestOps(ops);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 原样回写收到的帧，用于压测。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:33
+ */
+public final class EchoFrameHandler implements FrameHandler {
+
+  @Override
+  public void onFrame(Connection connection, ByteBuffer frame) {
+    ByteBuffer out = connection.allocate(LengthFieldFrameDecoder.HEADER_LENGTH + frame.remaining());
+    out.putInt(frame.remaining()).put(frame).flip();
+    connection.write(out);
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * 启动一个长度前缀的 echo 服务，配合测试目录下的 ReactorEchoBenchmark 压测。
+ *
+ * <p>参数：{@code [port] [ioThreads]}，默认 8080 和 CPU 核数。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 11:20
+ */
+public class EchoServerRunner {
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+    ReactorOptions options = ReactorOptions.defaults();
+    if (args.length > 1) {
+      options = options.withIoThreads(Integer.parseInt(args[1]));
+    }
+    ReactorServer server =
+        new ReactorServer(
+            new InetSocketAddress(port),
+            options,
+            () -> new LengthFieldFrameDecoder(1 << 20),
+            new EchoFrameHandler());
+    server.start();
+    System.out.println(
+        "echo server listening on "
+            + server.localAddress()
+            + ", io threads "
+            + options.ioThreads());
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  try {
+                    server.close();
+                  } catch (IOException e) {
+                    e.printStackTrace();
+                  }
+                }));
+    Thread.currentThread().join();
+  }
+}
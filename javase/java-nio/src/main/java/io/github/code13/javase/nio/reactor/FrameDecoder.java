@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 拆帧器：从累积的入站字节中切出完整的一帧。
+ *
+ * <p>每个连接持有自己的实例，实现可以有状态。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:24
+ */
+public interface FrameDecoder {
+
+  /**
+   * 尝试从 {@code in} 中解出一帧。
+   *
+   * <p>成功时返回帧内容（可以是 {@code in} 的 slice，只在本次回调内有效），并把 {@code in} 的 position 移到帧尾；
+   * 数据不足一帧时返回 {@code null} 且不移动 position。
+   *
+   * @throws IOException 帧非法，连接会被关闭
+   */
+  ByteBuffer decode(ByteBuffer in) throws IOException;
+
+  /** 当前未完成帧的完整长度（含帧头），未知时返回 -1；用于在一帧超过缓冲区大小时扩容。 */
+  default int pendingFrameLength(ByteBuffer in) {
+    return -1;
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 业务处理器，所有回调都在连接所属的 I/O 线程中执行，不能阻塞；耗时逻辑应交给其他线程，再通过 {@link
+ * Connection#write(ByteBuffer...)} 跨线程写回。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:31
+ */
+public interface FrameHandler {
+
+  default void onOpen(Connection connection) {}
+
+  /**
+   * 收到一帧。
+   *
+   * @param frame 帧内容，只在本次回调内有效，需要保留时必须拷贝
+   */
+  void onFrame(Connection connection, ByteBuffer frame) throws IOException;
+
+  default void onClose(Connection connection) {}
+}
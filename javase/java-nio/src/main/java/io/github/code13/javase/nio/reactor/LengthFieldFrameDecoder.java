@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 长度前缀拆帧：4 字节大端长度 + 内容，长度不含帧头。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:27
+ */
+public final class LengthFieldFrameDecoder implements FrameDecoder {
+
+  public static final int HEADER_LENGTH = Integer.BYTES;
+
+  private final int maxFrameLength;
+
+  public LengthFieldFrameDecoder(int maxFrameLength) {
+    this.maxFrameLength = maxFrameLength;
+  }
+
+  @Override
+  public ByteBuffer decode(ByteBuffer in) throws IOException {
+    if (in.remaining() < HEADER_LENGTH) {
+      return null;
+    }
+    int start = in.position();
+    int length = frameLength(in, start);
+    if (in.remaining() < HEADER_LENGTH + length) {
+      return null;
+    }
+    ByteBuffer frame = in.slice(start + HEADER_LENGTH, length);
+    in.position(start + HEADER_LENGTH + length);
+    return frame;
+  }
+
+  @Override
+  public int pendingFrameLength(ByteBuffer in) {
+    if (in.remaining() < HEADER_LENGTH) {
+      return -1;
+    }
+    int length = in.getInt(in.position());
+    return length < 0 || length > maxFrameLength ? -1 : HEADER_LENGTH + length;
+  }
+
+  private int frameLength(ByteBuffer in, int start) throws IOException {
+    int length = in.getInt(start);
+    if (length < 0 || length > maxFrameLength) {
+      throw new IOException("frame length " + length + " exceeds " + maxFrameLength);
+    }
+    return length;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+/**
+ * ReactorServer 的参数。
+ *
+ * @param ioThreads I/O 线程（从 Reactor）数量
+ * @param bufferSize 池化直接缓冲区的大小，同时也是单次 read 的上限
+ * @param maxPooledBuffers 每个 I/O 线程的缓冲池最多缓存多少块空闲缓冲区
+ * @param highWatermark 待写字节数超过该值时暂停读取该连接
+ * @param lowWatermark 待写字节数回落到该值以下时恢复读取
+ * @param backlog accept 队列长度
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:14
+ */
+public record ReactorOptions(
+    int ioThreads,
+    int bufferSize,
+    int maxPooledBuffers,
+    int highWatermark,
+    int lowWatermark,
+    int backlog) {
+
+  public ReactorOptions {
+    if (ioThreads < 1) {
+      throw new IllegalArgumentException("ioThreads must be positive: " + ioThreads);
+    }
+    if (bufferSize < 64) {
+      throw new IllegalArgumentException("bufferSize too small: " + bufferSize);
+    }
+    if (lowWatermark < 0 || lowWatermark > highWatermark) {
+      throw new IllegalArgumentException(
+          "expected 0 <= lowWatermark <= highWatermark, got " + lowWatermark + "/" + highWatermark);
+    }
+  }
+
+  public static ReactorOptions defaults() {
+    return new ReactorOptions(
+        Runtime.getRuntime().availableProcessors(), 16 * 1024, 1024, 64 * 1024, 32 * 1024, 4096);
+  }
+
+  public ReactorOptions withIoThreads(int ioThreads) {
+    return new ReactorOptions(
+        ioThreads, bufferSize, maxPooledBuffers, highWatermark, lowWatermark, backlog);
+  }
+}
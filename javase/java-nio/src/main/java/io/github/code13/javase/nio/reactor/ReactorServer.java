@@ -0,0 +1,171 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 主从 Reactor 服务端。
+ *
+ * <p>主 Reactor（acceptor 线程）只注册 OP_ACCEPT，每次就绪时把积压的连接全部 accept 出来，按轮询分给 {@link
+ * ReactorOptions#ioThreads()} 个从 Reactor；连接之后的读写都在所属的从 Reactor 线程中完成，不再经过线程池，
+ * 也就不会出现同一个可读 key 被重复提交的问题。
+ *
+ * <pre>{@code
+ * try (ReactorServer server =
+ *     new ReactorServer(
+ *         new InetSocketAddress(8080),
+ *         ReactorOptions.defaults(),
+ *         () -> new LengthFieldFrameDecoder(1 << 20),
+ *         new EchoFrameHandler())) {
+ *   server.start();
+ *   ...
+ * }
+ * }</pre>
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 11:05
+ */
+public final class ReactorServer implements AutoCloseable {
+
+  private final InetSocketAddress address;
+  private final ReactorOptions options;
+  private final SubReactor[] subReactors;
+
+  private ServerSocketChannel serverChannel;
+  private Selector acceptSelector;
+  private Thread acceptor;
+  private volatile boolean running;
+  private int next;
+
+  public ReactorServer(
+      InetSocketAddress address,
+      ReactorOptions options,
+      Supplier<FrameDecoder> decoderFactory,
+      FrameHandler handler)
+      throws IOException {
+    this.address = address;
+    this.options = options;
+    this.subReactors = new SubReactor[options.ioThreads()];
+    for (int i = 0; i < subReactors.length; i++) {
+      subReactors[i] = new SubReactor("reactor-io-" + i, options, decoderFactory, handler);
+    }
+  }
+
+  public synchronized void start() throws IOException {
+    if (running) {
+      return;
+    }
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+    serverChannel.bind(address, options.backlog());
+    serverChannel.configureBlocking(false);
+    acceptSelector = Selector.open();
+    serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+
+    running = true;
+    for (SubReactor subReactor : subReactors) {
+      subReactor.start();
+    }
+    acceptor = new Thread(this::acceptLoop, "reactor-acceptor");
+    acceptor.start();
+  }
+
+  /** 实际监听的地址，端口传 0 时用它拿到系统分配的端口。 */
+  public InetSocketAddress localAddress() throws IOException {
+    return (InetSocketAddress) serverChannel.getLocalAddress();
+  }
+
+  /** 各 I/O 线程当前的连接数之和，非 I/O 线程读到的是近似值。 */
+  public int connections() {
+    int total = 0;
+    for (SubReactor subReactor : subReactors) {
+      total += subReactor.connections();
+    }
+    return total;
+  }
+
+  private void acceptLoop() {
+    while (running) {
+      try {
+        acceptSelector.select();
+        Iterator<SelectionKey> iterator = acceptSelector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          iterator.next();
+          iterator.remove();
+          acceptAll();
+        }
+      } catch (IOException e) {
+        if (!running) {
+          return;
+        }
+        // 典型的是 too many open files，稍等再试，避免空转
+        System.err.println("accept failed: " + e);
+        sleepQuietly();
+      }
+    }
+  }
+
+  private void acceptAll() throws IOException {
+    SocketChannel channel;
+    while ((channel = serverChannel.accept()) != null) {
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      subReactors[next].register(channel);
+      next = (next + 1) % subReactors.length;
+    }
+  }
+
+  private static void sleepQuietly() {
+    try {
+      TimeUnit.MILLISECONDS.sleep(10);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (!running) {
+      return;
+    }
+    running = false;
+    acceptSelector.wakeup();
+    try {
+      acceptor.join();
+      for (SubReactor subReactor : subReactors) {
+        subReactor.shutdown();
+      }
+      for (SubReactor subReactor : subReactors) {
+        subReactor.awaitTermination();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      acceptSelector.close();
+      serverChannel.close();
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 从 Reactor：一个线程独占一个 Selector，负责分到自己名下连接的全部 I/O。
+ *
+ * <p>其他线程（acceptor、业务线程）不直接碰 Selector，而是把任务放进 {@link #execute(Runnable)} 的队列再 wakeup，
+ * 避免 register 与 select 互相阻塞。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:52
+ */
+final class SubReactor implements Runnable {
+
+  private final Selector selector;
+  private final Thread thread;
+  private final BufferPool pool;
+  private final ReactorOptions options;
+  private final Supplier<FrameDecoder> decoderFactory;
+  private final FrameHandler handler;
+
+  private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean wakenUp = new AtomicBoolean();
+  private volatile boolean running = true;
+  private int connections;
+
+  SubReactor(
+      String name,
+      ReactorOptions options,
+      Supplier<FrameDecoder> decoderFactory,
+      FrameHandler handler)
+      throws IOException {
+    this.selector = Selector.open();
+    this.options = options;
+    this.decoderFactory = decoderFactory;
+    this.handler = handler;
+    this.pool = new BufferPool(options.bufferSize(), options.maxPooledBuffers());
+    this.thread = new Thread(this, name);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  BufferPool pool() {
+    return pool;
+  }
+
+  boolean inEventLoop() {
+    return Thread.currentThread() == thread;
+  }
+
+  void execute(Runnable task) {
+    tasks.offer(task);
+    if (!inEventLoop() && wakenUp.compareAndSet(false, true)) {
+      selector.wakeup();
+    }
+  }
+
+  /** 由 acceptor 线程调用。 */
+  void register(SocketChannel channel) {
+    execute(
+        () -> {
+          Connection connection =
+              new Connection(this, channel, decoderFactory.get(), handler, options);
+          try {
+            connection.register(channel.register(selector, SelectionKey.OP_READ, connection));
+            connections++;
+          } catch (IOException e) {
+            connection.close();
+          }
+        });
+  }
+
+  void onClosed(Connection connection) {
+    connections--;
+  }
+
+  void shutdown() {
+    running = false;
+    selector.wakeup();
+  }
+
+  void awaitTermination() throws InterruptedException {
+    thread.join();
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        selector.select();
+        wakenUp.set(false);
+        processSelectedKeys();
+        runTasks();
+      }
+    } catch (IOException | ClosedSelectorException e) {
+      System.err.println(thread.getName() + " stopped: " + e);
+    } finally {
+      closeAll();
+    }
+  }
+
+  private void processSelectedKeys() {
+    Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+    while (iterator.hasNext()) {
+      SelectionKey key = iterator.next();
+      iterator.remove();
+      Connection connection = (Connection) key.attachment();
+      if (!key.isValid()) {
+        connection.close();
+        continue;
+      }
+      int ready = key.readyOps();
+      if ((ready & SelectionKey.OP_WRITE) != 0) {
+        connection.onWritable();
+      }
+      if ((ready & SelectionKey.OP_READ) != 0 && connection.isOpen()) {
+        connection.onReadable();
+      }
+    }
+  }
+
+  private void runTasks() {
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        System.err.println(thread.getName() + " task failed: " + e);
+      }
+    }
+  }
+
+  private void closeAll() {
+    runTasks();
+    for (SelectionKey key : selector.keys()) {
+      if (key.attachment() instanceof Connection connection) {
+        connection.close();
+      }
+    }
+    try {
+      selector.close();
+    } catch (IOException ignored) {
+      // 退出中，忽略
+    }
+  }
+
+  int connections() {
+    return connections;
+  }
+}
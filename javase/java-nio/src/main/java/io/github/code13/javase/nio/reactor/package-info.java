@@ -0,0 +1,25 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * package-info.
+ *
+ * <p>主从 Reactor 模型的 NIO 服务端：一个 acceptor 线程只负责 accept，并把连接轮询分发给 N 个 I/O 线程，每个 I/O
+ * 线程独占一个 {@link java.nio.channels.Selector}，负责所属连接的读、拆帧、写回。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 10:12
+ */
+package io.github.code13.javase.nio.reactor;
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.zip;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 先放内存、超过阈值写临时文件的字节缓冲，用来暂存单个条目的压缩结果。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 19:22
+ */
+final class SpillBuffer implements Closeable {
+
+  private final int threshold;
+  private byte[] data = new byte[1024];
+  private int count;
+  private FileChannel spill;
+  private long size;
+
+  SpillBuffer(int threshold) {
+    this.threshold = threshold;
+  }
+
+  void write(byte[] bytes, int offset, int length) throws IOException {
+    if (spill == null && count + length <= threshold) {
+      if (count + length > data.length) {
+        data = Arrays.copyOf(data, Math.min(threshold, Math.max(count + length, data.length * 2)));
+      }
+      System.arraycopy(bytes, offset, data, count, length);
+      count += length;
+    } else {
+      if (spill == null) {
+        Path file = Files.createTempFile("zip-engine-", ".tmp");
+        spill =
+            FileChannel.open(
+                file,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+      }
+      ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+      while (buffer.hasRemaining()) {
+        spill.write(buffer);
+      }
+    }
+    size += length;
+  }
+
+  long size() {
+    return size;
+  }
+
+  /** 内存部分拷进 writer 的暂存区，溢出部分用 transferTo 从临时文件拷过去。 */
+  void transferTo(ZipWriter out) throws IOException {
+    out.write(data, 0, count);
+    if (spill != null) {
+      out.transferFrom(spill, 0, size - count);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    data = null;
+    if (spill != null) {
+      spill.close();
+    }
+  }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.zip;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 并行 zip 压缩、流式解压。
+ *
+ * <p>压缩分三步：
+ *
+ * <ol>
+ *   <li>{@link Files#find} 惰性遍历目录，每遇到一个文件就向 fork/join 池提交一个压缩任务，在途任务数和预计占用的内存受 {@link
+ *       ZipOptions#maxInFlight()}、{@link ZipOptions#maxBufferedBytes()} 限制，目录再大也不会先把文件列表全部装进内存；
+ *   <li>每个任务用线程私有的 {@link Deflater} 和直接缓冲区把文件 deflate 进 {@link SpillBuffer}，同时算好 CRC；压缩后不变小，
+ *       或扩展名已是压缩格式的，改为 STORED；
+ *   <li>调用线程按遍历顺序取结果写出：本地文件头 → 数据 → 记下中央目录项。STORED 条目直接 {@link
+ *       FileChannel#transferTo} 原文件，不经过用户态。
+ * </ol>
+ *
+ * <p>每个在途条目按 {@code min(文件大小, memoryThreshold)} 计入 {@code maxBufferedBytes}，单个条目超过阈值的压缩结果写临时文件。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 19:50
+ */
+public final class ZipEngine {
+
+  private static final int IO_BUFFER = 64 * 1024;
+
+  private final ForkJoinPool pool;
+  private final ZipOptions options;
+  private final ThreadLocal<Workspace> workspace;
+
+  public ZipEngine(ForkJoinPool pool, ZipOptions options) {
+    this.pool = pool;
+    this.options = options;
+    this.workspace = ThreadLocal.withInitial(() -> new Workspace(options.level()));
+  }
+
+  /** 公共 fork/join 池 + 默认参数。 */
+  public static ZipEngine withDefaults() {
+    return new ZipEngine(ForkJoinPool.commonPool(), ZipOptions.defaults());
+  }
+
+  /**
+   * 把 {@code sourceDir} 下的所有文件打包进 {@code target}，条目名为相对路径，返回条目数。
+   *
+   * <p>失败时删除写了一半的 {@code target}。
+   */
+  public long zip(Path sourceDir, Path target) throws IOException {
+    if (!Files.isDirectory(sourceDir)) {
+      throw new NotDirectoryException(sourceDir.toString());
+    }
+    ArrayDeque<Pending> window = new ArrayDeque<>();
+    Path output = target.toAbsolutePath().normalize();
+    long buffered = 0;
+    boolean completed = false;
+    try (Stream<FileEntry> walk = walk(sourceDir, output);
+        ZipWriter writer =
+            new ZipWriter(
+                FileChannel.open(
+                    target,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE))) {
+      Iterator<FileEntry> files = walk.iterator();
+      FileEntry next = files.hasNext() ? files.next() : null;
+      while (next != null || !window.isEmpty()) {
+        // 按条目数和预计占用的内存双重限流，窗口为空时至少放进一个
+        while (next != null
+            && (window.isEmpty()
+                || window.size() < options.maxInFlight()
+                    && buffered + cost(next) <= options.maxBufferedBytes())) {
+          FileEntry file = next;
+          window.add(Pending.submit(pool, () -> compress(file), cost(file)));
+          buffered += cost(file);
+          next = files.hasNext() ? files.next() : null;
+        }
+        Pending head = window.poll();
+        buffered -= head.cost();
+        try (CompressedEntry entry = join(head.task())) {
+          entry.writeTo(writer);
+        }
+      }
+      writer.finish();
+      completed = true;
+      return writer.entries();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      if (!completed) {
+        discard(window);
+        Files.deleteIfExists(target);
+      }
+    }
+  }
+
+  /**
+   * 一次 stat 同时拿到类型、大小和修改时间。{@link Files#find} 只把属性交给过滤条件，用单元素数组带给紧随其后的 map，流是顺序的，两者一一对应。
+   */
+  private static Stream<FileEntry> walk(Path root, Path output) throws IOException {
+    BasicFileAttributes[] last = new BasicFileAttributes[1];
+    return Files.find(
+            root,
+            Integer.MAX_VALUE,
+            (path, attributes) -> {
+              last[0] = attributes;
+              return attributes.isRegularFile();
+            })
+        .filter(path -> !path.toAbsolutePath().normalize().equals(output))
+        .map(path -> new FileEntry(path, entryName(root, path), last[0]));
+  }
+
+  private long cost(FileEntry file) {
+    return Math.min(file.attributes().size(), options.memoryThreshold());
+  }
+
+  private static CompressedEntry join(ForkJoinTask<CompressedEntry> task) throws IOException {
+    try {
+      return task.join();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /** 出错时把已经提交的任务取消，已完成的释放临时文件，正在运行的完成后自己释放。 */
+  private static void discard(ArrayDeque<Pending> window) {
+    for (Pending pending : window) {
+      pending.discard();
+    }
+  }
+
+  private static String entryName(Path root, Path file) {
+    String name = root.relativize(file).toString();
+    return File.separatorChar == '/' ? name : name.replace(File.separatorChar, '/');
+  }
+
+  private CompressedEntry compress(FileEntry file) {
+    try {
+      FileTime lastModified = file.attributes().lastModifiedTime();
+      Workspace ws = workspace.get();
+      if (options.isStored(file.name())) {
+        return ws.crcOnly(file.path(), file.name(), lastModified);
+      }
+      return ws.deflate(file.path(), file.name(), lastModified, options.memoryThreshold());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * 流式解压到 {@code targetDir}，一次只处理一个条目，内存占用与压缩包大小无关，返回解出的文件数。
+   *
+   * @throws IOException 条目路径跳出目标目录（zip slip）时同样抛出
+   */
+  public long unzip(Path zip, Path targetDir) throws IOException {
+    Path root = targetDir.toAbsolutePath().normalize();
+    Files.createDirectories(root);
+    long files = 0;
+    try (ZipInputStream in =
+        new ZipInputStream(new BufferedInputStream(Files.newInputStream(zip), IO_BUFFER))) {
+      ZipEntry entry;
+      while ((entry = in.getNextEntry()) != null) {
+        Path target = root.resolve(entry.getName()).normalize();
+        if (!target.startsWith(root) || target.equals(root)) {
+          throw new IOException("entry is outside of the target directory: " + entry.getName());
+        }
+        if (entry.isDirectory()) {
+          Files.createDirectories(target);
+          continue;
+        }
+        Files.createDirectories(target.getParent());
+        try (OutputStream out = Files.newOutputStream(target)) {
+          in.transferTo(out);
+        }
+        if (entry.getLastModifiedTime() != null) {
+          Files.setLastModifiedTime(target, entry.getLastModifiedTime());
+        }
+        files++;
+      }
+    }
+    return files;
+  }
+
+  /** 线程私有的压缩工具，避免每个文件都新建 Deflater（会分配本地内存）和缓冲区。 */
+  private static final class Workspace {
+
+    private final Deflater deflater;
+    private final ByteBuffer input = ByteBuffer.allocateDirect(IO_BUFFER);
+    private final byte[] output = new byte[IO_BUFFER];
+    private final CRC32 crc = new CRC32();
+
+    Workspace(int level) {
+      this.deflater = new Deflater(level, true);
+    }
+
+    CompressedEntry crcOnly(Path file, String name, FileTime lastModified) throws IOException {
+      crc.reset();
+      long size = 0;
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        while (channel.read(input.clear()) > 0) {
+          input.flip();
+          size += input.remaining();
+          crc.update(input);
+        }
+      }
+      return CompressedEntry.stored(name, file, crc.getValue(), size, lastModified);
+    }
+
+    CompressedEntry deflate(Path file, String name, FileTime lastModified, int threshold)
+        throws IOException {
+      crc.reset();
+      deflater.reset();
+      long size = 0;
+      SpillBuffer out = new SpillBuffer(threshold);
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        while (channel.read(input.clear()) > 0) {
+          input.flip();
+          size += input.remaining();
+          // Deflater 会一直引用传入的 buffer，下一轮 clear() 会让它以为还有剩余输入，所以交给它一个独立的副本
+          deflater.setInput(input.duplicate());
+          crc.update(input);
+          while (!deflater.needsInput()) {
+            out.write(output, 0, deflater.deflate(output));
+          }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+          out.write(output, 0, deflater.deflate(output));
+        }
+      } catch (IOException | RuntimeException e) {
+        out.close();
+        throw e;
+      }
+      if (out.size() >= size) {
+        // 压不小的数据（随机、已压缩）改存原文件
+        out.close();
+        return CompressedEntry.stored(name, file, crc.getValue(), size, lastModified);
+      }
+      return CompressedEntry.deflated(name, out, crc.getValue(), size, lastModified);
+    }
+  }
+
+  private record FileEntry(Path path, String name, BasicFileAttributes attributes) {}
+
+  /**
+   * 一个在途的压缩任务。{@code cancel(false)} 取消不了已经在运行的任务，它的结果会被丢弃，所以放弃和完成通过 {@link #state}
+   * 交接：后到的一方负责关闭结果。
+   */
+  private static final class Pending {
+
+    private static final Object DISCARDED = new Object();
+
+    private final AtomicReference<Object> state = new AtomicReference<>();
+    private final long cost;
+    private ForkJoinTask<CompressedEntry> task;
+
+    private Pending(long cost) {
+      this.cost = cost;
+    }
+
+    static Pending submit(ForkJoinPool pool, Supplier<CompressedEntry> compress, long cost) {
+      Pending pending = new Pending(cost);
+      pending.task = pool.submit(() -> pending.complete(compress.get()));
+      return pending;
+    }
+
+    ForkJoinTask<CompressedEntry> task() {
+      return task;
+    }
+
+    long cost() {
+      return cost;
+    }
+
+    private CompressedEntry complete(CompressedEntry entry) {
+      if (!state.compareAndSet(null, entry)) {
+        closeQuietly(entry);
+      }
+      return entry;
+    }
+
+    void discard() {
+      task.cancel(false);
+      if (state.getAndSet(DISCARDED) instanceof CompressedEntry entry) {
+        closeQuietly(entry);
+      }
+    }
+
+    private static void closeQuietly(CompressedEntry entry) {
+      try {
+        entry.close();
+      } catch (IOException ignored) {
+        // 已经在处理异常，这里只做清理
+      }
+    }
+  }
+
+  /** 一个压缩好、等待写出的条目。 */
+  private record CompressedEntry(
+      String name,
+      int method,
+      long crc,
+      long size,
+      long compressedSize,
+      FileTime lastModified,
+      Path source,
+      SpillBuffer data)
+      implements AutoCloseable {
+
+    static CompressedEntry stored(
+        String name, Path source, long crc, long size, FileTime lastModified) {
+      return new CompressedEntry(
+          name, ZipEntry.STORED, crc, size, size, lastModified, source, null);
+    }
+
+    static CompressedEntry deflated(
+        String name, SpillBuffer data, long crc, long size, FileTime lastModified) {
+      return new CompressedEntry(
+          name, ZipEntry.DEFLATED, crc, size, data.size(), lastModified, null, data);
+    }
+
+    void writeTo(ZipWriter writer) throws IOException {
+      writer.writeEntry(
+          name,
+          method,
+          crc,
+          size,
+          compressedSize,
+          lastModified,
+          data != null ? data::transferTo : this::transferSource);
+    }
+
+    private void transferSource(ZipWriter out) throws IOException {
+      try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+        out.transferFrom(in, 0, size);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (data != null) {
+        data.close();
+      }
+    }
+  }
+}
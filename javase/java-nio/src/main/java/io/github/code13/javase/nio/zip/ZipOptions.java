@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.zip;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * ZipEngine 的参数。
+ *
+ * @param level deflate 压缩级别，0 ~ 9
+ * @param memoryThreshold 单个条目压缩结果在内存中最多缓存多少字节，超过部分写临时文件
+ * @param maxInFlight 同时处于压缩中或等待写出的条目数上限
+ * @param maxBufferedBytes 在途条目预计占用内存（每个按 min(文件大小, memoryThreshold) 计）的上限
+ * @param storedExtensions 已经是压缩格式的扩展名（小写，不含点），直接 STORED，写出时零拷贝
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 19:14
+ */
+public record ZipOptions(
+    int level,
+    int memoryThreshold,
+    int maxInFlight,
+    long maxBufferedBytes,
+    Set<String> storedExtensions) {
+
+  public static final Set<String> COMPRESSED_EXTENSIONS =
+      Set.of(
+          "zip", "gz", "tgz", "bz2", "xz", "zst", "7z", "rar", "jar", "war", "jpg", "jpeg", "png",
+          "gif", "webp", "mp3", "mp4", "mkv", "avi", "mov", "pdf", "docx", "xlsx", "pptx");
+
+  public ZipOptions {
+    if (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+      throw new IllegalArgumentException("level must be in [0, 9]: " + level);
+    }
+    if (memoryThreshold <= 0 || maxInFlight <= 0 || maxBufferedBytes <= 0) {
+      throw new IllegalArgumentException(
+          "memoryThreshold, maxInFlight and maxBufferedBytes must be positive");
+    }
+    storedExtensions = Set.copyOf(storedExtensions);
+  }
+
+  /**
+   * 级别 6（与 Deflater.DEFAULT_COMPRESSION 相同），单条目 8MB 内存，最多 1024 个在途条目、共 64MB。小文件多时窗口要足够大，写出线程才不会每个条目都停下来等压缩。
+   */
+  public static ZipOptions defaults() {
+    return new ZipOptions(6, 8 << 20, 1024, 64L << 20, COMPRESSED_EXTENSIONS);
+  }
+
+  public ZipOptions withLevel(int level) {
+    return new ZipOptions(level, memoryThreshold, maxInFlight, maxBufferedBytes, storedExtensions);
+  }
+
+  public ZipOptions withMemoryThreshold(int memoryThreshold) {
+    return new ZipOptions(level, memoryThreshold, maxInFlight, maxBufferedBytes, storedExtensions);
+  }
+
+  boolean isStored(String name) {
+    int dot = name.lastIndexOf('.');
+    return dot >= 0
+        && dot > name.lastIndexOf('/')
+        && storedExtensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 直接按 ZIP 格式（APPNOTE 6.3）写出已经压缩好的条目。
+ *
+ * <p>{@link java.util.zip.ZipOutputStream} 只接受未压缩的数据，没法把别的线程压缩好的字节、或者用 transferTo
+ * 零拷贝的原文件塞进去，所以这里自己写文件头。CRC 与大小在写之前都已知，本地文件头里直接填好，不需要 data descriptor；超过 4GB
+ * 的条目、偏移或者超过 65535 个条目时写 ZIP64 扩展。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 19:30
+ */
+final class ZipWriter implements AutoCloseable {
+
+  /** 条目数据的写出方式：内存/临时文件中的压缩结果，或原文件零拷贝。 */
+  @FunctionalInterface
+  interface Data {
+    void writeTo(ZipWriter out) throws IOException;
+  }
+
+  private static final int LOCAL_HEADER = 0x04034b50;
+  private static final int CENTRAL_HEADER = 0x02014b50;
+  private static final int ZIP64_END = 0x06064b50;
+  private static final int ZIP64_LOCATOR = 0x07064b50;
+  private static final int END = 0x06054b50;
+  private static final int ZIP64_EXTRA = 0x0001;
+  private static final int UTF8_FLAG = 1 << 11;
+  private static final long MAX_32 = 0xFFFFFFFFL;
+  private static final int MAX_16 = 0xFFFF;
+  private static final int VERSION_DEFAULT = 20;
+  private static final int VERSION_ZIP64 = 45;
+
+  private final FileChannel out;
+  private final ByteArrayOutputStream central = new ByteArrayOutputStream(64 * 1024);
+  private final ByteBuffer header = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+
+  /** 文件头和小条目先攒在这里，成批写出，避免每个条目好几次系统调用。 */
+  private final ByteBuffer staging = ByteBuffer.allocateDirect(256 * 1024);
+
+  private long position;
+  private long entries;
+
+  ZipWriter(FileChannel out) throws IOException {
+    this.out = out;
+    this.position = out.position();
+  }
+
+  void writeEntry(
+      String name,
+      int method,
+      long crc,
+      long size,
+      long compressedSize,
+      FileTime lastModified,
+      Data data)
+      throws IOException {
+    byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    long offset = position;
+    int dosTime = dosTime(lastModified);
+    boolean zip64Sizes = size >= MAX_32 || compressedSize >= MAX_32;
+    int version = zip64Sizes || offset >= MAX_32 ? VERSION_ZIP64 : VERSION_DEFAULT;
+
+    ByteBuffer local = header(30 + nameBytes.length + 20);
+    local.putInt(LOCAL_HEADER);
+    local.putShort((short) version);
+    local.putShort((short) UTF8_FLAG);
+    local.putShort((short) method);
+    local.putInt(dosTime);
+    local.putInt((int) crc);
+    local.putInt((int) (zip64Sizes ? MAX_32 : compressedSize));
+    local.putInt((int) (zip64Sizes ? MAX_32 : size));
+    local.putShort((short) nameBytes.length);
+    local.putShort((short) (zip64Sizes ? 20 : 0));
+    local.put(nameBytes);
+    if (zip64Sizes) {
+      local
+          .putShort((short) ZIP64_EXTRA)
+          .putShort((short) 16)
+          .putLong(size)
+          .putLong(compressedSize);
+    }
+    writeHeader(local);
+
+    long before = position;
+    data.writeTo(this);
+    long written = position - before;
+    if (written != compressedSize) {
+      throw new IOException(
+          name + ": expected " + compressedSize + " bytes of entry data but wrote " + written);
+    }
+
+    writeCentral(nameBytes, version, method, dosTime, crc, size, compressedSize, offset);
+    entries++;
+  }
+
+  private void writeCentral(
+      byte[] nameBytes,
+      int version,
+      int method,
+      int dosTime,
+      long crc,
+      long size,
+      long compressedSize,
+      long offset) {
+    int extra =
+        (size >= MAX_32 ? 8 : 0) + (compressedSize >= MAX_32 ? 8 : 0) + (offset >= MAX_32 ? 8 : 0);
+    ByteBuffer entry = header(46 + nameBytes.length + (extra > 0 ? 4 + extra : 0));
+    entry.putInt(CENTRAL_HEADER);
+    entry.putShort((short) VERSION_ZIP64);
+    entry.putShort((short) version);
+    entry.putShort((short) UTF8_FLAG);
+    entry.putShort((short) method);
+    entry.putInt(dosTime);
+    entry.putInt((int) crc);
+    entry.putInt((int) Math.min(compressedSize, MAX_32));
+    entry.putInt((int) Math.min(size, MAX_32));
+    entry.putShort((short) nameBytes.length);
+    entry.putShort((short) (extra > 0 ? 4 + extra : 0));
+    entry.putShort((short) 0); // comment
+    entry.putShort((short) 0); // disk number
+    entry.putShort((short) 0); // internal attributes
+    entry.putInt(0); // external attributes
+    entry.putInt((int) Math.min(offset, MAX_32));
+    entry.put(nameBytes);
+    if (extra > 0) {
+      // ZIP64 扩展只包含溢出的字段，顺序固定为：原始大小、压缩后大小、本地头偏移
+      entry.putShort((short) ZIP64_EXTRA).putShort((short) extra);
+      if (size >= MAX_32) {
+        entry.putLong(size);
+      }
+      if (compressedSize >= MAX_32) {
+        entry.putLong(compressedSize);
+      }
+      if (offset >= MAX_32) {
+        entry.putLong(offset);
+      }
+    }
+    central.write(entry.array(), 0, entry.position());
+  }
+
+  /** 写中央目录和结尾记录。 */
+  void finish() throws IOException {
+    long centralOffset = position;
+    long centralSize = central.size();
+    write(central.toByteArray(), 0, (int) centralSize);
+
+    boolean zip64 = entries >= MAX_16 || centralOffset >= MAX_32 || centralSize >= MAX_32;
+    if (zip64) {
+      long zip64EndOffset = position;
+      ByteBuffer end64 = header(56 + 20);
+      end64.putInt(ZIP64_END);
+      end64.putLong(44);
+      end64.putShort((short) VERSION_ZIP64);
+      end64.putShort((short) VERSION_ZIP64);
+      end64.putInt(0);
+      end64.putInt(0);
+      end64.putLong(entries);
+      end64.putLong(entries);
+      end64.putLong(centralSize);
+      end64.putLong(centralOffset);
+      end64.putInt(ZIP64_LOCATOR);
+      end64.putInt(0);
+      end64.putLong(zip64EndOffset);
+      end64.putInt(1);
+      writeHeader(end64);
+    }
+    ByteBuffer end = header(22);
+    end.putInt(END);
+    end.putShort((short) 0);
+    end.putShort((short) 0);
+    end.putShort((short) (zip64 ? MAX_16 : entries));
+    end.putShort((short) (zip64 ? MAX_16 : entries));
+    end.putInt((int) (zip64 ? MAX_32 : centralSize));
+    end.putInt((int) (zip64 ? MAX_32 : centralOffset));
+    end.putShort((short) 0);
+    writeHeader(end);
+    flushStaging();
+  }
+
+  /** 写入一段字节，先放进暂存区，满了再落盘。 */
+  void write(byte[] bytes, int offset, int length) throws IOException {
+    position += length;
+    while (length > 0) {
+      if (!staging.hasRemaining()) {
+        flushStaging();
+      }
+      int n = Math.min(length, staging.remaining());
+      staging.put(bytes, offset, n);
+      offset += n;
+      length -= n;
+    }
+  }
+
+  /** 零拷贝：先把暂存区落盘，再由内核从 {@code source} 直接拷到输出文件（Linux 上是 copy_file_range/sendfile）。 */
+  void transferFrom(FileChannel source, long sourcePosition, long count) throws IOException {
+    flushStaging();
+    long done = 0;
+    while (done < count) {
+      long n = source.transferTo(sourcePosition + done, count - done, out);
+      if (n <= 0) {
+        throw new IOException("source ended after " + done + " of " + count + " bytes");
+      }
+      done += n;
+    }
+    position += count;
+  }
+
+  private void flushStaging() throws IOException {
+    staging.flip();
+    while (staging.hasRemaining()) {
+      out.write(staging);
+    }
+    staging.clear();
+  }
+
+  private ByteBuffer header(int length) {
+    return length <= header.capacity()
+        ? header.clear()
+        : ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private void writeHeader(ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    write(buffer.array(), 0, buffer.limit());
+  }
+
+  long entries() {
+    return entries;
+  }
+
+  /** MS-DOS 日期时间，本地时区，2 秒精度，早于 1980 年的按 1980-01-01 处理。 */
+  static int dosTime(FileTime time) {
+    LocalDateTime t = LocalDateTime.ofInstant(time.toInstant(), ZoneId.systemDefault());
+    if (t.getYear() < 1980) {
+      return (1 << 21) | (1 << 16);
+    }
+    return (t.getYear() - 1980) << 25
+        | t.getMonthValue() << 21
+        | t.getDayOfMonth() << 16
+        | t.getHour() << 11
+        | t.getMinute() << 5
+        | t.getSecond() >> 1;
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+}
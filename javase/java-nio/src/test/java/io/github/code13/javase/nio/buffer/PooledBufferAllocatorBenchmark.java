@@ -0,0 +1,125 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 池化直接缓冲区 vs 每次调用新分配。
+ *
+ * <ul>
+ *   <li>{@code *Fill}：分配、写满、丢弃/归还，只看分配本身的开销；
+ *   <li>{@code *Write}：再写一次 /dev/null，堆缓冲区在 JDK 内部会先拷贝到临时直接缓冲区，这就是 jenkov 示例里的额外拷贝。
+ * </ul>
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 15:45
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PooledBufferAllocatorBenchmark {
+
+  @Param({"64", "1024", "16384"})
+  int size;
+
+  private PooledBufferAllocator allocator;
+  private FileChannel devNull;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    allocator = new PooledBufferAllocator(BufferPoolOptions.defaults().withLeakSamplingInterval(0));
+    devNull = FileChannel.open(Path.of("/dev/null"), StandardOpenOption.WRITE);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    devNull.close();
+  }
+
+  private static ByteBuffer fill(ByteBuffer buffer) {
+    while (buffer.remaining() >= Long.BYTES) {
+      buffer.putLong(0x5A5A5A5A5A5A5A5AL);
+    }
+    return buffer.flip();
+  }
+
+  @Benchmark
+  public ByteBuffer heapFill() {
+    return fill(ByteBuffer.allocate(size));
+  }
+
+  @Benchmark
+  public ByteBuffer directFill() {
+    return fill(ByteBuffer.allocateDirect(size));
+  }
+
+  @Benchmark
+  public int pooledFill() {
+    try (PooledBuffer pooled = allocator.allocate(size)) {
+      return fill(pooled.buffer()).remaining();
+    }
+  }
+
+  @Benchmark
+  public int heapWrite() throws IOException {
+    return devNull.write(fill(ByteBuffer.allocate(size)));
+  }
+
+  @Benchmark
+  public int directWrite() throws IOException {
+    return devNull.write(fill(ByteBuffer.allocateDirect(size)));
+  }
+
+  @Benchmark
+  public int pooledWrite() throws IOException {
+    try (PooledBuffer pooled = allocator.allocate(size)) {
+      return devNull.write(fill(pooled.buffer()));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(PooledBufferAllocatorBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
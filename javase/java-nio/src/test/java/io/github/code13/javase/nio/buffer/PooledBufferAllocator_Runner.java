@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * PooledBufferAllocator_Runner.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 15:30
+ */
+class PooledBufferAllocator_Runner {
+
+  private static BufferPoolOptions options() {
+    return new BufferPoolOptions(64, 4096, 64 * 1024, 4, 1024 * 1024, 0);
+  }
+
+  @Test
+  @DisplayName("按 2 的幂取整到大小级别，limit 为申请大小")
+  void sizeClasses() {
+    PooledBufferAllocator allocator = new PooledBufferAllocator(options());
+    try (PooledBuffer small = allocator.allocate(10);
+        PooledBuffer medium = allocator.allocate(65);
+        PooledBuffer huge = allocator.allocate(5000)) {
+      assertEquals(64, small.buffer().capacity());
+      assertEquals(10, small.buffer().limit());
+      assertEquals(128, medium.buffer().capacity());
+      assertTrue(small.buffer().isDirect());
+      assertEquals(5000, huge.buffer().capacity());
+    }
+    List<SizeClassMetrics> metrics = allocator.metrics();
+    assertEquals(8, metrics.size());
+    assertEquals(0, metrics.get(7).size());
+    assertEquals(1, metrics.get(7).allocations());
+    metrics.forEach(m -> assertEquals(0, m.active()));
+  }
+
+  @Test
+  @DisplayName("释放后同线程再次分配命中线程缓存")
+  void threadCacheReuse() {
+    PooledBufferAllocator allocator = new PooledBufferAllocator(options());
+    PooledBuffer first = allocator.allocate(100);
+    ByteBuffer buffer = first.buffer();
+    first.release();
+    PooledBuffer second = allocator.allocate(120);
+    assertSame(buffer, second.buffer());
+    assertEquals(120, second.buffer().limit());
+    second.release();
+
+    SizeClassMetrics metrics = allocator.metrics().get(1);
+    assertEquals(2, metrics.allocations());
+    assertEquals(1, metrics.threadCacheHits());
+    assertEquals(1, metrics.slabs());
+    assertEquals(64 * 1024, allocator.usedDirectMemory());
+  }
+
+  @Test
+  @DisplayName("重复释放、释放后访问都会失败")
+  void useAfterRelease() {
+    PooledBufferAllocator allocator = new PooledBufferAllocator(options());
+    PooledBuffer pooled = allocator.allocate(64);
+    pooled.release();
+    assertThrows(IllegalStateException.class, pooled::release);
+    assertThrows(IllegalStateException.class, pooled::buffer);
+    pooled.close();
+  }
+
+  @Test
+  @DisplayName("超过直接内存上限时拒绝分配")
+  void directMemoryCap() {
+    PooledBufferAllocator allocator =
+        new PooledBufferAllocator(options().withMaxDirectMemory(64 * 1024 + 8192));
+    PooledBuffer pooled = allocator.allocate(64);
+    PooledBuffer huge = allocator.allocate(8192);
+    assertThrows(OutOfMemoryError.class, () -> allocator.allocate(8192));
+    assertThrows(OutOfMemoryError.class, () -> allocator.allocate(4096));
+    huge.release();
+    allocator.allocate(8192).release();
+    pooled.release();
+  }
+
+  @Test
+  @DisplayName("线程缓存满了批量还给 arena，其他线程可以拿到")
+  void threadCacheOverflow() throws InterruptedException {
+    PooledBufferAllocator allocator = new PooledBufferAllocator(options());
+    PooledBuffer[] buffers = new PooledBuffer[1024];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = allocator.allocate(64);
+    }
+    for (PooledBuffer buffer : buffers) {
+      buffer.release();
+    }
+    Thread other =
+        new Thread(
+            () -> {
+              for (int i = 0; i < 1000; i++) {
+                allocator.allocate(64);
+              }
+            });
+    other.start();
+    other.join();
+    assertEquals(1, allocator.metrics().get(0).slabs());
+  }
+
+  @Test
+  @DisplayName("未释放的非池化缓冲区被回收后归还直接内存预留")
+  void unpooledLeakReleasesReservation() throws InterruptedException {
+    PooledBufferAllocator allocator =
+        new PooledBufferAllocator(options().withMaxDirectMemory(64 * 1024));
+    // 累计泄漏的大小远超上限，预留不归还时第 9 次分配就会失败
+    int retries = 0;
+    for (int i = 0; i < 100; ) {
+      try {
+        allocator.allocate(8192);
+        i++;
+        retries = 0;
+      } catch (OutOfMemoryError e) {
+        assertTrue(++retries < 50, "leaked reservations were never released");
+        System.gc();
+        Thread.sleep(20);
+      }
+    }
+    for (int i = 0; i < 50 && allocator.usedDirectMemory() > 0; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertEquals(0, allocator.usedDirectMemory());
+    assertEquals(0, allocator.metrics().get(7).reservedBytes());
+  }
+
+  @Test
+  @DisplayName("未释放的句柄被回收后报告泄漏")
+  void leakDetection() throws InterruptedException {
+    PooledBufferAllocator allocator =
+        new PooledBufferAllocator(options().withLeakSamplingInterval(1));
+    for (int i = 0; i < 10; i++) {
+      allocator.allocate(64);
+    }
+    int leaks = 0;
+    for (int i = 0; i < 50 && leaks < 10; i++) {
+      System.gc();
+      Thread.sleep(20);
+      leaks += allocator.detectLeaks();
+    }
+    assertEquals(10, leaks);
+    assertEquals(10, allocator.metrics().get(0).leaks());
+  }
+}
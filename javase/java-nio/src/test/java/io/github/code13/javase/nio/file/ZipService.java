@@ -15,129 +15,59 @@
 
 package io.github.code13.javase.nio.file;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import io.github.code13.javase.nio.zip.ZipEngine;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
 /**
  * ZipService.
  *
+ * <p>压缩、解压都交给 {@link ZipEngine}：目录惰性遍历、条目并行压缩、流式解压。
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @since 2023/6/19 10:37
  */
 public final class ZipService {
 
-  List<String> filesListInDir = new ArrayList<String>();
+  private static final ZipEngine ENGINE = ZipEngine.withDefaults();
 
   /**
    * 将 dir 目录下的文件打包成 zip, 将 zip 包的 path 返回.
    *
+   * <p>zip 包与 dir 同级, 名为 {@code <dir>.zip}.
+   *
    * @param dir the dir
    * @return the path
    */
   public static Path compress(Path dir) {
-    return null;
-  }
-
-  /**
-   * This method zips the directory
-   *
-   * @param dir
-   * @param zipDirName
-   */
-  private void zipDirectory(File dir, String zipDirName) {
+    Path zip = dir.resolveSibling(dir.getFileName() + ".zip");
     try {
-      populateFilesList(dir);
-      // now zip files one by one
-      // create ZipOutputStream to write to the zip file
-      FileOutputStream fos = new FileOutputStream(zipDirName);
-      ZipOutputStream zos = new ZipOutputStream(fos);
-      for (String filePath : filesListInDir) {
-        System.out.println("Zipping " + filePath);
-        // for ZipEntry we need to keep only relative file path, so we used substring on absolute
-        // path
-        ZipEntry ze =
-            new ZipEntry(filePath.substring(dir.getAbsolutePath().length() + 1, filePath.length()));
-        zos.putNextEntry(ze);
-        // read the file and write to ZipOutputStream
-        FileInputStream fis = new FileInputStream(filePath);
-        byte[] buffer = new byte[1024];
-        int len;
-        while ((len = fis.read(buffer)) > 0) {
-          zos.write(buffer, 0, len);
-        }
-        zos.closeEntry();
-        fis.close();
-      }
-      zos.close();
-      fos.close();
+      ENGINE.zip(dir, zip);
     } catch (IOException e) {
-      e.printStackTrace();
-    }
-  }
-
-  /**
-   * This method populates all the files in a directory to a List
-   *
-   * @param dir
-   * @throws IOException
-   */
-  private void populateFilesList(File dir) throws IOException {
-    File[] files = dir.listFiles();
-    for (File file : files) {
-      if (file.isFile()) filesListInDir.add(file.getAbsolutePath());
-      else populateFilesList(file);
-    }
-  }
-
-  /**
-   * This method compresses the single file to zip format
-   *
-   * @param file
-   * @param zipFileName
-   */
-  private static void zipSingleFile(File file, String zipFileName) {
-    try {
-      // create ZipOutputStream to write to the zip file
-      FileOutputStream fos = new FileOutputStream(zipFileName);
-      ZipOutputStream zos = new ZipOutputStream(fos);
-      // add a new Zip Entry to the ZipOutputStream
-      ZipEntry ze = new ZipEntry(file.getName());
-      zos.putNextEntry(ze);
-      // read the file and write to ZipOutputStream
-      FileInputStream fis = new FileInputStream(file);
-      byte[] buffer = new byte[1024];
-      int len;
-      while ((len = fis.read(buffer)) > 0) {
-        zos.write(buffer, 0, len);
-      }
-
-      // Close the zip entry to write to zip file
-      zos.closeEntry();
-      // Close resources
-      zos.close();
-      fis.close();
-      fos.close();
-      System.out.println(file.getCanonicalPath() + " is zipped to " + zipFileName);
-
-    } catch (IOException e) {
-      e.printStackTrace();
+      throw new UncheckedIOException(e);
     }
+    return zip;
   }
 
   /**
    * 将 zip 文件全部解压出来，并返回所有 zip 包的根路径.
    *
+   * <p>解压到与 zip 同级、去掉 {@code .zip} 后缀的目录.
+   *
    * @param zip the zip
    * @return the path
    */
   public static Path unCompress(Path zip) {
-    return null;
+    String name = zip.getFileName().toString();
+    Path root =
+        zip.resolveSibling(
+            name.endsWith(".zip") ? name.substring(0, name.length() - 4) : name + ".unzipped");
+    try {
+      ENGINE.unzip(zip, root);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return root;
   }
 }
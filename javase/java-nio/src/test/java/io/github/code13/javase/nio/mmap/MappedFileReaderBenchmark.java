@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.mmap;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 统计日志文件中包含 ERROR 的行数：BufferedReader、Files.lines 与 MappedFileReader 对比。
+ *
+ * <p>文件生成在 {@code java.io.tmpdir} 下并复用，大小由 {@code -Dmmap.size.mb} 指定，默认 4096。文件比内存大时测的主要是磁盘，
+ * 想看 CPU 侧的差异可以调小到能放进页缓存。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 18:05
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class MappedFileReaderBenchmark {
+
+  private static final String[] LEVELS = {"INFO ", "DEBUG", "WARN "};
+
+  private Path file;
+
+  @Setup
+  public void setUp() throws IOException {
+    long sizeMb = Long.getLong("mmap.size.mb", 4096);
+    file = Path.of(System.getProperty("java.io.tmpdir"), "mapped-bench-" + sizeMb + "m.log");
+    if (!Files.exists(file) || Files.size(file) < sizeMb << 20) {
+      generate(file, sizeMb << 20);
+    }
+  }
+
+  static void generate(Path file, long size) throws IOException {
+    SplittableRandom random = new SplittableRandom(42);
+    long written = 0;
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      StringBuilder line = new StringBuilder(128);
+      for (long i = 0; written < size; i++) {
+        line.setLength(0);
+        line.append("2026-10-18T17:")
+            .append(10 + i / 60_000 % 50)
+            .append(':')
+            .append(10 + i / 1000 % 50)
+            .append('.')
+            .append(100 + i % 900)
+            .append(' ')
+            .append(random.nextInt(100) == 0 ? "ERROR" : LEVELS[random.nextInt(LEVELS.length)])
+            .append(" [worker-")
+            .append(random.nextInt(32))
+            .append("] request id=")
+            .append(i)
+            .append(" took ")
+            .append(random.nextInt(2000))
+            .append("ms\n");
+        writer.append(line);
+        written += line.length();
+      }
+    }
+  }
+
+  private static boolean isError(String line) {
+    return line.contains("ERROR");
+  }
+
+  @Benchmark
+  public long bufferedReader() throws IOException {
+    long count = 0;
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (isError(line)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public long filesLines() throws IOException {
+    try (Stream<String> lines = Files.lines(file)) {
+      return lines.filter(MappedFileReaderBenchmark::isError).count();
+    }
+  }
+
+  /**
+   * 2GB 以内 JDK 自己也会按 mmap 拆分；更大的文件退化成迭代器拆分，每次把一批行缓存进数组，4GB 文件在 1GB 堆下会 OOM。
+   */
+  @Benchmark
+  public long filesLinesParallel() throws IOException {
+    try (Stream<String> lines = Files.lines(file)) {
+      return lines.parallel().filter(MappedFileReaderBenchmark::isError).count();
+    }
+  }
+
+  @Benchmark
+  public long mapped() throws IOException {
+    try (MappedFileReader reader = MappedFileReader.open(file)) {
+      return reader.lines().filter(MappedFileReaderBenchmark::isError).count();
+    }
+  }
+
+  @Benchmark
+  public long mappedParallel() throws IOException {
+    try (MappedFileReader reader = MappedFileReader.open(file)) {
+      return reader.lines().parallel().filter(MappedFileReaderBenchmark::isError).count();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(MappedFileReaderBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.mmap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * MappedFileReader_Runner.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 17:40
+ */
+class MappedFileReader_Runner {
+
+  @TempDir Path dir;
+
+  private Path write(String content) throws IOException {
+    Path file = Files.createTempFile(dir, "mapped", ".txt");
+    Files.writeString(file, content, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  @Test
+  @DisplayName("小块切分后顺序、并行读出的行都与 Files.readAllLines 一致")
+  void linesMatchReadAllLines() throws IOException {
+    String content =
+        IntStream.range(0, 5000)
+                .mapToObj(i -> (i % 7 == 0 ? "" : "第" + i + "行,v=" + "x".repeat(i % 50)))
+                .collect(Collectors.joining("\n"))
+            + "\r\nlast line without newline";
+    Path file = write(content);
+    List<String> expected = Files.readAllLines(file);
+
+    try (MappedFileReader reader = MappedFileReader.open(file, 37, (byte) '\n')) {
+      assertTrue(reader.chunks().size() > 100);
+      assertEquals(expected, reader.lines().toList());
+      assertEquals(expected, reader.lines().parallel().toList());
+    }
+  }
+
+  @Test
+  @DisplayName("块之间首尾相接，除最后一块外都以分隔符结尾")
+  void chunksAreAligned() throws IOException {
+    Path file = write("a".repeat(100) + "\n" + "b\n".repeat(100));
+    try (MappedFileReader reader = MappedFileReader.open(file, 10, (byte) '\n')) {
+      long expectedOffset = 0;
+      for (FileChunk chunk : reader.chunks()) {
+        assertEquals(expectedOffset, chunk.offset());
+        ByteBuffer buffer = chunk.map();
+        assertEquals('\n', buffer.get(chunk.length() - 1));
+        expectedOffset += chunk.length();
+      }
+      assertEquals(reader.size(), expectedOffset);
+      // 第一行比块大，整行落在第一块里
+      assertEquals(101, reader.chunks().get(0).length());
+    }
+  }
+
+  @Test
+  @DisplayName("空文件与自定义分隔符")
+  void emptyFileAndCustomDelimiter() throws IOException {
+    try (MappedFileReader reader = MappedFileReader.open(write(""))) {
+      assertEquals(0, reader.chunks().size());
+      assertEquals(0, reader.lines().count());
+    }
+    try (MappedFileReader reader = MappedFileReader.open(write("a;b;;c"), 2, (byte) ';')) {
+      assertEquals(List.of("a", "b", "", "c"), reader.lines().parallel().toList());
+    }
+  }
+
+  @Test
+  @DisplayName("超过 2GB 的文件按块分段映射")
+  void largerThanTwoGigabytes() throws IOException {
+    Path file = Files.createTempFile(dir, "sparse", ".bin");
+    long size = 3L << 30;
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      // 稀疏文件，只有换行和结尾的几个字节真正写盘
+      raf.setLength(size);
+      for (long position = 64L << 20; position < size; position += 64L << 20) {
+        raf.seek(position);
+        raf.write('\n');
+      }
+      raf.seek(size - 5);
+      raf.write("tail\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    try (MappedFileReader reader = MappedFileReader.open(file, 256L << 20, (byte) '\n')) {
+      List<FileChunk> chunks = reader.chunks();
+      assertEquals(12, chunks.size());
+      FileChunk last = chunks.get(chunks.size() - 1);
+      assertEquals(size, last.offset() + last.length());
+      assertTrue(last.offset() > Integer.MAX_VALUE);
+      ByteBuffer buffer = last.map();
+      byte[] tail = new byte[5];
+      buffer.get(last.length() - 5, tail);
+      assertEquals("tail\n", new String(tail, StandardCharsets.US_ASCII));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.reactor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReactorServer 的 echo/RPC 压测客户端。
+ *
+ * <p>每条连接是一个闭环：发一帧请求，收到完整回包后记录往返耗时，立即发下一帧。所有连接建立后先预热，再在计量窗口内统计
+ * p50/p99/p999 和每秒请求数。
+ *
+ * <p>参数通过系统属性传入：
+ *
+ * <ul>
+ *   <li>{@code connections}：并发连接数，默认 10000
+ *   <li>{@code payload}：每帧内容字节数，默认 64
+ *   <li>{@code client-threads}：客户端 Selector 线程数，默认 CPU 核数
+ *   <li>{@code io-threads}：进程内服务端的 I/O 线程数，默认 CPU 核数
+ *   <li>{@code warmup} / {@code duration}：预热和计量秒数，默认 3 / 10
+ *   <li>{@code host} / {@code port}：指定后压测外部服务（如 {@link EchoServerRunner}），否则在进程内启动服务端
+ * </ul>
+ *
+ * <p>进程内压测时客户端和服务端各占一个 fd，10k 连接需要 {@code ulimit -n} 大于 20000；受限时把服务端单独起一个进程。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 11:30
+ */
+public class ReactorEchoBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int connections = Integer.getInteger("connections", 10_000);
+    int payload = Integer.getInteger("payload", 64);
+    int cpus = Runtime.getRuntime().availableProcessors();
+    int clientThreads = Integer.getInteger("client-threads", cpus);
+    int ioThreads = Integer.getInteger("io-threads", cpus);
+    int warmup = Integer.getInteger("warmup", 3);
+    int duration = Integer.getInteger("duration", 10);
+    String port = System.getProperty("port");
+
+    ReactorServer server = null;
+    InetSocketAddress target;
+    if (port == null) {
+      server =
+          new ReactorServer(
+              new InetSocketAddress("127.0.0.1", 0),
+              ReactorOptions.defaults().withIoThreads(ioThreads),
+              () -> new LengthFieldFrameDecoder(1 << 20),
+              new EchoFrameHandler());
+      server.start();
+      target = server.localAddress();
+    } else {
+      target =
+          new InetSocketAddress(System.getProperty("host", "127.0.0.1"), Integer.parseInt(port));
+    }
+
+    System.out.printf(
+        "target %s, connections %d, payload %d bytes, client threads %d%n",
+        target, connections, payload, clientThreads);
+
+    CountDownLatch connected = new CountDownLatch(connections);
+    List<Client> clients = new ArrayList<>();
+    for (int i = 0; i < clientThreads; i++) {
+      int share = connections / clientThreads + (i < connections % clientThreads ? 1 : 0);
+      Client client = new Client(target, share, payload, connected);
+      clients.add(client);
+      new Thread(client, "bench-client-" + i).start();
+    }
+
+    long connectStart = System.nanoTime();
+    if (!connected.await(60, TimeUnit.SECONDS)) {
+      System.out.printf("only %d connections established%n", connections - connected.getCount());
+    }
+    System.out.printf(
+        "connected in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart));
+
+    TimeUnit.SECONDS.sleep(warmup);
+    clients.forEach(Client::startRecording);
+    long start = System.nanoTime();
+    TimeUnit.SECONDS.sleep(duration);
+    clients.forEach(Client::stop);
+    long elapsed = System.nanoTime() - start;
+
+    Histogram total = new Histogram();
+    for (Client client : clients) {
+      client.awaitStopped();
+      total.add(client.histogram);
+    }
+    double seconds = elapsed / 1e9;
+    System.out.printf(
+        "requests %d in %.1f s, %.0f req/s%n", total.count(), seconds, total.count() / seconds);
+    System.out.printf(
+        "latency p50 %.1f us, p99 %.1f us, p999 %.1f us, max %.1f us%n",
+        total.percentile(50) / 1e3,
+        total.percentile(99) / 1e3,
+        total.percentile(99.9) / 1e3,
+        total.max() / 1e3);
+
+    if (server != null) {
+      server.close();
+    }
+  }
+
+  /** 一个线程、一个 Selector，驱动若干条闭环连接。 */
+  static final class Client implements Runnable {
+
+    final Histogram histogram = new Histogram();
+
+    private final InetSocketAddress target;
+    private final int connections;
+    private final int payload;
+    private final CountDownLatch connected;
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    Client(InetSocketAddress target, int connections, int payload, CountDownLatch connected) {
+      this.target = target;
+      this.connections = connections;
+      this.payload = payload;
+      this.connected = connected;
+    }
+
+    void startRecording() {
+      recording = true;
+    }
+
+    void stop() {
+      running = false;
+    }
+
+    void awaitStopped() throws InterruptedException {
+      stopped.await();
+    }
+
+    @Override
+    public void run() {
+      List<SocketChannel> channels = new ArrayList<>(connections);
+      try (Selector selector = Selector.open()) {
+        for (int i = 0; i < connections; i++) {
+          SocketChannel channel = SocketChannel.open();
+          channel.configureBlocking(false);
+          channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+          channel.connect(target);
+          channel.register(selector, SelectionKey.OP_CONNECT, new Exchange(payload));
+          channels.add(channel);
+        }
+        while (running) {
+          selector.select(100);
+          Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+          while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            handle(key);
+          }
+        }
+      } catch (IOException e) {
+        e.printStackTrace();
+      } finally {
+        for (SocketChannel channel : channels) {
+          try {
+            channel.close();
+          } catch (IOException ignored) {
+            // 退出中
+          }
+        }
+        stopped.countDown();
+      }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+      SocketChannel channel = (SocketChannel) key.channel();
+      Exchange exchange = (Exchange) key.attachment();
+      if (key.isConnectable()) {
+        channel.finishConnect();
+        connected.countDown();
+        exchange.send(channel, key);
+        return;
+      }
+      if (key.isWritable()) {
+        exchange.continueSend(channel, key);
+      }
+      if (key.isReadable()) {
+        int read = channel.read(exchange.response);
+        if (read < 0) {
+          key.cancel();
+          return;
+        }
+        if (!exchange.response.hasRemaining()) {
+          long latency = System.nanoTime() - exchange.sentAt;
+          if (recording) {
+            histogram.record(latency);
+          }
+          exchange.send(channel, key);
+        }
+      }
+    }
+  }
+
+  /** 单条连接上的一次请求/响应，缓冲区复用。 */
+  static final class Exchange {
+
+    final ByteBuffer request;
+    final ByteBuffer response;
+    long sentAt;
+
+    Exchange(int payload) {
+      request = ByteBuffer.allocateDirect(LengthFieldFrameDecoder.HEADER_LENGTH + payload);
+      request.putInt(payload);
+      while (request.hasRemaining()) {
+        request.put((byte) 'x');
+      }
+      response = ByteBuffer.allocateDirect(request.capacity());
+    }
+
+    void send(SocketChannel channel, SelectionKey key) throws IOException {
+      request.clear();
+      response.clear();
+      sentAt = System.nanoTime();
+      continueSend(channel, key);
+    }
+
+    void continueSend(SocketChannel channel, SelectionKey key) throws IOException {
+      channel.write(request);
+      key.interestOps(
+          request.hasRemaining()
+              ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+              : SelectionKey.OP_READ);
+    }
+  }
+
+  /**
+   * 对数-线性直方图：每个 2 的幂区间再均分 64 格，相对误差约 1.5%，内存固定 32KB。
+   *
+   * <p>只在单线程内记录，结束后再合并。
+   */
+  static final class Histogram {
+
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private final long[] counts = new long[64 * SUB_COUNT];
+    private long count;
+    private long max;
+
+    void record(long value) {
+      counts[index(value)]++;
+      count++;
+      max = Math.max(max, value);
+    }
+
+    void add(Histogram other) {
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] += other.counts[i];
+      }
+      count += other.count;
+      max = Math.max(max, other.max);
+    }
+
+    long count() {
+      return count;
+    }
+
+    long max() {
+      return max;
+    }
+
+    long percentile(double percentile) {
+      long rank = (long) Math.ceil(count * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank && seen > 0) {
+          return Math.min(valueOf(i), max);
+        }
+      }
+      return max;
+    }
+
+    private static int index(long value) {
+      if (value < SUB_COUNT) {
+        return (int) Math.max(value, 0);
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+      return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    /** 桶的上界。 */
+    private static long valueOf(int index) {
+      int bucket = index >>> SUB_BITS;
+      long sub = index & (SUB_COUNT - 1);
+      if (bucket == 0) {
+        return sub;
+      }
+      int shift = bucket - 1;
+      return ((SUB_COUNT + sub + 1) << shift) - 1;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.zip;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ZipEngine 与原 ZipService 的单线程 byte[1024] 拷贝循环对比。
+ *
+ * <p>两组数据：{@code small} 为 3000 个 1 ~ 16KB 的文本文件，{@code large} 为 2 个 64MB 的日志和 1 个 64MB 的随机文件。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 21:00
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ZipEngineBenchmark {
+
+  @Param({"small", "large"})
+  String dataset;
+
+  private Path root;
+  private Path source;
+  private Path zip;
+  private Path extracted;
+  private final ZipEngine engine = ZipEngine.withDefaults();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    root = Files.createTempDirectory("zip-bench-");
+    source = Files.createDirectories(root.resolve("source"));
+    zip = root.resolve("out.zip");
+    extracted = root.resolve("extracted");
+    SplittableRandom random = new SplittableRandom(13);
+    if (dataset.equals("small")) {
+      for (int i = 0; i < 3000; i++) {
+        Path file = source.resolve("dir-" + i % 30).resolve("file-" + i + ".txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, text(random, 1024 + random.nextInt(15 * 1024)));
+      }
+    } else {
+      for (int i = 0; i < 2; i++) {
+        Files.writeString(source.resolve("app-" + i + ".log"), text(random, 64 << 20));
+      }
+      byte[] noise = new byte[64 << 20];
+      for (int i = 0; i < noise.length; i++) {
+        noise[i] = (byte) random.nextInt();
+      }
+      Files.write(source.resolve("noise.bin"), noise);
+    }
+    engine.zip(source, zip);
+  }
+
+  private static String text(SplittableRandom random, int length) {
+    StringBuilder sb = new StringBuilder(length + 64);
+    while (sb.length() < length) {
+      sb.append("2026-10-18 12:")
+          .append(random.nextInt(10, 60))
+          .append(" INFO [worker-")
+          .append(random.nextInt(16))
+          .append("] handled request ")
+          .append(random.nextLong(1_000_000))
+          .append('\n');
+    }
+    sb.setLength(length);
+    return sb.toString();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    try (Stream<Path> walk = Files.walk(root)) {
+      for (Path path : walk.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /** 原 ZipService.zipDirectory 的做法：先收集全部路径，单线程逐个经 byte[1024] 写进 ZipOutputStream。 */
+  @Benchmark
+  public void legacyZip() throws IOException {
+    List<String> files = new ArrayList<>();
+    populateFilesList(source.toFile(), files);
+    File dir = source.toFile();
+    try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(zip.toFile()))) {
+      for (String filePath : files) {
+        zos.putNextEntry(new ZipEntry(filePath.substring(dir.getAbsolutePath().length() + 1)));
+        try (FileInputStream fis = new FileInputStream(filePath)) {
+          byte[] buffer = new byte[1024];
+          int len;
+          while ((len = fis.read(buffer)) > 0) {
+            zos.write(buffer, 0, len);
+          }
+        }
+        zos.closeEntry();
+      }
+    }
+  }
+
+  private static void populateFilesList(File dir, List<String> files) {
+    for (File file : dir.listFiles()) {
+      if (file.isFile()) {
+        files.add(file.getAbsolutePath());
+      } else {
+        populateFilesList(file, files);
+      }
+    }
+  }
+
+  @Benchmark
+  public long engineZip() throws IOException {
+    return engine.zip(source, zip);
+  }
+
+  @Benchmark
+  public long engineUnzip() throws IOException {
+    return engine.unzip(zip, extracted);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ZipEngineBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.javase.nio.zip;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ZipEngine_Runner.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/18 20:30
+ */
+class ZipEngine_Runner {
+
+  @TempDir Path dir;
+
+  private Path createTree() throws IOException {
+    Path source = Files.createDirectories(dir.resolve("source"));
+    Random random = new Random(13);
+    for (int i = 0; i < 200; i++) {
+      Path file = source.resolve("d" + i % 7).resolve("sub" + i % 3).resolve("file-" + i + ".txt");
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, ("line " + i + " 内容\n").repeat(i * 5));
+    }
+    byte[] noise = new byte[300_000];
+    random.nextBytes(noise);
+    Files.write(source.resolve("noise.bin"), noise);
+    Files.write(source.resolve("image.PNG"), "not really a png".getBytes(StandardCharsets.UTF_8));
+    Files.writeString(source.resolve("large.log"), "2026-10-18 INFO hello\n".repeat(200_000));
+    return source;
+  }
+
+  private static Map<String, byte[]> contents(Path root) throws IOException {
+    Map<String, byte[]> contents = new HashMap<>();
+    try (Stream<Path> walk = Files.walk(root)) {
+      for (Path file : walk.filter(Files::isRegularFile).toList()) {
+        contents.put(root.relativize(file).toString().replace('\\', '/'), Files.readAllBytes(file));
+      }
+    }
+    return contents;
+  }
+
+  @Test
+  @DisplayName("压缩结果能被 ZipFile 读出，解压后与原目录一致")
+  void roundTrip() throws IOException {
+    Path source = createTree();
+    Path zip = dir.resolve("out.zip");
+    ZipEngine engine =
+        new ZipEngine(ForkJoinPool.commonPool(), ZipOptions.defaults().withMemoryThreshold(4096));
+
+    long entries = engine.zip(source, zip);
+    Map<String, byte[]> expected = contents(source);
+    assertEquals(expected.size(), entries);
+
+    try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+      assertEquals(expected.size(), zipFile.size());
+      for (Map.Entry<String, byte[]> e : expected.entrySet()) {
+        ZipEntry entry = zipFile.getEntry(e.getKey());
+        assertArrayEquals(e.getValue(), zipFile.getInputStream(entry).readAllBytes(), e.getKey());
+      }
+      assertEquals(ZipEntry.STORED, zipFile.getEntry("noise.bin").getMethod());
+      assertEquals(ZipEntry.STORED, zipFile.getEntry("image.PNG").getMethod());
+      assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("large.log").getMethod());
+    }
+
+    Path restored = dir.resolve("restored");
+    assertEquals(expected.size(), engine.unzip(zip, restored));
+    Map<String, byte[]> actual = contents(restored);
+    assertEquals(expected.keySet(), actual.keySet());
+    expected.forEach((name, bytes) -> assertArrayEquals(bytes, actual.get(name), name));
+  }
+
+  @Test
+  @DisplayName("拒绝解压到目标目录之外的条目")
+  void zipSlip() throws IOException {
+    Path zip = dir.resolve("evil.zip");
+    try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+      out.putNextEntry(new ZipEntry("../evil.txt"));
+      out.write("boom".getBytes(StandardCharsets.UTF_8));
+      out.closeEntry();
+    }
+    assertThrows(
+        IOException.class, () -> ZipEngine.withDefaults().unzip(zip, dir.resolve("target")));
+    assertFalse(Files.exists(dir.resolve("evil.txt")));
+  }
+
+  @Test
+  @DisplayName("跳过悬空链接，源目录不存在时不创建压缩包")
+  void invalidSources() throws IOException {
+    Path source = Files.createDirectories(dir.resolve("broken"));
+    Files.writeString(source.resolve("a.txt"), "a");
+    Files.createSymbolicLink(source.resolve("dangling.txt"), dir.resolve("missing"));
+    Path zip = dir.resolve("broken.zip");
+    long entries = ZipEngine.withDefaults().zip(source, zip);
+    // 悬空链接不是普通文件，遍历时就被过滤掉
+    assertEquals(1, entries);
+
+    Path missing = dir.resolve("missing-dir");
+    Path other = dir.resolve("other.zip");
+    assertThrows(IOException.class, () -> ZipEngine.withDefaults().zip(missing, other));
+    assertFalse(Files.exists(other));
+  }
+
+  @Test
+  @DisplayName("出错时正在运行的压缩任务完成后删除自己的临时文件")
+  void discardRunningTask() throws Exception {
+    assumeTrue(Files.isDirectory(Path.of("/proc/self/fd")), "needs /proc/self/fd");
+    Path source = Files.createDirectories(dir.resolve("running"));
+    Random random = new Random(13);
+    for (int i = 0; i < 2; i++) {
+      StringBuilder log = new StringBuilder();
+      for (int line = 0; line < 10_000; line++) {
+        log.append("2026-10-18 INFO ").append(random.nextLong()).append('\n');
+      }
+      // 压缩后仍远大于 memoryThreshold，结果会写临时文件
+      Files.writeString(source.resolve("file-" + i + ".log"), log);
+    }
+    long before = openSpillFiles();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch discarded = new CountDownLatch(1);
+    ForkJoinPool pool =
+        new ForkJoinPool(2) {
+          private final AtomicInteger submitted = new AtomicInteger();
+
+          @Override
+          public <T> ForkJoinTask<T> submit(Callable<T> task) {
+            if (submitted.getAndIncrement() == 0) {
+              // 第一个条目等第二个任务开始运行后再失败，第二个任务等放弃之后才压缩
+              return super.submit(
+                  () -> {
+                    started.await();
+                    throw new UncheckedIOException(new IOException("boom"));
+                  });
+            }
+            return super.submit(
+                () -> {
+                  started.countDown();
+                  discarded.await();
+                  return task.call();
+                });
+          }
+        };
+    try {
+      ZipEngine engine = new ZipEngine(pool, ZipOptions.defaults().withMemoryThreshold(1024));
+      assertThrows(IOException.class, () -> engine.zip(source, dir.resolve("running.zip")));
+      discarded.countDown();
+      assertTrue(pool.awaitQuiescence(30, TimeUnit.SECONDS));
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(before, openSpillFiles());
+  }
+
+  /** Linux 上 DELETE_ON_CLOSE 打开后立即删除目录项，没关闭的临时文件只能从打开的文件描述符上看出来。 */
+  private static long openSpillFiles() throws IOException {
+    try (Stream<Path> fds = Files.list(Path.of("/proc/self/fd"))) {
+      return fds.map(ZipEngine_Runner::linkTarget)
+          .filter(target -> target.contains("zip-engine-"))
+          .count();
+    }
+  }
+
+  private static String linkTarget(Path fd) {
+    try {
+      return Files.readSymbolicLink(fd).toString();
+    } catch (IOException e) {
+      // 列出目录用的描述符在读取时已经关闭
+      return "";
+    }
+  }
+
+  @Test
+  @DisplayName("超过 65535 个条目时写 ZIP64 结尾记录")
+  void zip64EntryCount() throws IOException {
+    Path zip = dir.resolve("many.zip");
+    int count = 70_000;
+    byte[] data = "x".getBytes(StandardCharsets.UTF_8);
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+    try (ZipWriter writer =
+        new ZipWriter(
+            FileChannel.open(zip, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))) {
+      for (int i = 0; i < count; i++) {
+        writer.writeEntry(
+            "e" + i,
+            ZipEntry.STORED,
+            crc.getValue(),
+            1,
+            1,
+            now,
+            out -> out.write(data, 0, data.length));
+      }
+      writer.finish();
+    }
+    try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+      assertEquals(count, zipFile.size());
+      assertArrayEquals(data, zipFile.getInputStream(zipFile.getEntry("e69999")).readAllBytes());
+    }
+  }
+
+  @Test
+  @DisplayName("DOS 时间精度 2 秒")
+  void dosTime() throws IOException {
+    Path file = dir.resolve("t.txt");
+    try (OutputStream out = Files.newOutputStream(file)) {
+      out.write('t');
+    }
+    FileTime time = FileTime.fromMillis(1_760_000_000_000L);
+    Files.setLastModifiedTime(file, time);
+    Path zip = dir.resolve("t.zip");
+    ZipEngine.withDefaults().zip(dir, zip);
+    try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+      long actual = zipFile.getEntry("t.txt").getLastModifiedTime().toMillis();
+      assertEquals(time.toMillis() / 2000, actual / 2000);
+    }
+  }
+}
@@ -7,4 +7,7 @@ dependencies {
     implementation("com.baomidou:mybatis-plus-generator")
     implementation("com.h2database:h2")
     implementation("com.ibeetl:beetl:3.10.0.RELEASE") // 代码生成
+
+    testImplementation("org.openjdk.jmh:jmh-core")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 }
@@ -21,9 +21,14 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.baomidou.mybatisplus.extension.conditions.query.LambdaQueryChainWrapper;
 import com.baomidou.mybatisplus.extension.conditions.update.LambdaUpdateChainWrapper;
+import io.github.code13.frameworks.mbplus.extensions.method.BatchChunks;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.ibatis.annotations.Param;
 
 /**
@@ -83,6 +88,96 @@ public interface BaseMapper<T, ID extends Serializable>
 
   int insertBatchSomeColumn(Collection<T> entityList);
 
+  // -- batch methods, 由 CustomerSqlInjector 注入，一次调用只执行一条语句，请使用下面分块的 default 方法
+
+  List<ID> selectExistIds(@Param(Constants.COLL) Collection<ID> ids);
+
+  int upsertBatch(@Param(Constants.COLL) Collection<T> entityList);
+
+  int updateBatchByIdCaseWhen(@Param(Constants.COLL) Collection<T> entityList);
+
+  /**
+   * 返回 ids 中在表里存在的那部分.
+   *
+   * <p>SELECT id FROM table WHERE id IN (...)，按 {@link #maxParametersPerStatement()} 分块，每块一次查询。ID 的类型要与实体主键一致，否则
+   * equals 对不上.
+   *
+   * @param ids ids
+   * @return 存在的 id
+   */
+  default Set<ID> existsByIds(Collection<ID> ids) {
+    if (ids == null || ids.isEmpty()) {
+      return Set.of();
+    }
+    int rows = BatchChunks.rowsPerStatement(maxParametersPerStatement(), maxRowsPerStatement(), 1);
+    Set<ID> exists = new HashSet<>();
+    for (List<ID> chunk : BatchChunks.partition(new LinkedHashSet<>(ids), rows)) {
+      exists.addAll(selectExistIds(chunk));
+    }
+    return exists;
+  }
+
+  /**
+   * 批量插入，主键已存在的行改为更新，代替逐行的先查再 insert / update.
+   *
+   * <p>语句写法见 {@link io.github.code13.frameworks.mbplus.extensions.method.injector.UpsertBatchMethod}。分块之间不是原子的，需要时在外层开事务.
+   *
+   * @param entityList 实体，主键必须有值或能由 IdType 自动生成
+   * @return 驱动返回的影响行数之和
+   */
+  default int insertOrUpdateBatch(Collection<T> entityList) {
+    if (entityList == null || entityList.isEmpty()) {
+      return 0;
+    }
+    int parameters = BatchChunks.upsertParameters(entityList.iterator().next().getClass());
+    int rows =
+        BatchChunks.rowsPerStatement(
+            maxParametersPerStatement(), maxRowsPerStatement(), parameters);
+    int affected = 0;
+    for (List<T> chunk : BatchChunks.partition(entityList, rows)) {
+      affected += upsertBatch(chunk);
+    }
+    return affected;
+  }
+
+  /**
+   * 根据 ID 批量更新全部字段（null 也会写入），每块合并成一条 UPDATE ... CASE WHEN.
+   *
+   * <p>有乐观锁字段时每行按自己的版本号匹配，返回值小于实体个数说明有行版本冲突，见 {@link
+   * io.github.code13.frameworks.mbplus.extensions.method.injector.UpdateBatchByIdCaseWhenMethod}.
+   *
+   * @param entityList 实体
+   * @return 更新的行数
+   */
+  default int updateBatchById(Collection<T> entityList) {
+    if (entityList == null || entityList.isEmpty()) {
+      return 0;
+    }
+    int parameters = BatchChunks.updateParameters(entityList.iterator().next().getClass());
+    int rows =
+        BatchChunks.rowsPerStatement(
+            maxParametersPerStatement(), maxRowsPerStatement(), parameters);
+    int affected = 0;
+    for (List<T> chunk : BatchChunks.partition(entityList, rows)) {
+      affected += updateBatchByIdCaseWhen(chunk);
+    }
+    return affected;
+  }
+
+  /** 一条语句最多绑定多少个参数，默认取 PostgreSQL 的 32767，SQL Server 需要改成 2100. */
+  default int maxParametersPerStatement() {
+    return 32767;
+  }
+
+  /**
+   * 一条语句最多多少行.
+   *
+   * <p>语句越长，数据库解析越慢，CASE WHEN 逐个分支匹配还是行数的平方；在 H2 上 100 ~ 500 行一条差别不大，超过 1000 行明显变慢.
+   */
+  default int maxRowsPerStatement() {
+    return 500;
+  }
+
   // -- helper methods
 
   default boolean existWrapper(Boolean bool) {
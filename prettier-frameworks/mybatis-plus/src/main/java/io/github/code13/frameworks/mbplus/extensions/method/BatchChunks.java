@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.frameworks.mbplus.extensions.method;
+
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.Assert;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 批量 SQL 的分块工具.
+ *
+ * <p>一条语句能绑定的参数个数受驱动限制（PostgreSQL 32767、MySQL 65535、SQL Server 2100），批量方法按每行占用的参数个数把集合切成若干条语句。
+ * 每行的参数个数要与注入的 SQL 保持一致，所以参与写入的列也在这里统一挑选。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 15:10
+ */
+public final class BatchChunks {
+
+  private BatchChunks() {}
+
+  /** 可以被批量更新覆盖的字段：排除逻辑删除字段、{@link FieldStrategy#NEVER} 和乐观锁字段（由 {@link #versionIncrement} 单独处理）. */
+  public static List<TableFieldInfo> updatableFields(TableInfo tableInfo) {
+    return tableInfo.getFieldList().stream()
+        .filter(field -> !field.isLogicDelete())
+        .filter(field -> !field.isVersion())
+        .filter(field -> field.getUpdateStrategy() != FieldStrategy.NEVER)
+        .toList();
+  }
+
+  /** upsert 每行的参数：主键 + 全部字段. */
+  public static int upsertParameters(Class<?> entityClass) {
+    return 1 + tableInfo(entityClass).getFieldList().size();
+  }
+
+  /** CASE WHEN 更新每行的参数：每个字段一对 WHEN id THEN value，再加 IN 列表里的 id，有乐观锁时再加一个 version. */
+  public static int updateParameters(Class<?> entityClass) {
+    TableInfo tableInfo = tableInfo(entityClass);
+    return 2 * updatableFields(tableInfo).size() + 1 + (tableInfo.isWithVersion() ? 1 : 0);
+  }
+
+  /** 批量方法只支持数值类型的乐观锁字段，没有乐观锁字段时也返回 true. */
+  public static boolean supportsVersion(TableInfo tableInfo) {
+    if (!tableInfo.isWithVersion()) {
+      return true;
+    }
+    Class<?> type = tableInfo.getVersionFieldInfo().getPropertyType();
+    return type == int.class || type == Integer.class || type == long.class || type == Long.class;
+  }
+
+  /**
+   * 乐观锁字段的更新：{@code version=qualifier.version+1}.
+   *
+   * @param tableInfo 表信息
+   * @param qualifier 引用当前行的前缀，如 {@code "t."}，MySQL 传空串
+   * @return 以逗号开头的赋值，没有乐观锁字段时为空串
+   */
+  public static String versionIncrement(TableInfo tableInfo, String qualifier) {
+    if (!tableInfo.isWithVersion()) {
+      return "";
+    }
+    String column = tableInfo.getVersionFieldInfo().getColumn();
+    return "," + column + "=" + qualifier + column + "+1";
+  }
+
+  /**
+   * 一条语句放多少行.
+   *
+   * @param maxParameters 一条语句最多多少个参数
+   * @param maxRows 一条语句最多多少行
+   * @param parametersPerRow 每行多少个参数
+   * @return 至少为 1
+   */
+  public static int rowsPerStatement(int maxParameters, int maxRows, int parametersPerRow) {
+    Assert.isTrue(
+        maxParameters > 0 && maxRows > 0 && parametersPerRow > 0,
+        "maxParameters, maxRows and parametersPerRow must be positive");
+    return Math.max(1, Math.min(maxRows, maxParameters / parametersPerRow));
+  }
+
+  /** 按 size 切块，List 直接返回 subList 视图. */
+  public static <E> List<List<E>> partition(Collection<E> items, int size) {
+    List<E> list = items instanceof List<E> l ? l : new ArrayList<>(items);
+    List<List<E>> chunks = new ArrayList<>((list.size() + size - 1) / size);
+    for (int from = 0; from < list.size(); from += size) {
+      chunks.add(list.subList(from, Math.min(list.size(), from + size)));
+    }
+    return chunks;
+  }
+
+  private static TableInfo tableInfo(Class<?> entityClass) {
+    TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+    Assert.notNull(tableInfo, "no TableInfo for %s, is its mapper registered?", entityClass);
+    return tableInfo;
+  }
+}
@@ -26,6 +26,29 @@ public enum SqlMethodEx {
   //  --count
   EXIST_HIGH_PERFORMANCE(
       "existHighPerformance", "高性能查询是否存在", "<script>SELECT 1 FROM %s %s LIMIT 1</script>"),
+  SELECT_EXIST_IDS(
+      "selectExistIds",
+      "查询 ID 集合中存在的 ID",
+      "<script>SELECT %s FROM %s WHERE %s IN %s %s\n</script>"),
+
+  //  --batch
+  UPSERT_BATCH_ON_DUPLICATE_KEY(
+      "upsertBatch",
+      "批量插入，主键冲突时更新（MySQL）",
+      "<script>INSERT INTO %s %s VALUES %s ON DUPLICATE KEY UPDATE %s\n</script>"),
+  UPSERT_BATCH_MERGE(
+      "upsertBatch",
+      "批量插入，主键冲突时更新（H2）",
+      "<script>MERGE INTO %s t USING (VALUES %s) s %s ON %s WHEN MATCHED THEN UPDATE SET %s"
+          + " WHEN NOT MATCHED THEN INSERT %s VALUES %s\n</script>"),
+  UPSERT_BATCH_ON_CONFLICT(
+      "upsertBatch",
+      "批量插入，主键冲突时更新（PostgreSQL）",
+      "<script>INSERT INTO %s %s VALUES %s ON CONFLICT (%s) DO UPDATE SET %s\n</script>"),
+  UPDATE_BATCH_BY_ID_CASE_WHEN(
+      "updateBatchByIdCaseWhen",
+      "根据 ID 批量更新全部字段，CASE WHEN 合并为一条语句",
+      "<script>UPDATE %s SET %s WHERE %s %s\n</script>"),
   ;
 
   private final String method;
@@ -15,22 +15,38 @@
 
 package io.github.code13.frameworks.mbplus.extensions.method.injector;
 
+import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.core.injector.AbstractMethod;
 import com.baomidou.mybatisplus.core.injector.DefaultSqlInjector;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
 import com.baomidou.mybatisplus.extension.injector.methods.AlwaysUpdateSomeColumnById;
 import com.baomidou.mybatisplus.extension.injector.methods.InsertBatchSomeColumn;
+import io.github.code13.frameworks.mbplus.extensions.method.BatchChunks;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * CustomerSqlInjector.
  *
+ * <p>upsertBatch 的写法与数据库有关，默认按 MySQL 生成，其他数据库通过构造参数指定.
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @date 1/11/2022 10:19 AM
  */
 public class CustomerSqlInjector extends DefaultSqlInjector {
 
+  private final DbType dbType;
+
+  public CustomerSqlInjector() {
+    this(DbType.MYSQL);
+  }
+
+  public CustomerSqlInjector(DbType dbType) {
+    // 不支持的数据库在构造时就报错，而不是等到注册 Mapper
+    UpsertBatchMethod.sqlMethod(dbType);
+    this.dbType = dbType;
+  }
+
   @Override
   public List<AbstractMethod> getMethodList(Class<?> mapperClass, TableInfo tableInfo) {
     List<AbstractMethod> methodList = super.getMethodList(mapperClass, tableInfo);
@@ -41,6 +57,16 @@ public class CustomerSqlInjector extends DefaultSqlInjector {
 
     methodList.add(new ExistHighPerformanceMethod());
 
+    // 批量方法都按主键定位行；乐观锁字段按 version + 1 递增，日期类型的版本号不注入
+    if (tableInfo.havePK()) {
+      methodList.add(new SelectExistIdsMethod());
+      if (!BatchChunks.updatableFields(tableInfo).isEmpty()
+          && BatchChunks.supportsVersion(tableInfo)) {
+        methodList.add(new UpsertBatchMethod(dbType));
+        methodList.add(new UpdateBatchByIdCaseWhenMethod());
+      }
+    }
+
     return methodList;
   }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.frameworks.mbplus.extensions.method.injector;
+
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import io.github.code13.frameworks.mbplus.extensions.method.SqlMethodEx;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * SelectExistIdsMethod.
+ *
+ * <p>SELECT id FROM table WHERE id IN (...)，一次查询返回 ID 集合中存在的那部分，启用逻辑删除时只算未删除的行.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 15:20
+ */
+public class SelectExistIdsMethod extends AbstractMethod {
+
+  private static final long serialVersionUID = -1394766458934420611L;
+
+  public SelectExistIdsMethod() {
+    super(SqlMethodEx.SELECT_EXIST_IDS.getMethod());
+  }
+
+  @Override
+  public MappedStatement injectMappedStatement(
+      Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+    SqlMethodEx sqlMethod = SqlMethodEx.SELECT_EXIST_IDS;
+    String keyColumn = tableInfo.getKeyColumn();
+    String ids =
+        LEFT_BRACKET
+            + SqlScriptUtils.convertForeach(
+                SqlScriptUtils.safeParam("item"), COLL, null, "item", COMMA)
+            + RIGHT_BRACKET;
+    String sql =
+        String.format(
+            sqlMethod.getSql(),
+            keyColumn,
+            tableInfo.getTableName(),
+            keyColumn,
+            ids,
+            tableInfo.getLogicDeleteSql(true, true));
+    SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+    return addSelectMappedStatementForOther(
+        mapperClass, sqlMethod.getMethod(), sqlSource, tableInfo.getKeyType());
+  }
+}
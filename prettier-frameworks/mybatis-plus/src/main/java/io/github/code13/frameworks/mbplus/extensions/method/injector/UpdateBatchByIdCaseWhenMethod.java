@@ -0,0 +1,123 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.frameworks.mbplus.extensions.method.injector;
+
+import static java.util.stream.Collectors.joining;
+
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import io.github.code13.frameworks.mbplus.extensions.method.BatchChunks;
+import io.github.code13.frameworks.mbplus.extensions.method.SqlMethodEx;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * UpdateBatchByIdCaseWhenMethod.
+ *
+ * <p>把多条 updateById 合并成一条语句：
+ *
+ * <pre>
+ * UPDATE table SET
+ *   name = CASE id WHEN 1 THEN 'a' WHEN 2 THEN 'b' END,
+ *   age  = CASE id WHEN 1 THEN 18  WHEN 2 THEN 20  END
+ * WHERE id IN (1, 2)
+ * </pre>
+ *
+ * <p>与 alwaysUpdateSomeColumnById 一样，null 也会写进去；逻辑删除字段和 {@code FieldStrategy.NEVER} 的字段不更新.
+ *
+ * <p>有乐观锁字段时与 updateById 加 OptimisticLockerInnerInterceptor 的语义相同，每行按自己的版本号匹配，匹配上的行版本号加 1：
+ *
+ * <pre>
+ * UPDATE table SET name = CASE id ... END, version = version + 1
+ * WHERE (id = 1 AND version = 3) OR (id = 2 AND version = 5)
+ * </pre>
+ *
+ * <p>版本号不匹配（或为 null）的行不更新，返回的行数会少于实体个数；实体上的版本号不会回写.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 15:40
+ */
+public class UpdateBatchByIdCaseWhenMethod extends AbstractMethod {
+
+  private static final long serialVersionUID = -4727389617703417150L;
+
+  public UpdateBatchByIdCaseWhenMethod() {
+    super(SqlMethodEx.UPDATE_BATCH_BY_ID_CASE_WHEN.getMethod());
+  }
+
+  @Override
+  public MappedStatement injectMappedStatement(
+      Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+    SqlMethodEx sqlMethod = SqlMethodEx.UPDATE_BATCH_BY_ID_CASE_WHEN;
+    String keyColumn = tableInfo.getKeyColumn();
+    String keyParam = SqlScriptUtils.safeParam(ENTITY_DOT + tableInfo.getKeyProperty());
+    String sets =
+        BatchChunks.updatableFields(tableInfo).stream()
+            .map(
+                field ->
+                    field.getColumn()
+                        + "=CASE "
+                        + keyColumn
+                        + SqlScriptUtils.convertForeach(
+                            " WHEN "
+                                + keyParam
+                                + " THEN "
+                                + SqlScriptUtils.safeParam(
+                                    ENTITY_DOT + field.getProperty(), field.getMapping()),
+                            COLL,
+                            null,
+                            ENTITY,
+                            null)
+                        + " END")
+            .collect(joining(COMMA));
+    String where;
+    if (tableInfo.isWithVersion()) {
+      TableFieldInfo version = tableInfo.getVersionFieldInfo();
+      String row =
+          LEFT_BRACKET
+              + keyColumn
+              + EQUALS
+              + keyParam
+              + " AND "
+              + version.getColumn()
+              + EQUALS
+              + SqlScriptUtils.safeParam(ENTITY_DOT + version.getProperty())
+              + RIGHT_BRACKET;
+      where =
+          LEFT_BRACKET
+              + SqlScriptUtils.convertForeach(row, COLL, null, ENTITY, " OR ")
+              + RIGHT_BRACKET;
+    } else {
+      where =
+          keyColumn
+              + " IN "
+              + LEFT_BRACKET
+              + SqlScriptUtils.convertForeach(keyParam, COLL, null, ENTITY, COMMA)
+              + RIGHT_BRACKET;
+    }
+    String sql =
+        String.format(
+            sqlMethod.getSql(),
+            tableInfo.getTableName(),
+            sets + BatchChunks.versionIncrement(tableInfo, ""),
+            where,
+            tableInfo.getLogicDeleteSql(true, true));
+    SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+    return addUpdateMappedStatement(mapperClass, modelClass, sqlMethod.getMethod(), sqlSource);
+  }
+}
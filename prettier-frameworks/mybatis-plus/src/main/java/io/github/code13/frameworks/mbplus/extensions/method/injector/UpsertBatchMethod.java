@@ -0,0 +1,154 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.frameworks.mbplus.extensions.method.injector;
+
+import static java.util.stream.Collectors.joining;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.injector.AbstractMethod;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.toolkit.sql.SqlScriptUtils;
+import io.github.code13.frameworks.mbplus.extensions.method.BatchChunks;
+import io.github.code13.frameworks.mbplus.extensions.method.SqlMethodEx;
+import java.util.List;
+import java.util.function.UnaryOperator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+
+/**
+ * UpsertBatchMethod.
+ *
+ * <p>多行 VALUES 批量插入，主键已存在时改为更新，按数据库选择写法：
+ *
+ * <ul>
+ *   <li>MySQL / MariaDB：INSERT ... ON DUPLICATE KEY UPDATE col=VALUES(col)，影响行数按 MySQL 的规则，插入算 1、更新算 2
+ *   <li>H2：MERGE INTO table t USING (VALUES ...) s (id, ...) ON t.id=s.id WHEN MATCHED THEN UPDATE SET col=s.col WHEN NOT
+ *       MATCHED THEN INSERT ...，目标表要起别名，表名为 user 时 user.id 会被解析成 USER 函数的字段
+ *   <li>PostgreSQL：INSERT ... ON CONFLICT (id) DO UPDATE SET col=EXCLUDED.col
+ * </ul>
+ *
+ * <p>三种写法更新的列相同，见 {@link BatchChunks#updatableFields(TableInfo)}：逻辑删除字段和 {@code FieldStrategy.NEVER}
+ * 的字段只在插入时写入，已存在的行保持原值；乐观锁字段插入时写入实体的值，更新时不比较、在原值上加 1，让持有旧版本的 updateById
+ * 失败.
+ *
+ * <p>主键参与插入，必须有值（ASSIGN_ID 等策略会在插入前自动填充）；同一批里不要出现重复的主键，PostgreSQL 会直接报错.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 15:30
+ */
+public class UpsertBatchMethod extends AbstractMethod {
+
+  private static final long serialVersionUID = 6024188131505316562L;
+
+  private final SqlMethodEx sqlMethod;
+
+  public UpsertBatchMethod(DbType dbType) {
+    super(SqlMethodEx.UPSERT_BATCH_ON_DUPLICATE_KEY.getMethod());
+    this.sqlMethod = sqlMethod(dbType);
+  }
+
+  static SqlMethodEx sqlMethod(DbType dbType) {
+    return switch (dbType) {
+      case MYSQL, MARIADB -> SqlMethodEx.UPSERT_BATCH_ON_DUPLICATE_KEY;
+      case H2 -> SqlMethodEx.UPSERT_BATCH_MERGE;
+      case POSTGRE_SQL -> SqlMethodEx.UPSERT_BATCH_ON_CONFLICT;
+      default -> throw new IllegalArgumentException("upsertBatch does not support " + dbType);
+    };
+  }
+
+  @Override
+  public MappedStatement injectMappedStatement(
+      Class<?> mapperClass, Class<?> modelClass, TableInfo tableInfo) {
+    String tableName = tableInfo.getTableName();
+    String keyColumn = tableInfo.getKeyColumn();
+    List<TableFieldInfo> fields = tableInfo.getFieldList();
+    String columns =
+        LEFT_BRACKET
+            + keyColumn
+            + fields.stream().map(field -> COMMA + field.getColumn()).collect(joining())
+            + RIGHT_BRACKET;
+    String sourceColumns =
+        LEFT_BRACKET
+            + "s."
+            + keyColumn
+            + fields.stream().map(field -> COMMA + "s." + field.getColumn()).collect(joining())
+            + RIGHT_BRACKET;
+    String row =
+        LEFT_BRACKET
+            + SqlScriptUtils.safeParam(ENTITY_DOT + tableInfo.getKeyProperty())
+            + fields.stream()
+                .map(
+                    field ->
+                        COMMA
+                            + SqlScriptUtils.safeParam(
+                                ENTITY_DOT + field.getProperty(), field.getMapping()))
+                .collect(joining())
+            + RIGHT_BRACKET;
+    String values = SqlScriptUtils.convertForeach(row, COLL, null, ENTITY, COMMA);
+    List<TableFieldInfo> updatable = BatchChunks.updatableFields(tableInfo);
+
+    String sql =
+        switch (sqlMethod) {
+          case UPSERT_BATCH_MERGE ->
+              String.format(
+                  sqlMethod.getSql(),
+                  tableName,
+                  values,
+                  columns,
+                  "t." + keyColumn + EQUALS + "s." + keyColumn,
+                  assignments(updatable, column -> "s." + column)
+                      + BatchChunks.versionIncrement(tableInfo, "t."),
+                  columns,
+                  sourceColumns);
+          case UPSERT_BATCH_ON_CONFLICT ->
+              String.format(
+                  sqlMethod.getSql(),
+                  tableName,
+                  columns,
+                  values,
+                  keyColumn,
+                  assignments(updatable, column -> "EXCLUDED." + column)
+                      + BatchChunks.versionIncrement(tableInfo, tableName + DOT));
+          default ->
+              String.format(
+                  sqlMethod.getSql(),
+                  tableName,
+                  columns,
+                  values,
+                  assignments(updatable, column -> "VALUES(" + column + ")")
+                      + BatchChunks.versionIncrement(tableInfo, ""));
+        };
+    SqlSource sqlSource = languageDriver.createSqlSource(configuration, sql, modelClass);
+    return addInsertMappedStatement(
+        mapperClass,
+        modelClass,
+        sqlMethod.getMethod(),
+        sqlSource,
+        NoKeyGenerator.INSTANCE,
+        null,
+        null);
+  }
+
+  private static String assignments(
+      List<TableFieldInfo> fields, UnaryOperator<String> incomingValue) {
+    return fields.stream()
+        .map(TableFieldInfo::getColumn)
+        .map(column -> column + EQUALS + incomingValue.apply(column))
+        .collect(joining(COMMA));
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.frameworks.mbplus.extensions;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import io.github.code13.frameworks.mbplus.example.User;
+import io.github.code13.frameworks.mbplus.example.UserMapper;
+import io.github.code13.frameworks.mbplus.extensions.method.injector.CustomerSqlInjector;
+import io.github.code13.frameworks.mbplus.utils.H2;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 逐行与批量方法的对比：表里 1 万行，每次操作 2000 行，一次操作一个事务.
+ *
+ * <ul>
+ *   <li>sync：id 9001 ~ 11000 一半已存在一半新增，逐行是 selectById 后 updateById / insert，批量是 insertOrUpdateBatch；
+ *   <li>update：id 1 ~ 2000 逐行 updateById，批量是 updateBatchById；
+ *   <li>exists：id 9001 ~ 11000 逐个 existHighPerformance，批量是 existsByIds.
+ * </ul>
+ *
+ * <p>{@code embedded} 是进程内的 H2，{@code tcp} 在本机起 H2 TCP 服务，每条语句一次 socket 往返.
+ *
+ * <p>单核虚拟机上的结果（ms/op，2000 行，批量方法 500 行一条语句）：
+ *
+ * <pre>
+ *                  embedded MYSQL   embedded H2   tcp MYSQL   tcp H2
+ * rowByRowExists         98             103          162        140
+ * batchExists            22              24           40         37
+ * rowByRowSync          133             126          197        204
+ * batchSync             142              49          171         86
+ * rowByRowUpdate         96              81          128        133
+ * batchUpdate            83              91          128        162
+ * </pre>
+ *
+ * <ul>
+ *   <li>existsByIds 把 2000 次查询变成 4 次，快 3.5 ~ 4.7 倍；
+ *   <li>H2 的 MERGE ... USING 比逐行先查再写快 2.6 倍，走 TCP 快 2.4 倍；H2 在 MySQL 模式下的 ON DUPLICATE KEY UPDATE
+ *       是逐行插入、遇到主键冲突再执行一次 UPDATE，所以 MYSQL 一列几乎没有收益，真实的 MySQL 是原生实现的；
+ *   <li>CASE WHEN 在这里和逐行 updateById 持平：本机 TCP 往返只有几十微秒，省下的往返抵不过 CASE 逐个分支匹配（与行数的平方成正比）。跨机器往返 0.2 ~ 1ms
+ *       时，2000 次 updateById 光往返就要 0.4 ~ 2s，合并成 4 条语句的收益才体现出来；
+ *   <li>批量方法每次只执行几条语句，JIT 预热得比逐行慢得多，所以预热 40 次.
+ * </ul>
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 16:30
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 40)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UserMapperBatchSqlMethodsBenchmark {
+
+  private static final int TABLE_ROWS = 10_000;
+  private static final int BATCH = 2000;
+
+  @Param({"MYSQL", "H2"})
+  DbType dbType;
+
+  @Param({"embedded", "tcp"})
+  String database;
+
+  private Server server;
+  private String url;
+  private SqlSessionFactory factory;
+  private SqlSession session;
+  private UserMapper mapper;
+
+  private List<User> syncUsers;
+  private List<User> updateUsers;
+  private List<Long> existIds;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    String db =
+        "mem:bench_"
+            + dbType.getDb()
+            + ";DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER"
+            + (dbType == DbType.MYSQL ? ";MODE=MYSQL" : "");
+    if (database.equals("tcp")) {
+      server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+      url = "jdbc:h2:tcp://localhost:" + server.getPort() + "/" + db;
+    } else {
+      url = "jdbc:h2:" + db;
+    }
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL(url);
+    dataSource.setUser("sa");
+
+    MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+    factoryBean.setDataSource(dataSource);
+    GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+    globalConfig.setSqlInjector(new CustomerSqlInjector(dbType));
+    factoryBean.setGlobalConfig(globalConfig);
+    factory = factoryBean.getObject();
+    factory.getConfiguration().addMapper(UserMapper.class);
+
+    syncUsers = users(TABLE_ROWS - BATCH / 2 + 1, "sync");
+    updateUsers = users(1, "update");
+    existIds = LongStream.range(0, BATCH).map(i -> TABLE_ROWS - BATCH / 2 + 1 + i).boxed().toList();
+  }
+
+  private static List<User> users(long firstId, String name) {
+    return LongStream.range(firstId, firstId + BATCH)
+        .mapToObj(
+            id ->
+                UserMapperTest4BatchSqlMethods.user(
+                    id, name + "-" + id, (int) (id % 80), name + id + "@baomidou.com"))
+        .toList();
+  }
+
+  @TearDown(Level.Trial)
+  public void stopServer() {
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void resetTable() {
+    H2.instance()
+        .executeSql(url, "sa", "", "DROP TABLE IF EXISTS user")
+        .executeSql(
+            url,
+            "sa",
+            "",
+            "CREATE TABLE user (id BIGINT NOT NULL PRIMARY KEY, name VARCHAR(30), age INT,"
+                + " email VARCHAR(50))")
+        .executeSql(
+            url,
+            "sa",
+            "",
+            "INSERT INTO user SELECT X, 'user-' || X, MOD(X, 80), 'user' || X || '@baomidou.com'"
+                + " FROM SYSTEM_RANGE(1, "
+                + TABLE_ROWS
+                + ")");
+    session = factory.openSession(false);
+    mapper = session.getMapper(UserMapper.class);
+  }
+
+  @TearDown(Level.Iteration)
+  public void closeSession() throws SQLException {
+    session.close();
+  }
+
+  @Benchmark
+  public int rowByRowSync() {
+    int affected = 0;
+    for (User user : syncUsers) {
+      affected +=
+          mapper.selectById(user.getId()) != null ? mapper.updateById(user) : mapper.insert(user);
+    }
+    session.commit();
+    return affected;
+  }
+
+  @Benchmark
+  public int batchSync() {
+    int affected = mapper.insertOrUpdateBatch(syncUsers);
+    session.commit();
+    return affected;
+  }
+
+  @Benchmark
+  public int rowByRowUpdate() {
+    int affected = 0;
+    for (User user : updateUsers) {
+      affected += mapper.updateById(user);
+    }
+    session.commit();
+    return affected;
+  }
+
+  @Benchmark
+  public int batchUpdate() {
+    int affected = mapper.updateBatchById(updateUsers);
+    session.commit();
+    return affected;
+  }
+
+  @Benchmark
+  public int rowByRowExists() {
+    int exists = 0;
+    for (Long id : existIds) {
+      if (mapper.existWrapper(
+          mapper.existHighPerformance(mapper.query().eq(User::getId, id)).orElse(null))) {
+        exists++;
+      }
+    }
+    session.commit();
+    return exists;
+  }
+
+  @Benchmark
+  public Set<Long> batchExists() {
+    Set<Long> exists = mapper.existsByIds(existIds);
+    session.commit();
+    return exists;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(UserMapperBatchSqlMethodsBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.frameworks.mbplus.extensions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableLogic;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
+import io.github.code13.frameworks.mbplus.BaseMapper;
+import io.github.code13.frameworks.mbplus.example.User;
+import io.github.code13.frameworks.mbplus.example.UserMapper;
+import io.github.code13.frameworks.mbplus.extensions.method.injector.CustomerSqlInjector;
+import io.github.code13.frameworks.mbplus.utils.H2;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+import lombok.Data;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Test for existsByIds / insertOrUpdateBatch / updateBatchById.
+ *
+ * <p>MYSQL 跑在 H2 的 MODE=MYSQL 上（ON DUPLICATE KEY UPDATE），H2 跑原生模式（MERGE INTO）.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 16:00
+ */
+class UserMapperTest4BatchSqlMethods {
+
+  private static final Map<DbType, Fixture> FIXTURES = new EnumMap<>(DbType.class);
+
+  /** 参数上限很小的 Mapper，用来观察分块. */
+  interface SmallChunkUserMapper extends BaseMapper<User, Long> {
+
+    @Override
+    default int maxParametersPerStatement() {
+      return 10;
+    }
+  }
+
+  /** 带逻辑删除、{@link FieldStrategy#NEVER} 和乐观锁字段的实体，这三列不应被批量更新直接覆盖. */
+  @Data
+  @TableName("account")
+  public static class Account {
+    private Long id;
+    private String name;
+
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private String createdBy;
+
+    @TableLogic private Integer deleted;
+
+    @Version private Integer version;
+  }
+
+  interface AccountMapper extends BaseMapper<Account, Long> {}
+
+  record Fixture(
+      JdbcDataSource dataSource,
+      UserMapper mapper,
+      SmallChunkUserMapper smallChunkMapper,
+      AccountMapper accountMapper,
+      StatementCounter counter) {}
+
+  /** 按方法名统计执行了多少条语句. */
+  @Intercepts({
+    @Signature(
+        type = Executor.class,
+        method = "update",
+        args = {MappedStatement.class, Object.class}),
+    @Signature(
+        type = Executor.class,
+        method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class})
+  })
+  static class StatementCounter implements Interceptor {
+
+    final Map<String, Integer> counts = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      String id = ((MappedStatement) invocation.getArgs()[0]).getId();
+      counts.merge(id.substring(id.lastIndexOf('.') + 1), 1, Integer::sum);
+      return invocation.proceed();
+    }
+  }
+
+  static synchronized Fixture reset(DbType dbType) throws Exception {
+    Fixture fixture = FIXTURES.get(dbType);
+    if (fixture == null) {
+      JdbcDataSource dataSource = new JdbcDataSource();
+      dataSource.setURL(
+          "jdbc:h2:mem:batch_"
+              + dbType.getDb()
+              + ";DB_CLOSE_DELAY=-1;NON_KEYWORDS=USER"
+              + (dbType == DbType.MYSQL ? ";MODE=MYSQL" : ""));
+      dataSource.setUser("sa");
+
+      StatementCounter counter = new StatementCounter();
+      MybatisSqlSessionFactoryBean factoryBean = new MybatisSqlSessionFactoryBean();
+      factoryBean.setDataSource(dataSource);
+      factoryBean.setPlugins(counter);
+      GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+      globalConfig.setSqlInjector(new CustomerSqlInjector(dbType));
+      factoryBean.setGlobalConfig(globalConfig);
+      SqlSessionFactory factory = factoryBean.getObject();
+      factory.getConfiguration().addMapper(UserMapper.class);
+      factory.getConfiguration().addMapper(SmallChunkUserMapper.class);
+      factory.getConfiguration().addMapper(AccountMapper.class);
+
+      fixture =
+          new Fixture(
+              dataSource,
+              factory.getConfiguration().getMapper(UserMapper.class, factory.openSession(true)),
+              factory
+                  .getConfiguration()
+                  .getMapper(SmallChunkUserMapper.class, factory.openSession(true)),
+              factory.getConfiguration().getMapper(AccountMapper.class, factory.openSession(true)),
+              counter);
+      FIXTURES.put(dbType, fixture);
+    }
+    // 与 schema.sql 相同的表和数据，去掉原生模式不认的 BIGINT(20)、COMMENT
+    String url = fixture.dataSource().getURL();
+    H2.instance()
+        .executeSql(url, "sa", "", "DROP TABLE IF EXISTS user")
+        .executeSql(
+            url,
+            "sa",
+            "",
+            "CREATE TABLE user (id BIGINT NOT NULL PRIMARY KEY, name VARCHAR(30), age INT,"
+                + " email VARCHAR(50))")
+        .executeSql(
+            url,
+            "sa",
+            "",
+            "INSERT INTO user (id, name, age, email) VALUES (1, 'Jone', 18, 'test1@baomidou.com'),"
+                + " (2, 'Jack', 20, 'test2@baomidou.com'), (3, 'Tom', 28, 'test3@baomidou.com'),"
+                + " (4, 'Sandy', 21, 'test4@baomidou.com'), (5, 'Billie', 24,"
+                + " 'test5@baomidou.com')")
+        .executeSql(url, "sa", "", "DROP TABLE IF EXISTS account")
+        .executeSql(
+            url,
+            "sa",
+            "",
+            "CREATE TABLE account (id BIGINT NOT NULL PRIMARY KEY, name VARCHAR(30),"
+                + " created_by VARCHAR(30), deleted INT NOT NULL DEFAULT 0, version INT)")
+        .executeSql(
+            url,
+            "sa",
+            "",
+            "INSERT INTO account (id, name, created_by, deleted, version) VALUES"
+                + " (1, 'Jone', 'admin', 1, 1), (2, 'Jack', 'admin', 0, 1), (3, 'Tom', 'admin', 0,"
+                + " 1)");
+    fixture.counter().counts.clear();
+    return fixture;
+  }
+
+  static User user(long id, String name, Integer age, String email) {
+    User user = new User();
+    user.setId(id);
+    user.setName(name);
+    user.setAge(age);
+    user.setEmail(email);
+    return user;
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = DbType.class,
+      names = {"MYSQL", "H2"})
+  void existsByIdsReturnsExistingSubset(DbType dbType) throws Exception {
+    UserMapper mapper = reset(dbType).mapper();
+
+    assertEquals(Set.of(1L, 3L, 5L), mapper.existsByIds(List.of(1L, 3L, 3L, 5L, 42L)));
+    assertEquals(Set.of(), mapper.existsByIds(List.of(42L, 43L)));
+    assertEquals(Set.of(), mapper.existsByIds(List.of()));
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = DbType.class,
+      names = {"MYSQL", "H2"})
+  void insertOrUpdateBatchInsertsNewRowsAndUpdatesExistingOnes(DbType dbType) throws Exception {
+    UserMapper mapper = reset(dbType).mapper();
+    List<User> users =
+        List.of(
+            user(1, "Jone2", 19, "jone2@baomidou.com"),
+            user(2, "Jack2", null, null),
+            user(100, "New", 30, "new@baomidou.com"));
+
+    mapper.insertOrUpdateBatch(users);
+
+    assertEquals(6, mapper.selectCount(null));
+    for (User user : users) {
+      assertEquals(user, mapper.selectById(user.getId()));
+    }
+    assertEquals("Tom", mapper.selectById(3L).getName());
+  }
+
+  static Account account(long id, String name, String createdBy, Integer version) {
+    Account account = new Account();
+    account.setId(id);
+    account.setName(name);
+    account.setCreatedBy(createdBy);
+    account.setDeleted(0);
+    account.setVersion(version);
+    return account;
+  }
+
+  /** 绕过逻辑删除直接读一行：name, created_by, deleted, version. */
+  static List<Object> accountRow(Fixture fixture, long id) throws Exception {
+    try (Connection connection = fixture.dataSource().getConnection();
+        PreparedStatement statement =
+            connection.prepareStatement(
+                "SELECT name, created_by, deleted, version FROM account WHERE id = ?")) {
+      statement.setLong(1, id);
+      try (ResultSet rs = statement.executeQuery()) {
+        return rs.next()
+            ? List.of(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getInt(4))
+            : List.of();
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = DbType.class,
+      names = {"MYSQL", "H2"})
+  void insertOrUpdateBatchKeepsLogicDeleteAndNeverColumns(DbType dbType) throws Exception {
+    Fixture fixture = reset(dbType);
+
+    fixture
+        .accountMapper()
+        .insertOrUpdateBatch(
+            List.of(
+                account(1, "Jone2", "intruder", 7),
+                account(2, "Jack2", "intruder", 7),
+                account(4, "New", "creator", 1)));
+
+    // 已逻辑删除的行不会被复活，created_by 保持插入时的值，version 在原值上加 1；新行按实体写入
+    assertEquals(List.of("Jone2", "admin", 1, 2), accountRow(fixture, 1));
+    assertEquals(List.of("Jack2", "admin", 0, 2), accountRow(fixture, 2));
+    assertEquals(List.of("New", "creator", 0, 1), accountRow(fixture, 4));
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = DbType.class,
+      names = {"MYSQL", "H2"})
+  void updateBatchByIdChecksVersionOfEveryRow(DbType dbType) throws Exception {
+    Fixture fixture = reset(dbType);
+    // 另一个事务先改了 3
+    H2.instance()
+        .executeSql(
+            fixture.dataSource().getURL(),
+            "sa",
+            "",
+            "UPDATE account SET name = 'Tom2', version = 2 WHERE id = 3");
+
+    // 2 的版本号匹配；3 拿的是旧版本；1 已逻辑删除
+    int updated =
+        fixture
+            .accountMapper()
+            .updateBatchById(
+                List.of(
+                    account(1, "Jone3", "intruder", 1),
+                    account(2, "Jack3", "intruder", 1),
+                    account(3, "Tom3", "intruder", 1)));
+
+    assertEquals(1, updated);
+    assertEquals(List.of("Jone", "admin", 1, 1), accountRow(fixture, 1));
+    assertEquals(List.of("Jack3", "admin", 0, 2), accountRow(fixture, 2));
+    assertEquals(List.of("Tom2", "admin", 0, 2), accountRow(fixture, 3));
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = DbType.class,
+      names = {"MYSQL", "H2"})
+  void insertOrUpdateBatchAssignsIdForNewEntities(DbType dbType) throws Exception {
+    UserMapper mapper = reset(dbType).mapper();
+    User user = user(0, "Assigned", 40, "assigned@baomidou.com");
+    user.setId(null);
+
+    mapper.insertOrUpdateBatch(List.of(user));
+
+    assertNotNull(user.getId());
+    assertEquals(user, mapper.selectById(user.getId()));
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = DbType.class,
+      names = {"MYSQL", "H2"})
+  void updateBatchByIdWritesEveryColumnOfMatchedRows(DbType dbType) throws Exception {
+    UserMapper mapper = reset(dbType).mapper();
+    List<User> users =
+        List.of(
+            user(1, "Jone2", 19, "jone2@baomidou.com"),
+            user(3, "Tom2", null, null),
+            user(42, "Missing", 1, "missing@baomidou.com"));
+
+    assertEquals(2, mapper.updateBatchById(users));
+
+    assertEquals(users.get(0), mapper.selectById(1L));
+    assertEquals(users.get(1), mapper.selectById(3L));
+    assertEquals(user(2, "Jack", 20, "test2@baomidou.com"), mapper.selectById(2L));
+    assertEquals(5, mapper.selectCount(null));
+  }
+
+  @ParameterizedTest
+  @EnumSource(
+      value = DbType.class,
+      names = {"MYSQL", "H2"})
+  void splitsIntoStatementsByParameterLimit(DbType dbType) throws Exception {
+    Fixture fixture = reset(dbType);
+    SmallChunkUserMapper mapper = fixture.smallChunkMapper();
+    Map<String, Integer> counts = fixture.counter().counts;
+
+    // 每行 1 个参数，10 个一条
+    List<Long> ids = LongStream.rangeClosed(1, 25).boxed().toList();
+    assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), mapper.existsByIds(ids));
+    assertEquals(3, counts.get("selectExistIds"));
+
+    // 每行 4 个参数（id, name, age, email），2 行一条
+    List<User> users = new ArrayList<>();
+    for (long id = 1; id <= 7; id++) {
+      users.add(user(id, "user-" + id, (int) id, id + "@baomidou.com"));
+    }
+    mapper.insertOrUpdateBatch(users);
+    assertEquals(4, counts.get("upsertBatch"));
+    assertEquals(7, mapper.selectCount(null));
+
+    // 每行 3 对 WHEN/THEN 加 1 个 IN，1 行一条
+    users.forEach(user -> user.setName(user.getName().toUpperCase()));
+    assertEquals(7, mapper.updateBatchById(users));
+    assertEquals(7, counts.get("updateBatchByIdCaseWhen"));
+    assertEquals("USER-7", mapper.selectById(7L).getName());
+  }
+
+  @Test
+  void rejectsDatabaseWithoutUpsertSupport() {
+    assertThrows(IllegalArgumentException.class, () -> new CustomerSqlInjector(DbType.ORACLE));
+  }
+}
@@ -80,7 +80,6 @@ public class FastAutoGeneratorTest {
               builder
                   .author("code13") // 设置作者
                   .enableSwagger() // 开启 swagger 模式
-                  .fileOverride() // 覆盖已生成文件
                   .outputDir("prettier-frameworks/mybatis-plus/src/generated"); // 指定输出目录
             })
         .packageConfig(
@@ -97,7 +96,9 @@ public class FastAutoGeneratorTest {
             builder -> {
               builder
                   .addInclude("t_simple") // 设置需要生成的表名
-                  .addTablePrefix("t_", "c_"); // 设置过滤表前缀
+                  .addTablePrefix("t_", "c_") // 设置过滤表前缀
+                  .entityBuilder()
+                  .enableFileOverride(); // 覆盖已生成文件
             })
         .templateConfig(
             builder ->
@@ -68,12 +68,15 @@ public class H2CodeGeneratorTest {
 
   /** 策略配置 */
   private StrategyConfig.Builder strategyConfig() {
-    return new StrategyConfig.Builder().addInclude("t_simple"); // 设置需要生成的表名
+    StrategyConfig.Builder builder =
+        new StrategyConfig.Builder().addInclude("t_simple"); // 设置需要生成的表名
+    builder.entityBuilder().enableFileOverride(); // 覆盖已生成文件，3.5.6 起由各模板的 Builder 配置
+    return builder;
   }
 
   /** 全局配置 */
   private GlobalConfig.Builder globalConfig() {
-    return new GlobalConfig.Builder().fileOverride();
+    return new GlobalConfig.Builder();
   }
 
   /** 包配置 */
@@ -6,8 +6,13 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-redis")
     implementation("org.apache.commons:commons-pool2")
     implementation("com.github.ben-manes.caffeine:caffeine")
+    implementation("io.protostuff:protostuff-core")
+    implementation("io.protostuff:protostuff-runtime")
+    implementation("org.lz4:lz4-java")
 
     testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("org.openjdk.jmh:jmh-core")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 
     annotationProcessor("org.springframework.boot:spring-boot-configuration-processor:3.3.1")
 }
@@ -15,7 +15,9 @@
 
 package io.github.code13.spring.boot.crmlc;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -45,4 +47,15 @@ class CacheConfigProperties {
   @NestedConfigurationProperty private RedisConfigProp redis = new RedisConfigProp();
 
   @NestedConfigurationProperty private CaffeineConfigProp caffeine = new CaffeineConfigProp();
+
+  @NestedConfigurationProperty private CodecConfigProp codec = new CodecConfigProp();
+
+  /** 按 cacheName 覆盖的 caffeine 配置，未配置的项使用 caffeine 中的全局配置 */
+  private Map<String, CaffeineConfigProp> caffeineOverrides = new HashMap<>();
+
+  @NestedConfigurationProperty
+  private L1MemoryBudgetConfigProp l1MemoryBudget = new L1MemoryBudgetConfigProp();
+
+  /** 按 cacheName 配置的提前刷新（stale-while-revalidate），未配置的 cacheName 不启用 */
+  private Map<String, RefreshAheadConfigProp> refreshAhead = new HashMap<>();
 }
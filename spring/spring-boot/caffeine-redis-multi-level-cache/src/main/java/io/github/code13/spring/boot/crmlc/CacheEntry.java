@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * redis 和 caffeine 中实际存储的缓存值，所有写入都会包装，带有写入版本；启用提前刷新时还带有逻辑过期时间和最近一次加载耗时.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:43
+ */
+@Data
+@AllArgsConstructor
+class CacheEntry implements Serializable {
+
+  private static final long serialVersionUID = -3017290467208414162L;
+
+  private Object value;
+
+  /** 逻辑过期时间，毫秒时间戳，为 0 时没有逻辑过期时间 */
+  private long expireAt;
+
+  /** 最近一次加载耗时，毫秒 */
+  private long loadMillis;
+
+  /** 写入版本，由写入节点的 {@link HybridLogicalClock} 生成 */
+  private long version;
+}
@@ -16,6 +16,7 @@
 package io.github.code13.spring.boot.crmlc;
 
 import java.io.Serializable;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -29,9 +30,20 @@ import lombok.Data;
 @AllArgsConstructor
 class CacheMessage implements Serializable {
 
-  private static final long serialVersionUID = 7569828454346888812L;
+  private static final long serialVersionUID = 7569828454346888813L;
 
   private String cacheName;
 
-  private Object key;
+  /** 需要失效的 key 及其失效版本，为 null 时清空整个缓存 */
+  private Map<Object, Long> keys;
+
+  /** 清空整个缓存时的失效版本 */
+  private long version;
+
+  /**
+   * 是否由合并窗口内 key 数量超过上限降级而来.
+   *
+   * <p>降级消息不对应真正的 clear()，redis 中的 key 没有删除，接收方只清空 caffeine，不推进清空版本
+   */
+  private boolean overflow;
 }
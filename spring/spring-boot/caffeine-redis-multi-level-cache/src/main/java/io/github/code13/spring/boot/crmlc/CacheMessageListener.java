@@ -47,9 +47,13 @@ class CacheMessageListener implements MessageListener {
     CacheMessage cacheMessage =
         (CacheMessage) redisTemplate.getValueSerializer().deserialize(message.getBody());
     logger.debug(
-        "receive a redis topic message, clear local cache, the cacheName is {}, the key is {}",
+        "receive a redis topic message, clear local cache, the cacheName is {}, the keys is {}",
         cacheMessage.getCacheName(),
-        cacheMessage.getKey());
-    redisCaffeineCacheManager.clearLocal(cacheMessage.getCacheName(), cacheMessage.getKey());
+        cacheMessage.getKeys());
+    redisCaffeineCacheManager.clearLocal(
+        cacheMessage.getCacheName(),
+        cacheMessage.getKeys(),
+        cacheMessage.getVersion(),
+        cacheMessage.isOverflow());
   }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * 缓存失效消息发布者.
+ *
+ * <p>按 cacheName 在 {@link RedisConfigProp#getInvalidationWindow()} 时间窗口内合并 key（去重），
+ * 窗口结束时只发送一条包含全部 key 的 {@link CacheMessage}；窗口内 key 数量超过 {@link
+ * RedisConfigProp#getInvalidationMaxBatchSize()} 时，降级为发送清空整个缓存的消息（{@link CacheMessage#isOverflow()}）
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:38
+ */
+class CacheMessagePublisher implements DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(CacheMessagePublisher.class);
+
+  private final RedisTemplate<Object, Object> stringKeyRedisTemplate;
+
+  private final MultilevelCacheMetrics multilevelCacheMetrics;
+
+  private final String topic;
+
+  private final long windowNanos;
+
+  private final int maxBatchSize;
+
+  private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<>();
+
+  private final ScheduledExecutorService scheduler;
+
+  public CacheMessagePublisher(
+      RedisTemplate<Object, Object> stringKeyRedisTemplate,
+      RedisConfigProp redisConfigProp,
+      MultilevelCacheMetrics multilevelCacheMetrics) {
+    this.stringKeyRedisTemplate = stringKeyRedisTemplate;
+    this.multilevelCacheMetrics = multilevelCacheMetrics;
+    topic = redisConfigProp.getTopic();
+    Duration window = redisConfigProp.getInvalidationWindow();
+    windowNanos = window == null || window.isNegative() ? 0 : window.toNanos();
+    maxBatchSize = redisConfigProp.getInvalidationMaxBatchSize();
+    scheduler =
+        windowNanos == 0
+            ? null
+            : Executors.newSingleThreadScheduledExecutor(
+                r -> {
+                  Thread thread = new Thread(r, "cache-message-publisher");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+  }
+
+  /**
+   * 发布单个 key 的失效消息.
+   *
+   * @param cacheName 缓存名称
+   * @param key 缓存 key
+   * @param version 失效版本
+   */
+  public void publish(String cacheName, Object key, long version) {
+    publish(cacheName, Map.of(key, version));
+  }
+
+  /**
+   * 发布多个 key 的失效消息，同一个 key 在时间窗口内多次失效时保留最大的版本.
+   *
+   * @param cacheName 缓存名称
+   * @param keys 缓存 key 及其失效版本
+   */
+  public void publish(String cacheName, Map<?, Long> keys) {
+    if (scheduler == null) {
+      Batch batch = new Batch();
+      batch.addAll(keys, maxBatchSize);
+      send(batch.toMessage(cacheName));
+      return;
+    }
+
+    batches.compute(
+        cacheName,
+        (name, batch) -> {
+          if (batch == null) {
+            // 定时任务只刷新自己创建的 batch，该 batch 被 publishClear 丢弃后不会提前刷新下一个 batch
+            Batch created = new Batch();
+            scheduler.schedule(() -> flush(name, created), windowNanos, TimeUnit.NANOSECONDS);
+            batch = created;
+          }
+          batch.addAll(keys, maxBatchSize);
+          return batch;
+        });
+  }
+
+  /**
+   * 发布清空整个缓存的消息，立即发送，并丢弃该缓存尚未发送的 key.
+   *
+   * @param cacheName 缓存名称
+   * @param version 失效版本
+   */
+  public void publishClear(String cacheName, long version) {
+    batches.remove(cacheName);
+    send(new CacheMessage(cacheName, null, version, false));
+  }
+
+  private void flush(String cacheName, Batch batch) {
+    if (!batches.remove(cacheName, batch)) {
+      return;
+    }
+    try {
+      send(batch.toMessage(cacheName));
+    } catch (RuntimeException e) {
+      logger.warn("publish cache message failed, the cacheName is {}", cacheName, e);
+    }
+  }
+
+  private void send(CacheMessage message) {
+    logger.debug(
+        "publish cache message, the cacheName is {}, the key size is {}",
+        message.getCacheName(),
+        message.getKeys() == null ? "all" : message.getKeys().size());
+    stringKeyRedisTemplate.convertAndSend(topic, message);
+    multilevelCacheMetrics.forCache(message.getCacheName()).invalidationSent();
+  }
+
+  @Override
+  public void destroy() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.shutdownNow();
+    batches.forEach(this::flush);
+  }
+
+  /** 一个时间窗口内某个 cacheName 待发送的 key，仅在 {@link #batches} 的 compute 中修改 */
+  private static final class Batch {
+
+    private Map<Object, Long> keys = new LinkedHashMap<>();
+
+    /** 所有 key 中最大的失效版本，降级后只用于推进接收方的时钟 */
+    private long maxVersion;
+
+    void addAll(Map<?, Long> newKeys, int maxBatchSize) {
+      for (Long version : newKeys.values()) {
+        maxVersion = Math.max(maxVersion, version);
+      }
+      if (keys == null) {
+        return;
+      }
+      newKeys.forEach((key, version) -> keys.merge(key, version, Math::max));
+      if (maxBatchSize > 0 && keys.size() > maxBatchSize) {
+        // 超过上限，降级为清空整个缓存
+        keys = null;
+      }
+    }
+
+    CacheMessage toMessage(String cacheName) {
+      return new CacheMessage(cacheName, keys, keys == null ? maxVersion : 0, keys == null);
+    }
+  }
+}
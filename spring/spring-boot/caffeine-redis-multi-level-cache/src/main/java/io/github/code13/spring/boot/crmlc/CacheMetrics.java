@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个缓存的多级指标.
+ *
+ * <p>计数使用 {@link LongAdder}，耗时使用 {@link LatencyRecorder}，命中路径上的记录不分配对象
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:42
+ */
+final class CacheMetrics {
+
+  private static final RemovalCause[] REMOVAL_CAUSES = RemovalCause.values();
+
+  private final String cacheName;
+
+  private final LongAdder l1Hits = new LongAdder();
+
+  private final LongAdder l2Hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  private final LongAdder invalidationsSent = new LongAdder();
+
+  private final LongAdder invalidationsReceived = new LongAdder();
+
+  private final LongAdder[] evictions = new LongAdder[REMOVAL_CAUSES.length];
+
+  private final LatencyRecorder load = new LatencyRecorder();
+
+  private final LatencyRecorder redisGet = new LatencyRecorder();
+
+  private final LatencyRecorder redisSet = new LatencyRecorder();
+
+  private final LatencyRecorder redisDelete = new LatencyRecorder();
+
+  CacheMetrics(String cacheName) {
+    this.cacheName = cacheName;
+    for (int i = 0; i < evictions.length; i++) {
+      evictions[i] = new LongAdder();
+    }
+  }
+
+  String getCacheName() {
+    return cacheName;
+  }
+
+  void l1Hit() {
+    l1Hits.increment();
+  }
+
+  void l1Hits(int count) {
+    l1Hits.add(count);
+  }
+
+  void l2Hits(int count) {
+    l2Hits.add(count);
+  }
+
+  void misses(int count) {
+    misses.add(count);
+  }
+
+  void invalidationSent() {
+    invalidationsSent.increment();
+  }
+
+  void invalidationReceived() {
+    invalidationsReceived.increment();
+  }
+
+  void eviction(RemovalCause cause) {
+    evictions[cause.ordinal()].increment();
+  }
+
+  long getL1Hits() {
+    return l1Hits.sum();
+  }
+
+  long getL2Hits() {
+    return l2Hits.sum();
+  }
+
+  long getMisses() {
+    return misses.sum();
+  }
+
+  long getInvalidationsSent() {
+    return invalidationsSent.sum();
+  }
+
+  long getInvalidationsReceived() {
+    return invalidationsReceived.sum();
+  }
+
+  long getEvictions(RemovalCause cause) {
+    return evictions[cause.ordinal()].sum();
+  }
+
+  LatencyRecorder getLoad() {
+    return load;
+  }
+
+  LatencyRecorder getRedisGet() {
+    return redisGet;
+  }
+
+  LatencyRecorder getRedisSet() {
+    return redisSet;
+  }
+
+  LatencyRecorder getRedisDelete() {
+    return redisDelete;
+  }
+
+  Snapshot snapshot() {
+    Map<RemovalCause, Long> evictionsByCause = new EnumMap<>(RemovalCause.class);
+    for (RemovalCause cause : REMOVAL_CAUSES) {
+      if (cause.wasEvicted()) {
+        evictionsByCause.put(cause, getEvictions(cause));
+      }
+    }
+    return new Snapshot(
+        cacheName,
+        getL1Hits(),
+        getL2Hits(),
+        getMisses(),
+        getInvalidationsSent(),
+        getInvalidationsReceived(),
+        evictionsByCause,
+        load.snapshot(),
+        redisGet.snapshot(),
+        redisSet.snapshot(),
+        redisDelete.snapshot());
+  }
+
+  /** 指标快照 */
+  record Snapshot(
+      String cacheName,
+      long l1Hits,
+      long l2Hits,
+      long misses,
+      long invalidationsSent,
+      long invalidationsReceived,
+      Map<RemovalCause, Long> evictions,
+      LatencyRecorder.Snapshot load,
+      LatencyRecorder.Snapshot redisGet,
+      LatencyRecorder.Snapshot redisSet,
+      LatencyRecorder.Snapshot redisDelete) {}
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+/**
+ * 缓存值编解码器，决定缓存值和 {@link CacheMessage} 在 redis 中的存储格式.
+ *
+ * <p>声明为 bean 即可替换默认实现
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:47
+ */
+public interface CacheValueCodec {
+
+  /**
+   * 编码.
+   *
+   * @param value 缓存值，不为 null
+   * @return 编码后的字节
+   */
+  byte[] encode(Object value);
+
+  /**
+   * 解码.
+   *
+   * @param bytes 编码后的字节，不为空
+   * @return 缓存值
+   */
+  Object decode(byte[] bytes);
+}
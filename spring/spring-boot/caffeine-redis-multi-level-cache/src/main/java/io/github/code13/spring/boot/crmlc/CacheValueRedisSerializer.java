@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 将 {@link CacheValueCodec} 适配为 RedisTemplate 的 value 序列化器.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:47
+ */
+class CacheValueRedisSerializer implements RedisSerializer<Object> {
+
+  private static final byte[] EMPTY_ARRAY = new byte[0];
+
+  private final CacheValueCodec codec;
+
+  public CacheValueRedisSerializer(CacheValueCodec codec) {
+    this.codec = codec;
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value == null) {
+      return EMPTY_ARRAY;
+    }
+    try {
+      return codec.encode(value);
+    } catch (RuntimeException e) {
+      throw new SerializationException("Cannot serialize", e);
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    try {
+      return codec.decode(bytes);
+    } catch (RuntimeException e) {
+      throw new SerializationException("Cannot deserialize", e);
+    }
+  }
+}
@@ -42,9 +42,56 @@ class CaffeineConfigProp {
   /** 最大缓存对象个数，超过此数量时之前放入的缓存将失效 */
   private long maximumSize;
 
+  /** 最大缓存权重，默认为估算的对象大小（字节），与 maximumSize 同时配置时优先使用 maximumWeight */
+  private long maximumWeight;
+
   /** key 强度 */
   private CaffeineStrength keyStrength;
 
   /** value 强度 */
   private CaffeineStrength valueStrength;
+
+  /**
+   * 合并单个缓存的配置，override 中已配置的项覆盖当前配置.
+   *
+   * @param override 单个缓存的配置，可以为 null
+   * @return 合并后的配置
+   */
+  CaffeineConfigProp merge(CaffeineConfigProp override) {
+    CaffeineConfigProp merged = new CaffeineConfigProp();
+    merged.expireAfterAccess = expireAfterAccess;
+    merged.expireAfterWrite = expireAfterWrite;
+    merged.refreshAfterWrite = refreshAfterWrite;
+    merged.initialCapacity = initialCapacity;
+    merged.maximumSize = maximumSize;
+    merged.maximumWeight = maximumWeight;
+    merged.keyStrength = keyStrength;
+    merged.valueStrength = valueStrength;
+    if (override == null) {
+      return merged;
+    }
+    if (override.expireAfterAccess != null) {
+      merged.expireAfterAccess = override.expireAfterAccess;
+    }
+    if (override.expireAfterWrite != null) {
+      merged.expireAfterWrite = override.expireAfterWrite;
+    }
+    if (override.refreshAfterWrite != null) {
+      merged.refreshAfterWrite = override.refreshAfterWrite;
+    }
+    if (override.initialCapacity > 0) {
+      merged.initialCapacity = override.initialCapacity;
+    }
+    if (override.maximumSize > 0 || override.maximumWeight > 0) {
+      merged.maximumSize = override.maximumSize;
+      merged.maximumWeight = override.maximumWeight;
+    }
+    if (override.keyStrength != null) {
+      merged.keyStrength = override.keyStrength;
+    }
+    if (override.valueStrength != null) {
+      merged.valueStrength = override.valueStrength;
+    }
+    return merged;
+  }
 }
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+/**
+ * 清空缓存时 redis 中数据的处理方式.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:45
+ */
+enum ClearMode {
+
+  /** 通过 SCAN 分页遍历 key，并使用 UNLINK 批量删除 */
+  SCAN,
+
+  /** 递增缓存的代数，代数是 key 的一部分，旧代数的 key 等待过期后由 redis 自动清除 */
+  GENERATION
+}
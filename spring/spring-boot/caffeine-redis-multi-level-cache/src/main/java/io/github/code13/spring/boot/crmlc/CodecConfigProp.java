@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import lombok.Data;
+
+/**
+ * CodecConfigProp.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:47
+ */
+@Data
+class CodecConfigProp {
+
+  /** 缓存值的编码方式，默认 JDK 序列化 */
+  private CodecType type = CodecType.JDK;
+
+  /** 编码后超过该字节数的值使用 LZ4 压缩，小于等于 0 时不压缩 */
+  private int compressionThreshold;
+}
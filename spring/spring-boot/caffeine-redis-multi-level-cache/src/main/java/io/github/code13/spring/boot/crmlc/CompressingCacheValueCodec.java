@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.util.Arrays;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * 对编码后超过阈值的值进行 LZ4 压缩.
+ *
+ * <p>格式：第一个字节为标记位，{@code 0} 表示未压缩，后面为原始编码；{@code 1} 表示 LZ4 压缩，后面 4
+ * 个字节为原始长度，再后面为压缩数据。压缩后没有变小的值按未压缩存储
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:47
+ */
+class CompressingCacheValueCodec implements CacheValueCodec {
+
+  private static final byte RAW = 0;
+
+  private static final byte LZ4 = 1;
+
+  private static final int LZ4_HEADER_LENGTH = 5;
+
+  private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+
+  private static final LZ4FastDecompressor DECOMPRESSOR =
+      LZ4Factory.fastestInstance().fastDecompressor();
+
+  private final CacheValueCodec delegate;
+
+  private final int threshold;
+
+  public CompressingCacheValueCodec(CacheValueCodec delegate, int threshold) {
+    this.delegate = delegate;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public byte[] encode(Object value) {
+    byte[] bytes = delegate.encode(value);
+    if (bytes.length > threshold) {
+      int maxLength = COMPRESSOR.maxCompressedLength(bytes.length);
+      byte[] compressed = new byte[LZ4_HEADER_LENGTH + maxLength];
+      int length =
+          COMPRESSOR.compress(bytes, 0, bytes.length, compressed, LZ4_HEADER_LENGTH, maxLength);
+      if (LZ4_HEADER_LENGTH + length < bytes.length + 1) {
+        compressed[0] = LZ4;
+        writeInt(compressed, 1, bytes.length);
+        return Arrays.copyOf(compressed, LZ4_HEADER_LENGTH + length);
+      }
+    }
+    byte[] raw = new byte[bytes.length + 1];
+    raw[0] = RAW;
+    System.arraycopy(bytes, 0, raw, 1, bytes.length);
+    return raw;
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    return switch (bytes[0]) {
+      case RAW -> delegate.decode(Arrays.copyOfRange(bytes, 1, bytes.length));
+      case LZ4 -> {
+        byte[] restored = new byte[readInt(bytes, 1)];
+        DECOMPRESSOR.decompress(bytes, LZ4_HEADER_LENGTH, restored, 0, restored.length);
+        yield delegate.decode(restored);
+      }
+      default -> throw new IllegalArgumentException("unknown cache value format: " + bytes[0]);
+    };
+  }
+
+  private static void writeInt(byte[] bytes, int offset, int value) {
+    bytes[offset] = (byte) (value >>> 24);
+    bytes[offset + 1] = (byte) (value >>> 16);
+    bytes[offset + 2] = (byte) (value >>> 8);
+    bytes[offset + 3] = (byte) value;
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) << 24
+        | (bytes[offset + 1] & 0xFF) << 16
+        | (bytes[offset + 2] & 0xFF) << 8
+        | bytes[offset + 3] & 0xFF;
+  }
+}
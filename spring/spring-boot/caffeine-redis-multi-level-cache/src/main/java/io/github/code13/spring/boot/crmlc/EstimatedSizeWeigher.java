@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 默认的缓存权重计算器，以估算的对象保留大小（字节）作为权重.
+ *
+ * <p>按 64 位 JVM 开启压缩指针估算：对象头 12 字节、引用 4 字节、8 字节对齐。常见类型直接计算，其他对象通过反射遍历实例字段，
+ * JDK 内部类型只计算浅大小，遍历深度和数组元素数量有上限，结果只用于相对比较，不追求精确
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:50
+ */
+class EstimatedSizeWeigher implements Weigher<Object, Object> {
+
+  private static final int OBJECT_HEADER = 12;
+
+  private static final int ARRAY_HEADER = 16;
+
+  private static final int REFERENCE = 4;
+
+  /** caffeine 节点本身的开销 */
+  private static final int ENTRY_OVERHEAD = 64;
+
+  private static final int MAX_DEPTH = 16;
+
+  private static final int MAX_ELEMENTS = 1024;
+
+  private static final ClassValue<List<Field>> INSTANCE_FIELDS =
+      new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+          List<Field> fields = new ArrayList<>();
+          for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+              if (!Modifier.isStatic(field.getModifiers())) {
+                fields.add(field);
+              }
+            }
+          }
+          return Collections.unmodifiableList(fields);
+        }
+      };
+
+  private static final ClassValue<Long> SHALLOW_SIZES =
+      new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+          long size = OBJECT_HEADER;
+          for (Field field : INSTANCE_FIELDS.get(type)) {
+            size += sizeOf(field.getType());
+          }
+          return align(size);
+        }
+      };
+
+  @Override
+  public int weigh(Object key, Object value) {
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    long size = ENTRY_OVERHEAD + estimate(key, visited, 0) + estimate(value, visited, 0);
+    return (int) Math.min(Integer.MAX_VALUE, size);
+  }
+
+  private long estimate(Object value, Set<Object> visited, int depth) {
+    if (value == null || depth > MAX_DEPTH || value instanceof Enum || !visited.add(value)) {
+      return 0;
+    }
+
+    Class<?> type = value.getClass();
+    if (value instanceof String s) {
+      // 假设为 LATIN1 编码的紧凑字符串
+      return SHALLOW_SIZES.get(String.class) + align(ARRAY_HEADER + s.length());
+    }
+    if (type.isArray()) {
+      return estimateArray(value, type.getComponentType(), visited, depth);
+    }
+    if (value instanceof Collection<?> collection) {
+      long size =
+          SHALLOW_SIZES.get(type) + align(ARRAY_HEADER + (long) REFERENCE * collection.size());
+      int count = 0;
+      for (Object element : collection) {
+        if (++count > MAX_ELEMENTS) {
+          return size + (size / count) * (collection.size() - MAX_ELEMENTS);
+        }
+        size += OBJECT_HEADER + estimate(element, visited, depth + 1);
+      }
+      return size;
+    }
+    if (value instanceof Map<?, ?> map) {
+      long size = SHALLOW_SIZES.get(type) + align(ARRAY_HEADER + (long) REFERENCE * map.size());
+      int count = 0;
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        if (++count > MAX_ELEMENTS) {
+          return size + (size / count) * (map.size() - MAX_ELEMENTS);
+        }
+        size +=
+            align(OBJECT_HEADER + 4 + 3L * REFERENCE)
+                + estimate(entry.getKey(), visited, depth + 1)
+                + estimate(entry.getValue(), visited, depth + 1);
+      }
+      return size;
+    }
+
+    long size = SHALLOW_SIZES.get(type);
+    if (isJdkType(type)) {
+      return size;
+    }
+    for (Field field : INSTANCE_FIELDS.get(type)) {
+      if (field.getType().isPrimitive() || !field.trySetAccessible()) {
+        continue;
+      }
+      try {
+        size += estimate(field.get(value), visited, depth + 1);
+      } catch (IllegalAccessException e) {
+        // 无法访问的字段只计算引用大小
+      }
+    }
+    return size;
+  }
+
+  private long estimateArray(Object array, Class<?> componentType, Set<Object> visited, int depth) {
+    int length = Array.getLength(array);
+    long size = align(ARRAY_HEADER + (long) sizeOf(componentType) * length);
+    if (componentType.isPrimitive()) {
+      return size;
+    }
+    Object[] elements = (Object[]) array;
+    int limit = Math.min(length, MAX_ELEMENTS);
+    long elementsSize = 0;
+    for (int i = 0; i < limit; i++) {
+      elementsSize += estimate(elements[i], visited, depth + 1);
+    }
+    if (limit < length) {
+      elementsSize += elementsSize / limit * (length - limit);
+    }
+    return size + elementsSize;
+  }
+
+  private static boolean isJdkType(Class<?> type) {
+    String name = type.getName();
+    return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.");
+  }
+
+  private static int sizeOf(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return REFERENCE;
+    }
+    if (type == long.class || type == double.class) {
+      return 8;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 混合逻辑时钟（HLC）.
+ *
+ * <p>高 48 位为毫秒时间戳，低 16 位为逻辑计数；本地生成的版本单调递增，收到其他节点的版本后推进到不小于该版本，
+ * 保证因果相关的写入在各节点上版本有序
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:56
+ */
+final class HybridLogicalClock {
+
+  private static final int LOGICAL_BITS = 16;
+
+  private final AtomicLong last = new AtomicLong();
+
+  /** 生成一个新的版本 */
+  long now() {
+    long physical = System.currentTimeMillis() << LOGICAL_BITS;
+    return last.accumulateAndGet(physical, (prev, p) -> Math.max(prev + 1, p));
+  }
+
+  /** 观察到其他节点的版本 */
+  void observe(long version) {
+    last.accumulateAndGet(version, Math::max);
+  }
+}
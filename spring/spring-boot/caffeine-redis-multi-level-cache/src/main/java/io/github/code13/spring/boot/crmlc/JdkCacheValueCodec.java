@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * JDK 序列化编解码器.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:47
+ */
+class JdkCacheValueCodec implements CacheValueCodec {
+
+  private final RedisSerializer<Object> serializer = RedisSerializer.java();
+
+  @Override
+  public byte[] encode(Object value) {
+    return serializer.serialize(value);
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    return serializer.deserialize(bytes);
+  }
+}
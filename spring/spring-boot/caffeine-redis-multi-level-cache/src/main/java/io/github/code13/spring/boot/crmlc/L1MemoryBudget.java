@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * 多个 caffeine 缓存共享的内存预算.
+ *
+ * <p>预算的 {@code minShareRatio} 部分平均分配给所有缓存，其余部分按上一个间隔内的命中次数分配，通过 {@code
+ * policy().eviction().setMaximum()} 调整每个缓存的 maximumWeight
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:50
+ */
+class L1MemoryBudget implements DisposableBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(L1MemoryBudget.class);
+
+  private final long budget;
+
+  private final double minShareRatio;
+
+  private final Map<String, Member> members = new ConcurrentHashMap<>();
+
+  private final ScheduledExecutorService scheduler;
+
+  public L1MemoryBudget(L1MemoryBudgetConfigProp budgetConfigProp) {
+    budget = budgetConfigProp.getSize().toBytes();
+    minShareRatio = Math.min(1, Math.max(0, budgetConfigProp.getMinShareRatio()));
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "cache-l1-memory-budget");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long interval = budgetConfigProp.getRebalanceInterval().toMillis();
+    scheduler.scheduleWithFixedDelay(this::rebalance, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /** 新缓存加入前的初始 maximumWeight */
+  long initialMaximum() {
+    return Math.max(1, budget / (members.size() + 1));
+  }
+
+  void register(String cacheName, Cache<Object, Object> caffeineCache) {
+    members.put(cacheName, new Member(caffeineCache));
+    rebalance();
+  }
+
+  synchronized void rebalance() {
+    if (members.isEmpty()) {
+      return;
+    }
+    long totalHits = 0;
+    for (Member member : members.values()) {
+      long hitCount = member.caffeineCache.stats().hitCount();
+      member.hitDelta = hitCount - member.lastHitCount;
+      member.lastHitCount = hitCount;
+      totalHits += member.hitDelta;
+    }
+
+    int size = members.size();
+    double floor = budget * minShareRatio / size;
+    double rest = budget * (1 - minShareRatio);
+    for (Map.Entry<String, Member> entry : members.entrySet()) {
+      Member member = entry.getValue();
+      double share = totalHits == 0 ? rest / size : rest * member.hitDelta / totalHits;
+      long maximum = Math.max(1, (long) (floor + share));
+      member.caffeineCache.policy().eviction().ifPresent(e -> e.setMaximum(maximum));
+      logger.trace(
+          "rebalance l1 memory budget, the cache {} maximum weight is {}", entry.getKey(), maximum);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    scheduler.shutdownNow();
+  }
+
+  private static final class Member {
+
+    private final Cache<Object, Object> caffeineCache;
+
+    private long lastHitCount;
+
+    private long hitDelta;
+
+    Member(Cache<Object, Object> caffeineCache) {
+      this.caffeineCache = caffeineCache;
+    }
+  }
+}
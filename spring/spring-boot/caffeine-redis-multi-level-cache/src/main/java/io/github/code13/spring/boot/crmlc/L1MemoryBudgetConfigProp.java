@@ -0,0 +1,39 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * L1MemoryBudgetConfigProp.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:50
+ */
+@Data
+class L1MemoryBudgetConfigProp {
+
+  /** 所有 caffeine 缓存共享的内存预算，未单独配置 maximumSize/maximumWeight 的缓存参与分配，为空时不启用 */
+  private DataSize size;
+
+  /** 按命中情况重新分配预算的间隔 */
+  private Duration rebalanceInterval = Duration.ofSeconds(30);
+
+  /** 平均分配给所有缓存的预算比例，其余部分按上一个间隔内的命中次数分配 */
+  private double minShareRatio = 0.2;
+}
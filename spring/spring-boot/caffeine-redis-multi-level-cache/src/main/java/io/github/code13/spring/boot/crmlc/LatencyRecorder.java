@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时记录器.
+ *
+ * <p>按 2 的幂次划分 64 个桶记录耗时分布，记录过程无锁且不分配对象，分位值为所在桶的上界
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:42
+ */
+final class LatencyRecorder {
+
+  private static final int BUCKETS = 64;
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAdder totalNanos = new LongAdder();
+
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  /**
+   * 记录一次耗时.
+   *
+   * @param nanos 耗时，单位纳秒
+   */
+  void record(long nanos) {
+    if (nanos < 0) {
+      nanos = 0;
+    }
+    count.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+    buckets.incrementAndGet(BUCKETS - 1 - Long.numberOfLeadingZeros(nanos | 1));
+  }
+
+  long count() {
+    return count.sum();
+  }
+
+  long totalNanos() {
+    return totalNanos.sum();
+  }
+
+  long maxNanos() {
+    return maxNanos.get();
+  }
+
+  /**
+   * 估算分位值.
+   *
+   * @param percentile 分位，取值 (0, 1]
+   * @return 分位值所在桶的上界（不超过最大值），单位纳秒
+   */
+  long percentileNanos(double percentile) {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += buckets.get(i);
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        long upperBound = i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+        return Math.min(upperBound, maxNanos());
+      }
+    }
+    return maxNanos();
+  }
+
+  Snapshot snapshot() {
+    return new Snapshot(
+        count(), totalNanos(), maxNanos(), percentileNanos(0.5), percentileNanos(0.99));
+  }
+
+  /** 耗时快照，单位纳秒 */
+  record Snapshot(long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {}
+}
@@ -15,12 +15,16 @@
 
 package io.github.code13.spring.boot.crmlc;
 
+import com.github.benmanes.caffeine.cache.Weigher;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.ChannelTopic;
@@ -41,21 +45,66 @@ class MultilevelCacheAutoConfiguration {
   @ConditionalOnBean(RedisTemplate.class)
   public RedisCaffeineCacheManager cacheManager(
       CacheConfigProperties cacheConfigProperties,
-      RedisTemplate<Object, Object> stringKeyRedisTemplate) {
-    return new RedisCaffeineCacheManager(cacheConfigProperties, stringKeyRedisTemplate);
+      RedisTemplate<Object, Object> stringKeyRedisTemplate,
+      CacheMessagePublisher cacheMessagePublisher,
+      MultilevelCacheMetrics multilevelCacheMetrics,
+      Weigher<Object, Object> cacheWeigher) {
+    return new RedisCaffeineCacheManager(
+        cacheConfigProperties,
+        stringKeyRedisTemplate,
+        cacheMessagePublisher,
+        multilevelCacheMetrics,
+        cacheWeigher);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public Weigher<Object, Object> cacheWeigher() {
+    return new EstimatedSizeWeigher();
+  }
+
+  @Bean
+  @ConditionalOnBean(RedisTemplate.class)
+  public CacheMessagePublisher cacheMessagePublisher(
+      CacheConfigProperties cacheConfigProperties,
+      RedisTemplate<Object, Object> stringKeyRedisTemplate,
+      MultilevelCacheMetrics multilevelCacheMetrics) {
+    return new CacheMessagePublisher(
+        stringKeyRedisTemplate, cacheConfigProperties.getRedis(), multilevelCacheMetrics);
+  }
+
+  @Bean
+  public MultilevelCacheMetrics multilevelCacheMetrics() {
+    return new MultilevelCacheMetrics();
   }
 
   @Bean
   @ConditionalOnMissingBean(name = "stringKeyRedisTemplate")
   public RedisTemplate<Object, Object> stringKeyRedisTemplate(
-      RedisConnectionFactory redisConnectionFactory) {
+      RedisConnectionFactory redisConnectionFactory, CacheValueCodec cacheValueCodec) {
     RedisTemplate<Object, Object> template = new RedisTemplate<>();
     template.setConnectionFactory(redisConnectionFactory);
     template.setKeySerializer(RedisSerializer.string());
     template.setHashKeySerializer(RedisSerializer.string());
+    template.setValueSerializer(new CacheValueRedisSerializer(cacheValueCodec));
     return template;
   }
 
+  @Bean
+  @ConditionalOnMissingBean
+  public CacheValueCodec cacheValueCodec(CacheConfigProperties cacheConfigProperties) {
+    CodecConfigProp codecConfigProp = cacheConfigProperties.getCodec();
+    CacheValueCodec codec =
+        switch (codecConfigProp.getType()) {
+          case JDK -> new JdkCacheValueCodec();
+          case PROTOSTUFF -> new ProtostuffCacheValueCodec();
+        };
+    if (codecConfigProp.getCompressionThreshold() > 0) {
+      codec = new CompressingCacheValueCodec(codec, codecConfigProp.getCompressionThreshold());
+    }
+    return codec;
+  }
+
   @Bean
   public RedisMessageListenerContainer cacheMessageListenerContainer(
       CacheConfigProperties cacheConfigProperties,
@@ -71,4 +120,15 @@ class MultilevelCacheAutoConfiguration {
         cacheMessageListener, new ChannelTopic(cacheConfigProperties.getRedis().getTopic()));
     return redisMessageListenerContainer;
   }
+
+  @Configuration(proxyBeanMethods = false)
+  @ConditionalOnClass(MeterBinder.class)
+  static class MultilevelCacheMeterBinderConfiguration {
+
+    @Bean
+    public MultilevelCacheMeterBinder multilevelCacheMeterBinder(
+        MultilevelCacheMetrics multilevelCacheMetrics) {
+      return new MultilevelCacheMeterBinder(multilevelCacheMetrics);
+    }
+  }
 }
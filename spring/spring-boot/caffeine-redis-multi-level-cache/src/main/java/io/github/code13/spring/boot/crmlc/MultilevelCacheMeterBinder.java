@@ -0,0 +1,147 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * 将 {@link MultilevelCacheMetrics} 注册到 Micrometer，所有指标都是函数式读取，不影响缓存读写路径.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:42
+ */
+class MultilevelCacheMeterBinder implements MeterBinder {
+
+  private final MultilevelCacheMetrics multilevelCacheMetrics;
+
+  public MultilevelCacheMeterBinder(MultilevelCacheMetrics multilevelCacheMetrics) {
+    this.multilevelCacheMetrics = multilevelCacheMetrics;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    multilevelCacheMetrics.onCreated(metrics -> bindTo(registry, metrics));
+  }
+
+  private void bindTo(MeterRegistry registry, CacheMetrics metrics) {
+    Tags tags = Tags.of("name", metrics.getCacheName());
+
+    counter(
+        registry,
+        "cache.multilevel.gets",
+        metrics,
+        CacheMetrics::getL1Hits,
+        tags,
+        "result",
+        "l1.hit");
+    counter(
+        registry,
+        "cache.multilevel.gets",
+        metrics,
+        CacheMetrics::getL2Hits,
+        tags,
+        "result",
+        "l2.hit");
+    counter(
+        registry,
+        "cache.multilevel.gets",
+        metrics,
+        CacheMetrics::getMisses,
+        tags,
+        "result",
+        "miss");
+    counter(
+        registry,
+        "cache.multilevel.invalidations",
+        metrics,
+        CacheMetrics::getInvalidationsSent,
+        tags,
+        "direction",
+        "sent");
+    counter(
+        registry,
+        "cache.multilevel.invalidations",
+        metrics,
+        CacheMetrics::getInvalidationsReceived,
+        tags,
+        "direction",
+        "received");
+    for (RemovalCause cause : RemovalCause.values()) {
+      if (cause.wasEvicted()) {
+        counter(
+            registry,
+            "cache.multilevel.l1.evictions",
+            metrics,
+            m -> m.getEvictions(cause),
+            tags,
+            "cause",
+            cause.name().toLowerCase());
+      }
+    }
+
+    timer(registry, "cache.multilevel.loads", metrics.getLoad(), tags);
+    timer(registry, "cache.multilevel.redis.gets", metrics.getRedisGet(), tags);
+    timer(registry, "cache.multilevel.redis.sets", metrics.getRedisSet(), tags);
+    timer(registry, "cache.multilevel.redis.deletes", metrics.getRedisDelete(), tags);
+  }
+
+  private static void counter(
+      MeterRegistry registry,
+      String name,
+      CacheMetrics metrics,
+      ToLongFunction<CacheMetrics> count,
+      Tags tags,
+      String tagKey,
+      String tagValue) {
+    FunctionCounter.builder(name, metrics, m -> count.applyAsLong(m))
+        .tags(tags)
+        .tag(tagKey, tagValue)
+        .register(registry);
+  }
+
+  private static void timer(
+      MeterRegistry registry, String name, LatencyRecorder recorder, Tags tags) {
+    FunctionTimer.builder(
+            name,
+            recorder,
+            LatencyRecorder::count,
+            LatencyRecorder::totalNanos,
+            TimeUnit.NANOSECONDS)
+        .tags(tags)
+        .register(registry);
+    TimeGauge.builder(name + ".max", recorder, TimeUnit.NANOSECONDS, LatencyRecorder::maxNanos)
+        .tags(tags)
+        .register(registry);
+    TimeGauge.builder(
+            name + ".percentile", recorder, TimeUnit.NANOSECONDS, r -> r.percentileNanos(0.5))
+        .tags(tags)
+        .tag("phi", "0.5")
+        .register(registry);
+    TimeGauge.builder(
+            name + ".percentile", recorder, TimeUnit.NANOSECONDS, r -> r.percentileNanos(0.99))
+        .tags(tags)
+        .tag("phi", "0.99")
+        .register(registry);
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 多级缓存指标，按 cacheName 维护 {@link CacheMetrics}.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:42
+ */
+class MultilevelCacheMetrics {
+
+  private final ConcurrentMap<String, CacheMetrics> metricsMap = new ConcurrentHashMap<>();
+
+  private final List<Consumer<CacheMetrics>> createdListeners = new CopyOnWriteArrayList<>();
+
+  CacheMetrics forCache(String cacheName) {
+    CacheMetrics metrics = metricsMap.get(cacheName);
+    if (metrics != null) {
+      return metrics;
+    }
+    metrics = new CacheMetrics(cacheName);
+    CacheMetrics oldMetrics = metricsMap.putIfAbsent(cacheName, metrics);
+    if (oldMetrics != null) {
+      return oldMetrics;
+    }
+    CacheMetrics created = metrics;
+    createdListeners.forEach(listener -> listener.accept(created));
+    return metrics;
+  }
+
+  /**
+   * 注册指标创建监听器，已经存在的指标会立即回调.
+   *
+   * @param listener 监听器
+   */
+  void onCreated(Consumer<CacheMetrics> listener) {
+    createdListeners.add(listener);
+    metricsMap.values().forEach(listener);
+  }
+
+  /**
+   * 获取所有缓存的指标快照.
+   *
+   * @return cacheName 与指标快照的映射
+   */
+  public Map<String, CacheMetrics.Snapshot> snapshot() {
+    Map<String, CacheMetrics.Snapshot> snapshots = new TreeMap<>();
+    metricsMap.forEach((cacheName, metrics) -> snapshots.put(cacheName, metrics.snapshot()));
+    return Collections.unmodifiableMap(snapshots);
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import io.protostuff.LinkedBuffer;
+import io.protostuff.ProtostuffIOUtil;
+import io.protostuff.Schema;
+import io.protostuff.runtime.RuntimeSchema;
+import org.springframework.cache.support.NullValue;
+
+/**
+ * 基于 protostuff runtime schema 的二进制编解码器.
+ *
+ * <p>缓存值的类型不固定，统一包装在 {@link Holder} 中，由 protostuff 记录实际类型
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:47
+ */
+class ProtostuffCacheValueCodec implements CacheValueCodec {
+
+  private static final Schema<Holder> SCHEMA = RuntimeSchema.getSchema(Holder.class);
+
+  private static final ThreadLocal<LinkedBuffer> BUFFER =
+      ThreadLocal.withInitial(() -> LinkedBuffer.allocate(LinkedBuffer.DEFAULT_BUFFER_SIZE));
+
+  @Override
+  public byte[] encode(Object value) {
+    Holder holder = new Holder();
+    holder.value = value;
+    LinkedBuffer buffer = BUFFER.get();
+    try {
+      return ProtostuffIOUtil.toByteArray(holder, SCHEMA, buffer);
+    } finally {
+      buffer.clear();
+    }
+  }
+
+  @Override
+  public Object decode(byte[] bytes) {
+    Holder holder = SCHEMA.newMessage();
+    ProtostuffIOUtil.mergeFrom(bytes, holder, SCHEMA);
+    // NullValue 依赖 readResolve 保证单例，protostuff 不会调用 readResolve
+    return holder.value instanceof NullValue ? NullValue.INSTANCE : holder.value;
+  }
+
+  static final class Holder {
+
+    private Object value;
+  }
+}
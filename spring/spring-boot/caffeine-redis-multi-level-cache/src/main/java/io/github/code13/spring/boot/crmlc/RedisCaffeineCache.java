@@ -16,16 +16,41 @@
 package io.github.code13.spring.boot.crmlc;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
@@ -40,6 +65,13 @@ class RedisCaffeineCache extends AbstractValueAdaptingCache {
 
   private static final Logger logger = LoggerFactory.getLogger(RedisCaffeineCache.class);
 
+  /** 仅释放自己持有的加载租约 */
+  private static final RedisScript<Long> RELEASE_LEASE_SCRIPT =
+      new DefaultRedisScript<>(
+          "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) "
+              + "else return 0 end",
+          Long.class);
+
   private final String name;
   private final Cache<Object, Object> caffeineCache;
   private final RedisTemplate<Object, Object> stringKeyRedisTemplate;
@@ -49,41 +81,136 @@ class RedisCaffeineCache extends AbstractValueAdaptingCache {
 
   private final Map<String, Duration> expires;
 
-  private final String topic;
+  private final CacheMessagePublisher cacheMessagePublisher;
+
+  private final CacheMetrics metrics;
+
+  private final boolean loadLeaseEnabled;
+
+  private final Duration loadLeaseTimeout;
+
+  private final Duration loadLeasePollInterval;
+
+  private final ConcurrentMap<Object, CompletableFuture<Object>> inFlightLoads =
+      new ConcurrentHashMap<>();
+
+  private final RefreshAheadConfigProp refreshAhead;
+
+  private final ThreadPoolExecutor refreshExecutor;
+
+  private final Set<Object> refreshingKeys = ConcurrentHashMap.newKeySet();
+
+  private final ClearMode clearMode;
 
-  private final Map<String, ReentrantLock> keyLockMap = new ConcurrentHashMap<>();
+  private final int clearScanCount;
+
+  private final String generationKey;
+
+  /** GENERATION 模式下缓存的当前代数 */
+  private volatile long generation;
+
+  private final HybridLogicalClock clock;
+
+  /** 本地失效序号，本节点每记录一次失效加一，与各节点的时钟无关 */
+  private final AtomicLong invalidationSequence = new AtomicLong();
+
+  /** 最近失效的 key 及其失效时的本地序号，保留 versionRetention 后自动过期 */
+  private final Cache<Object, Long> invalidatedAt;
+
+  /** 最近一次清空整个缓存时的本地序号 */
+  private final AtomicLong clearedAt = new AtomicLong();
 
   public RedisCaffeineCache(
       String name,
       RedisTemplate<Object, Object> stringKeyRedisTemplate,
       Cache<Object, Object> caffeineCache,
+      CacheMessagePublisher cacheMessagePublisher,
+      CacheMetrics metrics,
+      HybridLogicalClock clock,
       CacheConfigProperties cacheConfigProperties) {
     super(cacheConfigProperties.isCacheNullValues());
     this.name = name;
     this.caffeineCache = caffeineCache;
     this.stringKeyRedisTemplate = stringKeyRedisTemplate;
+    this.cacheMessagePublisher = cacheMessagePublisher;
+    this.metrics = metrics;
+    this.clock = clock;
     cachePrefix = cacheConfigProperties.getCachePrefix();
     defaultExpiration = cacheConfigProperties.getRedis().getDefaultExpiration();
     expires = cacheConfigProperties.getRedis().getExpires();
-    topic = cacheConfigProperties.getRedis().getTopic();
+    loadLeaseEnabled = cacheConfigProperties.getRedis().isLoadLeaseEnabled();
+    loadLeaseTimeout = cacheConfigProperties.getRedis().getLoadLeaseTimeout();
+    loadLeasePollInterval = cacheConfigProperties.getRedis().getLoadLeasePollInterval();
+    refreshAhead = cacheConfigProperties.getRefreshAhead().get(name);
+    refreshExecutor = refreshAhead == null ? null : newRefreshExecutor(name, refreshAhead);
+    clearMode = cacheConfigProperties.getRedis().getClearMode();
+    clearScanCount = cacheConfigProperties.getRedis().getClearScanCount();
+    generationKey = "cache:generation:".concat(name);
+    invalidatedAt =
+        Caffeine.newBuilder()
+            .expireAfterWrite(cacheConfigProperties.getRedis().getVersionRetention())
+            .build();
+    if (clearMode == ClearMode.GENERATION) {
+      refreshGeneration();
+      Duration expire = getExpire();
+      if (expire.isZero() || expire.isNegative()) {
+        logger.warn(
+            "cache {} uses generation clear mode without expiration, old keys never expire", name);
+      }
+    }
+  }
+
+  private static ThreadPoolExecutor newRefreshExecutor(
+      String name, RefreshAheadConfigProp refreshAhead) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            refreshAhead.getExecutorSize(),
+            refreshAhead.getExecutorSize(),
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(refreshAhead.getQueueCapacity()),
+            r -> {
+              Thread thread =
+                  new Thread(r, "cache-refresh-" + name + "-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
   @Override
   protected Object lookup(Object key) {
-    Object cacheKey = getKey(key);
     Object value = caffeineCache.getIfPresent(key);
     if (value != null) {
-      logger.debug("get cache from caffeine, the key is : {}", cacheKey);
+      metrics.l1Hit();
+      logger.debug("get cache from caffeine, the key is : {}", key);
       return value;
     }
 
+    value = readRedis(key);
+    if (value != null) {
+      metrics.l2Hits(1);
+    } else {
+      metrics.misses(1);
+    }
+    return value;
+  }
+
+  /** 从 redis 读取，读到时放入 caffeine；只记录 redis 耗时，命中与未命中由调用方统计 */
+  private Object readRedis(Object key) {
+    String cacheKey = getKey(key);
     // 避免自动一个 RedisTemplate 覆盖失效
     stringKeyRedisTemplate.setKeySerializer(RedisSerializer.string());
-    value = stringKeyRedisTemplate.opsForValue().get(cacheKey);
+    long since = invalidationSequence.get();
+    long start = System.nanoTime();
+    Object value = stringKeyRedisTemplate.opsForValue().get(cacheKey);
+    metrics.getRedisGet().record(System.nanoTime() - start);
 
     if (value != null) {
       logger.debug("get cache from redis and put in caffeine, the key is : {}", cacheKey);
-      caffeineCache.put(key, value);
+      populateLocal(key, value, since);
     }
     return value;
   }
@@ -103,31 +230,160 @@ class RedisCaffeineCache extends AbstractValueAdaptingCache {
   public <T> T get(Object key, Callable<T> valueLoader) {
     Object value = lookup(key);
     if (value != null) {
-      return (T) value;
+      if (isStale(value)) {
+        refreshAsync(Set.of(key), () -> loadAndPut(key, valueLoader));
+      }
+      return (T) fromStoreValue(value);
     }
 
-    ReentrantLock lock =
-        keyLockMap.computeIfAbsent(
-            key.toString(),
-            s -> {
-              logger.trace("create lock for key : {}", s);
-              return new ReentrantLock();
-            });
+    // 同一个 key 的并发加载共享同一个 future，加载结束后立即移除，避免 key 数量无限增长
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(key, flight);
+    if (inFlight != null) {
+      logger.trace("wait for in-flight load, the key is : {}", key);
+      return (T) fromStoreValue(awaitInFlight(inFlight));
+    }
 
-    lock.lock();
     try {
-      value = lookup(key);
+      Object storeValue = load(key, valueLoader);
+      flight.complete(storeValue);
+      return (T) fromStoreValue(storeValue);
+    } catch (Throwable e) {
+      // Error 也要完成 future，否则等待同一个 key 的调用方会永远阻塞
+      flight.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightLoads.remove(key, flight);
+    }
+  }
+
+  private static Object awaitInFlight(CompletableFuture<Object> inFlight) {
+    try {
+      return inFlight.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * 加载未命中的 key，调用方已经通过 {@link #lookup(Object)} 读过一次 redis，这里不再重复读取.
+   *
+   * <p>上一个加载刚结束时结果已经放入 caffeine，只检查 caffeine 即可避免重复加载
+   */
+  private Object load(Object key, Callable<?> valueLoader) {
+    Object value = caffeineCache.getIfPresent(key);
+    if (value != null) {
+      return value;
+    }
+    return loadLeaseEnabled ? loadWithLease(key, valueLoader) : loadAndPut(key, valueLoader);
+  }
+
+  /** 通过 redis SET NX 租约保证同一时刻集群中只有一个节点执行加载，其他节点轮询 redis 等待加载结果 */
+  private Object loadWithLease(Object key, Callable<?> valueLoader) {
+    String leaseKey = getKey(key) + ":lease";
+    String token = UUID.randomUUID().toString();
+    long deadline = System.nanoTime() + loadLeaseTimeout.toNanos();
+    while (true) {
+      Boolean acquired =
+          stringKeyRedisTemplate.opsForValue().setIfAbsent(leaseKey, token, loadLeaseTimeout);
+      if (Boolean.TRUE.equals(acquired)) {
+        try {
+          // 拿到租约前其他节点可能已经加载完成
+          Object value = readRedis(key);
+          return value != null ? value : loadAndPut(key, valueLoader);
+        } finally {
+          stringKeyRedisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(leaseKey), token);
+        }
+      }
+
+      if (System.nanoTime() - deadline >= 0) {
+        logger.debug("wait for load lease timeout, load locally, the key is : {}", key);
+        return loadAndPut(key, valueLoader);
+      }
+      try {
+        Thread.sleep(loadLeasePollInterval.toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ValueRetrievalException(key, valueLoader, e);
+      }
+      Object value = readRedis(key);
       if (value != null) {
-        return (T) value;
+        return value;
       }
+    }
+  }
+
+  private Object loadAndPut(Object key, Callable<?> valueLoader) {
+    Object value;
+    long start = System.nanoTime();
+    try {
       value = valueLoader.call();
-      Object storeValue = toStoreValue(value);
-      put(key, storeValue);
-      return (T) value;
     } catch (Exception e) {
-      throw new ValueRetrievalException(key, valueLoader, e.getCause());
+      throw new ValueRetrievalException(key, valueLoader, e);
     } finally {
-      lock.unlock();
+      metrics.getLoad().record(System.nanoTime() - start);
+    }
+    Object storeValue = toStoreValue(value);
+    return doPut(key, storeValue, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+  }
+
+  @Override
+  protected Object fromStoreValue(Object storeValue) {
+    if (storeValue instanceof CacheEntry entry) {
+      storeValue = entry.getValue();
+    }
+    return super.fromStoreValue(storeValue);
+  }
+
+  /**
+   * XFetch 概率提前过期：now - loadMillis * beta * ln(random) >= expireAt 时认为需要刷新，
+   * 越接近逻辑过期时间、加载越慢，提前刷新的概率越高.
+   */
+  private boolean isStale(Object storeValue) {
+    if (refreshExecutor == null
+        || !(storeValue instanceof CacheEntry entry)
+        || entry.getExpireAt() == 0) {
+      return false;
+    }
+    double gap =
+        -entry.getLoadMillis()
+            * refreshAhead.getBeta()
+            * Math.log(ThreadLocalRandom.current().nextDouble());
+    return System.currentTimeMillis() + gap >= entry.getExpireAt();
+  }
+
+  /** 在后台刷新线程中执行刷新，同一个 key 同一时刻只有一个刷新任务，刷新期间继续返回旧值 */
+  private void refreshAsync(Set<Object> keys, Runnable refresh) {
+    Set<Object> acquired = new LinkedHashSet<>();
+    for (Object key : keys) {
+      if (refreshingKeys.add(key)) {
+        acquired.add(key);
+      }
+    }
+    if (acquired.isEmpty()) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(
+          () -> {
+            try {
+              refresh.run();
+              logger.debug("refresh cache in background, the keys is : {}", acquired);
+            } catch (RuntimeException e) {
+              logger.warn("refresh cache failed, the keys is : {}", acquired, e);
+            } finally {
+              refreshingKeys.removeAll(acquired);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      logger.debug("refresh executor is busy, skip refresh, the keys is : {}", acquired);
+      refreshingKeys.removeAll(acquired);
     }
   }
 
@@ -154,50 +410,310 @@ class RedisCaffeineCache extends AbstractValueAdaptingCache {
     return toValueWrapper(prevValue);
   }
 
+  /**
+   * 批量获取缓存.
+   *
+   * <p>先从 caffeine 中批量获取，未命中的 key 通过一次 MGET 从 redis 获取，仍未命中的 key 交给 loader
+   * 一次性加载，加载结果通过一次 pipeline 写回 redis 并放入 caffeine
+   *
+   * @param keys 缓存 key
+   * @param loader 加载器，入参为未命中的 key，可以为 null，为 null 时不加载
+   * @return key 与缓存值的映射，顺序与 keys 一致，未命中且未加载到的 key 不包含在结果中
+   */
+  public Map<Object, Object> getAll(Collection<?> keys, Function<Set<?>, Map<?, ?>> loader) {
+    Map<Object, Object> result = new LinkedHashMap<>();
+    if (CollectionUtils.isEmpty(keys)) {
+      return result;
+    }
+
+    Map<Object, Object> caffeineValues = caffeineCache.getAllPresent(keys);
+    List<Object> missKeys = new ArrayList<>(keys.size() - caffeineValues.size());
+    Set<Object> staleKeys = new LinkedHashSet<>();
+    for (Object key : keys) {
+      Object value = caffeineValues.get(key);
+      if (value != null) {
+        result.put(key, fromStoreValue(value));
+        if (isStale(value)) {
+          staleKeys.add(key);
+        }
+      } else {
+        missKeys.add(key);
+      }
+    }
+    metrics.l1Hits(caffeineValues.size());
+    logger.debug("get {} cache from caffeine, {} missed", caffeineValues.size(), missKeys.size());
+    if (missKeys.isEmpty()) {
+      refreshAllAsync(staleKeys, loader);
+      return result;
+    }
+
+    List<Object> cacheKeys = new ArrayList<>(missKeys.size());
+    for (Object key : missKeys) {
+      cacheKeys.add(getKey(key));
+    }
+    // 避免自动一个 RedisTemplate 覆盖失效
+    stringKeyRedisTemplate.setKeySerializer(RedisSerializer.string());
+    long since = invalidationSequence.get();
+    long start = System.nanoTime();
+    List<Object> redisValues = stringKeyRedisTemplate.opsForValue().multiGet(cacheKeys);
+    metrics.getRedisGet().record(System.nanoTime() - start);
+
+    Map<Object, Object> redisHits = new LinkedHashMap<>();
+    Set<Object> loadKeys = new LinkedHashSet<>();
+    for (int i = 0; i < missKeys.size(); i++) {
+      Object key = missKeys.get(i);
+      Object value = redisValues == null ? null : redisValues.get(i);
+      if (value != null) {
+        redisHits.put(key, value);
+        result.put(key, fromStoreValue(value));
+        if (isStale(value)) {
+          staleKeys.add(key);
+        }
+      } else {
+        loadKeys.add(key);
+      }
+    }
+    metrics.l2Hits(redisHits.size());
+    metrics.misses(loadKeys.size());
+    if (!redisHits.isEmpty()) {
+      logger.debug("get {} cache from redis and put in caffeine", redisHits.size());
+      redisHits.forEach((key, value) -> populateLocal(key, value, since));
+    }
+    refreshAllAsync(staleKeys, loader);
+    if (loadKeys.isEmpty() || loader == null) {
+      return result;
+    }
+
+    Map<Object, Object> storeValues = loadAllAndPut(loadKeys, loader);
+    storeValues.forEach((key, value) -> result.put(key, fromStoreValue(value)));
+    return result;
+  }
+
+  private void refreshAllAsync(Set<Object> staleKeys, Function<Set<?>, Map<?, ?>> loader) {
+    if (!staleKeys.isEmpty() && loader != null) {
+      refreshAsync(staleKeys, () -> loadAllAndPut(staleKeys, loader));
+    }
+  }
+
+  private Map<Object, Object> loadAllAndPut(
+      Set<Object> loadKeys, Function<Set<?>, Map<?, ?>> loader) {
+    long start = System.nanoTime();
+    Map<?, ?> loaded;
+    try {
+      loaded = loader.apply(loadKeys);
+    } finally {
+      metrics.getLoad().record(System.nanoTime() - start);
+    }
+    Map<Object, Object> storeValues = new LinkedHashMap<>();
+    for (Object key : loadKeys) {
+      Object value = loaded == null ? null : loaded.get(key);
+      if (value == null && !isAllowNullValues()) {
+        continue;
+      }
+      storeValues.put(key, toStoreValue(value));
+    }
+    doPutAll(storeValues, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return storeValues;
+  }
+
+  /**
+   * 批量放入缓存，所有 redis 写入通过一次 pipeline 发送，并合并为一条失效消息.
+   *
+   * @param values key 与缓存值的映射
+   */
+  public void putAll(Map<?, ?> values) {
+    if (CollectionUtils.isEmpty(values)) {
+      return;
+    }
+    Map<Object, Object> storeValues = new LinkedHashMap<>();
+    for (Map.Entry<?, ?> entry : values.entrySet()) {
+      if (!super.isAllowNullValues() && entry.getValue() == null) {
+        evict(entry.getKey());
+        continue;
+      }
+      storeValues.put(entry.getKey(), toStoreValue(entry.getValue()));
+    }
+    doPutAll(storeValues, 0);
+  }
+
   @Override
   public void evict(Object key) {
     // 先清除redis中缓存数据，然后清除caffeine中的缓存，避免短时间内如果先清除caffeine缓存后其他请求会再从redis里加载到caffeine中
+    long start = System.nanoTime();
     stringKeyRedisTemplate.delete(getKey(key));
+    metrics.getRedisDelete().record(System.nanoTime() - start);
 
-    push(new CacheMessage(name, key));
+    long version = clock.now();
+    recordInvalidation(key);
+    cacheMessagePublisher.publish(name, key, version);
 
     caffeineCache.invalidate(key);
   }
 
   @Override
   public void clear() {
-    // 先清除redis中缓存数据，然后清除caffeine中的缓存，避免短时间内如果先清除caffeine缓存后其他请求会再从redis里加载到caffeine中
-    Set<Object> keys = stringKeyRedisTemplate.keys(name.concat(":*"));
+    clear(deleted -> logger.debug("clear cache {}, {} keys deleted", name, deleted));
+  }
 
-    if (!CollectionUtils.isEmpty(keys)) {
-      stringKeyRedisTemplate.delete(keys);
+  /**
+   * 清空缓存.
+   *
+   * <p>SCAN 模式下通过 SCAN 分页遍历 key，每页通过 pipeline 发送 UNLINK，不会长时间阻塞 redis；GENERATION
+   * 模式下只递增缓存的代数，耗时为 O(1)，旧代数的 key 等待过期后由 redis 自动清除
+   *
+   * @param progressListener 进度监听器，SCAN 模式下每删除一页回调一次，参数为累计删除的 key 数量
+   * @return 删除的 key 数量，GENERATION 模式下为 0
+   */
+  public long clear(LongConsumer progressListener) {
+    // 先清除redis中缓存数据，然后清除caffeine中的缓存，避免短时间内如果先清除caffeine缓存后其他请求会再从redis里加载到caffeine中
+    long deleted = 0;
+    if (clearMode == ClearMode.GENERATION) {
+      Long newGeneration = stringKeyRedisTemplate.opsForValue().increment(generationKey);
+      generation = newGeneration == null ? generation + 1 : newGeneration;
+      logger.debug("clear cache {}, the generation is : {}", name, generation);
+    } else {
+      deleted = scanAndUnlink(progressListener);
     }
 
-    push(new CacheMessage(name, null));
+    long version = clock.now();
+    recordClear();
+    cacheMessagePublisher.publishClear(name, version);
 
     caffeineCache.invalidateAll();
+    return deleted;
+  }
+
+  private long scanAndUnlink(LongConsumer progressListener) {
+    ScanOptions options =
+        ScanOptions.scanOptions()
+            .match(escapePattern(name).concat(":*"))
+            .count(clearScanCount)
+            .build();
+    long deleted = 0;
+    List<Object> page = new ArrayList<>(clearScanCount);
+    try (Cursor<Object> cursor = stringKeyRedisTemplate.scan(options)) {
+      while (cursor.hasNext()) {
+        page.add(cursor.next());
+        if (page.size() >= clearScanCount) {
+          deleted += unlink(page);
+          progressListener.accept(deleted);
+        }
+      }
+    }
+    if (!page.isEmpty()) {
+      deleted += unlink(page);
+      progressListener.accept(deleted);
+    }
+    return deleted;
+  }
+
+  /** 逐个 key 发送 UNLINK 并通过 pipeline 批量提交，兼容 redis cluster 的跨 slot 场景 */
+  private int unlink(List<Object> page) {
+    int size = page.size();
+    stringKeyRedisTemplate.executePipelined(
+        new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <K, V> Object execute(RedisOperations<K, V> operations) {
+            RedisOperations<Object, Object> ops = (RedisOperations<Object, Object>) operations;
+            for (Object key : page) {
+              ops.unlink(key);
+            }
+            return null;
+          }
+        });
+    page.clear();
+    return size;
+  }
+
+  private static String escapePattern(String value) {
+    StringBuilder builder = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+        builder.append('\\');
+      }
+      builder.append(c);
+    }
+    return builder.toString();
+  }
+
+  private void refreshGeneration() {
+    // INCRBY 0 读取当前代数，不存在时初始化为 0
+    Long currentGeneration = stringKeyRedisTemplate.opsForValue().increment(generationKey, 0);
+    generation = currentGeneration == null ? 0 : currentGeneration;
   }
 
   private void doPut(Object key, Object value) {
+    doPut(key, value, 0);
+  }
+
+  private Object doPut(Object key, Object value, long loadMillis) {
     Duration expire = getExpire();
-    value = toStoreValue(value);
-    if (!expire.isNegative()) {
-      stringKeyRedisTemplate.opsForValue().set(getKey(key), value, expire);
-    } else {
-      stringKeyRedisTemplate.opsForValue().set(getKey(key), value);
+    long version = clock.now();
+    value = wrap(toStoreValue(value), expire, loadMillis, version);
+    long start = System.nanoTime();
+    set(stringKeyRedisTemplate.opsForValue(), getKey(key), value, redisExpire(expire));
+    metrics.getRedisSet().record(System.nanoTime() - start);
+
+    long since = recordInvalidation(key);
+    cacheMessagePublisher.publish(name, key, version);
+
+    populateLocal(key, value, since);
+    return value;
+  }
+
+  private void doPutAll(Map<Object, Object> storeValues, long loadMillis) {
+    if (storeValues.isEmpty()) {
+      return;
+    }
+    Duration expire = getExpire();
+    long version = clock.now();
+    storeValues.replaceAll((key, value) -> wrap(value, expire, loadMillis, version));
+    Duration redisExpire = redisExpire(expire);
+    long start = System.nanoTime();
+    stringKeyRedisTemplate.executePipelined(
+        new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public <K, V> Object execute(RedisOperations<K, V> operations) {
+            RedisOperations<Object, Object> ops = (RedisOperations<Object, Object>) operations;
+            for (Map.Entry<Object, Object> entry : storeValues.entrySet()) {
+              set(ops.opsForValue(), getKey(entry.getKey()), entry.getValue(), redisExpire);
+            }
+            return null;
+          }
+        });
+    metrics.getRedisSet().record(System.nanoTime() - start);
+
+    Map<Object, Long> versions = new LinkedHashMap<>();
+    for (Object key : storeValues.keySet()) {
+      recordInvalidation(key);
+      versions.put(key, version);
     }
+    long since = invalidationSequence.get();
+    cacheMessagePublisher.publish(name, versions);
 
-    push(new CacheMessage(name, key));
+    storeValues.forEach((key, value) -> populateLocal(key, value, since));
+  }
 
-    caffeineCache.put(key, value);
+  private static void set(
+      ValueOperations<Object, Object> ops, Object cacheKey, Object value, Duration expire) {
+    if (!expire.isNegative()) {
+      ops.set(cacheKey, value, expire);
+    } else {
+      ops.set(cacheKey, value);
+    }
   }
 
-  private Object getKey(Object key) {
-    return name.concat(":")
-        .concat(
-            StringUtils.hasText(cachePrefix)
-                ? key.toString()
-                : cachePrefix.concat(":").concat(key.toString()));
+  private String getKey(Object key) {
+    String cacheKey =
+        StringUtils.hasText(cachePrefix)
+            ? cachePrefix.concat(":").concat(key.toString())
+            : key.toString();
+    if (clearMode == ClearMode.GENERATION) {
+      return name.concat(":").concat(Long.toString(generation)).concat(":").concat(cacheKey);
+    }
+    return name.concat(":").concat(cacheKey);
   }
 
   private Duration getExpire() {
@@ -205,16 +721,94 @@ class RedisCaffeineCache extends AbstractValueAdaptingCache {
     return cacheNameExpire == null ? defaultExpiration : cacheNameExpire;
   }
 
-  private void push(CacheMessage message) {
-    stringKeyRedisTemplate.convertAndSend(topic, message);
+  /** 包装为带写入版本的 {@link CacheEntry}，启用提前刷新时同时记录逻辑过期时间 */
+  private Object wrap(Object storeValue, Duration expire, long loadMillis, long version) {
+    long expireAt =
+        refreshAhead == null || expire.isZero() || expire.isNegative()
+            ? 0
+            : System.currentTimeMillis() + expire.toMillis();
+    return new CacheEntry(storeValue, expireAt, loadMillis, version);
+  }
+
+  private static long versionOf(Object storeValue) {
+    return storeValue instanceof CacheEntry entry ? entry.getVersion() : 0;
+  }
+
+  /**
+   * 放入 caffeine.
+   *
+   * <p>读取 redis 与放入 caffeine 之间其他节点可能已经写入新值并发布了失效消息，此时放入的旧值不会再被失效。
+   * 失效消息总是在 redis 写入完成后才到达，因此只要读取开始后本节点又记录过该 key 的失效或清空，读到的就可能是旧值，
+   * 不放入 caffeine；比较的是本节点记录失效时的本地序号，与写入节点的时钟无关，各节点时钟偏差不会让旧值留在 caffeine 中。
+   * 检查与放入在同一个 compute 中完成，失效时先记录序号再清除 caffeine，两者无论如何交错旧值都不会留在 caffeine 中
+   *
+   * @param since 开始读取 redis 前（本节点写入时为记录失效后）的本地失效序号
+   */
+  private void populateLocal(Object key, Object storeValue, long since) {
+    long version = versionOf(storeValue);
+    clock.observe(version);
+    caffeineCache
+        .asMap()
+        .compute(
+            key,
+            (k, current) -> {
+              if (isInvalidatedSince(k, since)) {
+                logger.debug("reject stale value, the key is : {}, version : {}", k, version);
+                return current;
+              }
+              return current != null && versionOf(current) > version ? current : storeValue;
+            });
+  }
+
+  private boolean isInvalidatedSince(Object key, long since) {
+    Long sequence = invalidatedAt.getIfPresent(key);
+    return sequence != null && sequence > since || clearedAt.get() > since;
+  }
+
+  /** 记录 key 的失效，返回本次失效的本地序号 */
+  private long recordInvalidation(Object key) {
+    long sequence = invalidationSequence.incrementAndGet();
+    invalidatedAt.asMap().merge(key, sequence, Math::max);
+    return sequence;
   }
 
-  public void clearLocal(Object key) {
-    logger.debug("clear local cache, the key is : {}", key);
-    if (key == null) {
+  private void recordClear() {
+    clearedAt.accumulateAndGet(invalidationSequence.incrementAndGet(), Math::max);
+  }
+
+  /** 启用提前刷新时，redis 中的实际过期时间在逻辑过期时间的基础上再保留 staleTtl */
+  private Duration redisExpire(Duration expire) {
+    if (refreshAhead == null || expire.isZero() || expire.isNegative()) {
+      return expire;
+    }
+    return expire.plus(refreshAhead.getStaleTtl());
+  }
+
+  /** 停止后台刷新线程 */
+  public void shutdown() {
+    if (refreshExecutor != null) {
+      refreshExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * 清除本地缓存，先记录失效序号再清除 caffeine.
+   *
+   * @param keys 需要失效的 key 及其失效版本，为 null 时清空整个缓存
+   * @param overflow 是否由 key 数量超过上限降级而来，降级时 redis 中的值仍然有效，只清空 caffeine 并拒绝此前已开始的读取，
+   *     不刷新 GENERATION 模式的代数
+   */
+  public void clearLocal(Map<?, Long> keys, boolean overflow) {
+    logger.debug("clear local cache, the keys is : {}, overflow : {}", keys, overflow);
+    if (keys == null) {
+      recordClear();
+      if (!overflow && clearMode == ClearMode.GENERATION) {
+        refreshGeneration();
+      }
       caffeineCache.invalidateAll();
     } else {
-      caffeineCache.invalidate(key);
+      keys.keySet().forEach(this::recordInvalidation);
+      caffeineCache.invalidateAll(keys.keySet());
     }
   }
 }
@@ -16,14 +16,18 @@
 package io.github.code13.spring.boot.crmlc;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -34,7 +38,7 @@ import org.springframework.data.redis.core.RedisTemplate;
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @since 2022/7/11 22:31
  */
-class RedisCaffeineCacheManager implements CacheManager {
+class RedisCaffeineCacheManager implements CacheManager, DisposableBean {
 
   private static final Logger logger = LoggerFactory.getLogger(RedisCaffeineCacheManager.class);
 
@@ -44,16 +48,38 @@ class RedisCaffeineCacheManager implements CacheManager {
 
   private final RedisTemplate<Object, Object> stringKeyRedisTemplate;
 
+  private final CacheMessagePublisher cacheMessagePublisher;
+
+  private final MultilevelCacheMetrics multilevelCacheMetrics;
+
+  private final Weigher<Object, Object> weigher;
+
+  /** 共享的 L1 内存预算，未配置时为 null */
+  private final L1MemoryBudget l1MemoryBudget;
+
+  /** 本节点所有缓存共享的写入版本时钟 */
+  private final HybridLogicalClock clock = new HybridLogicalClock();
+
   private final boolean dynamic;
 
   private final Set<String> cacheNames;
 
   public RedisCaffeineCacheManager(
       CacheConfigProperties cacheConfigProperties,
-      RedisTemplate<Object, Object> stringKeyRedisTemplate) {
+      RedisTemplate<Object, Object> stringKeyRedisTemplate,
+      CacheMessagePublisher cacheMessagePublisher,
+      MultilevelCacheMetrics multilevelCacheMetrics,
+      Weigher<Object, Object> weigher) {
     super();
     this.cacheConfigProperties = cacheConfigProperties;
     this.stringKeyRedisTemplate = stringKeyRedisTemplate;
+    this.cacheMessagePublisher = cacheMessagePublisher;
+    this.multilevelCacheMetrics = multilevelCacheMetrics;
+    this.weigher = weigher;
+    l1MemoryBudget =
+        cacheConfigProperties.getL1MemoryBudget().getSize() == null
+            ? null
+            : new L1MemoryBudget(cacheConfigProperties.getL1MemoryBudget());
     dynamic = cacheConfigProperties.isDynamic();
     cacheNames = cacheConfigProperties.getCacheNames();
   }
@@ -67,33 +93,51 @@ class RedisCaffeineCacheManager implements CacheManager {
     if (!dynamic && !cacheNames.contains(name)) {
       return cache;
     }
-    cache =
-        new RedisCaffeineCache(
-            name, stringKeyRedisTemplate, caffeineCache(), cacheConfigProperties);
-    Cache oldCache = cacheMap.putIfAbsent(name, cache);
-    logger.debug("create cache instance, the cache name is : {}", name);
-    return oldCache == null ? cache : oldCache;
+    // computeIfAbsent 保证每个 cacheName 只创建一次，避免重复创建的刷新线程池和预算成员泄漏
+    return cacheMap.computeIfAbsent(
+        name,
+        cacheName -> {
+          logger.debug("create cache instance, the cache name is : {}", cacheName);
+          CacheMetrics metrics = multilevelCacheMetrics.forCache(cacheName);
+          return new RedisCaffeineCache(
+              cacheName,
+              stringKeyRedisTemplate,
+              caffeineCache(cacheName, metrics),
+              cacheMessagePublisher,
+              metrics,
+              clock,
+              cacheConfigProperties);
+        });
   }
 
-  public com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache() {
-    Caffeine<Object, Object> cacheBuilder = Caffeine.newBuilder();
-    doIfPresent(
-        cacheConfigProperties.getCaffeine().getExpireAfterAccess(),
-        cacheBuilder::expireAfterAccess);
-    doIfPresent(
-        cacheConfigProperties.getCaffeine().getExpireAfterWrite(), cacheBuilder::expireAfterWrite);
-    doIfPresent(
-        cacheConfigProperties.getCaffeine().getRefreshAfterWrite(),
-        cacheBuilder::refreshAfterWrite);
-
-    if (cacheConfigProperties.getCaffeine().getInitialCapacity() > 0) {
-      cacheBuilder.initialCapacity(cacheConfigProperties.getCaffeine().getInitialCapacity());
+  public com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache(
+      String name, CacheMetrics metrics) {
+    CaffeineConfigProp caffeineConfigProp =
+        cacheConfigProperties
+            .getCaffeine()
+            .merge(cacheConfigProperties.getCaffeineOverrides().get(name));
+    Caffeine<Object, Object> cacheBuilder =
+        Caffeine.newBuilder()
+            .recordStats()
+            .evictionListener((key, value, cause) -> metrics.eviction(cause));
+    doIfPresent(caffeineConfigProp.getExpireAfterAccess(), cacheBuilder::expireAfterAccess);
+    doIfPresent(caffeineConfigProp.getExpireAfterWrite(), cacheBuilder::expireAfterWrite);
+    doIfPresent(caffeineConfigProp.getRefreshAfterWrite(), cacheBuilder::refreshAfterWrite);
+
+    if (caffeineConfigProp.getInitialCapacity() > 0) {
+      cacheBuilder.initialCapacity(caffeineConfigProp.getInitialCapacity());
     }
-    if (cacheConfigProperties.getCaffeine().getMaximumSize() > 0) {
-      cacheBuilder.maximumSize(cacheConfigProperties.getCaffeine().getMaximumSize());
+    boolean budgeted = false;
+    if (caffeineConfigProp.getMaximumWeight() > 0) {
+      cacheBuilder.maximumWeight(caffeineConfigProp.getMaximumWeight()).weigher(weigher);
+    } else if (caffeineConfigProp.getMaximumSize() > 0) {
+      cacheBuilder.maximumSize(caffeineConfigProp.getMaximumSize());
+    } else if (l1MemoryBudget != null) {
+      cacheBuilder.maximumWeight(l1MemoryBudget.initialMaximum()).weigher(weigher);
+      budgeted = true;
     }
-    if (cacheConfigProperties.getCaffeine().getKeyStrength() != null) {
-      switch (cacheConfigProperties.getCaffeine().getKeyStrength()) {
+    if (caffeineConfigProp.getKeyStrength() != null) {
+      switch (caffeineConfigProp.getKeyStrength()) {
         case WEAK:
           cacheBuilder.weakKeys();
           break;
@@ -102,8 +146,8 @@ class RedisCaffeineCacheManager implements CacheManager {
         default:
       }
     }
-    if (cacheConfigProperties.getCaffeine().getValueStrength() != null) {
-      switch (cacheConfigProperties.getCaffeine().getValueStrength()) {
+    if (caffeineConfigProp.getValueStrength() != null) {
+      switch (caffeineConfigProp.getValueStrength()) {
         case WEAK:
           cacheBuilder.weakValues();
           break;
@@ -112,7 +156,11 @@ class RedisCaffeineCacheManager implements CacheManager {
         default:
       }
     }
-    return cacheBuilder.build();
+    com.github.benmanes.caffeine.cache.Cache<Object, Object> caffeineCache = cacheBuilder.build();
+    if (budgeted) {
+      l1MemoryBudget.register(name, caffeineCache);
+    }
+    return caffeineCache;
   }
 
   protected static void doIfPresent(Duration duration, Consumer<Duration> consumer) {
@@ -126,13 +174,77 @@ class RedisCaffeineCacheManager implements CacheManager {
     return cacheNames;
   }
 
-  public void clearLocal(String cacheName, Object key) {
+  /**
+   * 批量获取缓存，见 {@link RedisCaffeineCache#getAll(Collection, Function)}.
+   *
+   * @param cacheName 缓存名称
+   * @param keys 缓存 key
+   * @param loader 加载器，入参为未命中的 key
+   * @return key 与缓存值的映射
+   */
+  public Map<Object, Object> getAll(
+      String cacheName, Collection<?> keys, Function<Set<?>, Map<?, ?>> loader) {
+    return getRedisCaffeineCache(cacheName).getAll(keys, loader);
+  }
+
+  /**
+   * 批量放入缓存，见 {@link RedisCaffeineCache#putAll(Map)}.
+   *
+   * @param cacheName 缓存名称
+   * @param values key 与缓存值的映射
+   */
+  public void putAll(String cacheName, Map<?, ?> values) {
+    getRedisCaffeineCache(cacheName).putAll(values);
+  }
+
+  /**
+   * 获取所有缓存的指标快照.
+   *
+   * @return cacheName 与指标快照的映射
+   */
+  public Map<String, CacheMetrics.Snapshot> getMetrics() {
+    return multilevelCacheMetrics.snapshot();
+  }
+
+  private RedisCaffeineCache getRedisCaffeineCache(String cacheName) {
+    Cache cache = getCache(cacheName);
+    if (cache == null) {
+      throw new IllegalArgumentException("Cannot find cache named '" + cacheName + "'");
+    }
+    return (RedisCaffeineCache) cache;
+  }
+
+  @Override
+  public void destroy() {
+    for (Cache cache : cacheMap.values()) {
+      ((RedisCaffeineCache) cache).shutdown();
+    }
+    if (l1MemoryBudget != null) {
+      l1MemoryBudget.destroy();
+    }
+  }
+
+  /**
+   * 处理其他节点发布的失效消息.
+   *
+   * @param cacheName 缓存名称
+   * @param keys 需要失效的 key 及其失效版本，为 null 时清空整个缓存
+   * @param version 清空整个缓存时的失效版本
+   * @param overflow 是否由 key 数量超过上限降级而来
+   */
+  public void clearLocal(String cacheName, Map<?, Long> keys, long version, boolean overflow) {
+    if (keys == null) {
+      clock.observe(version);
+    } else {
+      keys.values().forEach(clock::observe);
+    }
     Cache cache = cacheMap.get(cacheName);
     if (cache == null) {
       return;
     }
 
+    multilevelCacheMetrics.forCache(cacheName).invalidationReceived();
     RedisCaffeineCache redisCaffeineCache = (RedisCaffeineCache) cache;
-    redisCaffeineCache.clearLocal(key);
+    redisCaffeineCache.clearLocal(keys, overflow);
   }
 }
@@ -37,4 +37,28 @@ class RedisConfigProp {
 
   /** 缓存更新时通知其他节点的topic名称 */
   private String topic = "cache:redis:caffeine:topic";
+
+  /** 失效消息合并发送的时间窗口，窗口内同一个 cacheName 的 key 合并为一条消息，为 0 时立即发送 */
+  private Duration invalidationWindow = Duration.ofMillis(10);
+
+  /** 一个时间窗口内每个 cacheName 最多合并的 key 数量，超过后降级为清空整个缓存，小于等于 0 时不限制 */
+  private int invalidationMaxBatchSize = 1000;
+
+  /** 是否启用跨节点加载租约，启用后同一个 key 同一时刻在集群中只有一个节点执行加载 */
+  private boolean loadLeaseEnabled = false;
+
+  /** 加载租约的过期时间，也是未获取到租约的节点等待加载结果的最长时间 */
+  private Duration loadLeaseTimeout = Duration.ofSeconds(3);
+
+  /** 未获取到加载租约时轮询 redis 的间隔 */
+  private Duration loadLeasePollInterval = Duration.ofMillis(50);
+
+  /** 清空缓存时 redis 中数据的处理方式，默认 SCAN */
+  private ClearMode clearMode = ClearMode.SCAN;
+
+  /** SCAN 模式下每页遍历和删除的 key 数量 */
+  private int clearScanCount = 1000;
+
+  /** 记录失效后保留失效记录的时间，期间在失效前开始读取 redis 的值不会再放入 caffeine，应大于一次 redis 读取的最长耗时 */
+  private Duration versionRetention = Duration.ofSeconds(30);
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.time.Duration;
+import lombok.Data;
+
+/**
+ * RefreshAheadConfigProp.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:43
+ */
+@Data
+class RefreshAheadConfigProp {
+
+  /** 后台刷新线程数 */
+  private int executorSize = 1;
+
+  /** 刷新任务队列容量，队列满时放弃本次刷新 */
+  private int queueCapacity = 1024;
+
+  /** XFetch 的 beta 系数，越大越倾向于提前刷新 */
+  private double beta = 1.0;
+
+  /** 逻辑过期后 redis 中继续保留旧值的时间，刷新完成前继续返回旧值 */
+  private Duration staleTtl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * CacheMessagePublisher 的合并、降级测试.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 07:20
+ */
+class CacheMessagePublisherTest {
+
+  private static final String CACHE_NAME = "published";
+
+  private final RecordingRedisTemplate redis = new RecordingRedisTemplate();
+
+  private CacheMessagePublisher publisher;
+
+  @AfterEach
+  void tearDown() {
+    if (publisher != null) {
+      publisher.destroy();
+    }
+  }
+
+  @Test
+  @DisplayName("时间窗口为 0 时每次调用立即发送")
+  void sendImmediatelyWithoutWindow() {
+    publisher = publisher(Duration.ZERO, 1000);
+
+    publisher.publish(CACHE_NAME, "a", 1);
+    publisher.publish(CACHE_NAME, Map.of("b", 2L, "c", 3L));
+
+    assertEquals(2, redis.messages.size());
+    assertEquals(Map.of("a", 1L), redis.messages.get(0).getKeys());
+    assertEquals(Map.of("b", 2L, "c", 3L), redis.messages.get(1).getKeys());
+  }
+
+  @Test
+  @DisplayName("时间窗口内的 key 合并为一条消息，重复的 key 保留最大版本")
+  void coalesceKeysWithinWindow() throws Exception {
+    publisher = publisher(Duration.ofMillis(200), 1000);
+
+    publisher.publish(CACHE_NAME, "a", 2);
+    publisher.publish(CACHE_NAME, "b", 3);
+    publisher.publish(CACHE_NAME, "a", 1);
+    publisher.publish("other", "a", 4);
+    assertTrue(redis.messages.isEmpty());
+
+    List<CacheMessage> messages = redis.await(2);
+    CacheMessage message =
+        messages.stream().filter(m -> m.getCacheName().equals(CACHE_NAME)).findFirst().get();
+    assertEquals(Map.of("a", 2L, "b", 3L), message.getKeys());
+  }
+
+  @Test
+  @DisplayName("窗口内 key 数量超过上限时降级为清空整个缓存")
+  void overflowFallsBackToClear() throws Exception {
+    publisher = publisher(Duration.ofMillis(200), 3);
+    Map<Object, Long> keys = new LinkedHashMap<>();
+    for (long i = 1; i <= 4; i++) {
+      keys.put("k" + i, i);
+    }
+
+    publisher.publish(CACHE_NAME, keys);
+    publisher.publish(CACHE_NAME, "k5", 5);
+
+    CacheMessage message = redis.await(1).get(0);
+    assertNull(message.getKeys());
+    assertEquals(CACHE_NAME, message.getCacheName());
+    assertTrue(message.isOverflow());
+  }
+
+  @Test
+  @DisplayName("publishClear 丢弃的 batch 的定时刷新不会提前发送下一个 batch")
+  void staleFlushDoesNotFlushNextBatch() throws Exception {
+    publisher = publisher(Duration.ofMillis(1000), 1000);
+    long start = System.nanoTime();
+
+    publisher.publish(CACHE_NAME, "a", 1);
+    publisher.publishClear(CACHE_NAME, 2);
+    Thread.sleep(400);
+    publisher.publish(CACHE_NAME, "b", 3);
+
+    // 第一个 batch 的定时刷新在 1s 时触发，第二个 batch 要到 1.4s
+    Thread.sleep(
+        TimeUnit.NANOSECONDS.toMillis(
+            start + TimeUnit.MILLISECONDS.toNanos(1200) - System.nanoTime()));
+    assertEquals(1, redis.messages.size());
+    assertNull(redis.messages.get(0).getKeys());
+    assertFalse(redis.messages.get(0).isOverflow());
+
+    assertEquals(Map.of("b", 3L), redis.await(2).get(1).getKeys());
+  }
+
+  private CacheMessagePublisher publisher(Duration window, int maxBatchSize) {
+    RedisConfigProp redisConfigProp = new RedisConfigProp();
+    redisConfigProp.setInvalidationWindow(window);
+    redisConfigProp.setInvalidationMaxBatchSize(maxBatchSize);
+    return new CacheMessagePublisher(redis, redisConfigProp, new MultilevelCacheMetrics());
+  }
+
+  /** 只记录发送的消息 */
+  private static final class RecordingRedisTemplate extends RedisTemplate<Object, Object> {
+
+    private final List<CacheMessage> messages = new CopyOnWriteArrayList<>();
+
+    @Override
+    public Long convertAndSend(String channel, Object message) {
+      messages.add((CacheMessage) message);
+      return 1L;
+    }
+
+    List<CacheMessage> await(int count) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (messages.size() < count) {
+        assertTrue(System.nanoTime() < deadline, "expected " + count + " messages");
+        Thread.sleep(10);
+      }
+      return messages;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 对比 JDK、JSON、protostuff 以及 protostuff + LZ4 的编解码耗时，编码后的字节数在 setup 时输出.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:47
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheValueCodecBenchmark {
+
+  @Param({"jdk", "json", "protostuff", "protostuff-lz4"})
+  private String codec;
+
+  /** DTO 中 item 的数量，用于区分小对象和大对象 */
+  @Param({"1", "100"})
+  private int items;
+
+  private RedisSerializer<Object> serializer;
+
+  private Report report;
+
+  private byte[] encoded;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    serializer =
+        switch (codec) {
+          case "jdk" -> RedisSerializer.java();
+          case "json" -> new GenericJackson2JsonRedisSerializer();
+          case "protostuff" -> new CacheValueRedisSerializer(new ProtostuffCacheValueCodec());
+          case "protostuff-lz4" ->
+              new CacheValueRedisSerializer(
+                  new CompressingCacheValueCodec(new ProtostuffCacheValueCodec(), 256));
+          default -> throw new IllegalArgumentException(codec);
+        };
+
+    report = new Report();
+    report.setId(10086L);
+    report.setTitle("monthly report");
+    List<ReportItem> reportItems = new ArrayList<>(items);
+    for (int i = 0; i < items; i++) {
+      ReportItem item = new ReportItem();
+      item.setName("item-" + i);
+      item.setDescription("description of the report item, repeated to look like real text " + i);
+      item.setAmount(i * 100L);
+      reportItems.add(item);
+    }
+    report.setItems(reportItems);
+
+    encoded = serializer.serialize(report);
+    System.out.printf("%n[%s, items=%d] encoded bytes: %d%n", codec, items, encoded.length);
+  }
+
+  @Benchmark
+  public byte[] encode() {
+    return serializer.serialize(report);
+  }
+
+  @Benchmark
+  public Object decode() {
+    return serializer.deserialize(encoded);
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class Report implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String title;
+
+    private List<ReportItem> items;
+  }
+
+  @Data
+  @NoArgsConstructor
+  public static class ReportItem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String name;
+
+    private String description;
+
+    private long amount;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt =
+        new OptionsBuilder()
+            .include(CacheValueCodecBenchmark.class.getSimpleName())
+            .result("result.json")
+            .resultFormat(ResultFormatType.JSON)
+            .build();
+    new Runner(opt).run();
+  }
+}
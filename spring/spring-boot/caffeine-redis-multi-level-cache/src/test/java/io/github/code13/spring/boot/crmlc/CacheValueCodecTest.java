@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.cache.support.NullValue;
+
+/**
+ * CacheValueCodec 的编解码往返测试.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 07:20
+ */
+class CacheValueCodecTest {
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  static class Item implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long id;
+
+    private String name;
+
+    private List<String> tags;
+  }
+
+  private static CacheValueCodec codec(String name) {
+    return switch (name) {
+      case "jdk" -> new JdkCacheValueCodec();
+      case "protostuff" -> new ProtostuffCacheValueCodec();
+      case "jdk-lz4" -> new CompressingCacheValueCodec(new JdkCacheValueCodec(), 64);
+      case "protostuff-lz4" -> new CompressingCacheValueCodec(new ProtostuffCacheValueCodec(), 64);
+      default -> throw new IllegalArgumentException(name);
+    };
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"jdk", "protostuff", "jdk-lz4", "protostuff-lz4"})
+  @DisplayName("缓存值、NullValue 和失效消息编码后能还原")
+  void roundTrip(String name) {
+    CacheValueCodec codec = codec(name);
+    CacheEntry entry = new CacheEntry(new Item(1, "item", List.of("a", "b")), 100, 5, 42);
+    Map<Object, Long> keys = new LinkedHashMap<>();
+    keys.put("a", 1L);
+    keys.put(2L, 2L);
+    CacheMessage message = new CacheMessage("cache", keys, 0, false);
+    CacheMessage clear = new CacheMessage("cache", null, 7, false);
+
+    assertEquals(entry, codec.decode(codec.encode(entry)));
+    assertEquals("plain", codec.decode(codec.encode("plain")));
+    assertEquals(message, codec.decode(codec.encode(message)));
+    assertEquals(clear, codec.decode(codec.encode(clear)));
+    assertSame(NullValue.INSTANCE, codec.decode(codec.encode(NullValue.INSTANCE)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"jdk-lz4", "protostuff-lz4"})
+  @DisplayName("超过阈值且可压缩的值使用 LZ4，其余按原始编码加标记位存储")
+  void compressOnlyLargeValues(String name) {
+    CacheValueCodec codec = codec(name);
+    String large = "x".repeat(4096);
+
+    byte[] compressed = codec.encode(large);
+    byte[] raw = codec.encode("small");
+
+    assertEquals(1, compressed[0]);
+    assertEquals(large, codec.decode(compressed));
+    assertEquals(0, raw[0]);
+    CacheValueCodec delegate = codec(name.substring(0, name.indexOf('-')));
+    byte[] expected = delegate.encode("small");
+    byte[] actual = new byte[raw.length - 1];
+    System.arraycopy(raw, 1, actual, 0, actual.length);
+    assertArrayEquals(expected, actual);
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 对比冷 L1 下逐个 key 获取与 {@link RedisCaffeineCache#getAll} 批量获取的耗时.
+ *
+ * <p>需要本地 redis（localhost:6379），每次调用前清空 caffeine，redis 中的数据保持预热状态
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:37
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisCaffeineCacheBatchBenchmark {
+
+  private static final String CACHE_NAME = "batch-benchmark";
+
+  @Param({"200", "500"})
+  private int keyCount;
+
+  private LettuceConnectionFactory connectionFactory;
+
+  private CacheMessagePublisher cacheMessagePublisher;
+
+  private RedisCaffeineCacheManager cacheManager;
+
+  private RedisCaffeineCache cache;
+
+  private List<String> keys;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    connectionFactory = new LettuceConnectionFactory("localhost", 6379);
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+
+    RedisTemplate<Object, Object> template = new RedisTemplate<>();
+    template.setConnectionFactory(connectionFactory);
+    template.setKeySerializer(RedisSerializer.string());
+    template.setHashKeySerializer(RedisSerializer.string());
+    template.afterPropertiesSet();
+
+    CacheConfigProperties properties = new CacheConfigProperties();
+    properties.getRedis().setDefaultExpiration(Duration.ofMinutes(10));
+    MultilevelCacheMetrics metrics = new MultilevelCacheMetrics();
+    cacheMessagePublisher = new CacheMessagePublisher(template, properties.getRedis(), metrics);
+    cacheManager =
+        new RedisCaffeineCacheManager(
+            properties, template, cacheMessagePublisher, metrics, new EstimatedSizeWeigher());
+    cache = (RedisCaffeineCache) cacheManager.getCache(CACHE_NAME);
+
+    keys = new ArrayList<>(keyCount);
+    Map<String, String> values = new HashMap<>();
+    for (int i = 0; i < keyCount; i++) {
+      String key = "key-" + i;
+      keys.add(key);
+      values.put(key, "value-" + i);
+    }
+    cache.putAll(values);
+  }
+
+  @Setup(Level.Invocation)
+  public void clearCaffeine() {
+    cache.clearLocal(null, false);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    cache.clear();
+    cacheMessagePublisher.destroy();
+    connectionFactory.destroy();
+  }
+
+  @Benchmark
+  public void perKey(Blackhole blackhole) {
+    for (String key : keys) {
+      blackhole.consume(cache.get(key, () -> key));
+    }
+  }
+
+  @Benchmark
+  public Map<Object, Object> batch() {
+    return cache.getAll(keys, RedisCaffeineCacheBatchBenchmark::load);
+  }
+
+  private static Map<?, ?> load(Set<?> missKeys) {
+    Map<Object, Object> values = new HashMap<>();
+    for (Object key : missKeys) {
+      values.put(key, key);
+    }
+    return values;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt =
+        new OptionsBuilder()
+            .include(RedisCaffeineCacheBatchBenchmark.class.getSimpleName())
+            .result("result.json")
+            .resultFormat(ResultFormatType.JSON)
+            .build();
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.crmlc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * 多节点下版本化写入的测试.
+ *
+ * <p>使用内存中的 {@link InMemoryRedisTemplate} 代替 redis，失效消息同步投递给所有节点，通过读取 redis 后的回调模拟
+ * 「节点 A 读到旧值后，节点 B 写入新值并发布失效消息，节点 A 再把旧值放入 caffeine」的竞争
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 02:56
+ */
+class VersionedWriteMultiNodeTest {
+
+  private static final String CACHE_NAME = "versioned";
+
+  private static final String KEY = "key";
+
+  private final InMemoryRedisTemplate redis = new InMemoryRedisTemplate();
+
+  private final List<Node> nodes = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    for (Node node : nodes) {
+      node.cacheManager().destroy();
+      node.cacheMessagePublisher().destroy();
+    }
+  }
+
+  @Test
+  @DisplayName("读取 redis 期间其他节点写入新值，旧值不放入本地缓存")
+  void rejectStaleValueAfterConcurrentPut() {
+    Cache cacheA = startNode(ClearMode.SCAN).getCache(CACHE_NAME);
+    Cache cacheB = startNode(ClearMode.SCAN).getCache(CACHE_NAME);
+    cacheB.put(KEY, "v1");
+
+    redis.afterNextGet(() -> cacheB.put(KEY, "v2"));
+    assertEquals("v1", cacheA.get(KEY).get());
+
+    assertEquals("v2", cacheA.get(KEY).get());
+    assertEquals("v2", cacheB.get(KEY).get());
+  }
+
+  @Test
+  @DisplayName("读取 redis 期间其他节点删除缓存，旧值不放入本地缓存")
+  void rejectStaleValueAfterConcurrentEvict() {
+    Cache cacheA = startNode(ClearMode.SCAN).getCache(CACHE_NAME);
+    Cache cacheB = startNode(ClearMode.SCAN).getCache(CACHE_NAME);
+    cacheB.put(KEY, "v1");
+
+    redis.afterNextGet(() -> cacheB.evict(KEY));
+    assertEquals("v1", cacheA.get(KEY).get());
+
+    assertNull(cacheA.get(KEY));
+  }
+
+  @Test
+  @DisplayName("读取 redis 期间其他节点清空缓存，旧值不放入本地缓存")
+  void rejectStaleValueAfterConcurrentClear() {
+    Cache cacheA = startNode(ClearMode.GENERATION).getCache(CACHE_NAME);
+    Cache cacheB = startNode(ClearMode.GENERATION).getCache(CACHE_NAME);
+    cacheB.put(KEY, "v1");
+
+    redis.afterNextGet(cacheB::clear);
+    assertEquals("v1", cacheA.get(KEY).get());
+
+    assertNull(cacheA.get(KEY));
+  }
+
+  @Test
+  @DisplayName("写入新值的节点时钟落后于旧值的版本时，旧值同样不放入本地缓存")
+  void rejectStaleValueFromNodeWithFasterClock() {
+    Cache cacheA = startNode(ClearMode.SCAN).getCache(CACHE_NAME);
+    Cache cacheB = startNode(ClearMode.SCAN).getCache(CACHE_NAME);
+    // 旧值由时钟快一小时的节点写入，版本大于节点 B 之后写入的新值
+    long fasterVersion = (System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)) << 16;
+    redis.opsForValue().set(CACHE_NAME + ":" + KEY, new CacheEntry("v1", 0, 0, fasterVersion));
+
+    redis.afterNextGet(() -> cacheB.put(KEY, "v2"));
+    assertEquals("v1", cacheA.get(KEY).get());
+
+    assertEquals("v2", cacheA.get(KEY).get());
+  }
+
+  @Test
+  @DisplayName("没有并发写入时，从 redis 读到的值照常放入本地缓存")
+  void populateLocalWithoutConcurrentWrite() {
+    RedisCaffeineCacheManager managerA = startNode(ClearMode.SCAN);
+    Cache cacheA = managerA.getCache(CACHE_NAME);
+    Cache cacheB = startNode(ClearMode.SCAN).getCache(CACHE_NAME);
+    cacheB.put(KEY, "v1");
+
+    assertEquals("v1", cacheA.get(KEY).get());
+    assertEquals("v1", cacheA.get(KEY).get());
+
+    CacheMetrics.Snapshot snapshot = managerA.getMetrics().get(CACHE_NAME);
+    assertEquals(1, snapshot.l1Hits());
+    assertEquals(1, snapshot.l2Hits());
+  }
+
+  @Test
+  @DisplayName("key 数量超过上限降级的清空消息只清空 caffeine，之后 redis 中更早写入的值照常放入 caffeine")
+  void overflowClearDoesNotRejectOlderValues() {
+    RedisCaffeineCacheManager managerA = startNode(ClearMode.SCAN, 2);
+    Cache cacheA = managerA.getCache(CACHE_NAME);
+    RedisCaffeineCache cacheB =
+        (RedisCaffeineCache) startNode(ClearMode.SCAN, 2).getCache(CACHE_NAME);
+    cacheB.put(KEY, "v1");
+    assertEquals("v1", cacheA.get(KEY).get());
+
+    cacheB.putAll(Map.of("k1", "v", "k2", "v", "k3", "v"));
+
+    assertEquals("v1", cacheA.get(KEY).get());
+    assertEquals("v1", cacheA.get(KEY).get());
+    CacheMetrics.Snapshot snapshot = managerA.getMetrics().get(CACHE_NAME);
+    // 降级消息清空 caffeine 后从 redis 读一次，之后命中 caffeine
+    assertEquals(2, snapshot.l2Hits());
+    assertEquals(1, snapshot.l1Hits());
+  }
+
+  @Test
+  @DisplayName("get(key, loader) 未命中时只读取一次 redis，只记录一次未命中")
+  void coldMissReadsRedisOnce() {
+    RedisCaffeineCacheManager manager = startNode(ClearMode.SCAN);
+    Cache cache = manager.getCache(CACHE_NAME);
+
+    assertEquals("v1", cache.get(KEY, () -> "v1"));
+
+    CacheMetrics.Snapshot snapshot = manager.getMetrics().get(CACHE_NAME);
+    assertEquals(1, snapshot.misses());
+    assertEquals(1, snapshot.redisGet().count());
+    assertEquals(1, snapshot.load().count());
+  }
+
+  @Test
+  @DisplayName("加载时抛出 Error，等待同一个 key 的调用方收到同一个 Error 而不是一直阻塞")
+  void propagateLoaderErrorToWaitingCallers() throws Exception {
+    Cache cache = startNode(ClearMode.SCAN).getCache(CACHE_NAME);
+    Error error = new Error("loader failed");
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread[] waiter = new Thread[1];
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CompletableFuture<Object> loader =
+          CompletableFuture.supplyAsync(
+              () ->
+                  cache.get(
+                      KEY,
+                      () -> {
+                        loading.countDown();
+                        release.await();
+                        throw error;
+                      }),
+              executor);
+      assertTrue(loading.await(5, TimeUnit.SECONDS));
+      CompletableFuture<Object> follower =
+          CompletableFuture.supplyAsync(
+              () -> {
+                waiter[0] = Thread.currentThread();
+                return cache.get(KEY, () -> "unexpected");
+              },
+              executor);
+
+      // 等第二个调用方停在 in-flight future 上再让加载失败
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+      while (waiter[0] == null || waiter[0].getState() != Thread.State.WAITING) {
+        assertTrue(System.nanoTime() < deadline, "follower did not join the in-flight load");
+        Thread.sleep(1);
+      }
+      release.countDown();
+
+      for (CompletableFuture<Object> future : List.of(loader, follower)) {
+        ExecutionException e =
+            assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertSame(error, e.getCause());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private RedisCaffeineCacheManager startNode(ClearMode clearMode) {
+    return startNode(clearMode, 1000);
+  }
+
+  private RedisCaffeineCacheManager startNode(ClearMode clearMode, int invalidationMaxBatchSize) {
+    CacheConfigProperties properties = new CacheConfigProperties();
+    properties.getRedis().setInvalidationMaxBatchSize(invalidationMaxBatchSize);
+    properties.getRedis().setDefaultExpiration(Duration.ofMinutes(10));
+    properties.getRedis().setInvalidationWindow(Duration.ZERO);
+    properties.getRedis().setClearMode(clearMode);
+    MultilevelCacheMetrics metrics = new MultilevelCacheMetrics();
+    CacheMessagePublisher cacheMessagePublisher =
+        new CacheMessagePublisher(redis, properties.getRedis(), metrics);
+    RedisCaffeineCacheManager cacheManager =
+        new RedisCaffeineCacheManager(
+            properties, redis, cacheMessagePublisher, metrics, new EstimatedSizeWeigher());
+    redis.subscribe(new CacheMessageListener(redis, cacheManager));
+    nodes.add(new Node(cacheManager, cacheMessagePublisher));
+    return cacheManager;
+  }
+
+  private record Node(
+      RedisCaffeineCacheManager cacheManager, CacheMessagePublisher cacheMessagePublisher) {}
+
+  /** 只实现缓存用到的命令，值经过序列化后保存，消息同步投递给所有订阅者 */
+  private static final class InMemoryRedisTemplate extends RedisTemplate<Object, Object> {
+
+    private final RedisSerializer<Object> serializer = RedisSerializer.java();
+
+    private final Map<Object, byte[]> values = new ConcurrentHashMap<>();
+
+    private final Map<Object, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private final List<CacheMessageListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final ValueOperations<Object, Object> valueOperations;
+
+    private volatile Runnable afterNextGet;
+
+    @SuppressWarnings("unchecked")
+    InMemoryRedisTemplate() {
+      setKeySerializer(RedisSerializer.string());
+      setValueSerializer(serializer);
+      valueOperations =
+          (ValueOperations<Object, Object>)
+              Proxy.newProxyInstance(
+                  ValueOperations.class.getClassLoader(),
+                  new Class<?>[] {ValueOperations.class},
+                  (proxy, method, args) ->
+                      switch (method.getName()) {
+                        case "get" -> get(args[0]);
+                        case "multiGet" -> multiGet((Collection<?>) args[0]);
+                        case "set" -> {
+                          values.put(args[0], serialize(args[1]));
+                          yield null;
+                        }
+                        case "setIfAbsent" ->
+                            values.putIfAbsent(args[0], serialize(args[1])) == null;
+                        case "increment" ->
+                            counters
+                                .computeIfAbsent(args[0], key -> new AtomicLong())
+                                .addAndGet(args.length == 1 ? 1 : (long) args[1]);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                      });
+    }
+
+    void subscribe(CacheMessageListener listener) {
+      listeners.add(listener);
+    }
+
+    /** 下一次 GET 读取到值之后、返回之前执行 */
+    void afterNextGet(Runnable callback) {
+      afterNextGet = callback;
+    }
+
+    private Object get(Object key) {
+      Object value = deserialize(values.get(key));
+      Runnable callback = afterNextGet;
+      if (callback != null) {
+        afterNextGet = null;
+        callback.run();
+      }
+      return value;
+    }
+
+    private List<Object> multiGet(Collection<?> keys) {
+      List<Object> result = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+        result.add(deserialize(values.get(key)));
+      }
+      return result;
+    }
+
+    private byte[] serialize(Object value) {
+      return serializer.serialize(value);
+    }
+
+    private Object deserialize(byte[] bytes) {
+      return bytes == null ? null : serializer.deserialize(bytes);
+    }
+
+    @Override
+    public ValueOperations<Object, Object> opsForValue() {
+      return valueOperations;
+    }
+
+    @Override
+    public Boolean delete(Object key) {
+      return values.remove(key) != null;
+    }
+
+    @Override
+    public List<Object> executePipelined(SessionCallback<?> session) {
+      session.execute(this);
+      return List.of();
+    }
+
+    @Override
+    public Long convertAndSend(String channel, Object message) {
+      DefaultMessage redisMessage =
+          new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), serialize(message));
+      for (CacheMessageListener listener : listeners) {
+        listener.onMessage(redisMessage, null);
+      }
+      return (long) listeners.size();
+    }
+  }
+}
@@ -22,7 +22,7 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
@@ -41,8 +41,8 @@ public class InterestResolveElAspect {
   private static final Logger logger = LoggerFactory.getLogger(InterestResolveElAspect.class);
 
   private final ExpressionParser expressionParser = new SpelExpressionParser();
-  private final LocalVariableTableParameterNameDiscoverer parameterNameDiscoverer =
-      new LocalVariableTableParameterNameDiscoverer();
+  private final DefaultParameterNameDiscoverer parameterNameDiscoverer =
+      new DefaultParameterNameDiscoverer();
 
   @Around("@annotation(anno)")
   public Object invoked(ProceedingJoinPoint joinPoint, Interest anno) throws Throwable {
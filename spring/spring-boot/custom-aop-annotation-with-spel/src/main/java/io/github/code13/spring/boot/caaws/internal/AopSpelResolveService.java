@@ -19,28 +19,41 @@ import java.lang.reflect.Method;
 import java.util.function.Supplier;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 /**
  * AopSpelResolveService.
  *
+ * <p>表达式的解析结果、参数名都有缓存，见 {@link SpelExpressionEvaluator}；要换解析器（编译模式）或参数名解析方式，覆盖 {@link
+ * #getExpressionParser()}、{@link #getParameterNameDiscoverer()}，求值器按实现类创建一次并缓存；也可以直接覆盖 {@link
+ * #getSpelEvaluator()}。
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @since 2022 /7/11 09:29
  */
 public interface AopSpelResolveService {
 
-  /** The constant expressionParser. */
-  ExpressionParser expressionParser = new SpelExpressionParser();
+  /** The constant expressionParser, compiles expressions in {@link SpelCompilerMode#MIXED} mode. */
+  ExpressionParser expressionParser =
+      new SpelExpressionParser(
+          new SpelParserConfiguration(
+              SpelCompilerMode.MIXED, AopSpelResolveService.class.getClassLoader()));
+
+  /**
+   * The constant parameterNameDiscoverer. {@code LocalVariableTableParameterNameDiscoverer} was
+   * removed in Spring 6.1, the build compiles with {@code -parameters}.
+   */
+  ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
 
-  /** The constant parameterNameDiscoverer. */
-  LocalVariableTableParameterNameDiscoverer parameterNameDiscoverer =
-      new LocalVariableTableParameterNameDiscoverer();
+  /** The constant spelEvaluator, shared by all aspects. */
+  SpelExpressionEvaluator spelEvaluator =
+      new SpelExpressionEvaluator(expressionParser, parameterNameDiscoverer);
 
   /**
    * Gets evaluation context.
@@ -49,22 +62,8 @@ public interface AopSpelResolveService {
    * @return the evaluation context
    */
   default EvaluationContext getEvaluationContext(ProceedingJoinPoint joinPoint) {
-    Object[] args = joinPoint.getArgs();
     Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
-
-    String[] parameterNames = getParameterNameDiscoverer().getParameterNames(method);
-    if (parameterNames == null) {
-      throw new IllegalArgumentException("cant get ParameterNames for method:" + method.getName());
-    }
-
-    EvaluationContext context = new StandardEvaluationContext();
-
-    int length = parameterNames.length;
-    for (int i = 0; i < length; i++) {
-      context.setVariable(parameterNames[i], args[i]);
-    }
-
-    return context;
+    return getSpelEvaluator().createContext(method, joinPoint.getArgs(), joinPoint.getTarget());
   }
 
   /**
@@ -80,12 +79,21 @@ public interface AopSpelResolveService {
       EvaluationContext evaluationContext,
       Supplier<String> spelSupplier,
       Class<T> desiredResultType) {
-    Expression expression = getExpressionParser().parseExpression(spelSupplier.get());
-    return expression.getValue(evaluationContext, desiredResultType);
+    return getSpelEvaluator().evaluate(evaluationContext, spelSupplier.get(), desiredResultType);
+  }
+
+  /**
+   * Gets spel evaluator. 默认用 {@link #getExpressionParser()}、{@link
+   * #getParameterNameDiscoverer()} 创建，按实现类缓存，两个都没有覆盖时就是 {@link #spelEvaluator}。
+   *
+   * @return SpelExpressionEvaluator
+   */
+  default SpelExpressionEvaluator getSpelEvaluator() {
+    return SpelEvaluatorCache.get(this);
   }
 
   /**
-   * Gets expression parser.
+   * Gets expression parser. 同一个实现类的所有实例应返回相同的解析器，只在第一次创建求值器时调用.
    *
    * @return ExpressionParser
    */
@@ -94,7 +102,7 @@ public interface AopSpelResolveService {
   }
 
   /**
-   * Gets parameter name discoverer.
+   * Gets parameter name discoverer. 同一个实现类的所有实例应返回相同的对象，只在第一次创建求值器时调用.
    *
    * @return ParameterNameDiscoverer
    */
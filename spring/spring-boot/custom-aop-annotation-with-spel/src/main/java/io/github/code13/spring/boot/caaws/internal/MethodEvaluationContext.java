@@ -0,0 +1,165 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.caaws.internal;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.support.ReflectiveConstructorResolver;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.support.StandardOperatorOverloader;
+import org.springframework.expression.spel.support.StandardTypeComparator;
+import org.springframework.expression.spel.support.StandardTypeConverter;
+import org.springframework.expression.spel.support.StandardTypeLocator;
+
+/**
+ * 一次方法调用的求值上下文，能力与默认的 {@link StandardEvaluationContext} 相同（没有 BeanResolver）。
+ *
+ * <p>{@link StandardEvaluationContext} 每个实例都会新建自己的 {@link ReflectivePropertyAccessor}，而属性读取方法的反射查找结果就缓存在这个
+ * accessor 里，每次调用新建上下文等于每次都重新反射查找。这里的解析器、转换器全部是共享的单例（它们本身线程安全），每次调用只持有参数。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 23:58
+ */
+final class MethodEvaluationContext implements EvaluationContext {
+
+  private static final List<PropertyAccessor> PROPERTY_ACCESSORS =
+      List.of(new ReflectivePropertyAccessor());
+  private static final List<ConstructorResolver> CONSTRUCTOR_RESOLVERS =
+      List.of(new ReflectiveConstructorResolver());
+  private static final List<MethodResolver> METHOD_RESOLVERS =
+      List.of(new ReflectiveMethodResolver());
+  private static final TypeLocator TYPE_LOCATOR = new StandardTypeLocator();
+  private static final TypeConverter TYPE_CONVERTER = new StandardTypeConverter();
+  private static final TypeComparator TYPE_COMPARATOR = new StandardTypeComparator();
+  private static final OperatorOverloader OPERATOR_OVERLOADER = new StandardOperatorOverloader();
+
+  private final MethodRootObject root;
+  private final TypedValue rootValue;
+  private final String[] parameterNames;
+  private Map<String, Object> variables;
+
+  MethodEvaluationContext(MethodRootObject root, String[] parameterNames) {
+    this.root = root;
+    this.rootValue = new TypedValue(root);
+    this.parameterNames = parameterNames;
+  }
+
+  Method method() {
+    return root.getMethod();
+  }
+
+  @Override
+  public TypedValue getRootObject() {
+    return rootValue;
+  }
+
+  @Override
+  public List<PropertyAccessor> getPropertyAccessors() {
+    return PROPERTY_ACCESSORS;
+  }
+
+  @Override
+  public List<ConstructorResolver> getConstructorResolvers() {
+    return CONSTRUCTOR_RESOLVERS;
+  }
+
+  @Override
+  public List<MethodResolver> getMethodResolvers() {
+    return METHOD_RESOLVERS;
+  }
+
+  @Override
+  public BeanResolver getBeanResolver() {
+    return null;
+  }
+
+  @Override
+  public TypeLocator getTypeLocator() {
+    return TYPE_LOCATOR;
+  }
+
+  @Override
+  public TypeConverter getTypeConverter() {
+    return TYPE_CONVERTER;
+  }
+
+  @Override
+  public TypeComparator getTypeComparator() {
+    return TYPE_COMPARATOR;
+  }
+
+  @Override
+  public OperatorOverloader getOperatorOverloader() {
+    return OPERATOR_OVERLOADER;
+  }
+
+  @Override
+  public void setVariable(String name, Object value) {
+    if (variables == null) {
+      variables = new HashMap<>();
+    }
+    if (value != null) {
+      variables.put(name, value);
+    } else {
+      variables.remove(name);
+    }
+  }
+
+  /** 先找 {@link #setVariable} 设置的变量，再按参数名，最后按 {@code p0}/{@code a0} 下标。 */
+  @Override
+  public Object lookupVariable(String name) {
+    if (variables != null && variables.containsKey(name)) {
+      return variables.get(name);
+    }
+    Object[] args = root.getArgs();
+    for (int i = 0; i < parameterNames.length; i++) {
+      if (parameterNames[i].equals(name)) {
+        return args[i];
+      }
+    }
+    int index = indexOf(name);
+    return index >= 0 && index < args.length ? args[index] : null;
+  }
+
+  private static int indexOf(String name) {
+    if (name.length() < 2 || (name.charAt(0) != 'p' && name.charAt(0) != 'a')) {
+      return -1;
+    }
+    int index = 0;
+    for (int i = 1; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (c < '0' || c > '9' || index > 0xFFFF) {
+        return -1;
+      }
+      index = index * 10 + (c - '0');
+    }
+    return index;
+  }
+}
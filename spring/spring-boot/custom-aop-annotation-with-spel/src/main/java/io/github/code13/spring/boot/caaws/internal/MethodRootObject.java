@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.caaws.internal;
+
+import java.lang.reflect.Method;
+
+/**
+ * 表达式里 {@code #root} 指向的对象，与 Spring 缓存注解的 root 对象字段相同。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 23:55
+ */
+public final class MethodRootObject {
+
+  private final Method method;
+  private final Object[] args;
+  private final Object target;
+
+  public MethodRootObject(Method method, Object[] args, Object target) {
+    this.method = method;
+    this.args = args;
+    this.target = target;
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  public String getMethodName() {
+    return method.getName();
+  }
+
+  public Object[] getArgs() {
+    return args;
+  }
+
+  public Object getTarget() {
+    return target;
+  }
+
+  public Class<?> getTargetClass() {
+    return target != null ? target.getClass() : method.getDeclaringClass();
+  }
+}
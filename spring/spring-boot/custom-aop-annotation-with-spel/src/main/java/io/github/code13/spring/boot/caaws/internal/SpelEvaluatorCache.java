@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.caaws.internal;
+
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.ExpressionParser;
+
+/**
+ * 按 {@link AopSpelResolveService} 的实现类缓存 {@link SpelExpressionEvaluator}.
+ *
+ * <p>第一次调用时用该实现类的 {@link AopSpelResolveService#getExpressionParser()}、{@link
+ * AopSpelResolveService#getParameterNameDiscoverer()} 创建，两个都没有覆盖时共用 {@link
+ * AopSpelResolveService#spelEvaluator}。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 23:58
+ */
+final class SpelEvaluatorCache {
+
+  private static final ClassValue<AtomicReference<SpelExpressionEvaluator>> EVALUATORS =
+      new ClassValue<>() {
+        @Override
+        protected AtomicReference<SpelExpressionEvaluator> computeValue(Class<?> type) {
+          return new AtomicReference<>();
+        }
+      };
+
+  private SpelEvaluatorCache() {}
+
+  static SpelExpressionEvaluator get(AopSpelResolveService service) {
+    AtomicReference<SpelExpressionEvaluator> ref = EVALUATORS.get(service.getClass());
+    SpelExpressionEvaluator evaluator = ref.get();
+    if (evaluator != null) {
+      return evaluator;
+    }
+    ExpressionParser parser = service.getExpressionParser();
+    ParameterNameDiscoverer discoverer = service.getParameterNameDiscoverer();
+    evaluator =
+        parser == AopSpelResolveService.expressionParser
+                && discoverer == AopSpelResolveService.parameterNameDiscoverer
+            ? AopSpelResolveService.spelEvaluator
+            : new SpelExpressionEvaluator(parser, discoverer);
+    // 并发创建时只保留一个，保证同一个实现类共用一份表达式缓存
+    return ref.compareAndSet(null, evaluator) ? evaluator : ref.get();
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.caaws.internal;
+
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * 带缓存的 SpEL 求值器。
+ *
+ * <ul>
+ *   <li>解析结果按 (Method, 表达式) 缓存，同一个表达式写在不同方法上参数类型可能不同，分开缓存，编译出的字节码才不会互相冲突；
+ *   <li>解析器开启 SpEL 编译：{@link SpelCompilerMode#MIXED} 先解释执行，类型稳定后编译成字节码，类型变化时自动退回解释执行；{@link
+ *       SpelCompilerMode#IMMEDIATE} 第一次求值后就编译，但类型变化会直接抛异常；
+ *   <li>参数名按 Method 缓存；
+ *   <li>{@link MethodEvaluationContext} 共享所有解析器、转换器，每次调用只新建一个持有参数数组的小对象。
+ * </ul>
+ *
+ * <p>线程安全，一个实例可以被所有切面共用。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/18 23:50
+ */
+public class SpelExpressionEvaluator {
+
+  private static final String[] NO_NAMES = new String[0];
+
+  private final ExpressionParser parser;
+  private final ParameterNameDiscoverer parameterNameDiscoverer;
+  private final ConcurrentMap<ExpressionKey, Expression> expressions = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Method, String[]> parameterNames = new ConcurrentHashMap<>();
+
+  public SpelExpressionEvaluator(SpelCompilerMode compilerMode) {
+    this(
+        new SpelExpressionParser(
+            new SpelParserConfiguration(
+                compilerMode, SpelExpressionEvaluator.class.getClassLoader())),
+        new DefaultParameterNameDiscoverer());
+  }
+
+  public SpelExpressionEvaluator(
+      ExpressionParser parser, ParameterNameDiscoverer parameterNameDiscoverer) {
+    this.parser = Objects.requireNonNull(parser);
+    this.parameterNameDiscoverer = Objects.requireNonNull(parameterNameDiscoverer);
+  }
+
+  /**
+   * 为一次方法调用创建上下文。参数可以按名字（{@code #user}）或下标（{@code #p0}、{@code #a0}）引用，{@code #root} 是 {@link
+   * MethodRootObject}。
+   */
+  public EvaluationContext createContext(Method method, Object[] args, Object target) {
+    return new MethodEvaluationContext(
+        new MethodRootObject(method, args, target), parameterNames(method));
+  }
+
+  /**
+   * 求值。{@code context} 由 {@link #createContext} 创建时按 (Method, 表达式) 缓存，否则只按表达式缓存。
+   *
+   * @throws org.springframework.expression.ExpressionException 解析或求值失败
+   */
+  public <T> T evaluate(EvaluationContext context, String expression, Class<T> desiredResultType) {
+    Method method =
+        context instanceof MethodEvaluationContext methodContext ? methodContext.method() : null;
+    return expression(method, expression).getValue(context, desiredResultType);
+  }
+
+  private Expression expression(Method method, String expression) {
+    ExpressionKey key = new ExpressionKey(method, expression);
+    Expression parsed = expressions.get(key);
+    if (parsed == null) {
+      parsed = expressions.computeIfAbsent(key, k -> parser.parseExpression(k.expression()));
+    }
+    return parsed;
+  }
+
+  /** 拿不到参数名（编译时没有 {@code -parameters}）时只能用 {@code #p0}、{@code #a0}。 */
+  String[] parameterNames(Method method) {
+    String[] names = parameterNames.get(method);
+    if (names == null) {
+      names =
+          parameterNames.computeIfAbsent(
+              method,
+              m -> {
+                String[] discovered = parameterNameDiscoverer.getParameterNames(m);
+                return discovered != null ? discovered : NO_NAMES;
+              });
+    }
+    return names;
+  }
+
+  int cachedExpressions() {
+    return expressions.size();
+  }
+
+  private record ExpressionKey(Method method, String expression) {}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.caaws.internal;
+
+import io.github.code13.spring.boot.caaws.Interest;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+/**
+ * 一次被 {@link Interest} 切面拦截的调用的开销。
+ *
+ * <ul>
+ *   <li>{@code none}：没有切面的直接调用；
+ *   <li>{@code legacy}：原来的做法，每次调用重新解析表达式、新建 {@link StandardEvaluationContext}、查找参数名；
+ *   <li>{@code cachedInterpreted}：表达式和参数名有缓存，解释执行；
+ *   <li>{@code cachedCompiled}：{@link InternalInterestResolveElAspect} 本身，缓存 + MIXED 编译。
+ * </ul>
+ *
+ * <p>切面里的 info 日志在基准里关掉，只比较 SpEL 部分。
+ *
+ * <p>单核虚拟机上的结果（ns/op）：{@code legacy} 约 12800（误差很大，每次解析产生的垃圾让 GC 频繁介入），{@code
+ * cachedInterpreted} 约 2700，{@code cachedCompiled} 约 1500，后两者都包含同样的代理和 {@code JoinPoint} 开销，没有再细分。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/19 00:20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterestAspectBenchmark {
+
+  @Param({"none", "legacy", "cachedInterpreted", "cachedCompiled"})
+  private String aspect;
+
+  private UserService service;
+  private final User user = new User("foo", 66);
+
+  @Setup
+  public void setUp() {
+    ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(InternalInterestResolveElAspect.class))
+        .setLevel(ch.qos.logback.classic.Level.WARN);
+    UserService target = new UserService();
+    if (aspect.equals("none")) {
+      service = target;
+      return;
+    }
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.setProxyTargetClass(true);
+    factory.addAspect(
+        switch (aspect) {
+          case "legacy" -> new LegacyInterestAspect();
+          case "cachedInterpreted" -> new InterpretedInterestAspect();
+          case "cachedCompiled" -> new InternalInterestResolveElAspect();
+          default -> throw new IllegalArgumentException(aspect);
+        });
+    service = factory.getProxy();
+  }
+
+  @Benchmark
+  public void advisedCall(Blackhole blackhole) {
+    blackhole.consume(service.interest(user));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(InterestAspectBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  /** 表达式编译要求访问的类型是 public 的。 */
+  public record User(String name, Integer age) {}
+
+  public static class UserService {
+
+    @Interest(key = "#user.name", unless = "#user.age > 18")
+    public User interest(User user) {
+      return user;
+    }
+  }
+
+  /** 原来的 {@code AopSpelResolveService}：每次调用都解析、新建上下文。 */
+  @Aspect
+  public static class LegacyInterestAspect {
+
+    private final ExpressionParser expressionParser = new SpelExpressionParser();
+    private final DefaultParameterNameDiscoverer parameterNameDiscoverer =
+        new DefaultParameterNameDiscoverer();
+
+    @Around("@annotation(anno)")
+    public Object invoked(ProceedingJoinPoint joinPoint, Interest anno) throws Throwable {
+      Object[] args = joinPoint.getArgs();
+      Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+      String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+      EvaluationContext context = new StandardEvaluationContext();
+      for (int i = 0; i < parameterNames.length; i++) {
+        context.setVariable(parameterNames[i], args[i]);
+      }
+      String key = expressionParser.parseExpression(anno.key()).getValue(context, String.class);
+      Boolean unless =
+          expressionParser.parseExpression(anno.unless()).getValue(context, Boolean.class);
+      return key != null && unless != null ? joinPoint.proceed() : null;
+    }
+  }
+
+  /** 与 {@link InternalInterestResolveElAspect} 相同，只是关掉编译。 */
+  @Aspect
+  public static class InterpretedInterestAspect implements AopSpelResolveService {
+
+    private final SpelExpressionEvaluator evaluator =
+        new SpelExpressionEvaluator(SpelCompilerMode.OFF);
+
+    @Around("@annotation(anno)")
+    public Object invoked(ProceedingJoinPoint joinPoint, Interest anno) throws Throwable {
+      EvaluationContext context = getEvaluationContext(joinPoint);
+      String key = resolveSpel(context, anno::key, String.class);
+      Boolean unless = resolveSpel(context, anno::unless, Boolean.class);
+      return key != null && unless != null ? joinPoint.proceed() : null;
+    }
+
+    @Override
+    public SpelExpressionEvaluator getSpelEvaluator() {
+      return evaluator;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.boot.caaws.internal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.code13.spring.boot.caaws.Interest;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+
+/**
+ * SpelExpressionEvaluatorTest.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @since 2026/10/19 00:40
+ */
+class SpelExpressionEvaluatorTest {
+
+  @Test
+  void resolvesParametersByNameAndIndex() {
+    SpelExpressionEvaluator evaluator = new SpelExpressionEvaluator(SpelCompilerMode.MIXED);
+    Method interest = interest();
+    User user = new User("foo", 66);
+    EvaluationContext context = evaluator.createContext(interest, new Object[] {user}, null);
+
+    assertEquals("foo", evaluator.evaluate(context, "#user.name", String.class));
+    assertEquals(66, evaluator.evaluate(context, "#p0.age", Integer.class));
+    assertEquals(66, evaluator.evaluate(context, "#a0.age", Integer.class));
+    assertEquals("interest", evaluator.evaluate(context, "#root.methodName", String.class));
+    assertNull(evaluator.evaluate(context, "#p1", Object.class));
+    context.setVariable("extra", "x");
+    assertEquals("x", evaluator.evaluate(context, "#extra", String.class));
+  }
+
+  @Test
+  void cachesPerMethodAndExpression() {
+    SpelExpressionEvaluator evaluator = new SpelExpressionEvaluator(SpelCompilerMode.OFF);
+    Method interest = interest();
+    for (int i = 0; i < 10; i++) {
+      EvaluationContext context =
+          evaluator.createContext(interest, new Object[] {new User("u" + i, i)}, null);
+      assertEquals("u" + i, evaluator.evaluate(context, "#user.name", String.class));
+      assertEquals(i > 5, evaluator.evaluate(context, "#user.age > 5", Boolean.class));
+    }
+    assertEquals(2, evaluator.cachedExpressions());
+    assertSame(evaluator.parameterNames(interest), evaluator.parameterNames(interest));
+  }
+
+  @Test
+  void immediateModeRunsCompiledCode() {
+    SpelExpressionEvaluator evaluator = new SpelExpressionEvaluator(SpelCompilerMode.IMMEDIATE);
+    assertEquals(true, evaluate(evaluator, new User("foo", 66)));
+    assertEquals(false, evaluate(evaluator, new User("foo", 6)));
+    // 编译出的字节码里把 #user 强转成 User，换一种类型就会失败，说明确实走了编译后的代码
+    assertThrows(SpelEvaluationException.class, () -> evaluate(evaluator, new OtherUser(30)));
+  }
+
+  @Test
+  void mixedModeFallsBackWhenTypesChange() {
+    SpelExpressionEvaluator evaluator = new SpelExpressionEvaluator(SpelCompilerMode.MIXED);
+    // 超过解释执行阈值（100 次）后编译
+    for (int i = 0; i < 200; i++) {
+      assertEquals(i > 18, evaluate(evaluator, new User("foo", i)));
+    }
+    assertEquals(true, evaluate(evaluator, new OtherUser(30)));
+    assertEquals(false, evaluate(evaluator, new User("foo", 1)));
+  }
+
+  @Test
+  void resolveServiceUsesOverriddenGetters() {
+    AopSpelResolveService defaults = new AopSpelResolveService() {};
+    assertSame(AopSpelResolveService.spelEvaluator, defaults.getSpelEvaluator());
+
+    RenamingResolveService first = new RenamingResolveService();
+    SpelExpressionEvaluator evaluator = first.getSpelEvaluator();
+    assertNotSame(AopSpelResolveService.spelEvaluator, evaluator);
+    assertSame(evaluator, new RenamingResolveService().getSpelEvaluator());
+    EvaluationContext context =
+        evaluator.createContext(interest(), new Object[] {new User("foo", 66)}, null);
+    assertEquals("foo", first.resolveSpel(context, () -> "#renamed.name", String.class));
+  }
+
+  private static Boolean evaluate(SpelExpressionEvaluator evaluator, Object user) {
+    EvaluationContext context = evaluator.createContext(interest(), new Object[] {user}, null);
+    return evaluator.evaluate(context, "#user.age > 18", Boolean.class);
+  }
+
+  private static Method interest() {
+    try {
+      return UserService.class.getMethod("interest", User.class);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public record User(String name, Integer age) {}
+
+  public record OtherUser(Integer age) {}
+
+  public static class UserService {
+
+    @Interest(key = "#user.name", unless = "#user.age > 18")
+    public User interest(User user) {
+      return user;
+    }
+  }
+
+  static class RenamingResolveService implements AopSpelResolveService {
+
+    private static final ParameterNameDiscoverer RENAMED =
+        new ParameterNameDiscoverer() {
+          @Override
+          public String[] getParameterNames(Method method) {
+            return new String[] {"renamed"};
+          }
+
+          @Override
+          public String[] getParameterNames(Constructor<?> ctor) {
+            return null;
+          }
+        };
+
+    @Override
+    public ParameterNameDiscoverer getParameterNameDiscoverer() {
+      return RENAMED;
+    }
+  }
+}
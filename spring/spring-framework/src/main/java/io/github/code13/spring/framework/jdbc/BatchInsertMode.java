@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+/**
+ * {@link StreamingBatchWriter} 每个分块的写法。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 10:00
+ */
+public enum BatchInsertMode {
+
+  /** 每行一次 {@code executeUpdate}，一行一次往返，作为对照。 */
+  PER_ROW,
+
+  /** 单行 INSERT，{@code addBatch} 后整块一次 {@code executeBatch}。 */
+  JDBC_BATCH,
+
+  /** 改写成 {@code INSERT ... VALUES (...),(...)}，一条语句插入多行，参数个数受 {@link BatchWriteOptions#maxParametersPerStatement()} 限制。 */
+  MULTI_VALUES
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * {@link StreamingBatchWriter} 的参数。
+ *
+ * @param chunkSize 每个分块的行数，一个分块一个事务
+ * @param mode 分块的写法
+ * @param parallelism 同时写入的连接数，1 表示在调用线程上顺序写
+ * @param maxRetries 分块遇到瞬时异常（{@link org.springframework.dao.TransientDataAccessException} 等）时最多重试几次
+ * @param retryBackoff 第一次重试前的等待时间，之后每次翻倍
+ * @param maxParametersPerStatement {@link BatchInsertMode#MULTI_VALUES} 一条语句最多多少个参数，默认取 PostgreSQL 的 32767
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 10:00
+ */
+public record BatchWriteOptions(
+    int chunkSize,
+    BatchInsertMode mode,
+    int parallelism,
+    int maxRetries,
+    Duration retryBackoff,
+    int maxParametersPerStatement) {
+
+  public BatchWriteOptions {
+    if (chunkSize <= 0 || parallelism <= 0 || maxParametersPerStatement <= 0) {
+      throw new IllegalArgumentException(
+          "chunkSize, parallelism and maxParametersPerStatement must be positive");
+    }
+    if (maxRetries < 0) {
+      throw new IllegalArgumentException("maxRetries must not be negative: " + maxRetries);
+    }
+    Objects.requireNonNull(mode, "mode");
+    Objects.requireNonNull(retryBackoff, "retryBackoff");
+  }
+
+  /** 每块 1000 行、JDBC 批量、单连接，瞬时异常重试 2 次。 */
+  public static BatchWriteOptions defaults() {
+    return new BatchWriteOptions(
+        1000, BatchInsertMode.JDBC_BATCH, 1, 2, Duration.ofMillis(100), 32767);
+  }
+
+  public BatchWriteOptions withChunkSize(int chunkSize) {
+    return new BatchWriteOptions(
+        chunkSize, mode, parallelism, maxRetries, retryBackoff, maxParametersPerStatement);
+  }
+
+  public BatchWriteOptions withMode(BatchInsertMode mode) {
+    return new BatchWriteOptions(
+        chunkSize, mode, parallelism, maxRetries, retryBackoff, maxParametersPerStatement);
+  }
+
+  public BatchWriteOptions withParallelism(int parallelism) {
+    return new BatchWriteOptions(
+        chunkSize, mode, parallelism, maxRetries, retryBackoff, maxParametersPerStatement);
+  }
+
+  public BatchWriteOptions withRetries(int maxRetries, Duration retryBackoff) {
+    return new BatchWriteOptions(
+        chunkSize, mode, parallelism, maxRetries, retryBackoff, maxParametersPerStatement);
+  }
+
+  public BatchWriteOptions withMaxParametersPerStatement(int maxParametersPerStatement) {
+    return new BatchWriteOptions(
+        chunkSize, mode, parallelism, maxRetries, retryBackoff, maxParametersPerStatement);
+  }
+}
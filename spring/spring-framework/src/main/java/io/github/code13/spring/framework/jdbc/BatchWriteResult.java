@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import java.time.Duration;
+
+/**
+ * 一次 {@link StreamingBatchWriter#write} 的统计。
+ *
+ * @param rows 写入的行数
+ * @param chunks 提交的分块（事务）数
+ * @param retries 分块因瞬时异常重试的次数
+ * @param elapsed 总耗时
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 10:00
+ */
+public record BatchWriteResult(long rows, long chunks, long retries, Duration elapsed) {
+
+  public double rowsPerSecond() {
+    long nanos = elapsed.toNanos();
+    return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "%d rows in %d chunks (%d retries), %d ms, %.0f rows/s",
+        rows, chunks, retries, elapsed.toMillis(), rowsPerSecond());
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import org.springframework.jdbc.support.JdbcUtils;
+
+/**
+ * {@link StreamingQuery#chunks} 里按列存放的一批行。
+ *
+ * <p>整数、长整数、浮点列放进 {@code int[]} / {@code long[]} / {@code double[]}，不装箱；其他类型放进 {@code Object[]}。
+ * 整个流复用同一个实例和同一组数组，下标 {@code [0, size())} 之外的内容无意义。列号从 1 开始，行号从 0 开始。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 12:00
+ */
+public final class ColumnChunk {
+
+  /** 列在块里的存放方式。 */
+  public enum Kind {
+    INT,
+    LONG,
+    DOUBLE,
+    OBJECT
+  }
+
+  private final String[] labels;
+  private final Kind[] kinds;
+  private final Object[] columns;
+  private final boolean[][] nulls;
+  private final int capacity;
+  private int size;
+
+  ColumnChunk(ResultSetMetaData metaData, int capacity) throws SQLException {
+    int count = metaData.getColumnCount();
+    this.capacity = capacity;
+    labels = new String[count];
+    kinds = new Kind[count];
+    columns = new Object[count];
+    nulls = new boolean[count][capacity];
+    for (int i = 0; i < count; i++) {
+      labels[i] = JdbcUtils.lookupColumnName(metaData, i + 1);
+      kinds[i] = kindOf(metaData.getColumnType(i + 1));
+      columns[i] =
+          switch (kinds[i]) {
+            case INT -> new int[capacity];
+            case LONG -> new long[capacity];
+            case DOUBLE -> new double[capacity];
+            case OBJECT -> new Object[capacity];
+          };
+    }
+  }
+
+  private static Kind kindOf(int sqlType) {
+    return switch (sqlType) {
+      case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> Kind.INT;
+      case Types.BIGINT -> Kind.LONG;
+      case Types.DOUBLE, Types.FLOAT, Types.REAL -> Kind.DOUBLE;
+      default -> Kind.OBJECT;
+    };
+  }
+
+  /** 从游标当前位置读入最多 {@code capacity} 行，返回是否读到了行。 */
+  boolean fill(StreamingQuery.Cursor cursor) throws SQLException {
+    ResultSet rs = cursor.resultSet();
+    int previous = size;
+    size = 0;
+    while (size < capacity && cursor.next()) {
+      for (int i = 0; i < columns.length; i++) {
+        int column = i + 1;
+        switch (kinds[i]) {
+          case INT -> ((int[]) columns[i])[size] = rs.getInt(column);
+          case LONG -> ((long[]) columns[i])[size] = rs.getLong(column);
+          case DOUBLE -> ((double[]) columns[i])[size] = rs.getDouble(column);
+          case OBJECT -> ((Object[]) columns[i])[size] = JdbcUtils.getResultSetValue(rs, column);
+        }
+        nulls[i][size] = rs.wasNull();
+      }
+      size++;
+    }
+    // 最后一块不满时清掉上一块残留的引用
+    for (int i = 0; i < columns.length; i++) {
+      if (kinds[i] == Kind.OBJECT && size < previous) {
+        Arrays.fill((Object[]) columns[i], size, previous, null);
+      }
+    }
+    return size > 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int columnCount() {
+    return labels.length;
+  }
+
+  public String columnLabel(int column) {
+    return labels[column - 1];
+  }
+
+  public Kind kind(int column) {
+    return kinds[column - 1];
+  }
+
+  public int[] ints(int column) {
+    return (int[]) column(column, Kind.INT);
+  }
+
+  public long[] longs(int column) {
+    return (long[]) column(column, Kind.LONG);
+  }
+
+  public double[] doubles(int column) {
+    return (double[]) column(column, Kind.DOUBLE);
+  }
+
+  public Object[] objects(int column) {
+    return (Object[]) column(column, Kind.OBJECT);
+  }
+
+  public boolean isNull(int column, int row) {
+    return nulls[column - 1][row];
+  }
+
+  private Object column(int column, Kind expected) {
+    if (kinds[column - 1] != expected) {
+      throw new IllegalStateException(
+          "column " + labels[column - 1] + " is " + kinds[column - 1] + ", not " + expected);
+    }
+    return columns[column - 1];
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+/**
+ * {@link StreamingQuery#rows} 里的当前行，直接读底层 {@link ResultSet}，不为每行创建 Map 或 bean。
+ *
+ * <p>整个流只有这一个实例，游标前进后内容随之变化；需要保留某一行时用 {@link #toArray()} 复制出来。列号与 JDBC 一致，从 1 开始；按列名读取时不区分大小写。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 12:00
+ */
+public final class RowView {
+
+  private final ResultSet resultSet;
+  private final SQLExceptionTranslator translator;
+  private final String sql;
+  private final String[] labels;
+  private final Map<String, Integer> indexes;
+  private long rowNumber;
+
+  RowView(ResultSet resultSet, SQLExceptionTranslator translator, String sql) throws SQLException {
+    this.resultSet = resultSet;
+    this.translator = translator;
+    this.sql = sql;
+    ResultSetMetaData metaData = resultSet.getMetaData();
+    labels = new String[metaData.getColumnCount()];
+    indexes = new HashMap<>(labels.length * 2);
+    for (int i = 0; i < labels.length; i++) {
+      labels[i] = JdbcUtils.lookupColumnName(metaData, i + 1);
+      indexes.putIfAbsent(labels[i].toUpperCase(Locale.ROOT), i + 1);
+    }
+  }
+
+  void advance() {
+    rowNumber++;
+  }
+
+  /** 当前是第几行，从 1 开始。 */
+  public long rowNumber() {
+    return rowNumber;
+  }
+
+  public int columnCount() {
+    return labels.length;
+  }
+
+  public String columnLabel(int column) {
+    return labels[column - 1];
+  }
+
+  public int indexOf(String label) {
+    Integer index = indexes.get(label.toUpperCase(Locale.ROOT));
+    if (index == null) {
+      throw new IllegalArgumentException("no column named " + label + " in " + sql);
+    }
+    return index;
+  }
+
+  public int getInt(int column) {
+    try {
+      return resultSet.getInt(column);
+    } catch (SQLException e) {
+      throw translate(e);
+    }
+  }
+
+  public int getInt(String label) {
+    return getInt(indexOf(label));
+  }
+
+  public long getLong(int column) {
+    try {
+      return resultSet.getLong(column);
+    } catch (SQLException e) {
+      throw translate(e);
+    }
+  }
+
+  public long getLong(String label) {
+    return getLong(indexOf(label));
+  }
+
+  public double getDouble(int column) {
+    try {
+      return resultSet.getDouble(column);
+    } catch (SQLException e) {
+      throw translate(e);
+    }
+  }
+
+  public double getDouble(String label) {
+    return getDouble(indexOf(label));
+  }
+
+  public String getString(int column) {
+    try {
+      return resultSet.getString(column);
+    } catch (SQLException e) {
+      throw translate(e);
+    }
+  }
+
+  public String getString(String label) {
+    return getString(indexOf(label));
+  }
+
+  public BigDecimal getBigDecimal(int column) {
+    try {
+      return resultSet.getBigDecimal(column);
+    } catch (SQLException e) {
+      throw translate(e);
+    }
+  }
+
+  public Object getObject(int column) {
+    try {
+      return JdbcUtils.getResultSetValue(resultSet, column);
+    } catch (SQLException e) {
+      throw translate(e);
+    }
+  }
+
+  public Object getObject(String label) {
+    return getObject(indexOf(label));
+  }
+
+  public <T> T getObject(int column, Class<T> type) {
+    try {
+      return type.cast(JdbcUtils.getResultSetValue(resultSet, column, type));
+    } catch (SQLException e) {
+      throw translate(e);
+    }
+  }
+
+  /** 上一次读取的列是否为 SQL NULL，用于区分基本类型 getter 返回的 0。 */
+  public boolean wasNull() {
+    try {
+      return resultSet.wasNull();
+    } catch (SQLException e) {
+      throw translate(e);
+    }
+  }
+
+  /** 复制当前行的全部列。 */
+  public Object[] toArray() {
+    Object[] values = new Object[labels.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = getObject(i + 1);
+    }
+    return values;
+  }
+
+  private RuntimeException translate(SQLException e) {
+    return StreamingQuery.translate(translator, "RowView", sql, e);
+  }
+}
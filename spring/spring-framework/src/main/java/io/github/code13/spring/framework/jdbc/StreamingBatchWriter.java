@@ -0,0 +1,316 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.StatementCreatorUtils;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 流式分块批量插入。
+ *
+ * <p>{@link BatchOperationsRunner} 里的 {@code batchUpdate} 要先把全部行放进 {@code List} 或 {@code
+ * SqlParameterSource[]}，几千万行的导入放不下。这里从 {@link Stream} / {@link Iterator} 边读边写，内存里最多只有 {@code 2 *
+ * parallelism} 个分块：
+ *
+ * <pre>{@code
+ * StreamingBatchWriter<Employee> writer =
+ *     new StreamingBatchWriter<>(
+ *         dataSource,
+ *         "EMPLOYEE",
+ *         List.of("ID", "FIRST_NAME", "LAST_NAME", "ADDRESS"),
+ *         e -> new Object[] {e.getId(), e.getFirstName(), e.getLastName(), e.getAddress()},
+ *         BatchWriteOptions.defaults().withMode(BatchInsertMode.MULTI_VALUES).withParallelism(4));
+ * BatchWriteResult result = writer.write(employees);
+ * }</pre>
+ *
+ * <p>每个分块在自己的事务里提交，遇到 {@link TransientDataAccessException} / {@link RecoverableDataAccessException}
+ * 时回滚并按指数退避重试；其他异常或重试用尽时停止读取、等在途分块结束后抛出。之前已经提交的分块不会回滚，续传时需要调用方按业务键跳过已写入的行。
+ *
+ * <p>{@code parallelism > 1} 时分块交给同样数量的平台线程，每个线程在事务里从 {@code dataSource} 拿一个连接，也就是 N 个连接并行写。
+ *
+ * @param <T> 行的类型
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 10:00
+ */
+public class StreamingBatchWriter<T> {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final String table;
+  private final List<String> columns;
+  private final Function<? super T, Object[]> values;
+  private final BatchWriteOptions options;
+
+  private final String singleRowSql;
+  private final int rowsPerStatement;
+  private final String multiRowSql;
+
+  /**
+   * @param values 按 {@code columns} 的顺序取出一行的值，{@code null} 写入 SQL NULL
+   */
+  public StreamingBatchWriter(
+      DataSource dataSource,
+      String table,
+      List<String> columns,
+      Function<? super T, Object[]> values,
+      BatchWriteOptions options) {
+    if (columns.isEmpty()) {
+      throw new IllegalArgumentException("columns must not be empty");
+    }
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.transactionTemplate =
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    this.table = Objects.requireNonNull(table, "table");
+    this.columns = List.copyOf(columns);
+    this.values = Objects.requireNonNull(values, "values");
+    this.options = Objects.requireNonNull(options, "options");
+    this.singleRowSql = insertSql(1);
+    this.rowsPerStatement =
+        Math.max(
+            1, Math.min(options.chunkSize(), options.maxParametersPerStatement() / columns.size()));
+    this.multiRowSql = insertSql(rowsPerStatement);
+  }
+
+  /** 写完后关闭 {@code rows}。 */
+  public BatchWriteResult write(Stream<? extends T> rows) {
+    try (rows) {
+      return write(rows.iterator());
+    }
+  }
+
+  public BatchWriteResult write(Iterator<? extends T> rows) {
+    long start = System.nanoTime();
+    Progress progress = new Progress();
+    if (options.parallelism() == 1) {
+      while (rows.hasNext()) {
+        writeChunk(nextChunk(rows), progress);
+      }
+    } else {
+      writeInParallel(rows, progress);
+    }
+    return new BatchWriteResult(
+        progress.rows.sum(),
+        progress.chunks.sum(),
+        progress.retries.sum(),
+        Duration.ofNanos(System.nanoTime() - start));
+  }
+
+  private void writeInParallel(Iterator<? extends T> rows, Progress progress) {
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    Semaphore inFlight = new Semaphore(options.parallelism() * 2);
+    boolean interrupted = false;
+    try (ExecutorService executor =
+        Executors.newFixedThreadPool(
+            options.parallelism(), Thread.ofPlatform().name("batch-writer-", 0).factory())) {
+      while (failure.get() == null) {
+        // 先拿许可再读分块（hasNext 也可能预读一行），正在读的分块也计入 2 * parallelism
+        try {
+          inFlight.acquire();
+        } catch (InterruptedException e) {
+          interrupted = true;
+          break;
+        }
+        if (failure.get() != null || !rows.hasNext()) {
+          inFlight.release();
+          break;
+        }
+        List<T> chunk = nextChunk(rows);
+        executor.execute(
+            () -> {
+              try {
+                if (failure.get() == null) {
+                  writeChunk(chunk, progress);
+                }
+              } catch (RuntimeException e) {
+                if (!failure.compareAndSet(null, e)) {
+                  failure.get().addSuppressed(e);
+                }
+              } finally {
+                inFlight.release();
+              }
+            });
+      }
+    }
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException(
+          "interrupted after " + progress.rows.sum() + " rows were written");
+    }
+  }
+
+  private List<T> nextChunk(Iterator<? extends T> rows) {
+    List<T> chunk = new ArrayList<>(options.chunkSize());
+    while (chunk.size() < options.chunkSize() && rows.hasNext()) {
+      chunk.add(rows.next());
+    }
+    return chunk;
+  }
+
+  private void writeChunk(List<T> chunk, Progress progress) {
+    for (int attempt = 0; ; attempt++) {
+      try {
+        transactionTemplate.executeWithoutResult(status -> insert(chunk));
+        progress.rows.add(chunk.size());
+        progress.chunks.increment();
+        return;
+      } catch (TransientDataAccessException | RecoverableDataAccessException e) {
+        if (attempt >= options.maxRetries()) {
+          throw e;
+        }
+        progress.retries.increment();
+        try {
+          Thread.sleep(options.retryBackoff().multipliedBy(1L << Math.min(attempt, 16)));
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  private void insert(List<T> chunk) {
+    switch (options.mode()) {
+      case PER_ROW ->
+          jdbcTemplate.execute(
+              singleRowSql,
+              (PreparedStatementCallback<Void>)
+                  ps -> {
+                    for (T row : chunk) {
+                      bind(ps, 0, row);
+                      ps.executeUpdate();
+                    }
+                    return null;
+                  });
+      case JDBC_BATCH ->
+          jdbcTemplate.execute(
+              singleRowSql,
+              (PreparedStatementCallback<Void>)
+                  ps -> {
+                    for (T row : chunk) {
+                      bind(ps, 0, row);
+                      ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    return null;
+                  });
+      case MULTI_VALUES -> insertMultiValues(chunk);
+    }
+  }
+
+  /** 整条的多行语句作为一批执行，余下不足一条的行单独拼一条。 */
+  private void insertMultiValues(List<T> chunk) {
+    int statements = chunk.size() / rowsPerStatement;
+    int rest = chunk.size() % rowsPerStatement;
+    if (statements > 0) {
+      jdbcTemplate.execute(
+          multiRowSql,
+          (PreparedStatementCallback<Void>)
+              ps -> {
+                for (int s = 0; s < statements; s++) {
+                  bindRows(ps, chunk, s * rowsPerStatement, rowsPerStatement);
+                  if (statements > 1) {
+                    ps.addBatch();
+                  }
+                }
+                if (statements > 1) {
+                  ps.executeBatch();
+                } else {
+                  ps.executeUpdate();
+                }
+                return null;
+              });
+    }
+    if (rest > 0) {
+      jdbcTemplate.execute(
+          insertSql(rest),
+          (PreparedStatementCallback<Void>)
+              ps -> {
+                bindRows(ps, chunk, statements * rowsPerStatement, rest);
+                ps.executeUpdate();
+                return null;
+              });
+    }
+  }
+
+  private void bindRows(PreparedStatement ps, List<T> chunk, int from, int count)
+      throws SQLException {
+    for (int i = 0; i < count; i++) {
+      bind(ps, i * columns.size(), chunk.get(from + i));
+    }
+  }
+
+  private void bind(PreparedStatement ps, int offset, T row) throws SQLException {
+    Object[] rowValues = values.apply(row);
+    if (rowValues.length != columns.size()) {
+      throw new IllegalArgumentException(
+          "expected " + columns.size() + " values but got " + rowValues.length + ": " + row);
+    }
+    for (int i = 0; i < rowValues.length; i++) {
+      StatementCreatorUtils.setParameterValue(
+          ps, offset + i + 1, SqlTypeValue.TYPE_UNKNOWN, rowValues[i]);
+    }
+  }
+
+  private String insertSql(int rows) {
+    String placeholders =
+        columns.stream().map(column -> "?").collect(Collectors.joining(", ", "(", ")"));
+    StringBuilder sql =
+        new StringBuilder("INSERT INTO ")
+            .append(table)
+            .append(" (")
+            .append(String.join(", ", columns))
+            .append(") VALUES ");
+    for (int i = 0; i < rows; i++) {
+      if (i > 0) {
+        sql.append(", ");
+      }
+      sql.append(placeholders);
+    }
+    return sql.toString();
+  }
+
+  private static final class Progress {
+    final LongAdder rows = new LongAdder();
+    final LongAdder chunks = new LongAdder();
+    final LongAdder retries = new LongAdder();
+  }
+}
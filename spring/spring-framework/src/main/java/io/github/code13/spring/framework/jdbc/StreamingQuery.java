@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.sql.DataSource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLErrorCodeSQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+
+/**
+ * 流式查询。
+ *
+ * <p>{@link JdbcTemplateQueryRunner} 里的 {@code queryForList} / {@code query} 会把整个结果集放进内存，导出上亿行的表时放不下。这里用只进、只读的游标，按
+ * {@code fetchSize} 分批从数据库取，结果以惰性的 {@link Stream} 交出：
+ *
+ * <pre>{@code
+ * StreamingQuery query = new StreamingQuery(dataSource, 1000);
+ * try (Stream<RowView> rows = query.rows("SELECT ID, FIRST_NAME FROM EMPLOYEE WHERE ID > ?", 0)) {
+ *   rows.forEach(row -> writer.write(row.getInt(1), row.getString("FIRST_NAME")));
+ * }
+ * }</pre>
+ *
+ * <ul>
+ *   <li>{@link #rows} 每行交出同一个 {@link RowView}，直接读底层 {@link ResultSet}，不为每行创建 Map 或 bean；
+ *   <li>{@link #chunks} 每次交出同一个 {@link ColumnChunk}，数值列放进基本类型数组，适合按列聚合或批量写出。
+ * </ul>
+ *
+ * <p>与 Spring 自带的 {@code JdbcTemplate#queryForStream} 相比，后者要求一个 {@code RowMapper}，每行总要产生一个对象。
+ *
+ * <p>连接通过 {@link DataSourceUtils} 获取，在 Spring 事务里时使用事务的连接。不在事务里时临时关闭 autocommit，PostgreSQL 只有这样才会按
+ * {@code fetchSize} 使用服务端游标，否则会一次取回全部行；流关闭时回滚这个只读事务并恢复 autocommit。MySQL 需要在 URL 上加 {@code
+ * useCursorFetch=true}，或者把 {@code fetchSize} 设为 {@link Integer#MIN_VALUE} 逐行流式读取。
+ *
+ * <p>语句、结果集和连接在流关闭时释放，遍历到末尾时也会提前释放；中途停止（如 {@code limit}、{@code findFirst}）时必须关闭流，建议总是用
+ * try-with-resources。流不支持并行。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 12:00
+ */
+public class StreamingQuery {
+
+  private final DataSource dataSource;
+  private final int fetchSize;
+  private final SQLExceptionTranslator translator;
+
+  public StreamingQuery(DataSource dataSource, int fetchSize) {
+    this.dataSource = dataSource;
+    this.fetchSize = fetchSize;
+    this.translator = new SQLErrorCodeSQLExceptionTranslator(dataSource);
+  }
+
+  /** 执行查询并返回行的流，SQL 错误在调用时立即抛出。 */
+  public Stream<RowView> rows(String sql, Object... args) {
+    Cursor cursor = open(sql, args);
+    RowView view;
+    try {
+      view = new RowView(cursor.resultSet(), translator, sql);
+    } catch (SQLException e) {
+      cursor.close();
+      throw translate(translator, "StreamingQuery", sql, e);
+    }
+    return stream(
+        cursor,
+        action -> {
+          if (!cursor.next()) {
+            return false;
+          }
+          view.advance();
+          action.accept(view);
+          return true;
+        });
+  }
+
+  /** 执行查询并按每块 {@code chunkSize} 行返回列式的块。 */
+  public Stream<ColumnChunk> chunks(String sql, int chunkSize, Object... args) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+    }
+    Cursor cursor = open(sql, args);
+    ColumnChunk chunk;
+    try {
+      chunk = new ColumnChunk(cursor.resultSet().getMetaData(), chunkSize);
+    } catch (SQLException e) {
+      cursor.close();
+      throw translate(translator, "StreamingQuery", sql, e);
+    }
+    return stream(
+        cursor,
+        action -> {
+          try {
+            if (!chunk.fill(cursor)) {
+              return false;
+            }
+          } catch (SQLException e) {
+            cursor.close();
+            throw translate(translator, "StreamingQuery", sql, e);
+          }
+          action.accept(chunk);
+          return true;
+        });
+  }
+
+  private static <T> Stream<T> stream(Cursor cursor, Advance<T> advance) {
+    Spliterator<T> spliterator =
+        new Spliterator<>() {
+          @Override
+          public boolean tryAdvance(Consumer<? super T> action) {
+            return advance.tryAdvance(action);
+          }
+
+          /** 所有元素是同一个可变实例，不能拆分给别的线程。 */
+          @Override
+          public Spliterator<T> trySplit() {
+            return null;
+          }
+
+          @Override
+          public long estimateSize() {
+            return Long.MAX_VALUE;
+          }
+
+          @Override
+          public int characteristics() {
+            return ORDERED | NONNULL;
+          }
+        };
+    return StreamSupport.stream(spliterator, false).onClose(cursor::close);
+  }
+
+  private interface Advance<T> {
+    boolean tryAdvance(Consumer<? super T> action);
+  }
+
+  private Cursor open(String sql, Object[] args) {
+    Connection connection = DataSourceUtils.getConnection(dataSource);
+    PreparedStatement statement = null;
+    boolean restoreAutoCommit = false;
+    try {
+      if (!DataSourceUtils.isConnectionTransactional(connection, dataSource)
+          && connection.getAutoCommit()) {
+        connection.setAutoCommit(false);
+        restoreAutoCommit = true;
+      }
+      statement =
+          connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      statement.setFetchSize(fetchSize);
+      ArgumentPreparedStatementSetter setter = new ArgumentPreparedStatementSetter(args);
+      setter.setValues(statement);
+      setter.cleanupParameters();
+      ResultSet resultSet = statement.executeQuery();
+      return new Cursor(connection, statement, resultSet, restoreAutoCommit, sql);
+    } catch (SQLException e) {
+      JdbcUtils.closeStatement(statement);
+      release(connection, restoreAutoCommit);
+      throw translate(translator, "StreamingQuery", sql, e);
+    }
+  }
+
+  private void release(Connection connection, boolean restoreAutoCommit) {
+    if (restoreAutoCommit) {
+      try {
+        connection.rollback();
+        connection.setAutoCommit(true);
+      } catch (SQLException ignored) {
+        // 连接随后归还或关闭，连接池归还时也会重置 autocommit
+      }
+    }
+    DataSourceUtils.releaseConnection(connection, dataSource);
+  }
+
+  static DataAccessException translate(
+      SQLExceptionTranslator translator, String task, String sql, SQLException e) {
+    DataAccessException translated = translator.translate(task, sql, e);
+    return translated != null ? translated : new UncategorizedSQLException(task, sql, e);
+  }
+
+  /** 一次查询打开的资源，只在遍历的线程上使用。 */
+  final class Cursor implements AutoCloseable {
+
+    private final Connection connection;
+    private final PreparedStatement statement;
+    private final ResultSet resultSet;
+    private final boolean restoreAutoCommit;
+    private final String sql;
+    private boolean closed;
+
+    private Cursor(
+        Connection connection,
+        PreparedStatement statement,
+        ResultSet resultSet,
+        boolean restoreAutoCommit,
+        String sql) {
+      this.connection = connection;
+      this.statement = statement;
+      this.resultSet = resultSet;
+      this.restoreAutoCommit = restoreAutoCommit;
+      this.sql = sql;
+    }
+
+    ResultSet resultSet() {
+      return resultSet;
+    }
+
+    /** 前进一行；到末尾时立即释放资源，关闭之后始终返回 {@code false}。 */
+    boolean next() {
+      if (closed) {
+        return false;
+      }
+      try {
+        if (resultSet.next()) {
+          return true;
+        }
+      } catch (SQLException e) {
+        close();
+        throw translate(translator, "StreamingQuery", sql, e);
+      }
+      close();
+      return false;
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      JdbcUtils.closeResultSet(resultSet);
+      JdbcUtils.closeStatement(statement);
+      release(connection, restoreAutoCommit);
+    }
+  }
+}
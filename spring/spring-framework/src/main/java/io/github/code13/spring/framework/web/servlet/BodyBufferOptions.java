@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.web.servlet;
+
+import java.nio.file.Path;
+
+/**
+ * {@link BufferedServletRequestWrapper} 的参数。
+ *
+ * @param memoryThreshold 请求体不超过该值时缓存在池化的内存块里，超过则写临时文件
+ * @param maxBodySize 请求体上限，超过时抛出 {@link java.io.IOException}；不能超过 {@code Integer.MAX_VALUE}（单次 mmap 的上限）
+ * @param tempDirectory 临时文件目录，{@code null} 表示 {@code java.io.tmpdir}
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 01:10
+ */
+public record BodyBufferOptions(int memoryThreshold, long maxBodySize, Path tempDirectory) {
+
+  public BodyBufferOptions {
+    if (memoryThreshold < 0) {
+      throw new IllegalArgumentException(
+          "memoryThreshold must not be negative: " + memoryThreshold);
+    }
+    if (maxBodySize < 0 || maxBodySize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "maxBodySize must be in [0, Integer.MAX_VALUE]: " + maxBodySize);
+    }
+  }
+
+  /** 1MB 以内放内存，不限大小（最大 2GB），系统临时目录。 */
+  public static BodyBufferOptions defaults() {
+    return new BodyBufferOptions(1 << 20, Integer.MAX_VALUE, null);
+  }
+
+  public BodyBufferOptions withMemoryThreshold(int memoryThreshold) {
+    return new BodyBufferOptions(memoryThreshold, maxBodySize, tempDirectory);
+  }
+
+  public BodyBufferOptions withMaxBodySize(long maxBodySize) {
+    return new BodyBufferOptions(memoryThreshold, maxBodySize, tempDirectory);
+  }
+
+  public BodyBufferOptions withTempDirectory(Path tempDirectory) {
+    return new BodyBufferOptions(memoryThreshold, maxBodySize, tempDirectory);
+  }
+}
@@ -20,71 +20,377 @@ import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * RequestWrapper.
  *
  * <p>解决 InputStream 只能读取一次的问题
  *
+ * <p>请求体不超过 {@link BodyBufferOptions#memoryThreshold()} 时读进池化的 8KB 内存块，不拼成一个连续数组；超过时（或 Content-Length
+ * 一开始就超过时）写进临时文件，再 mmap 出来供反复读取，堆上只有一个 8KB 的搬运缓冲。原来 {@code ByteArrayOutputStream} 边读边扩容、最后再
+ * {@code toByteArray()} 一次，50MB 的请求体要分配 150MB 以上的堆。
+ *
+ * <p>请求处理完后应当 {@link #close()}，内存块回到池里、临时文件删除；忘了关也不会泄漏，内存块交给 GC，临时文件的通道在缓存对象被回收时由 {@link
+ * Cleaner} 关闭（{@code DELETE_ON_CLOSE}，文件随之删除）。关闭之后再读会抛出 {@link IOException}。
+ *
+ * <pre>{@code
+ * try (BufferedServletRequestWrapper wrapper = new BufferedServletRequestWrapper(request)) {
+ *   chain.doFilter(wrapper, response);
+ * }
+ * }</pre>
+ *
  * @author <a href="https://github.com/Code-13/">code13</a>
  * @date 2022/5/26 17:00
  */
-public class BufferedServletRequestWrapper extends HttpServletRequestWrapper {
+public class BufferedServletRequestWrapper extends HttpServletRequestWrapper
+    implements AutoCloseable {
 
-  private final byte[] servletInputBytes;
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final Body body;
 
   public BufferedServletRequestWrapper(HttpServletRequest request) throws IOException {
+    this(request, BodyBufferOptions.defaults());
+  }
+
+  public BufferedServletRequestWrapper(HttpServletRequest request, BodyBufferOptions options)
+      throws IOException {
     super(request);
-    servletInputBytes = doBuffered(request);
+    body = doBuffered(request, options);
   }
 
-  private byte[] doBuffered(HttpServletRequest request) throws IOException {
-    try (ServletInputStream inputStream = request.getInputStream();
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(); ) {
-      inputStream.transferTo(outputStream);
-      return outputStream.toByteArray();
+  private static Body doBuffered(HttpServletRequest request, BodyBufferOptions options)
+      throws IOException {
+    long contentLength = request.getContentLengthLong();
+    if (contentLength > options.maxBodySize()) {
+      throw tooLarge(contentLength, options);
     }
+    try (ServletInputStream inputStream = request.getInputStream()) {
+      if (contentLength > options.memoryThreshold()) {
+        return FileBody.spill(inputStream, new ArrayList<>(), 0, options);
+      }
+      return HeapBody.read(inputStream, options);
+    }
+  }
+
+  private static IOException tooLarge(long length, BodyBufferOptions options) {
+    return new IOException("request body exceeds " + options.maxBodySize() + " bytes: " + length);
   }
 
   @Override
   public ServletInputStream getInputStream() throws IOException {
-    return new BufferedServletInputStream(servletInputBytes);
+    return new BodyInputStream(body);
   }
 
+  /** 按请求的字符集解码，没有声明时按 Servlet 规范用 ISO-8859-1。 */
   @Override
   public BufferedReader getReader() throws IOException {
-    return new BufferedReader(new InputStreamReader(getInputStream()));
+    return new BufferedReader(new InputStreamReader(getInputStream(), charset()));
   }
 
-  private static class BufferedServletInputStream extends ServletInputStream {
-    private final ByteArrayInputStream inputStream;
+  private Charset charset() throws UnsupportedEncodingException {
+    String encoding = getCharacterEncoding();
+    if (encoding == null) {
+      return StandardCharsets.ISO_8859_1;
+    }
+    try {
+      return Charset.forName(encoding);
+    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+      throw new UnsupportedEncodingException(encoding);
+    }
+  }
+
+  /** 缓存之后长度是确定的，分块传输（没有 Content-Length）的请求也能拿到。 */
+  @Override
+  public int getContentLength() {
+    return body.length;
+  }
+
+  @Override
+  public long getContentLengthLong() {
+    return body.length;
+  }
 
-    public BufferedServletInputStream(byte[] buffer) {
-      inputStream = new ByteArrayInputStream(buffer);
+  boolean isSpilled() {
+    return body instanceof FileBody;
+  }
+
+  /** 释放内存块、删除临时文件，可以重复调用。 */
+  @Override
+  public void close() {
+    body.release();
+  }
+
+  /** 缓存下来的请求体，按绝对位置读取，多个流可以同时读。 */
+  private abstract static class Body {
+
+    final int length;
+    volatile boolean released;
+
+    Body(int length) {
+      this.length = length;
+    }
+
+    abstract byte byteAt(int position);
+
+    abstract void copy(int position, byte[] b, int off, int len);
+
+    abstract void release();
+
+    void ensureAvailable() throws IOException {
+      if (released) {
+        throw new IOException("request body has been released");
+      }
+    }
+  }
+
+  private static final class HeapBody extends Body {
+
+    private final byte[][] chunks;
+
+    private HeapBody(byte[][] chunks, int length) {
+      super(length);
+      this.chunks = chunks;
+    }
+
+    static Body read(InputStream in, BodyBufferOptions options) throws IOException {
+      ChunkPool pool = ChunkPool.SHARED;
+      List<byte[]> chunks = new ArrayList<>();
+      long length = 0;
+      try {
+        while (true) {
+          byte[] chunk = pool.take();
+          int n = in.readNBytes(chunk, 0, ChunkPool.CHUNK_SIZE);
+          if (n == 0) {
+            pool.give(chunk);
+            break;
+          }
+          chunks.add(chunk);
+          length += n;
+          if (length > options.maxBodySize()) {
+            throw tooLarge(length, options);
+          }
+          if (n < ChunkPool.CHUNK_SIZE) {
+            break;
+          }
+          if (length > options.memoryThreshold()) {
+            return FileBody.spill(in, chunks, length, options);
+          }
+        }
+      } catch (IOException | RuntimeException e) {
+        chunks.forEach(pool::give);
+        throw e;
+      }
+      return new HeapBody(chunks.toArray(new byte[0][]), (int) length);
     }
 
     @Override
-    public int available() throws IOException {
-      return inputStream.available();
+    byte byteAt(int position) {
+      return chunks[position >>> ChunkPool.CHUNK_SHIFT][position & (ChunkPool.CHUNK_SIZE - 1)];
+    }
+
+    @Override
+    void copy(int position, byte[] b, int off, int len) {
+      while (len > 0) {
+        int inChunk = position & (ChunkPool.CHUNK_SIZE - 1);
+        int n = Math.min(len, ChunkPool.CHUNK_SIZE - inChunk);
+        System.arraycopy(chunks[position >>> ChunkPool.CHUNK_SHIFT], inChunk, b, off, n);
+        position += n;
+        off += n;
+        len -= n;
+      }
+    }
+
+    @Override
+    synchronized void release() {
+      if (!released) {
+        released = true;
+        for (byte[] chunk : chunks) {
+          ChunkPool.SHARED.give(chunk);
+        }
+      }
+    }
+  }
+
+  private static final class FileBody extends Body {
+
+    private final MappedByteBuffer mapped;
+    private final Cleaner.Cleanable cleanable;
+
+    private FileBody(FileChannel channel, MappedByteBuffer mapped, int length) {
+      super(length);
+      this.mapped = mapped;
+      this.cleanable = CLEANER.register(this, new CloseChannel(channel));
+    }
+
+    /** 已经读进内存的 {@code chunks} 先写进文件并归还，再把剩余的输入搬过去。 */
+    static Body spill(InputStream in, List<byte[]> chunks, long buffered, BodyBufferOptions options)
+        throws IOException {
+      ChunkPool pool = ChunkPool.SHARED;
+      Path directory =
+          options.tempDirectory() != null
+              ? options.tempDirectory()
+              : Path.of(System.getProperty("java.io.tmpdir"));
+      Path file = Files.createTempFile(directory, "request-body-", ".tmp");
+      FileChannel channel =
+          FileChannel.open(
+              file,
+              StandardOpenOption.READ,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.DELETE_ON_CLOSE);
+      byte[] buffer = null;
+      try {
+        long remaining = buffered;
+        for (byte[] chunk : chunks) {
+          int n = (int) Math.min(remaining, chunk.length);
+          writeFully(channel, chunk, n);
+          remaining -= n;
+        }
+        chunks.forEach(pool::give);
+        chunks.clear();
+        buffer = pool.take();
+        long length = buffered;
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+          length += n;
+          if (length > options.maxBodySize()) {
+            throw tooLarge(length, options);
+          }
+          writeFully(channel, buffer, n);
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        return new FileBody(channel, mapped, (int) length);
+      } catch (IOException | RuntimeException e) {
+        chunks.forEach(pool::give);
+        channel.close();
+        throw e;
+      } finally {
+        if (buffer != null) {
+          pool.give(buffer);
+        }
+      }
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes, int length)
+        throws IOException {
+      ByteBuffer source = ByteBuffer.wrap(bytes, 0, length);
+      while (source.hasRemaining()) {
+        channel.write(source);
+      }
+    }
+
+    @Override
+    byte byteAt(int position) {
+      return mapped.get(position);
+    }
+
+    @Override
+    void copy(int position, byte[] b, int off, int len) {
+      mapped.get(position, b, off, len);
+    }
+
+    /** 关闭通道即删除文件；映射在 buffer 被回收前仍然有效，但关闭后不再允许读取。 */
+    @Override
+    void release() {
+      released = true;
+      cleanable.clean();
+    }
+
+    private record CloseChannel(FileChannel channel) implements Runnable {
+
+      @Override
+      public void run() {
+        try {
+          channel.close();
+        } catch (IOException ignored) {
+          // 临时文件已经无人引用，关闭失败也没有别的补救办法
+        }
+      }
+    }
+  }
+
+  /**
+   * 每次 {@link #getInputStream()} 一个新流，各自从头读。
+   *
+   * <p>数据已经全部在本地，{@link #isReady()} 恒为 {@code true}。异步 Servlet 设置 {@link ReadListener} 后立即回调 {@code
+   * onDataAvailable}，读到末尾时回调一次 {@code onAllDataRead}；回调抛出的异常交给 {@code onError}。
+   */
+  private static final class BodyInputStream extends ServletInputStream {
+
+    private final Body body;
+    private int position;
+    private ReadListener listener;
+    private boolean dispatching;
+    private boolean allDataRead;
+
+    BodyInputStream(Body body) {
+      this.body = body;
     }
 
     @Override
     public int read() throws IOException {
-      return inputStream.read();
+      body.ensureAvailable();
+      if (position >= body.length) {
+        return -1;
+      }
+      byte b = body.byteAt(position++);
+      onProgress();
+      return b & 0xFF;
     }
 
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
-      return inputStream.read(b, off, len);
+      Objects.checkFromIndexSize(off, len, b.length);
+      body.ensureAvailable();
+      if (len == 0) {
+        return 0;
+      }
+      if (position >= body.length) {
+        return -1;
+      }
+      int n = Math.min(len, body.length - position);
+      body.copy(position, b, off, n);
+      position += n;
+      onProgress();
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      body.ensureAvailable();
+      int skipped = (int) Math.max(0, Math.min(n, body.length - position));
+      position += skipped;
+      onProgress();
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      body.ensureAvailable();
+      return body.length - position;
     }
 
     @Override
     public boolean isFinished() {
-      return false;
+      return position >= body.length;
     }
 
     @Override
@@ -93,6 +399,40 @@ public class BufferedServletRequestWrapper extends HttpServletRequestWrapper {
     }
 
     @Override
-    public void setReadListener(ReadListener readListener) {}
+    public void setReadListener(ReadListener readListener) {
+      Objects.requireNonNull(readListener, "readListener");
+      if (listener != null) {
+        throw new IllegalStateException("ReadListener has already been set");
+      }
+      listener = readListener;
+      dispatch();
+    }
+
+    private void onProgress() {
+      if (listener != null && isFinished()) {
+        dispatch();
+      }
+    }
+
+    /** 在 onDataAvailable 里读到末尾时不重入，等它返回后再回调 onAllDataRead。 */
+    private void dispatch() {
+      if (dispatching) {
+        return;
+      }
+      dispatching = true;
+      try {
+        if (!isFinished()) {
+          listener.onDataAvailable();
+        }
+        if (isFinished() && !allDataRead) {
+          allDataRead = true;
+          listener.onAllDataRead();
+        }
+      } catch (Throwable e) {
+        listener.onError(e);
+      } finally {
+        dispatching = false;
+      }
+    }
   }
 }
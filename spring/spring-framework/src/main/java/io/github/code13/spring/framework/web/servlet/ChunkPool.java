@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.web.servlet;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 固定大小（{@link #CHUNK_SIZE}）的 {@code byte[]} 池，供小请求体使用，避免每个请求都分配再丢弃。
+ *
+ * <p>最多缓存 {@code maxPooled} 块，超出的归还直接丢弃交给 GC。
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 01:15
+ */
+final class ChunkPool {
+
+  static final int CHUNK_SHIFT = 13;
+  static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+  /** 共 32MB。 */
+  static final ChunkPool SHARED = new ChunkPool(4096);
+
+  private final ConcurrentLinkedQueue<byte[]> chunks = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pooled = new AtomicInteger();
+  private final int maxPooled;
+
+  ChunkPool(int maxPooled) {
+    this.maxPooled = maxPooled;
+  }
+
+  byte[] take() {
+    byte[] chunk = chunks.poll();
+    if (chunk == null) {
+      return new byte[CHUNK_SIZE];
+    }
+    pooled.decrementAndGet();
+    return chunk;
+  }
+
+  void give(byte[] chunk) {
+    if (pooled.incrementAndGet() <= maxPooled) {
+      chunks.offer(chunk);
+    } else {
+      pooled.decrementAndGet();
+    }
+  }
+
+  int pooled() {
+    return pooled.get();
+  }
+}
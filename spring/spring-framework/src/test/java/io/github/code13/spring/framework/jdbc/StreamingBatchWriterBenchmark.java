@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * {@link StreamingBatchWriter} 三种写法往 H2 写 20 万行的耗时，每次迭代一个新库。
+ *
+ * <p>{@code embedded} 是 {@link JdbcInternalUtils#getEmbeddedH2Database()} 的进程内数据库，没有网络往返；{@code tcp} 在本机起一个
+ * H2 TCP 服务，每次执行语句都走一次 socket 往返，更接近真实数据库。
+ *
+ * <p>单核虚拟机上的结果（ms/op，括号内为 rows/s，分块 1000 行）：
+ *
+ * <pre>
+ *                  embedded, 1 连接     embedded, 4 连接     tcp, 1 连接          tcp, 4 连接
+ * PER_ROW          1018 (196K)          1272 (157K)          5069 (39K)           5625 (36K)
+ * JDBC_BATCH       1084 (185K)          1301 (154K)          5398 (37K)           5622 (36K)
+ * MULTI_VALUES      961 (208K)          1389 (144K)          2380 (84K)           2986 (67K)
+ * </pre>
+ *
+ * <ul>
+ *   <li>进程内没有往返可省，三种写法差不多，瓶颈在 H2 本身；
+ *   <li>H2 的 JDBC 驱动 {@code executeBatch} 在客户端逐行发送，走 TCP 时和逐行一样慢；改写成多行 {@code VALUES} 后一条语句 1000
+ *       行，快 2 倍多。MySQL 的 {@code rewriteBatchedStatements=true} 在驱动里做的就是同样的改写；
+ *   <li>只有一个核，多个连接只是互相争抢 CPU；多核机器上并行写才能体现出来。
+ * </ul>
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 11:10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StreamingBatchWriterBenchmark {
+
+  private static final int ROWS = 200_000;
+
+  @Param({"PER_ROW", "JDBC_BATCH", "MULTI_VALUES"})
+  BatchInsertMode mode;
+
+  @Param({"1", "4"})
+  int parallelism;
+
+  @Param({"embedded", "tcp"})
+  String database;
+
+  private final AtomicInteger databases = new AtomicInteger();
+  private Server server;
+  private DataSource dataSource;
+  private StreamingBatchWriter<Employee> writer;
+
+  @Setup(Level.Trial)
+  public void startServer() throws SQLException {
+    if (database.equals("tcp")) {
+      server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void stopServer() {
+    if (server != null) {
+      server.stop();
+    }
+  }
+
+  @Setup(Level.Iteration)
+  public void setUp() {
+    if (server == null) {
+      dataSource = JdbcInternalUtils.getEmbeddedH2Database();
+    } else {
+      String url =
+          "jdbc:h2:tcp://localhost:%d/mem:bench%d;DB_CLOSE_DELAY=-1"
+              .formatted(server.getPort(), databases.incrementAndGet());
+      dataSource = new SimpleDriverDataSource(new org.h2.Driver(), url, "sa", "");
+      new ResourceDatabasePopulator(
+              new ClassPathResource("io/github/code13/spring/framework/jdbc/schema.sql"))
+          .execute(dataSource);
+    }
+    writer =
+        StreamingBatchWriterRunner.writer(
+            dataSource,
+            BatchWriteOptions.defaults()
+                .withMode(mode)
+                .withChunkSize(1000)
+                .withParallelism(parallelism));
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    if (dataSource instanceof EmbeddedDatabase embedded) {
+      embedded.shutdown();
+    } else {
+      new JdbcTemplate(dataSource).execute("SHUTDOWN");
+    }
+  }
+
+  @Benchmark
+  public BatchWriteResult write() {
+    return writer.write(StreamingBatchWriterRunner.employees(ROWS));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(StreamingBatchWriterBenchmark.class.getSimpleName())
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+
+/**
+ * StreamingBatchWriterRunner.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 10:40
+ */
+class StreamingBatchWriterRunner {
+
+  private static final List<String> COLUMNS = List.of("ID", "FIRST_NAME", "LAST_NAME", "ADDRESS");
+
+  EmbeddedDatabase dataSource;
+  JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setup() {
+    dataSource = JdbcInternalUtils.getEmbeddedH2Database();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.shutdown();
+  }
+
+  /** 从 100 开始的 {@code count} 个员工，奇数 id 没有地址。不经过 List，按需生成。 */
+  static Stream<Employee> employees(int count) {
+    return Stream.iterate(100, i -> i + 1).limit(count).map(StreamingBatchWriterRunner::employee);
+  }
+
+  static Employee employee(int id) {
+    Employee employee = new Employee();
+    employee.setId(id);
+    employee.setFirstName("FirstName" + id);
+    employee.setLastName("LastName" + id);
+    employee.setAddress(id % 2 == 0 ? "Address" + id : null);
+    return employee;
+  }
+
+  static StreamingBatchWriter<Employee> writer(
+      javax.sql.DataSource dataSource, BatchWriteOptions options) {
+    return new StreamingBatchWriter<>(
+        dataSource,
+        "EMPLOYEE",
+        COLUMNS,
+        e -> new Object[] {e.getId(), e.getFirstName(), e.getLastName(), e.getAddress()},
+        options);
+  }
+
+  private int count() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM EMPLOYEE", Integer.class);
+  }
+
+  @Test
+  @DisplayName("三种写法都按分块写入全部行，NULL 值正常写入")
+  void writesAllRowsInEveryMode() {
+    for (BatchInsertMode mode : BatchInsertMode.values()) {
+      jdbcTemplate.update("DELETE FROM EMPLOYEE");
+      BatchWriteResult result =
+          writer(dataSource, BatchWriteOptions.defaults().withMode(mode).withChunkSize(333))
+              .write(employees(10_000));
+
+      assertEquals(10_000, result.rows(), mode.name());
+      assertEquals(31, result.chunks(), mode.name());
+      assertEquals(0, result.retries());
+      assertTrue(result.rowsPerSecond() > 0);
+      assertEquals(10_000, count(), mode.name());
+      assertEquals(
+          "Address5000",
+          jdbcTemplate.queryForObject(
+              "SELECT ADDRESS FROM EMPLOYEE WHERE ID = 5000", String.class));
+      assertNull(
+          jdbcTemplate.queryForObject(
+              "SELECT ADDRESS FROM EMPLOYEE WHERE ID = 5001", String.class));
+    }
+  }
+
+  @Test
+  @DisplayName("多行 VALUES 按参数上限拆成多条语句，余下的行单独一条")
+  void multiValuesRespectsParameterLimit() {
+    BatchWriteOptions options =
+        BatchWriteOptions.defaults()
+            .withMode(BatchInsertMode.MULTI_VALUES)
+            .withChunkSize(7)
+            .withMaxParametersPerStatement(10);
+    int before = count();
+
+    BatchWriteResult result = writer(dataSource, options).write(employees(50));
+
+    assertEquals(50, result.rows());
+    assertEquals(8, result.chunks());
+    assertEquals(before + 50, count());
+  }
+
+  @Test
+  @DisplayName("多个连接并行写入，结果与顺序写入一致")
+  void writesInParallel() {
+    for (BatchInsertMode mode : BatchInsertMode.values()) {
+      jdbcTemplate.update("DELETE FROM EMPLOYEE");
+      BatchWriteResult result =
+          writer(
+                  dataSource,
+                  BatchWriteOptions.defaults().withMode(mode).withChunkSize(500).withParallelism(4))
+              .write(employees(20_000));
+
+      assertEquals(20_000, result.rows());
+      assertEquals(40, result.chunks());
+      assertEquals(
+          20_000,
+          jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT ID) FROM EMPLOYEE", Integer.class));
+    }
+  }
+
+  @Test
+  @DisplayName("非瞬时异常不重试：失败的分块回滚，之前提交的分块保留，流被关闭")
+  void failingChunkRollsBackAndStops() {
+    AtomicBoolean closed = new AtomicBoolean();
+    Stream<Employee> rows =
+        Stream.concat(employees(250), Stream.of(employee(100))).onClose(() -> closed.set(true));
+    int before = count();
+
+    assertThrows(
+        DuplicateKeyException.class,
+        () -> writer(dataSource, BatchWriteOptions.defaults().withChunkSize(100)).write(rows));
+
+    assertTrue(closed.get());
+    // 只保留前两个分块；第三个分块（200 ~ 249 和重复的 100）整体回滚
+    assertEquals(before + 200, count());
+  }
+
+  @Test
+  @DisplayName("并行写入时一个分块失败，停止提交新的分块并抛出原异常")
+  void parallelFailureStopsProducer() {
+    AtomicInteger produced = new AtomicInteger();
+    Stream<Employee> rows =
+        Stream.iterate(100, i -> i + 1)
+            .limit(100_000)
+            .map(i -> employee(i == 1_000 ? 100 : i))
+            .peek(e -> produced.incrementAndGet());
+
+    assertThrows(
+        DuplicateKeyException.class,
+        () ->
+            writer(dataSource, BatchWriteOptions.defaults().withChunkSize(100).withParallelism(2))
+                .write(rows));
+
+    assertTrue(produced.get() < 100_000);
+  }
+
+  @Test
+  @DisplayName("并行写入时读入内存的分块不超过 2 * parallelism")
+  void parallelReadAheadIsBounded() throws Exception {
+    CountDownLatch gate = new CountDownLatch(1);
+    AtomicInteger produced = new AtomicInteger();
+    DelegatingDataSource blocked =
+        new DelegatingDataSource(dataSource) {
+          @Override
+          public Connection getConnection() throws SQLException {
+            try {
+              gate.await();
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+              throw new SQLException(e);
+            }
+            return super.getConnection();
+          }
+        };
+    BatchWriteOptions options = BatchWriteOptions.defaults().withChunkSize(10).withParallelism(2);
+    int before = count();
+
+    CompletableFuture<BatchWriteResult> result =
+        CompletableFuture.supplyAsync(
+            () ->
+                writer(blocked, options)
+                    .write(employees(1_000).peek(e -> produced.incrementAndGet())));
+    // 写入全部阻塞在拿连接上，等读取停下来
+    int last;
+    do {
+      last = produced.get();
+      Thread.sleep(200);
+    } while (produced.get() != last);
+
+    assertEquals(2 * 2 * 10, produced.get());
+    gate.countDown();
+    assertEquals(1_000, result.get().rows());
+    assertEquals(before + 1_000, count());
+  }
+
+  @Test
+  @DisplayName("瞬时异常回滚后重试，重试用尽时抛出")
+  void retriesTransientFailures() {
+    AtomicInteger failures = new AtomicInteger(2);
+    BatchWriteOptions options =
+        BatchWriteOptions.defaults().withChunkSize(100).withRetries(3, Duration.ofMillis(1));
+    int before = count();
+
+    BatchWriteResult result = writer(flaky(failures), options).write(employees(1_000));
+
+    assertEquals(2, result.retries());
+    assertEquals(10, result.chunks());
+    assertEquals(before + 1_000, count());
+
+    failures.set(10);
+    assertThrows(
+        TransientDataAccessException.class,
+        () ->
+            writer(flaky(failures), options.withRetries(1, Duration.ofMillis(1)))
+                .write(employees(10).map(e -> employee(e.getId() + 10_000))));
+    assertEquals(before + 1_000, count());
+  }
+
+  /** 前 {@code failures} 次 prepareStatement 抛出 {@link SQLTransientConnectionException}。 */
+  private DelegatingDataSource flaky(AtomicInteger failures) {
+    return new DelegatingDataSource(dataSource) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return (Connection)
+            Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                  if (method.getName().equals("prepareStatement")
+                      && failures.getAndDecrement() > 0) {
+                    throw new SQLTransientConnectionException("connection reset");
+                  }
+                  try {
+                    return method.invoke(connection, args);
+                  } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                  }
+                });
+      }
+    };
+  }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * StreamingQueryRunner.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 12:40
+ */
+class StreamingQueryRunner {
+
+  private static final String SELECT_ALL =
+      "SELECT ID, FIRST_NAME, LAST_NAME, ADDRESS FROM EMPLOYEE ORDER BY ID";
+
+  EmbeddedDatabase dataSource;
+  JdbcTemplate jdbcTemplate;
+  StreamingQuery query;
+
+  @BeforeEach
+  void setup() {
+    dataSource = JdbcInternalUtils.getEmbeddedH2Database();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    query = new StreamingQuery(dataSource, 100);
+    StreamingBatchWriterRunner.writer(dataSource, BatchWriteOptions.defaults())
+        .write(StreamingBatchWriterRunner.employees(10_000));
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.shutdown();
+  }
+
+  private int sessions() {
+    return jdbcTemplate.queryForObject(
+        "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS", Integer.class);
+  }
+
+  @Test
+  @DisplayName("rows 逐行交出同一个 RowView，内容与 queryForList 一致")
+  void rowsReuseOneView() {
+    int total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM EMPLOYEE", Integer.class);
+    Set<RowView> views = Collections.newSetFromMap(new IdentityHashMap<>());
+    long idSum;
+    try (Stream<RowView> rows = query.rows(SELECT_ALL)) {
+      idSum =
+          rows.peek(views::add)
+              .peek(
+                  row -> {
+                    if (row.getInt(1) >= 100) {
+                      assertEquals("FirstName" + row.getInt(1), row.getString("first_name"));
+                    }
+                  })
+              .mapToLong(row -> row.getLong("ID"))
+              .sum();
+    }
+    assertEquals(1, views.size());
+    assertEquals(
+        jdbcTemplate.queryForObject("SELECT SUM(ID) FROM EMPLOYEE", Long.class).longValue(), idSum);
+
+    try (Stream<RowView> rows = query.rows(SELECT_ALL + " OFFSET ?", total - 1)) {
+      RowView last = rows.findFirst().orElseThrow();
+      assertEquals(4, last.columnCount());
+      assertEquals("ADDRESS", last.columnLabel(4));
+      assertEquals(1, last.rowNumber());
+      assertArrayEquals(
+          new Object[] {10_099, "FirstName10099", "LastName10099", null}, last.toArray());
+      assertNull(last.getString("ADDRESS"));
+      assertTrue(last.wasNull());
+      assertThrows(IllegalArgumentException.class, () -> last.getString("SALARY"));
+    }
+  }
+
+  @Test
+  @DisplayName("参数绑定，流是惰性的：limit 之后关闭流即释放连接")
+  void lazyAndClosesOnStreamClose() {
+    int idle = sessions();
+    List<Integer> ids = new ArrayList<>();
+    try (Stream<RowView> rows =
+        query.rows("SELECT ID FROM EMPLOYEE WHERE ID >= ? ORDER BY ID", 5000)) {
+      assertEquals(idle + 1, sessions());
+      rows.limit(3).forEach(row -> ids.add(row.getInt(1)));
+      assertEquals(idle + 1, sessions());
+    }
+    assertEquals(List.of(5000, 5001, 5002), ids);
+    assertEquals(idle, sessions());
+  }
+
+  @Test
+  @DisplayName("遍历到末尾时提前释放连接，SQL 错误在调用时立即抛出且不泄漏连接")
+  void releasesOnExhaustionAndFailure() {
+    int idle = sessions();
+    Stream<RowView> rows = query.rows(SELECT_ALL);
+    assertEquals(10_004, rows.count());
+    assertEquals(idle, sessions());
+    rows.close();
+
+    assertThrows(BadSqlGrammarException.class, () -> query.rows("SELECT NOPE FROM EMPLOYEE"));
+    assertThrows(BadSqlGrammarException.class, () -> query.chunks("SELECT * FROM NOPE", 10));
+    assertEquals(idle, sessions());
+  }
+
+  @Test
+  @DisplayName("chunks 按列放进基本类型数组，复用同一个块，NULL 单独标记")
+  void chunksAreColumnar() {
+    List<Integer> sizes = new ArrayList<>();
+    Set<ColumnChunk> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+    long idSum = 0;
+    int nullAddresses = 0;
+    try (Stream<ColumnChunk> chunks = query.chunks(SELECT_ALL, 1000)) {
+      for (ColumnChunk chunk : (Iterable<ColumnChunk>) chunks::iterator) {
+        instances.add(chunk);
+        sizes.add(chunk.size());
+        assertEquals(ColumnChunk.Kind.INT, chunk.kind(1));
+        assertEquals(ColumnChunk.Kind.OBJECT, chunk.kind(2));
+        int[] ids = chunk.ints(1);
+        Object[] addresses = chunk.objects(4);
+        for (int row = 0; row < chunk.size(); row++) {
+          idSum += ids[row];
+          assertEquals(addresses[row] == null, chunk.isNull(4, row));
+          if (chunk.isNull(4, row)) {
+            nullAddresses++;
+          }
+        }
+      }
+    }
+    assertEquals(1, instances.size());
+    assertEquals(11, sizes.size());
+    assertEquals(4, sizes.get(10));
+    assertEquals(
+        jdbcTemplate.queryForObject("SELECT SUM(ID) FROM EMPLOYEE", Long.class).longValue(), idSum);
+    assertEquals(5000, nullAddresses);
+
+    ColumnChunk chunk = instances.iterator().next();
+    assertNull(chunk.objects(2)[4]);
+    assertThrows(IllegalStateException.class, () -> chunk.longs(1));
+  }
+
+  @Test
+  @DisplayName("不在事务里时临时关闭 autocommit，结束后恢复；在事务里时使用事务的连接")
+  void autoCommitHandling() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      SingleConnectionDataSource single = new SingleConnectionDataSource(connection, true);
+      StreamingQuery singleQuery = new StreamingQuery(single, 10);
+      try (Stream<RowView> rows = singleQuery.rows(SELECT_ALL)) {
+        rows.limit(1).forEach(row -> {});
+        assertFalse(connection.getAutoCommit());
+      }
+      assertTrue(connection.getAutoCommit());
+    }
+
+    TransactionTemplate transactionTemplate =
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    Long count =
+        transactionTemplate.execute(
+            status -> {
+              jdbcTemplate.update("DELETE FROM EMPLOYEE WHERE ID >= 100");
+              try (Stream<RowView> rows = query.rows(SELECT_ALL)) {
+                return rows.count();
+              }
+            });
+    assertEquals(4, count);
+  }
+
+  @Test
+  @DisplayName("中途抛出的异常不影响关闭")
+  void closesAfterConsumerFailure() {
+    int idle = sessions();
+    Stream<RowView> rows = query.rows(SELECT_ALL);
+    assertThrows(
+        IllegalStateException.class,
+        () -> {
+          try (rows) {
+            rows.forEach(
+                row -> {
+                  if (row.rowNumber() == 10) {
+                    throw new IllegalStateException("stop");
+                  }
+                });
+          }
+        });
+    assertEquals(idle, sessions());
+  }
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2022-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *          http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.code13.spring.framework.web.servlet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * BufferedServletRequestWrapper_Runner.
+ *
+ * @author <a href="https://github.com/Code-13/">code13</a>
+ * @date 2026/10/19 01:40
+ */
+class BufferedServletRequestWrapper_Runner {
+
+  @TempDir Path dir;
+
+  private static byte[] random(int length) {
+    byte[] bytes = new byte[length];
+    new Random(13).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static MockHttpServletRequest request(byte[] body) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+    request.setContent(body);
+    return request;
+  }
+
+  /** 分块传输，事先不知道长度。 */
+  private static MockHttpServletRequest chunkedRequest(byte[] body) {
+    MockHttpServletRequest request =
+        new MockHttpServletRequest("POST", "/upload") {
+          @Override
+          public int getContentLength() {
+            return -1;
+          }
+
+          @Override
+          public long getContentLengthLong() {
+            return -1;
+          }
+        };
+    request.setContent(body);
+    return request;
+  }
+
+  private BodyBufferOptions options(int memoryThreshold) {
+    return BodyBufferOptions.defaults().withMemoryThreshold(memoryThreshold).withTempDirectory(dir);
+  }
+
+  private long tempFiles() throws IOException {
+    try (Stream<Path> list = Files.list(dir)) {
+      return list.count();
+    }
+  }
+
+  @Test
+  @DisplayName("小请求体缓存在内存里，可以反复读取")
+  void smallBodyInMemory() throws IOException {
+    byte[] body = random(3 * ChunkPool.CHUNK_SIZE + 17);
+    try (BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(request(body), options(1 << 20))) {
+      assertFalse(wrapper.isSpilled());
+      assertEquals(body.length, wrapper.getContentLength());
+      assertArrayEquals(body, wrapper.getInputStream().readAllBytes());
+      assertArrayEquals(body, wrapper.getInputStream().readAllBytes());
+      assertEquals(0, tempFiles());
+    }
+  }
+
+  @Test
+  @DisplayName("逐字节、奇数长度的缓冲区和 skip 在块边界上读出的内容一致")
+  void readAcrossChunkBoundaries() throws IOException {
+    byte[] body = random(3 * ChunkPool.CHUNK_SIZE + 17);
+    for (int threshold : new int[] {1 << 20, 0}) {
+      try (BufferedServletRequestWrapper wrapper =
+          new BufferedServletRequestWrapper(request(body), options(threshold))) {
+        InputStream single = wrapper.getInputStream();
+        for (byte b : body) {
+          assertEquals(b & 0xFF, single.read());
+        }
+        assertEquals(-1, single.read());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputStream odd = wrapper.getInputStream();
+        byte[] buffer = new byte[1001];
+        int n;
+        while ((n = odd.read(buffer, 1, 999)) > 0) {
+          out.write(buffer, 1, n);
+        }
+        assertArrayEquals(body, out.toByteArray());
+
+        InputStream skipping = wrapper.getInputStream();
+        assertEquals(ChunkPool.CHUNK_SIZE - 1, skipping.skip(ChunkPool.CHUNK_SIZE - 1));
+        assertEquals(body[ChunkPool.CHUNK_SIZE - 1] & 0xFF, skipping.read());
+        assertEquals(body.length - ChunkPool.CHUNK_SIZE, skipping.available());
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Content-Length 超过阈值时直接写临时文件，关闭后删除，再读抛异常")
+  void largeBodySpillsToFile() throws IOException {
+    byte[] body = random(100_000);
+    BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(request(body), options(1024));
+    assertTrue(wrapper.isSpilled());
+    // Linux 上 DELETE_ON_CLOSE 打开后立即 unlink，目录里看不到；其他系统上要到关闭才删除
+    assertTrue(tempFiles() <= 1);
+    assertArrayEquals(body, wrapper.getInputStream().readAllBytes());
+    assertArrayEquals(body, wrapper.getInputStream().readAllBytes());
+
+    ServletInputStream stream = wrapper.getInputStream();
+    wrapper.close();
+    wrapper.close();
+    assertEquals(0, tempFiles());
+    assertThrows(IOException.class, stream::read);
+    assertThrows(IOException.class, () -> wrapper.getInputStream().read());
+  }
+
+  @Test
+  @DisplayName("没有 Content-Length 时读到阈值再转存，内存中已读的部分一起写进文件")
+  void chunkedBodySpillsMidStream() throws IOException {
+    byte[] body = random(5 * ChunkPool.CHUNK_SIZE + 100);
+    try (BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(
+            chunkedRequest(body), options(2 * ChunkPool.CHUNK_SIZE))) {
+      assertTrue(wrapper.isSpilled());
+      assertEquals(body.length, wrapper.getContentLengthLong());
+      assertArrayEquals(body, wrapper.getInputStream().readAllBytes());
+    }
+    assertEquals(0, tempFiles());
+
+    byte[] small = random(ChunkPool.CHUNK_SIZE);
+    try (BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(chunkedRequest(small), options(1 << 20))) {
+      assertFalse(wrapper.isSpilled());
+      assertEquals(small.length, wrapper.getContentLength());
+      assertArrayEquals(small, wrapper.getInputStream().readAllBytes());
+    }
+  }
+
+  @Test
+  @DisplayName("超过 maxBodySize 时拒绝，不留下临时文件")
+  void rejectsOversizedBody() throws IOException {
+    byte[] body = random(50_000);
+    BodyBufferOptions options = options(1024).withMaxBodySize(40_000);
+    assertThrows(
+        IOException.class, () -> new BufferedServletRequestWrapper(request(body), options));
+    assertThrows(
+        IOException.class, () -> new BufferedServletRequestWrapper(chunkedRequest(body), options));
+    assertThrows(
+        IOException.class,
+        () ->
+            new BufferedServletRequestWrapper(
+                chunkedRequest(body), options.withMemoryThreshold(1 << 20)));
+    assertEquals(0, tempFiles());
+  }
+
+  @Test
+  @DisplayName("getReader 按请求声明的字符集解码，没有声明时用 ISO-8859-1")
+  void readerUsesRequestCharset() throws IOException {
+    String text = "请求体 body ✓";
+    MockHttpServletRequest request = request(text.getBytes(StandardCharsets.UTF_8));
+    request.setCharacterEncoding("UTF-8");
+    try (BufferedServletRequestWrapper wrapper = new BufferedServletRequestWrapper(request)) {
+      assertEquals(text, wrapper.getReader().readLine());
+    }
+
+    byte[] latin = {(byte) 0xE9, (byte) 0xFC};
+    try (BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(request(latin))) {
+      assertEquals("éü", wrapper.getReader().readLine());
+    }
+  }
+
+  @Test
+  @DisplayName("ReadListener 依次收到 onDataAvailable 和一次 onAllDataRead，只能设置一次")
+  void readListenerLifecycle() throws IOException {
+    byte[] body = random(20_000);
+    try (BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(request(body), options(1 << 20))) {
+      ServletInputStream stream = wrapper.getInputStream();
+      assertFalse(stream.isFinished());
+      List<String> events = new ArrayList<>();
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      stream.setReadListener(
+          new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+              events.add("dataAvailable");
+              byte[] buffer = new byte[4096];
+              int n;
+              while (stream.isReady() && (n = stream.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+              }
+            }
+
+            @Override
+            public void onAllDataRead() {
+              events.add("allDataRead");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+              events.add("error");
+            }
+          });
+      assertEquals(List.of("dataAvailable", "allDataRead"), events);
+      assertTrue(stream.isFinished());
+      assertArrayEquals(body, out.toByteArray());
+      assertThrows(IllegalStateException.class, () -> stream.setReadListener(new Recording()));
+      assertThrows(
+          NullPointerException.class, () -> wrapper.getInputStream().setReadListener(null));
+    }
+  }
+
+  @Test
+  @DisplayName("空请求体立即 finished；回调抛出的异常交给 onError；读一部分后再读完才通知 onAllDataRead")
+  void readListenerEdgeCases() throws IOException {
+    try (BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(request(new byte[0]))) {
+      ServletInputStream stream = wrapper.getInputStream();
+      assertTrue(stream.isFinished());
+      Recording listener = new Recording();
+      stream.setReadListener(listener);
+      assertEquals(List.of("allDataRead"), listener.events);
+    }
+
+    try (BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(request(random(100)))) {
+      Recording failing =
+          new Recording() {
+            @Override
+            public void onDataAvailable() throws IOException {
+              super.onDataAvailable();
+              throw new IOException("boom");
+            }
+          };
+      wrapper.getInputStream().setReadListener(failing);
+      assertEquals(List.of("dataAvailable", "error"), failing.events);
+    }
+
+    try (BufferedServletRequestWrapper wrapper =
+        new BufferedServletRequestWrapper(request(random(100)))) {
+      ServletInputStream stream = wrapper.getInputStream();
+      Recording listener = new Recording();
+      stream.setReadListener(listener);
+      assertEquals(List.of("dataAvailable"), listener.events);
+      assertEquals(100, stream.readAllBytes().length);
+      assertEquals(List.of("dataAvailable", "allDataRead"), listener.events);
+    }
+  }
+
+  /** 只记录回调，不读数据。 */
+  private static class Recording implements ReadListener {
+
+    final List<String> events = new ArrayList<>();
+
+    @Override
+    public void onDataAvailable() throws IOException {
+      events.add("dataAvailable");
+    }
+
+    @Override
+    public void onAllDataRead() {
+      events.add("allDataRead");
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      events.add("error");
+    }
+  }
+}